@@ -20,6 +20,8 @@
 
 package com.coincollection;
 
+import static com.spencerpages.MainApplication.APP_NAME;
+
 import android.app.ProgressDialog;
 import android.content.Context;
 import android.content.Intent;
@@ -27,7 +29,10 @@ import android.content.SharedPreferences;
 import android.content.res.Resources;
 import android.database.SQLException;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.StrictMode;
+import android.util.Log;
 import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
@@ -36,11 +41,18 @@ import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.coincollection.helper.CoinImageCache;
 import com.coincollection.helper.NonLeakingAlertDialogBuilder;
 import com.spencerpages.BuildConfig;
 import com.spencerpages.MainApplication;
 import com.spencerpages.R;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Base activity containing shared functions and resources between the activities
  */
@@ -63,40 +75,55 @@ public class BaseActivity extends AppCompatActivity implements AsyncProgressInte
     protected ProgressDialog mProgressDialog;
     public Resources mRes;
     protected Intent mCallingIntent;
-    public DatabaseAdapter mDbAdapter = null;
+    public CoinStore mDbAdapter = null;
     protected boolean mOpenDbAdapterInOnCreate = true;
+    // Each activity takes one reference on the shared DB adapter and releases it in onDestroy
+    private final Object mDbAdapterLock = new Object();
+    private boolean mDbAdapterOpened = false;
+    private boolean mDbAdapterReleased = false;
     protected ActionBar mActionBar;
 
+    // Disk work runs on this thread rather than the UI thread, one item at a time in the order
+    // it was queued, so a later read always sees an earlier write
+    private final ExecutorService mBackgroundExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mBackgroundResultHandler = new Handler(Looper.getMainLooper());
+    private boolean mIsDestroyed = false;
+
+    /**
+     * Disk work to run off of the UI thread
+     * @param <T> type of the result
+     */
+    public interface BackgroundWork<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * Called on the UI thread with the result of background work
+     * @param <T> type of the result
+     */
+    public interface BackgroundResult<T> {
+        void onResult(T result);
+    }
+
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        if (BuildConfig.DEBUG) {
-            // Set StrictMode policies to help debug potential issues
-            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
-                    .detectAll()
-                    .permitDiskReads() // TODO - Fix these and remove
-                    .permitDiskWrites() // TODO - Fix these and remove
-                    .penaltyLog()
-                    //.penaltyDeath() // TODO - Uncomment once fixed
-                    .build());
-            StrictMode.setVmPolicy(new StrictMode.VmPolicy.Builder()
-                    .detectAll()
-                    .penaltyLog()
-                    //.penaltyDeath() // TODO - Uncomment once fixed
-                    .build());
-        }
-
         // Setup variables used across all activities
         mRes = getResources();
         mCallingIntent = getIntent();
         mUseAsyncTasks = mCallingIntent.getBooleanExtra(UNIT_TEST_USE_ASYNC_TASKS, true);
         mActionBar = getSupportActionBar();
 
+        if (BuildConfig.DEBUG) {
+            // Set StrictMode policies to help debug potential issues
+            setStrictModePolicies();
+        }
+
         // In most cases we want to open the database adapter right away, but in MainActivity
         // we do this on the async task since the upgrade may take a while
         if (mOpenDbAdapterInOnCreate) {
-            openDbAdapterForUIThread();
+            openDbAdapterForActivity();
         }
 
         // Look for async tasks kicked-off prior to an orientation change
@@ -108,13 +135,163 @@ public class BaseActivity extends AppCompatActivity implements AsyncProgressInte
         }
     }
 
+    /**
+     * Sets the StrictMode policies used in debug builds. All disk access happens off of the UI
+     * thread, so any on it is treated as a bug.
+     */
+    private void setStrictModePolicies() {
+        if (runsTasksInline()) {
+            // Unit tests that run tasks on the UI thread do their database work there
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectAll()
+                    .permitDiskReads()
+                    .permitDiskWrites()
+                    .penaltyLog()
+                    .build());
+        } else {
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .detectNetwork()
+                    .detectCustomSlowCalls()
+                    .penaltyLog()
+                    .penaltyDeath()
+                    .build());
+        }
+        // The VM checks also flag things done inside of the support libraries, so those are
+        // only logged
+        StrictMode.setVmPolicy(new StrictMode.VmPolicy.Builder()
+                .detectAll()
+                .penaltyLog()
+                .build());
+    }
+
+    /**
+     * Whether background work and async tasks run right away on the calling thread instead
+     * (used for unit tests)
+     * @return true if work runs on the calling thread
+     */
+    protected boolean runsTasksInline() {
+        return !mUseAsyncTasks && BuildConfig.DEBUG;
+    }
+
+    /**
+     * Runs disk work off of the UI thread, then passes the result back on the UI thread. The
+     * result is dropped if the activity has been destroyed by then.
+     * @param work work to run in the background
+     * @param onResult called on the UI thread with the result, or null if not needed
+     * @param errorMessage shown if the work fails, or null to ignore failures
+     * @param <T> type of the result
+     */
+    protected <T> void runInBackground(final BackgroundWork<T> work, final BackgroundResult<T> onResult,
+                                       final String errorMessage) {
+        if (runsTasksInline()) {
+            T result;
+            try {
+                result = work.run();
+            } catch (SQLException e) {
+                if (errorMessage != null) {
+                    showCancelableAlert(errorMessage);
+                }
+                return;
+            }
+            if (onResult != null) {
+                onResult.onResult(result);
+            }
+            return;
+        }
+        if (mIsDestroyed) {
+            return;
+        }
+        getBackgroundExecutor().execute(() -> {
+            T result = null;
+            boolean failed = false;
+            try {
+                result = work.run();
+            } catch (SQLException e) {
+                if(BuildConfig.DEBUG) {
+                    Log.d(APP_NAME, "Background work failed: " + e);
+                }
+                failed = true;
+            }
+            if ((failed && errorMessage == null) || (!failed && onResult == null)) {
+                return;
+            }
+            final T finalResult = result;
+            final boolean finalFailed = failed;
+            mBackgroundResultHandler.post(() -> {
+                if (mIsDestroyed) {
+                    return;
+                }
+                if (finalFailed) {
+                    showCancelableAlert(errorMessage);
+                } else {
+                    onResult.onResult(finalResult);
+                }
+            });
+        });
+    }
+
+    /**
+     * Gets the executor that background work runs on. Activities whose disk work must stay in
+     * order across a configuration change can override this to share one executor between
+     * the old and new activity.
+     * @return executor running one item at a time
+     */
+    protected ExecutorService getBackgroundExecutor() {
+        return mBackgroundExecutor;
+    }
+
+    /**
+     * Waits for the background work queued so far to finish. Results are posted to the UI
+     * thread, so they still need the UI thread to run after this returns.
+     * NOTE: This is public so we can use it with our current test bench
+     * @param timeoutMs how long to wait
+     * @return true if the work finished, false if it timed out
+     */
+    public boolean waitForBackgroundWork(long timeoutMs) {
+        try {
+            getBackgroundExecutor().submit(() -> {}).get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gets the app preferences. These are loaded during startup, so this waits for that to
+     * finish rather than reading them on the UI thread.
+     * @return app preferences
+     */
+    public SharedPreferences getMainPreferences() {
+        ((MainApplication) getApplication()).getStartup().awaitTask(MainApplication.STARTUP_PREFERENCES);
+        return getSharedPreferences(MainApplication.PREFS, MODE_PRIVATE);
+    }
+
+    /**
+     * Opens mDbAdapter off of the UI thread. mDbAdapter is set right away, since any
+     * background work using it runs after the open.
+     */
+    protected void openDbAdapterForActivity() {
+        if (runsTasksInline()) {
+            openDbAdapterForUIThread();
+            return;
+        }
+        mDbAdapter = ((MainApplication) getApplication()).getDbAdapter();
+        runInBackground(this::openDbAdapterForAsyncThread, errorStr -> {
+            if (errorStr.length() != 0) {
+                showCancelableAlert(errorStr);
+                finish();
+            }
+        }, null);
+    }
+
     /**
      * This method should be called when mDbAdapter can be opened on the UI thread
      */
     public void openDbAdapterForUIThread() {
         try {
-            mDbAdapter = ((MainApplication) getApplication()).getDbAdapter();
-            mDbAdapter.open();
+            openDbAdapter();
         } catch (SQLException e) {
             showCancelableAlert(mRes.getString(R.string.error_opening_database));
             finish();
@@ -127,14 +304,50 @@ public class BaseActivity extends AppCompatActivity implements AsyncProgressInte
      */
     public String openDbAdapterForAsyncThread() {
         try {
-            mDbAdapter = ((MainApplication) getApplication()).getDbAdapter();
-            mDbAdapter.open();
+            openDbAdapter();
         } catch (SQLException e) {
             return mRes.getString(R.string.error_opening_database);
         }
         return "";
     }
 
+    /**
+     * Takes this activity's reference on the shared DB adapter, if it doesn't have one already
+     * @throws SQLException if the database cannot be opened
+     */
+    private void openDbAdapter() throws SQLException {
+        CoinStore dbAdapter = ((MainApplication) getApplication()).getDbAdapter();
+        synchronized (mDbAdapterLock) {
+            if (mDbAdapterOpened) {
+                mDbAdapter = dbAdapter;
+                return;
+            }
+        }
+        dbAdapter.open();
+        synchronized (mDbAdapterLock) {
+            mDbAdapter = dbAdapter;
+            if (mDbAdapterOpened || mDbAdapterReleased) {
+                // Another thread opened it first, or the activity was destroyed while opening
+                dbAdapter.close();
+            } else {
+                mDbAdapterOpened = true;
+            }
+        }
+    }
+
+    /**
+     * Releases this activity's reference on the shared DB adapter
+     */
+    private void releaseDbAdapter() {
+        synchronized (mDbAdapterLock) {
+            mDbAdapterReleased = true;
+            if (mDbAdapterOpened) {
+                mDbAdapterOpened = false;
+                mDbAdapter.close();
+            }
+        }
+    }
+
     /**
      * This should be overridden by Activities that use the AsyncTask
      * - This is method contains the work that needs to be performed on the async task
@@ -211,6 +424,15 @@ public class BaseActivity extends AppCompatActivity implements AsyncProgressInte
             mTask.mListener = null;
             mTask = null;
         }
+        // The database is closed once every activity and task using it is done with it. Any
+        // writes still queued are allowed to finish first.
+        mIsDestroyed = true;
+        if (runsTasksInline()) {
+            releaseDbAdapter();
+        } else {
+            getBackgroundExecutor().execute(this::releaseDbAdapter);
+        }
+        mBackgroundExecutor.shutdown();
         super.onDestroy();
     }
 
@@ -262,7 +484,8 @@ public class BaseActivity extends AppCompatActivity implements AsyncProgressInte
 
             ImageView image = view.findViewById(R.id.coinImageView);
             if (image != null) {
-                image.setBackgroundResource(item.getCoinImageIdentifier());
+                CoinImageCache.getInstance().loadBackground(image, item.getCoinImageIdentifier(),
+                        res.getDimensionPixelSize(R.dimen.coin_image_size));
             }
 
             TextView nameTextView = view.findViewById(R.id.collectionNameTextView);
@@ -294,7 +517,7 @@ public class BaseActivity extends AppCompatActivity implements AsyncProgressInte
      * @return true if the help dialog was displayed, otherwise false
      */
     public boolean createAndShowHelpDialog (final String helpStrKey, int helpStrId){
-        final SharedPreferences mainPreferences = this.getSharedPreferences(MainApplication.PREFS, MODE_PRIVATE);
+        final SharedPreferences mainPreferences = getMainPreferences();
         final Resources res = this.getResources();
         if(mainPreferences.getBoolean(helpStrKey, true)){
             showAlert(newBuilder()
@@ -343,7 +566,7 @@ public class BaseActivity extends AppCompatActivity implements AsyncProgressInte
     public void kickOffAsyncProgressTask(int taskId){
         mTask = new AsyncProgressTask(this);
         mTask.mAsyncTaskId = taskId;
-        if (this.mUseAsyncTasks || !BuildConfig.DEBUG) {
+        if (!runsTasksInline()) {
             mTask.execute();
         } else {
             // Call the tasks on the current thread (used for unit tests)
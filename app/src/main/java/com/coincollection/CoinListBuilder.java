@@ -0,0 +1,102 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection;
+
+import java.util.ArrayList;
+
+/**
+ * Receives the coins produced by CollectionInfo.populateCollectionLists
+ *
+ * Normally each coin is added to a coin list. A builder can also be made that only counts the
+ * coins (keeping the identifier and mint of the first few), which lets the collection creation
+ * page preview a collection's size without allocating any CoinSlots.
+ */
+public class CoinListBuilder {
+
+    private final ArrayList<CoinSlot> mCoinList;
+    private final String[] mPreviewIdentifiers;
+    private final String[] mPreviewMints;
+    private int mCount = 0;
+
+    /**
+     * Creates a builder that adds coins to a list
+     * @param coinList list to add the coins to
+     */
+    public CoinListBuilder(ArrayList<CoinSlot> coinList) {
+        mCoinList = coinList;
+        mPreviewIdentifiers = new String[0];
+        mPreviewMints = new String[0];
+    }
+
+    /**
+     * Creates a builder that only counts the coins
+     * @param previewSize number of coins at the start of the list to keep details for
+     */
+    public CoinListBuilder(int previewSize) {
+        mCoinList = null;
+        mPreviewIdentifiers = new String[previewSize];
+        mPreviewMints = new String[previewSize];
+    }
+
+    /**
+     * Adds a coin to the collection
+     * @param identifier coin identifier (Ex: '2009')
+     * @param mint coin mint (Ex: 'D')
+     * @param sortOrder position of the coin in the collection
+     */
+    public void add(String identifier, String mint, int sortOrder) {
+        if (mCoinList != null) {
+            mCoinList.add(new CoinSlot(identifier, mint, sortOrder));
+        } else if (mCount < mPreviewIdentifiers.length) {
+            mPreviewIdentifiers[mCount] = identifier;
+            mPreviewMints[mCount] = mint;
+        }
+        mCount++;
+    }
+
+    /**
+     * Clears the count so the builder can be reused
+     */
+    public void reset() {
+        mCount = 0;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Gets the number of coins kept for the preview
+     * @return number of preview coins
+     */
+    public int getPreviewCount() {
+        return Math.min(mCount, mPreviewIdentifiers.length);
+    }
+
+    public String getPreviewIdentifier(int index) {
+        return mPreviewIdentifiers[index];
+    }
+
+    public String getPreviewMint(int index) {
+        return mPreviewMints[index];
+    }
+}
@@ -44,8 +44,11 @@ import android.widget.CompoundButton.OnCheckedChangeListener;
 import android.widget.EditText;
 import android.widget.LinearLayout;
 import android.widget.Spinner;
+import android.widget.TextView;
 import android.widget.Toast;
 
+import com.coincollection.core.CoinCreationParams;
+import com.coincollection.core.CoinListMerger;
 import com.coincollection.helper.ParcelableHashMap;
 import com.spencerpages.BuildConfig;
 import com.spencerpages.MainApplication;
@@ -62,7 +65,7 @@ public class CoinPageCreator extends BaseActivity {
     public final static String EXISTING_COLLECTION_EXTRA = "existing-collection";
 
     /** mCoinTypeIndex The index of the currently selected coin type in the
-     *                 MainApplication.COLLECTION_TYPES list. */
+     *                 MainApplication collection type list. */
     public int mCoinTypeIndex;
 
     /** mCollectionObj The CollectionInfo object associated with this index. */
@@ -81,6 +84,10 @@ public class CoinPageCreator extends BaseActivity {
      *            and mint marks */
     public ArrayList<CoinSlot> mCoinList = new ArrayList<>();
 
+    /** mPreviewBuilder Counts the coins for the collection size preview */
+    private final static int NUM_PREVIEW_COINS = 3;
+    private final CoinListBuilder mPreviewBuilder = new CoinListBuilder(NUM_PREVIEW_COINS);
+
     /* Internal keys to use for passing data via saved instance state */
     private final static String _COIN_TYPE_INDEX = "CoinTypeIndex";
     private final static String _PARAMETERS = "Parameters";
@@ -157,27 +164,27 @@ public class CoinPageCreator extends BaseActivity {
      *    Collection app)
      */
 
-    public final static String OPT_SHOW_MINT_MARKS = "ShowMintMarks";
+    public final static String OPT_SHOW_MINT_MARKS = CoinCreationParams.OPT_SHOW_MINT_MARKS;
     public final static String OPT_EDIT_DATE_RANGE = "EditDateRange";
-    public final static String OPT_START_YEAR = "StartYear";
-    public final static String OPT_STOP_YEAR = "StopYear";
-
-    public final static String OPT_SHOW_MINT_MARK_1 = "ShowMintMark1";
-    public final static String OPT_SHOW_MINT_MARK_2 = "ShowMintMark2";
-    public final static String OPT_SHOW_MINT_MARK_3 = "ShowMintMark3";
-    public final static String OPT_SHOW_MINT_MARK_4 = "ShowMintMark4";
-    public final static String OPT_SHOW_MINT_MARK_5 = "ShowMintMark5";
+    public final static String OPT_START_YEAR = CoinCreationParams.OPT_START_YEAR;
+    public final static String OPT_STOP_YEAR = CoinCreationParams.OPT_STOP_YEAR;
+
+    public final static String OPT_SHOW_MINT_MARK_1 = CoinCreationParams.OPT_SHOW_MINT_MARK_1;
+    public final static String OPT_SHOW_MINT_MARK_2 = CoinCreationParams.OPT_SHOW_MINT_MARK_2;
+    public final static String OPT_SHOW_MINT_MARK_3 = CoinCreationParams.OPT_SHOW_MINT_MARK_3;
+    public final static String OPT_SHOW_MINT_MARK_4 = CoinCreationParams.OPT_SHOW_MINT_MARK_4;
+    public final static String OPT_SHOW_MINT_MARK_5 = CoinCreationParams.OPT_SHOW_MINT_MARK_5;
     public final static String OPT_SHOW_MINT_MARK_1_STRING_ID = "ShowMintMark1StringId";
     public final static String OPT_SHOW_MINT_MARK_2_STRING_ID = "ShowMintMark2StringId";
     public final static String OPT_SHOW_MINT_MARK_3_STRING_ID = "ShowMintMark3StringId";
     public final static String OPT_SHOW_MINT_MARK_4_STRING_ID = "ShowMintMark4StringId";
     public final static String OPT_SHOW_MINT_MARK_5_STRING_ID = "ShowMintMark5StringId";
 
-    public final static String OPT_CHECKBOX_1 = "ShowCheckbox1";
-    public final static String OPT_CHECKBOX_2 = "ShowCheckbox2";
-    private final static String OPT_CHECKBOX_3 = "ShowCheckbox3";
-    private final static String OPT_CHECKBOX_4 = "ShowCheckbox4";
-    private final static String OPT_CHECKBOX_5 = "ShowCheckbox5";
+    public final static String OPT_CHECKBOX_1 = CoinCreationParams.OPT_CHECKBOX_1;
+    public final static String OPT_CHECKBOX_2 = CoinCreationParams.OPT_CHECKBOX_2;
+    final static String OPT_CHECKBOX_3 = CoinCreationParams.OPT_CHECKBOX_3;
+    final static String OPT_CHECKBOX_4 = CoinCreationParams.OPT_CHECKBOX_4;
+    final static String OPT_CHECKBOX_5 = CoinCreationParams.OPT_CHECKBOX_5;
     public final static String OPT_CHECKBOX_1_STRING_ID = "ShowCheckbox1StringId";
     public final static String OPT_CHECKBOX_2_STRING_ID = "ShowCheckbox2StringId";
     private final static String OPT_CHECKBOX_3_STRING_ID = "ShowCheckbox3StringId";
@@ -256,8 +263,8 @@ public class CoinPageCreator extends BaseActivity {
 
         // Prepare the Spinner that gets what type of collection they want to make
         ArrayAdapter<CharSequence> spinnerAdapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item);
-        for(int i = 0; i < MainApplication.COLLECTION_TYPES.length; i++) {
-            spinnerAdapter.add(MainApplication.COLLECTION_TYPES[i].getCoinType());
+        for(int i = 0; i < MainApplication.getNumberOfCollectionTypes(); i++) {
+            spinnerAdapter.add(MainApplication.getCollectionTypeName(i));
         }
 
         spinnerAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
@@ -376,6 +383,7 @@ public class CoinPageCreator extends BaseActivity {
             // The tag store the OPT_NAME associated with the button
             String optName = (String) compoundButton.getTag();
             mParameters.put(optName, isChecked);
+            updateCoinCountPreview();
         };
 
         // Create the ShowMintMark Checkboxes (even if they aren't needed right now)
@@ -427,6 +435,7 @@ public class CoinPageCreator extends BaseActivity {
                     // mStartYear to the default
                     mParameters.put(OPT_START_YEAR, mDefaults.get(OPT_START_YEAR));
                 }
+                updateCoinCountPreview();
             }
         });
 
@@ -448,6 +457,7 @@ public class CoinPageCreator extends BaseActivity {
                     // mStopYear to the default
                     mParameters.put(OPT_STOP_YEAR, mDefaults.get(OPT_STOP_YEAR));
                 }
+                updateCoinCountPreview();
             }
         });
 
@@ -578,23 +588,23 @@ public class CoinPageCreator extends BaseActivity {
             }
         }
 
-        // Make sure the collection name is good to use
-        int checkNameResult = mDbAdapter.checkCollectionName(collectionName);
-
-        // Allow updates to the same collection name
-        boolean allowExistingNameForUpdate = (mExistingCollection != null) &&
-                (checkNameResult == R.string.collection_name_exists) &&
-                (collectionName.equals(mExistingCollection.getName()));
+        // Make sure the collection name is good to use (checked in the background)
+        runInBackground(() -> mDbAdapter.checkCollectionName(collectionName), checkNameResult -> {
+            // Allow updates to the same collection name
+            boolean allowExistingNameForUpdate = (mExistingCollection != null) &&
+                    (checkNameResult == R.string.collection_name_exists) &&
+                    (collectionName.equals(mExistingCollection.getName()));
 
-        if (checkNameResult != -1 && !allowExistingNameForUpdate) {
-            Toast.makeText(CoinPageCreator.this,
-                    mRes.getString(checkNameResult),
-                    Toast.LENGTH_SHORT).show();
-            return;
-        }
+            if (checkNameResult != -1 && !allowExistingNameForUpdate) {
+                Toast.makeText(CoinPageCreator.this,
+                        mRes.getString(checkNameResult),
+                        Toast.LENGTH_SHORT).show();
+                return;
+            }
 
-        // Passed all checks - start the creation/update and wait for callbacks to be called
-        kickOffAsyncProgressTask(TASK_CREATE_UPDATE_COLLECTION);
+            // Passed all checks - start the creation/update and wait for callbacks to be called
+            kickOffAsyncProgressTask(TASK_CREATE_UPDATE_COLLECTION);
+        }, null);
     }
 
     @Override
@@ -655,7 +665,7 @@ public class CoinPageCreator extends BaseActivity {
 
         mCoinTypeIndex = index;
 
-        mCollectionObj = MainApplication.COLLECTION_TYPES[mCoinTypeIndex];
+        mCollectionObj = MainApplication.getCollectionType(mCoinTypeIndex);
 
         // Get the defaults for the parameters that this new collection type cares about
         mDefaults = new HashMap<>();
@@ -778,6 +788,63 @@ public class CoinPageCreator extends BaseActivity {
                 uiElement.setVisibility(View.GONE);
             }
         }
+
+        updateCoinCountPreview();
+    }
+
+    /**
+     * Updates the collection size preview from the current options. This only counts the coins
+     * (no CoinSlots are created), so it's cheap enough to run on every change.
+     */
+    void updateCoinCountPreview() {
+        TextView previewTextView = findViewById(R.id.coin_count_preview);
+        if (previewTextView == null || mCollectionObj == null) {
+            return;
+        }
+
+        // Don't show a count for years that creating the collection would reject (Ex: while
+        // the user is part way through typing a year)
+        if (!areStartAndStopYearsInRange()) {
+            previewTextView.setVisibility(View.GONE);
+            return;
+        }
+
+        mPreviewBuilder.reset();
+        mCollectionObj.populateCollectionLists(new CoinCreationParams(mParameters), mPreviewBuilder);
+
+        String previewText = mRes.getString(R.string.coin_count_preview, mPreviewBuilder.getCount());
+        int previewCount = mPreviewBuilder.getPreviewCount();
+        if (previewCount != 0) {
+            StringBuilder firstCoins = new StringBuilder();
+            for (int i = 0; i < previewCount; i++) {
+                if (i != 0) {
+                    firstCoins.append(", ");
+                }
+                firstCoins.append(mRes.getString(R.string.coin_text_template,
+                        mPreviewBuilder.getPreviewIdentifier(i), mPreviewBuilder.getPreviewMint(i)).trim());
+            }
+            if (mPreviewBuilder.getCount() > previewCount) {
+                firstCoins.append(", …");
+            }
+            previewText = mRes.getString(R.string.coin_count_preview_first, previewText, firstCoins);
+        }
+        previewTextView.setText(previewText);
+        previewTextView.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * Checks the start and stop years against the collection's limits without changing them
+     * @return true if the years are usable (or the collection doesn't have years)
+     */
+    private boolean areStartAndStopYearsInRange() {
+        Integer startYear = (Integer) mParameters.get(OPT_START_YEAR);
+        Integer stopYear = (Integer) mParameters.get(OPT_STOP_YEAR);
+        Integer minStartYear = (Integer) mDefaults.get(OPT_START_YEAR);
+        Integer maxStartYear = (Integer) mDefaults.get(OPT_STOP_YEAR);
+        if (startYear == null || stopYear == null || minStartYear == null || maxStartYear == null) {
+            return true;
+        }
+        return (startYear >= minStartYear) && (stopYear <= maxStartYear) && (startYear <= stopYear);
     }
 
     /**
@@ -874,76 +941,10 @@ public class CoinPageCreator extends BaseActivity {
             boolean hasMintMarks = (getMintMarkFlagsFromParameters(mParameters) & CollectionListInfo.SHOW_MINT_MARKS) != 0;
             ArrayList<CoinSlot> existingCoinList = mDbAdapter.getCoinList(
                     mExistingCollection.getName(), true);
-            ArrayList<CoinSlot> mergedCoinList = new ArrayList<>();
-
-            // Add any custom coins at the beginning of the list
-            while ((existingCoinList.size() != 0) && existingCoinList.get(0).isCustomCoin()) {
-                mergedCoinList.add(existingCoinList.remove(0));
-            }
-
-            for (int i = 0; i < mCoinList.size(); i++) {
-                CoinSlot newCoin = mCoinList.get(i);
-                boolean foundExistingCoinMatch = false;
-                for (int j = 0; j < existingCoinList.size(); j++) {
-                    CoinSlot existingCoin = existingCoinList.get(j);
-
-                    // Skip custom coins added by the user, as those may spuriously match
-                    if (existingCoin.isCustomCoin()) {
-                        continue;
-                    }
-
-                    if (!mExistingCollection.hasMintMarks() && hasMintMarks) {
-                        // If going from no mint marks to having mint marks, copy the coin progress
-                        // for the existing identifier into each of the coin mints selected.
-                        if (newCoin.getIdentifier().equals(existingCoin.getIdentifier())) {
-                            foundExistingCoinMatch = true;
-                            newCoin = existingCoin.copy(newCoin.getIdentifier(), newCoin.getMint(), false);
-                            break;
-                        }
-                    } else if (mExistingCollection.hasMintMarks() && !hasMintMarks) {
-                        // If going from mint marks to no mint marks, copy at least 1 of the existing
-                        // coin's advanced info and merge the inCollection attribute
-                        if (newCoin.getIdentifier().equals(existingCoin.getIdentifier())) {
-                            existingCoin.setInCollection(existingCoin.isInCollection() || newCoin.isInCollection());
-                            existingCoin.setMint(newCoin.getMint());
-                            foundExistingCoinMatch = true;
-                            newCoin = existingCoin;
-                            // No break here to allow merging across all mints
-                        }
-                    } else {
-                        // In all other cases, copy any coins that match identifier and mint
-                        if (newCoin.equals(existingCoin)) {
-                            foundExistingCoinMatch = true;
-                            newCoin = existingCoin;
-                            existingCoinList.remove(j);
-                            break;
-                        }
-                    }
-                }
-
-                if (foundExistingCoinMatch) {
-                    // When a match is found, insert any custom coins with a lower display order ahead
-                    // of the match and remove from the list
-                    for (int j = 0; j < existingCoinList.size(); j++) {
-                        CoinSlot existingCoin = existingCoinList.get(j);
-                        if (existingCoin.isCustomCoin() && existingCoin.getSortOrder() < newCoin.getSortOrder()) {
-                            mergedCoinList.add(existingCoinList.remove(j--));
-                        }
-                    }
-                }
-                mergedCoinList.add(newCoin);
-            }
-
-            // Add any remaining custom coins to the end of the list
-            for (int j = 0; j < existingCoinList.size(); j++) {
-                CoinSlot existingCoin = existingCoinList.get(j);
-                if (existingCoin.isCustomCoin()) {
-                    mergedCoinList.add(existingCoin);
-                }
-            }
 
             // Replace the coin list with the merged coin list
-            mCoinList = mergedCoinList;
+            mCoinList = CoinListMerger.merge(
+                    mCoinList, existingCoinList, mExistingCollection.hasMintMarks(), hasMintMarks);
         }
     }
 
@@ -0,0 +1,195 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.coincollection;
+
+import android.content.Intent;
+import android.database.SQLException;
+import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextUtils;
+import android.text.TextWatcher;
+import android.view.MenuItem;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
+import android.widget.EditText;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+
+import com.spencerpages.MainApplication;
+import com.spencerpages.R;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Activity for searching for coins across all collections
+ *
+ * Searches run on a background thread as the user types. Only the latest search matters, so
+ * searches that were queued up while another was running are skipped, and results that come
+ * back after the user has typed more are dropped.
+ */
+public class CoinSearchActivity extends BaseActivity {
+
+    private SearchResultAdapter mResultAdapter;
+    private TextView mEmptyTextView;
+
+    private final AtomicInteger mSearchGeneration = new AtomicInteger();
+
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.coin_search_page);
+
+        if(mActionBar != null){
+            mActionBar.setDisplayHomeAsUpEnabled(true);
+        }
+
+        mEmptyTextView = findViewById(R.id.search_empty_text);
+        mResultAdapter = new SearchResultAdapter();
+        ListView resultsListView = findViewById(R.id.search_results);
+        resultsListView.setAdapter(mResultAdapter);
+        resultsListView.setOnItemClickListener((parent, view, position, id) ->
+                launchCollectionPage(mResultAdapter.getItem(position)));
+
+        EditText searchEditText = findViewById(R.id.search_edit_text);
+        searchEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                startSearch(s.toString());
+            }
+        });
+
+        // Re-run the search if the activity was re-created
+        if (searchEditText.getText().length() != 0) {
+            startSearch(searchEditText.getText().toString());
+        }
+    }
+
+    /**
+     * Kicks off a search on the background thread
+     * @param searchText text typed in by the user
+     */
+    private void startSearch(final String searchText) {
+        final int generation = mSearchGeneration.incrementAndGet();
+        runInBackground(() -> {
+            // Skip if the user has typed more since this search was queued
+            if (generation != mSearchGeneration.get()) {
+                return null;
+            }
+            try {
+                return mDbAdapter.searchCoins(searchText);
+            } catch (SQLException e) {
+                return new ArrayList<CoinSearchResult>();
+            }
+        }, results -> {
+            // Drop the results if the user has typed more since
+            if (generation == mSearchGeneration.get()) {
+                showResults(searchText, results);
+            }
+        }, null);
+    }
+
+    /**
+     * Displays the results of a search
+     * @param searchText text that was searched for
+     * @param results list of results
+     */
+    private void showResults(String searchText, ArrayList<CoinSearchResult> results) {
+        mResultAdapter.setNotifyOnChange(false);
+        mResultAdapter.clear();
+        for (CoinSearchResult result : results) {
+            mResultAdapter.add(result);
+        }
+        mResultAdapter.notifyDataSetChanged();
+        boolean showEmpty = results.isEmpty() && CoinSearchHelper.buildMatchQuery(searchText).length() != 0;
+        mEmptyTextView.setVisibility(showEmpty ? View.VISIBLE : View.GONE);
+    }
+
+    /**
+     * Opens the collection page containing a search result, scrolled to the coin
+     * @param result the search result to open
+     */
+    private void launchCollectionPage(CoinSearchResult result) {
+        int collectionTypeIndex = MainApplication.getIndexFromCollectionNameStr(result.getCoinType());
+        if (collectionTypeIndex == -1) {
+            return;
+        }
+        Intent intent = new Intent(mContext, CollectionPage.class);
+        intent.putExtra(CollectionPage.COLLECTION_NAME, result.getCollectionName());
+        intent.putExtra(CollectionPage.COLLECTION_TYPE_INDEX, collectionTypeIndex);
+        intent.putExtra(CollectionPage.SCROLL_TO_COIN_ID, result.getCoinDatabaseId());
+        startActivity(intent);
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            onBackPressed();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    @Override
+    public void onDestroy() {
+        // Drop any searches still in flight
+        mSearchGeneration.incrementAndGet();
+        super.onDestroy();
+    }
+
+    /**
+     * Adapter for the list of search results
+     */
+    private class SearchResultAdapter extends ArrayAdapter<CoinSearchResult> {
+
+        SearchResultAdapter() {
+            super(CoinSearchActivity.this, android.R.layout.simple_list_item_2, android.R.id.text1);
+        }
+
+        @Override
+        @NonNull
+        public View getView(int position, View convertView, @NonNull ViewGroup parent) {
+            View view = super.getView(position, convertView, parent);
+            CoinSearchResult result = getItem(position);
+            TextView coinText = view.findViewById(android.R.id.text1);
+            TextView detailsText = view.findViewById(android.R.id.text2);
+            // Only show the start of long notes
+            detailsText.setMaxLines(2);
+            detailsText.setEllipsize(TextUtils.TruncateAt.END);
+            coinText.setText(mRes.getString(R.string.coin_text_template, result.getIdentifier(), result.getMint()));
+            if (result.getNotes().length() != 0) {
+                detailsText.setText(mRes.getString(R.string.search_result_details, result.getCollectionName(), result.getNotes()));
+            } else {
+                detailsText.setText(result.getCollectionName());
+            }
+            return view;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.coincollection;
+
+import static com.coincollection.CoinSlot.COL_ADV_NOTES;
+import static com.coincollection.CoinSlot.COL_COIN_ID;
+import static com.coincollection.CoinSlot.COL_COIN_IDENTIFIER;
+import static com.coincollection.CoinSlot.COL_COIN_MINT;
+import static com.coincollection.CollectionListInfo.COL_COIN_TYPE;
+import static com.coincollection.CollectionListInfo.COL_DISPLAY_ORDER;
+import static com.coincollection.CollectionListInfo.COL_NAME;
+import static com.coincollection.CollectionListInfo.TBL_COLLECTION_INFO;
+import static com.spencerpages.MainApplication.APP_NAME;
+
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.spencerpages.BuildConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maintains the full-text search index over all coins in all collections
+ *
+ * The index is an FTS4 virtual table holding the searchable text of each coin (identifier, mint,
+ * notes and collection name), plus a regular table mapping each FTS row back to the collection
+ * and coin it came from. Every DatabaseAdapter write path keeps these up to date, and the whole
+ * index is rebuilt after database upgrades and imports.
+ */
+public class CoinSearchHelper {
+
+    // Search index tables
+    final static String TBL_COIN_SEARCH = "coin_search";
+    final static String TBL_COIN_SEARCH_DOCS = "coin_search_docs";
+    private final static String TBL_COIN_SEARCH_DOCS_INDEX = "coin_search_docs_coin";
+
+    // Columns of the FTS table
+    private final static String COL_SEARCH_IDENTIFIER = "identifier";
+    private final static String COL_SEARCH_MINT = "mint";
+    private final static String COL_SEARCH_NOTES = "notes";
+    private final static String COL_SEARCH_COLLECTION = "collection";
+
+    // Columns of the docs table (the docid is shared with the FTS table)
+    private final static String COL_DOC_ID = "docid";
+    private final static String COL_DOC_COLLECTION = "collection";
+    private final static String COL_DOC_COIN_ID = "coinId";
+
+    /** Names used by the search index (including the FTS shadow tables) that collections can't use */
+    final static List<String> RESERVED_TABLE_NAMES = Arrays.asList(
+            TBL_COIN_SEARCH,
+            TBL_COIN_SEARCH_DOCS,
+            TBL_COIN_SEARCH_DOCS_INDEX,
+            TBL_COIN_SEARCH + "_content",
+            TBL_COIN_SEARCH + "_segments",
+            TBL_COIN_SEARCH + "_segdir",
+            TBL_COIN_SEARCH + "_docsize",
+            TBL_COIN_SEARCH + "_stat");
+
+    /** Maximum number of results returned by a search */
+    public final static int MAX_SEARCH_RESULTS = 100;
+
+    /**
+     * Creates the search index tables
+     * @param db database to add to
+     * @throws SQLException if an error occurs
+     */
+    static void createSearchTables(SQLiteDatabase db) throws SQLException {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + TBL_COIN_SEARCH + " USING fts4("
+                + COL_SEARCH_IDENTIFIER + ", "
+                + COL_SEARCH_MINT + ", "
+                + COL_SEARCH_NOTES + ", "
+                + COL_SEARCH_COLLECTION + ")");
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TBL_COIN_SEARCH_DOCS + " ("
+                + " " + COL_DOC_ID + " integer primary key,"
+                + " " + COL_DOC_COLLECTION + " text not null,"
+                + " " + COL_DOC_COIN_ID + " integer not null)");
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS " + TBL_COIN_SEARCH_DOCS_INDEX + " ON "
+                + TBL_COIN_SEARCH_DOCS + " (" + COL_DOC_COLLECTION + ", " + COL_DOC_COIN_ID + ")");
+    }
+
+    /**
+     * Clears and re-populates the whole search index from the collection tables
+     * @param db database
+     * @throws SQLException if an error occurs
+     */
+    static void rebuildSearchIndex(SQLiteDatabase db) throws SQLException {
+        long startTime = SystemClock.uptimeMillis();
+        db.beginTransaction();
+        try {
+            db.execSQL("DELETE FROM " + TBL_COIN_SEARCH);
+            db.execSQL("DELETE FROM " + TBL_COIN_SEARCH_DOCS);
+            Cursor cursor = db.query(TBL_COLLECTION_INFO, new String[] {COL_NAME}, null, null, null, null, null);
+            if (cursor.moveToFirst()) {
+                do {
+                    indexCollection(db, cursor.getString(0));
+                } while (cursor.moveToNext());
+            }
+            cursor.close();
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        if (BuildConfig.DEBUG) {
+            Log.d(APP_NAME, "Rebuilt search index in " + (SystemClock.uptimeMillis() - startTime) + "ms");
+        }
+    }
+
+    /**
+     * Adds all coins of a collection to the search index
+     * @param db database
+     * @param tableName collection name
+     * @throws SQLException if an error occurs
+     */
+    static void indexCollection(SQLiteDatabase db, String tableName) throws SQLException {
+        db.execSQL("INSERT INTO " + TBL_COIN_SEARCH_DOCS + " (" + COL_DOC_COLLECTION + ", " + COL_DOC_COIN_ID + ")"
+                + " SELECT ?, " + COL_COIN_ID + " FROM [" + tableName + "]", new Object[] {tableName});
+        db.execSQL("INSERT INTO " + TBL_COIN_SEARCH + " (docid, " + COL_SEARCH_IDENTIFIER + ", "
+                + COL_SEARCH_MINT + ", " + COL_SEARCH_NOTES + ", " + COL_SEARCH_COLLECTION + ")"
+                + " SELECT d." + COL_DOC_ID + ", t." + COL_COIN_IDENTIFIER + ", t." + COL_COIN_MINT
+                + ", t." + COL_ADV_NOTES + ", d." + COL_DOC_COLLECTION
+                + " FROM [" + tableName + "] t JOIN " + TBL_COIN_SEARCH_DOCS + " d"
+                + " ON d." + COL_DOC_COLLECTION + "=? AND d." + COL_DOC_COIN_ID + "=t." + COL_COIN_ID,
+                new Object[] {tableName});
+    }
+
+    /**
+     * Removes all coins of a collection from the search index
+     * @param db database
+     * @param tableName collection name
+     * @throws SQLException if an error occurs
+     */
+    static void removeCollection(SQLiteDatabase db, String tableName) throws SQLException {
+        db.execSQL("DELETE FROM " + TBL_COIN_SEARCH + " WHERE docid IN (SELECT " + COL_DOC_ID
+                + " FROM " + TBL_COIN_SEARCH_DOCS + " WHERE " + COL_DOC_COLLECTION + "=?)", new Object[] {tableName});
+        db.execSQL("DELETE FROM " + TBL_COIN_SEARCH_DOCS + " WHERE " + COL_DOC_COLLECTION + "=?", new Object[] {tableName});
+    }
+
+    /**
+     * Re-indexes all coins of a collection, after its contents were replaced
+     * @param db database
+     * @param tableName collection name
+     * @throws SQLException if an error occurs
+     */
+    static void reindexCollection(SQLiteDatabase db, String tableName) throws SQLException {
+        removeCollection(db, tableName);
+        indexCollection(db, tableName);
+    }
+
+    /**
+     * Updates the collection name of all coins in the search index
+     * @param db database
+     * @param oldName the original collection name
+     * @param newName the new collection name
+     * @throws SQLException if an error occurs
+     */
+    static void renameCollection(SQLiteDatabase db, String oldName, String newName) throws SQLException {
+        db.execSQL("UPDATE " + TBL_COIN_SEARCH + " SET " + COL_SEARCH_COLLECTION + "=? WHERE docid IN (SELECT "
+                + COL_DOC_ID + " FROM " + TBL_COIN_SEARCH_DOCS + " WHERE " + COL_DOC_COLLECTION + "=?)",
+                new Object[] {newName, oldName});
+        db.execSQL("UPDATE " + TBL_COIN_SEARCH_DOCS + " SET " + COL_DOC_COLLECTION + "=? WHERE "
+                + COL_DOC_COLLECTION + "=?", new Object[] {newName, oldName});
+    }
+
+    /**
+     * Adds a single coin to the search index
+     * @param db database
+     * @param tableName collection name
+     * @param coinSlot coin to add (must already have its database id)
+     * @throws SQLException if an error occurs
+     */
+    static void addCoin(SQLiteDatabase db, String tableName, CoinSlot coinSlot) throws SQLException {
+        db.execSQL("INSERT INTO " + TBL_COIN_SEARCH_DOCS + " (" + COL_DOC_COLLECTION + ", " + COL_DOC_COIN_ID
+                + ") VALUES (?, ?)", new Object[] {tableName, coinSlot.getDatabaseId()});
+        db.execSQL("INSERT INTO " + TBL_COIN_SEARCH + " (docid, " + COL_SEARCH_IDENTIFIER + ", "
+                + COL_SEARCH_MINT + ", " + COL_SEARCH_NOTES + ", " + COL_SEARCH_COLLECTION + ")"
+                + " VALUES (last_insert_rowid(), ?, ?, ?, ?)",
+                new Object[] {coinSlot.getIdentifier(), coinSlot.getMint(), coinSlot.getAdvancedNotes(), tableName});
+    }
+
+    /**
+     * Updates the searchable text of a single coin in the search index
+     * @param db database
+     * @param tableName collection name
+     * @param coinSlot coin to update
+     * @throws SQLException if an error occurs
+     */
+    static void updateCoin(SQLiteDatabase db, String tableName, CoinSlot coinSlot) throws SQLException {
+        db.execSQL("UPDATE " + TBL_COIN_SEARCH + " SET " + COL_SEARCH_IDENTIFIER + "=?, "
+                + COL_SEARCH_MINT + "=?, " + COL_SEARCH_NOTES + "=? WHERE docid=(" + getDocIdQuery() + ")",
+                new Object[] {coinSlot.getIdentifier(), coinSlot.getMint(), coinSlot.getAdvancedNotes(),
+                        tableName, coinSlot.getDatabaseId()});
+    }
+
+    /**
+     * Removes a single coin from the search index
+     * @param db database
+     * @param tableName collection name
+     * @param coinSlot coin to remove
+     * @throws SQLException if an error occurs
+     */
+    static void removeCoin(SQLiteDatabase db, String tableName, CoinSlot coinSlot) throws SQLException {
+        Object[] args = new Object[] {tableName, coinSlot.getDatabaseId()};
+        db.execSQL("DELETE FROM " + TBL_COIN_SEARCH + " WHERE docid=(" + getDocIdQuery() + ")", args);
+        db.execSQL("DELETE FROM " + TBL_COIN_SEARCH_DOCS + " WHERE " + COL_DOC_COLLECTION + "=? AND "
+                + COL_DOC_COIN_ID + "=?", args);
+    }
+
+    /**
+     * @return sub-query that looks up the docid of a coin, given the collection name and coin id
+     */
+    private static String getDocIdQuery() {
+        return "SELECT " + COL_DOC_ID + " FROM " + TBL_COIN_SEARCH_DOCS + " WHERE "
+                + COL_DOC_COLLECTION + "=? AND " + COL_DOC_COIN_ID + "=?";
+    }
+
+    /**
+     * Searches all collections for coins matching the text typed in by the user. Each word
+     * is matched as a prefix against the coin identifier, mint, notes and collection name.
+     * @param db database
+     * @param searchText text typed in by the user
+     * @param limit maximum number of results to return
+     * @return list of results, in collection display order
+     * @throws SQLException if an error occurs
+     */
+    static ArrayList<CoinSearchResult> search(SQLiteDatabase db, String searchText, int limit) throws SQLException {
+        ArrayList<CoinSearchResult> results = new ArrayList<>();
+        String matchQuery = buildMatchQuery(searchText);
+        if (matchQuery.length() == 0) {
+            return results;
+        }
+
+        long startTime = SystemClock.uptimeMillis();
+        String sqlCmd = "SELECT d." + COL_DOC_COLLECTION + ", c." + COL_COIN_TYPE + ", d." + COL_DOC_COIN_ID
+                + ", s." + COL_SEARCH_IDENTIFIER + ", s." + COL_SEARCH_MINT + ", s." + COL_SEARCH_NOTES
+                + " FROM " + TBL_COIN_SEARCH + " s"
+                + " JOIN " + TBL_COIN_SEARCH_DOCS + " d ON d." + COL_DOC_ID + "=s.docid"
+                + " JOIN " + TBL_COLLECTION_INFO + " c ON c." + COL_NAME + "=d." + COL_DOC_COLLECTION
+                + " WHERE " + TBL_COIN_SEARCH + " MATCH ?"
+                + " ORDER BY c." + COL_DISPLAY_ORDER + ", s.docid"
+                + " LIMIT " + limit;
+        Cursor cursor = db.rawQuery(sqlCmd, new String[] {matchQuery});
+        if (cursor.moveToFirst()) {
+            do {
+                results.add(new CoinSearchResult(
+                        cursor.getString(0),
+                        cursor.getString(1),
+                        cursor.getLong(2),
+                        cursor.getString(3),
+                        cursor.getString(4),
+                        cursor.getString(5)));
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        if (BuildConfig.DEBUG) {
+            Log.d(APP_NAME, "Search for '" + matchQuery + "' returned " + results.size()
+                    + " results in " + (SystemClock.uptimeMillis() - startTime) + "ms");
+        }
+        return results;
+    }
+
+    /**
+     * Converts user-entered text into an FTS MATCH expression, where every word must match
+     * as a prefix. Anything other than letters and digits is treated as a word separator, so
+     * the user can't inject FTS query syntax.
+     * @param searchText text typed in by the user
+     * @return MATCH expression, or "" if there's nothing to search for
+     */
+    static String buildMatchQuery(String searchText) {
+        StringBuilder query = new StringBuilder();
+        boolean inWord = false;
+        for (int i = 0; i < searchText.length(); i++) {
+            char c = searchText.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (!inWord && query.length() != 0) {
+                    query.append(' ');
+                }
+                // Lower case so that words like 'or' don't get treated as operators
+                query.append(Character.toLowerCase(c));
+                inWord = true;
+            } else if (inWord) {
+                query.append('*');
+                inWord = false;
+            }
+        }
+        if (inWord) {
+            query.append('*');
+        }
+        return query.toString();
+    }
+}
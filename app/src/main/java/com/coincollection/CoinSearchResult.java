@@ -0,0 +1,68 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.coincollection;
+
+/**
+ * A coin found by a search across all collections
+ */
+public class CoinSearchResult {
+
+    private final String mCollectionName;
+    private final String mCoinType;
+    private final long mCoinDatabaseId;
+    private final String mIdentifier;
+    private final String mMint;
+    private final String mNotes;
+
+    CoinSearchResult(String collectionName, String coinType, long coinDatabaseId,
+                     String identifier, String mint, String notes) {
+        mCollectionName = collectionName;
+        mCoinType = coinType;
+        mCoinDatabaseId = coinDatabaseId;
+        mIdentifier = identifier;
+        mMint = (mint != null) ? mint : "";
+        mNotes = (notes != null) ? notes : "";
+    }
+
+    public String getCollectionName() {
+        return mCollectionName;
+    }
+
+    public String getCoinType() {
+        return mCoinType;
+    }
+
+    public long getCoinDatabaseId() {
+        return mCoinDatabaseId;
+    }
+
+    public String getIdentifier() {
+        return mIdentifier;
+    }
+
+    public String getMint() {
+        return mMint;
+    }
+
+    public String getNotes() {
+        return mNotes;
+    }
+}
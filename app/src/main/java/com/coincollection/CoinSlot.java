@@ -25,6 +25,8 @@ import android.os.Parcelable;
 import android.util.JsonReader;
 import android.util.JsonWriter;
 
+import com.coincollection.core.CoinRecord;
+import com.coincollection.core.CsvFields;
 import com.spencerpages.R;
 
 import java.io.IOException;
@@ -32,7 +34,7 @@ import java.io.IOException;
 /**
  * Coin contained in a collection
  */
-public class CoinSlot implements Parcelable {
+public class CoinSlot implements Parcelable, CoinRecord<CoinSlot> {
 
     /** id of the row for this coin in the database */
     private long mDatabaseId = 0;
@@ -62,6 +64,26 @@ public class CoinSlot implements Parcelable {
     /** Whether the coin is custom (i.e. added by the user after the collection was created) */
     private boolean mCustomCoin = false;
 
+    // Display values computed once by CoinSlotAdapter so that binding a view doesn't need to
+    // format strings or look up images. These aren't saved and are cleared if the name changes
+    // (or for the notes text, if the notes change).
+    private String mDisplayLabel = null;
+    private String mDisplayDescCollected = null;
+    private String mDisplayDescMissing = null;
+    private String mDisplayNotesHint = null;
+    private String mDisplayNotes = null;
+    private int mDisplayImageId = 0;
+
+    // Keys used by the in-page filter, computed on first use and cleared if the value they're
+    // derived from changes. These aren't saved either.
+    private String mFilterMintKey = null;
+    private String mFilterNotesKey = null;
+    private int mFilterYear = FILTER_YEAR_NOT_COMPUTED;
+
+    /** Filter year of coins that don't start with a year (Ex: "Kentucky") */
+    public final static int NO_YEAR = -1;
+    private final static int FILTER_YEAR_NOT_COMPUTED = Integer.MIN_VALUE;
+
     // Database keys
     public final static String COL_COIN_ID = "_id";
     public final static String COL_COIN_IDENTIFIER = "coinIdentifier";
@@ -72,6 +94,8 @@ public class CoinSlot implements Parcelable {
     public final static String COL_ADV_NOTES = "advNotes";
     public final static String COL_SORT_ORDER = "sortOrder";
     public final static String COL_CUSTOM_COIN = "customCoin";
+    public final static String COL_MINT_CODE = "mintCode";
+    public final static String COL_VARIETY = "variety";
 
     // Database helpers
     public final static String COIN_SLOT_COIN_ID_WHERE_CLAUSE = COL_COIN_ID + "=?";
@@ -82,6 +106,11 @@ public class CoinSlot implements Parcelable {
     // where clause, to continue to work correctly.
     public final static String COIN_SLOT_NAME_MINT_WHERE_CLAUSE = COL_COIN_IDENTIFIER + "=? AND " + COL_COIN_MINT + "=?";
 
+    // Starting in DB version 22, the mint is also stored as a mint code bitmask and a variety so
+    // mint lookups can use integer comparisons (and the mint code index)
+    public final static String COIN_SLOT_MINT_CODE_WHERE_CLAUSE = COL_MINT_CODE + "=? AND " + COL_VARIETY + "=?";
+    public final static String COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE = COL_COIN_IDENTIFIER + "=? AND " + COIN_SLOT_MINT_CODE_WHERE_CLAUSE;
+
     /**
      * Constructor used when pulling the collection from the database with advanced info
      * @param databaseId id of the coin in the database
@@ -151,6 +180,8 @@ public class CoinSlot implements Parcelable {
 
     public void setIdentifier(String identifier) {
         this.mIdentifier = identifier;
+        this.mDisplayLabel = null;
+        this.mFilterYear = FILTER_YEAR_NOT_COMPUTED;
     }
 
     public String getIdentifier() {
@@ -159,6 +190,8 @@ public class CoinSlot implements Parcelable {
 
     public void setMint(String mint) {
         this.mMint = mint;
+        this.mDisplayLabel = null;
+        this.mFilterMintKey = null;
     }
 
     public String getMint() {
@@ -185,6 +218,90 @@ public class CoinSlot implements Parcelable {
         return mAdvInfoHasChanged;
     }
 
+    /**
+     * Sets the values used when displaying the coin
+     * @param label coin text (name and mint)
+     * @param descCollected content description when the coin is collected
+     * @param descMissing content description when the coin is missing
+     * @param notesHint hint text for the notes field
+     * @param imageId drawable resource id of the coin image
+     */
+    void setDisplayInfo(String label, String descCollected, String descMissing, String notesHint, int imageId) {
+        mDisplayLabel = label;
+        mDisplayDescCollected = descCollected;
+        mDisplayDescMissing = descMissing;
+        mDisplayNotesHint = notesHint;
+        mDisplayImageId = imageId;
+    }
+
+    boolean hasDisplayInfo() {
+        return mDisplayLabel != null;
+    }
+
+    String getDisplayLabel() {
+        return mDisplayLabel;
+    }
+
+    String getDisplayDesc() {
+        return mInCollection ? mDisplayDescCollected : mDisplayDescMissing;
+    }
+
+    String getDisplayNotesHint() {
+        return mDisplayNotesHint;
+    }
+
+    void setDisplayNotes(String notes) {
+        mDisplayNotes = notes;
+    }
+
+    String getDisplayNotes() {
+        return mDisplayNotes;
+    }
+
+    int getDisplayImageId() {
+        return mDisplayImageId;
+    }
+
+    /**
+     * @return the mint in lower case without surrounding spaces, for filtering
+     */
+    String getFilterMintKey() {
+        if (mFilterMintKey == null) {
+            mFilterMintKey = (mMint != null) ? mMint.trim().toLowerCase() : "";
+        }
+        return mFilterMintKey;
+    }
+
+    /**
+     * @return the notes in lower case, for filtering
+     */
+    String getFilterNotesKey() {
+        if (mFilterNotesKey == null) {
+            mFilterNotesKey = (mAdvancedNotes != null) ? mAdvancedNotes.toLowerCase() : "";
+        }
+        return mFilterNotesKey;
+    }
+
+    /**
+     * @return the year the identifier starts with (Ex: 1909 for "1909 VDB"), or NO_YEAR
+     */
+    int getFilterYear() {
+        if (mFilterYear == FILTER_YEAR_NOT_COMPUTED) {
+            int year = NO_YEAR;
+            if (mIdentifier != null) {
+                for (int i = 0; i < mIdentifier.length() && i < 4; i++) {
+                    char c = mIdentifier.charAt(i);
+                    if (c < '0' || c > '9') {
+                        break;
+                    }
+                    year = (year == NO_YEAR ? 0 : year * 10) + (c - '0');
+                }
+            }
+            mFilterYear = year;
+        }
+        return mFilterYear;
+    }
+
     public Integer getAdvancedGrades() {
         return mAdvancedGrades;
     }
@@ -207,6 +324,8 @@ public class CoinSlot implements Parcelable {
 
     public void setAdvancedNotes(String advancedNotes) {
         this.mAdvancedNotes = advancedNotes;
+        this.mDisplayNotes = null;
+        this.mFilterNotesKey = null;
     }
 
     public int getSortOrder() {
@@ -355,29 +474,19 @@ public class CoinSlot implements Parcelable {
         mCustomCoin = customCoin;
     }
 
-    /**
-     * Returns true if an element is present in a string array
-     * @param in string array to look in
-     * @param index string position
-     * @return true if the element at the index is present and not empty
-     */
-    private boolean isPresentInStringArray(String[] in, int index) {
-        return in.length > index && in[index].length() != 0;
-    }
-
     /**
      * Create a CoinSlot from imported string array
      * @param in input String[]
      */
     public CoinSlot(String[] in, int coinIndex) {
-        mIdentifier = isPresentInStringArray(in, 0) ? in[0] : "";
-        mMint = isPresentInStringArray(in, 1) ? in[1] : "";
-        mInCollection = (isPresentInStringArray(in, 2) && (Integer.parseInt(in[2]) != 0));
-        mAdvancedGrades = isPresentInStringArray(in, 3) ? Integer.parseInt(in[3]) : 0;
-        mAdvancedQuantities = isPresentInStringArray(in, 4) ? Integer.parseInt(in[4]) : 0;
-        mAdvancedNotes = isPresentInStringArray(in, 5) ? in[5] : "";
-        mSortOrder = isPresentInStringArray(in, 6) ? Integer.parseInt(in[6]) : coinIndex;
-        mCustomCoin = (isPresentInStringArray(in, 7) && (Integer.parseInt(in[7]) != 0));
+        mIdentifier = CsvFields.getString(in, 0, "");
+        mMint = CsvFields.getString(in, 1, "");
+        mInCollection = CsvFields.getFlag(in, 2);
+        mAdvancedGrades = CsvFields.getInt(in, 3, 0);
+        mAdvancedQuantities = CsvFields.getInt(in, 4, 0);
+        mAdvancedNotes = CsvFields.getString(in, 5, "");
+        mSortOrder = CsvFields.getInt(in, 6, coinIndex);
+        mCustomCoin = CsvFields.getFlag(in, 7);
     }
 
     /**
@@ -475,4 +584,30 @@ public class CoinSlot implements Parcelable {
         return mIdentifier.equals(coinSlot.mIdentifier) &&
                 mMint.equals(coinSlot.mMint);
     }
-}
\ No newline at end of file
+
+    /**
+     * Advanced attributes of a coin, read from the database apart from the CoinSlot so that
+     * loading them in the background doesn't touch the coins the UI is using
+     */
+    public static class AdvInfo {
+        final int mGrade;
+        final int mQuantity;
+        final String mNotes;
+
+        public AdvInfo(int grade, int quantity, String notes) {
+            mGrade = grade;
+            mQuantity = quantity;
+            mNotes = notes;
+        }
+    }
+
+    /**
+     * Copies in advanced attributes read from the database
+     * @param advInfo advanced attributes
+     */
+    void setAdvInfo(AdvInfo advInfo) {
+        setAdvancedGrades(advInfo.mGrade);
+        setAdvancedQuantities(advInfo.mQuantity);
+        setAdvancedNotes(advInfo.mNotes);
+    }
+}
@@ -18,35 +18,36 @@
  * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+
 package com.coincollection;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.content.res.Resources;
-import android.text.Editable;
-import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.inputmethod.InputMethodManager;
 import android.widget.AdapterView;
 import android.widget.AdapterView.OnItemSelectedListener;
 import android.widget.ArrayAdapter;
-import android.widget.BaseAdapter;
 import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import com.spencerpages.MainApplication;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.coincollection.helper.CoinImageCache;
 import com.spencerpages.R;
 
 import java.util.ArrayList;
 
 /**
- * BaseAdapter for the collection pages
+ * RecyclerView.Adapter for the collection pages
  */
-class CoinSlotAdapter extends BaseAdapter {
+class CoinSlotAdapter extends RecyclerView.Adapter<CoinSlotAdapter.CoinSlotViewHolder> {
 
     /** mContext The context of the activity we are running in (for things like Toasts that have UI
      *           components) */
@@ -60,16 +61,49 @@ class CoinSlotAdapter extends BaseAdapter {
 
     private final ArrayList<CoinSlot> mCoinList;
 
-    private OnItemSelectedListener mGradeOnItemSelectedListener = null;
-    private ArrayAdapter<CharSequence> mGradeArrayAdapter;
+    // Indices into mCoinList of the coins shown, in the order shown, or null to show the whole
+    // list. The coins themselves aren't copied, so edits made while filtered update the list.
+    private int[] mShownIndices = null;
+
+    // Single inline editor shared by all rows of the unlocked advanced view. Rows just display
+    // read-only text, and the editor gets attached to whichever row is being edited.
+    private View mEditorView = null;
+    private Spinner mEditorGradeSelector;
+    private Spinner mEditorQuantitySelector;
+    private EditText mEditorNotes;
+    private CoinSlotViewHolder mEditingHolder = null;
+    private CoinSlot mEditingCoinSlot = null;
+    private OnItemSelectedListener mGradeOnItemSelectedListener;
     private OnItemSelectedListener mQuantityOnItemSelectedListener;
-    private ArrayAdapter<CharSequence> mQuantityArrayAdapter;
 
     // Keep track of whether we are showing the advanced view so we can do extra setup
-    private final int mDisplayType;
-    // This variable will only be set for the advanced view, where we have separate
+    private int mDisplayType;
+    // This variable is only used for the advanced view, where we have separate
     // views for the locked and unlocked views
-    private final boolean mDisplayIsLocked;
+    private boolean mDisplayIsLocked;
+
+    // Coin images are decoded off the UI thread and cached at the size they're displayed
+    private final CoinImageCache mImageCache;
+    private final int mImageSizePx;
+
+    // Listeners shared by all views, which get the view holder from the view tag
+    private final View.OnClickListener mCoinClickListener;
+    private final View.OnClickListener mAdvancedCoinClickListener;
+    private final View.OnClickListener mAdvancedCoinImageClickListener;
+    private final View.OnLongClickListener mCoinLongClickListener;
+
+    // Advanced view text for each grade and quantity, formatted once
+    private String[] mGradeText = null;
+    private String[] mQuantityText = null;
+
+    // View types, each of which gets its own pool of recycled views
+    final static int VIEW_TYPE_SIMPLE = 0;
+    final static int VIEW_TYPE_ADVANCED = 1;
+    final static int VIEW_TYPE_ADVANCED_LOCKED = 2;
+
+    // Number of recycled views to keep for each view type
+    private final static int SIMPLE_POOL_SIZE = 40;
+    private final static int ADVANCED_POOL_SIZE = 8;
 
     /**
      * Constructor which passes the data necessary for the adapter to work, along with a list of
@@ -79,8 +113,10 @@ class CoinSlotAdapter extends BaseAdapter {
      * @param tableName The collection name
      * @param collectionTypeObj The backing object in the COLLECTION_TYPE list
      * @param coinList The list of coins
+     * @param displayType SIMPLE_DISPLAY or ADVANCED_DISPLAY
+     * @param isLocked Whether the collection is locked
      */
-    CoinSlotAdapter(CollectionPage context, String tableName, CollectionInfo collectionTypeObj, ArrayList<CoinSlot> coinList, int displayType) {
+    CoinSlotAdapter(CollectionPage context, String tableName, CollectionInfo collectionTypeObj, ArrayList<CoinSlot> coinList, int displayType, boolean isLocked) {
         // Used for State, National Park, Presidential Coins, and Native American coins
         // and Pennies, Nickels, American Innovation Dollars
         super();
@@ -89,10 +125,82 @@ class CoinSlotAdapter extends BaseAdapter {
         mCollectionTypeObj = collectionTypeObj;
         mCoinList = coinList;
         mDisplayType = displayType;
+        mDisplayIsLocked = isLocked;
 
         mRes = mCollectionPageContext.getResources();
-        SharedPreferences mainPreferences = mCollectionPageContext.getSharedPreferences(MainApplication.PREFS, Context.MODE_PRIVATE);
-        mDisplayIsLocked = mainPreferences.getBoolean(mTableName + CollectionPage.IS_LOCKED, false);
+        mImageCache = CoinImageCache.getInstance();
+        mImageSizePx = mRes.getDimensionPixelSize(R.dimen.coin_image_size);
+
+        // The database id uniquely identifies each coin
+        setHasStableIds(true);
+
+        // Clicking the coin toggles whether it's in the collection
+        mCoinClickListener = view -> {
+            int position = ((CoinSlotViewHolder) view.getTag()).getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                mCollectionPageContext.toggleCoinSlotInCollection(getCoinListIndex(position));
+            }
+        };
+
+        // Clicking an advanced row opens the editor for that row, or provides a notice to
+        // users if the collection is locked. There's also an onClick listener on the imageView
+        mAdvancedCoinClickListener = view -> {
+            if (mDisplayIsLocked) {
+                showLockedMessage();
+            } else {
+                startEditing((CoinSlotViewHolder) view.getTag());
+            }
+        };
+
+        // Clicking the image in the advanced view toggles whether it's in the collection
+        mAdvancedCoinImageClickListener = view -> {
+            int position = ((CoinSlotViewHolder) view.getTag()).getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                onAdvancedCoinImageClicked(position);
+            }
+        };
+
+        // Long-press handler for additional actions
+        mCoinLongClickListener = view -> {
+            int position = ((CoinSlotViewHolder) view.getTag()).getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                mCollectionPageContext.promptCoinSlotActions(getCoinListIndex(position));
+            }
+            return true;
+        };
+
+        // Compute the display values up front so binding doesn't have to
+        for (CoinSlot coinSlot : mCoinList) {
+            prepareDisplayInfo(coinSlot);
+        }
+    }
+
+    /**
+     * Computes the strings and image used to display a coin
+     * @param coinSlot coin to prepare
+     */
+    private void prepareDisplayInfo(CoinSlot coinSlot) {
+        String identifier = coinSlot.getIdentifier();
+        String mint = coinSlot.getMint();
+        // TODO Fix this so there is no space if there is no mint
+        String label = mRes.getString(R.string.coin_text_template, identifier, mint);
+        String descCollected = mRes.getString(R.string.coin_content_desc_template, identifier, mint,
+                mRes.getString(R.string.collected));
+        String descMissing = mRes.getString(R.string.coin_content_desc_template, identifier, mint,
+                mRes.getString(R.string.missing));
+        String notesHint = mRes.getString(R.string.coin_content_desc_template, identifier, mint,
+                mRes.getString(R.string.notes));
+        int imageId = mCollectionTypeObj.getCoinSlotImage(coinSlot);
+        coinSlot.setDisplayInfo(label, descCollected, descMissing, notesHint, imageId);
+        prepareDisplayNotes(coinSlot);
+    }
+
+    /**
+     * Computes the read-only notes text of a coin, which has to be redone when the notes change
+     * @param coinSlot coin to prepare
+     */
+    private void prepareDisplayNotes(CoinSlot coinSlot) {
+        coinSlot.setDisplayNotes(mRes.getString(R.string.notes_text_view_template, coinSlot.getAdvancedNotes()));
     }
 
     /**
@@ -103,111 +211,282 @@ class CoinSlotAdapter extends BaseAdapter {
         mTableName = tableName;
     }
 
-    @Override
-    public int getCount() {
-        return mCoinList.size();
+    /**
+     * Switches the adapter between the simple, advanced and locked advanced views. The caller
+     * is responsible for re-attaching the adapter or notifying that the items changed.
+     * @param displayType SIMPLE_DISPLAY or ADVANCED_DISPLAY
+     * @param isLocked Whether the collection is locked
+     */
+    void setDisplayType(int displayType, boolean isLocked) {
+        stopEditing();
+        mDisplayType = displayType;
+        mDisplayIsLocked = isLocked;
+    }
+
+    /**
+     * Sets the number of views to keep around for each view type
+     * @param pool the RecyclerView's pool of recycled views
+     */
+    static void setupRecycledViewPool(RecyclerView.RecycledViewPool pool) {
+        pool.setMaxRecycledViews(VIEW_TYPE_SIMPLE, SIMPLE_POOL_SIZE);
+        pool.setMaxRecycledViews(VIEW_TYPE_ADVANCED, ADVANCED_POOL_SIZE);
+        pool.setMaxRecycledViews(VIEW_TYPE_ADVANCED_LOCKED, ADVANCED_POOL_SIZE);
+    }
+
+    /**
+     * Shows only some of the coins, or all of them
+     * @param shownIndices indices into the coin list to show in order, or null to show all
+     */
+    void setShownIndices(int[] shownIndices) {
+        stopEditing();
+        mShownIndices = shownIndices;
+        notifyDataSetChanged();
+    }
+
+    /**
+     * @return indices into the coin list being shown, or null if showing all coins
+     */
+    int[] getShownIndices() {
+        return mShownIndices;
+    }
+
+    /**
+     * Converts an adapter position to an index into the coin list
+     * @param position adapter position
+     * @return coin list index
+     */
+    int getCoinListIndex(int position) {
+        return (mShownIndices == null) ? position : mShownIndices[position];
+    }
+
+    /**
+     * Converts an index into the coin list to an adapter position
+     * @param coinListIndex coin list index
+     * @return adapter position, or -1 if the coin isn't shown
+     */
+    int getPosition(int coinListIndex) {
+        if (mShownIndices == null) {
+            return coinListIndex;
+        }
+        for (int i = 0; i < mShownIndices.length; i++) {
+            if (mShownIndices[i] == coinListIndex) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the coin shown at an adapter position
+     * @param position adapter position
+     * @return coin slot
+     */
+    private CoinSlot getCoinSlot(int position) {
+        return mCoinList.get(getCoinListIndex(position));
+    }
+
+    /**
+     * Redraws a coin after it changed. The coin stays shown even if it no longer matches the
+     * filter, so that it doesn't disappear out from under the user.
+     * @param coinListIndex coin list index of the changed coin
+     */
+    void notifyCoinSlotChanged(int coinListIndex) {
+        int position = getPosition(coinListIndex);
+        if (position != -1) {
+            notifyItemChanged(position);
+        }
+    }
+
+    /**
+     * Shows a coin that was just inserted into the coin list. If filtered, the coin gets shown
+     * right after the coin before it in the list (which it was copied from).
+     * @param coinListIndex coin list index of the new coin
+     */
+    void notifyCoinSlotInserted(int coinListIndex) {
+        if (mShownIndices == null) {
+            notifyItemInserted(coinListIndex);
+            return;
+        }
+        int position = mShownIndices.length;
+        int[] shownIndices = new int[mShownIndices.length + 1];
+        for (int i = 0, j = 0; i < mShownIndices.length; i++, j++) {
+            int index = mShownIndices[i];
+            shownIndices[j] = (index >= coinListIndex) ? index + 1 : index;
+            if (index == coinListIndex - 1) {
+                position = ++j;
+                shownIndices[j] = coinListIndex;
+            }
+        }
+        if (position == mShownIndices.length) {
+            shownIndices[position] = coinListIndex;
+        }
+        mShownIndices = shownIndices;
+        notifyItemInserted(position);
+    }
+
+    /**
+     * Removes a coin that was just deleted from the coin list
+     * @param coinListIndex coin list index that the coin was at
+     */
+    void notifyCoinSlotRemoved(int coinListIndex) {
+        if (mShownIndices == null) {
+            notifyItemRemoved(coinListIndex);
+            return;
+        }
+        int position = -1;
+        int[] shownIndices = new int[mShownIndices.length];
+        int j = 0;
+        for (int i = 0; i < mShownIndices.length; i++) {
+            int index = mShownIndices[i];
+            if (index == coinListIndex) {
+                position = i;
+            } else {
+                shownIndices[j++] = (index > coinListIndex) ? index - 1 : index;
+            }
+        }
+        if (position == -1) {
+            // The deleted coin wasn't shown, but the indices after it still moved
+            mShownIndices = shownIndices;
+            return;
+        }
+        mShownIndices = new int[j];
+        System.arraycopy(shownIndices, 0, mShownIndices, 0, j);
+        notifyItemRemoved(position);
     }
 
     @Override
-    public Object getItem(int position) {
-        return null;
+    public int getItemCount() {
+        return (mShownIndices == null) ? mCoinList.size() : mShownIndices.length;
     }
 
     @Override
     public long getItemId(int position) {
-        return 0;
+        return getCoinSlot(position).getDatabaseId();
     }
 
-    // create or recycle a new View for each item referenced by the Adapter
     @Override
-    public View getView(int position, View convertView, ViewGroup parent) {
-
-        View coinView = convertView;
-        final boolean coinViewWasRecycled = (coinView != null);
-
-        if (!coinViewWasRecycled) {
-            // If we couldn't get a recycled one, create a new one
-            LayoutInflater vi = (LayoutInflater) mCollectionPageContext.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
-
-            if(mDisplayType == CollectionPage.ADVANCED_DISPLAY){
-                if(!mDisplayIsLocked){
-                  // If the collection isn't locked, we show spinners and an EditText
-                  coinView = vi.inflate(R.layout.advanced_collection_slot, parent, false);
-                } else {
-                  // The collection is locked, so we just show the advanced details in TextViews
-                  coinView = vi.inflate(R.layout.advanced_collection_slot_locked, parent, false);
-                }
-            } else if(mDisplayType == CollectionPage.SIMPLE_DISPLAY){
-                coinView = vi.inflate(R.layout.coin_slot, parent, false);
-            }
+    public int getItemViewType(int position) {
+        if (mDisplayType == CollectionPage.ADVANCED_DISPLAY) {
+            return mDisplayIsLocked ? VIEW_TYPE_ADVANCED_LOCKED : VIEW_TYPE_ADVANCED;
         }
+        return VIEW_TYPE_SIMPLE;
+    }
 
-        // Make lint happy
-        if(coinView == null){
-            return null;
+    @Override
+    @NonNull
+    public CoinSlotViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater vi = LayoutInflater.from(mCollectionPageContext);
+        View coinView;
+        if (viewType == VIEW_TYPE_ADVANCED) {
+            // If the collection isn't locked, we show spinners and an EditText
+            coinView = vi.inflate(R.layout.advanced_collection_slot, parent, false);
+        } else if (viewType == VIEW_TYPE_ADVANCED_LOCKED) {
+            // The collection is locked, so we just show the advanced details in TextViews
+            coinView = vi.inflate(R.layout.advanced_collection_slot_locked, parent, false);
+        } else {
+            coinView = vi.inflate(R.layout.coin_slot, parent, false);
+        }
+        final CoinSlotViewHolder holder = new CoinSlotViewHolder(coinView);
+
+        coinView.setTag(holder);
+        holder.mCoinImage.setTag(holder);
+        if (viewType == VIEW_TYPE_SIMPLE) {
+            coinView.setOnClickListener(mCoinClickListener);
+        } else {
+            coinView.setOnClickListener(mAdvancedCoinClickListener);
+            holder.mCoinImage.setOnClickListener(mAdvancedCoinImageClickListener);
+            holder.mCoinImage.setOnLongClickListener(mCoinLongClickListener);
         }
+        coinView.setOnLongClickListener(mCoinLongClickListener);
 
-        // Register a callback for when the view gets detached
-        if (!coinViewWasRecycled && mDisplayType == CollectionPage.ADVANCED_DISPLAY && !mDisplayIsLocked) {
-            coinView.addOnAttachStateChangeListener(new View.OnAttachStateChangeListener() {
-                @Override
-                public void onViewAttachedToWindow(View view) { }
+        return holder;
+    }
 
-                @Override
-                public void onViewDetachedFromWindow(View view) {
-                    onCoinSlotAdvNotesChanged(view);
-                }
-            });
-        }
+    @Override
+    public void onBindViewHolder(@NonNull CoinSlotViewHolder holder, int position) {
 
         // Display the basic info first
-        CoinSlot coinSlot = mCoinList.get(position);
-        String identifier = coinSlot.getIdentifier();
-        String mint = coinSlot.getMint();
-        TextView coinText = coinView.findViewById(R.id.coinText);
+        CoinSlot coinSlot = getCoinSlot(position);
+        if (!coinSlot.hasDisplayInfo()) {
+            // New or renamed coin
+            prepareDisplayInfo(coinSlot);
+        }
 
         // Set the coin identifier text (Year and Mint in most cases)
-        // TODO Fix this so there is no space if there is no mint
-        coinText.setText(mRes.getString(R.string.coin_text_template, identifier, mint));
+        holder.mCoinText.setText(coinSlot.getDisplayLabel());
 
         //Set this image based on whether the coin has been obtained
-        ImageView coinImage = coinView.findViewById(R.id.coinImage);
-        int imageIdentifier = mCollectionTypeObj.getCoinSlotImage(coinSlot);
-        coinImage.setImageResource(imageIdentifier);
-        coinImage.setAlpha(coinSlot.isInCollection() ? 255 : 64);
+        int imageIdentifier = coinSlot.getDisplayImageId();
+        if (holder.mBoundImageId != imageIdentifier) {
+            mImageCache.loadImage(holder.mCoinImage, imageIdentifier, mImageSizePx);
+            holder.mBoundImageId = imageIdentifier;
+        }
+        holder.mCoinImage.setAlpha(coinSlot.isInCollection() ? 255 : 64);
 
         // Add an accessibility string to indicate that the coin has been found or not
-        String contextDesc = mRes.getString(coinSlot.isInCollectionStringRes());
-        contextDesc = mRes.getString(R.string.coin_content_desc_template, identifier, mint, contextDesc);
-        coinImage.setContentDescription(contextDesc);
+        holder.mCoinImage.setContentDescription(coinSlot.getDisplayDesc());
 
         // Setup the rest of the view if it is the advanced view
         if(mDisplayType == CollectionPage.ADVANCED_DISPLAY){
-            setupAdvancedView(coinView, position, coinViewWasRecycled);
+            setupAdvancedView(holder, coinSlot);
         }
+    }
 
-        return coinView;
+    @Override
+    public void onViewRecycled(@NonNull CoinSlotViewHolder holder) {
+        // Don't decode images for views that aren't being shown anymore
+        mImageCache.cancel(holder.mCoinImage);
+        holder.mBoundImageId = 0;
+
+        // Close the editor if its row scrolled away
+        if (holder == mEditingHolder) {
+            stopEditing();
+        }
     }
 
     /**
-     * Setup advanced view state shared by all views in the adapter
+     * Decodes the images for a range of coins ahead of time, so they're ready when scrolled to
+     * @param start first adapter position to prefetch
+     * @param end adapter position to prefetch up to (exclusive)
      */
-    private void setupAdvancedSharedViews() {
+    void prefetchImages(int start, int end) {
+        start = Math.max(start, 0);
+        end = Math.min(end, getItemCount());
+        for (int i = start; i < end; i++) {
+            CoinSlot coinSlot = getCoinSlot(i);
+            if (!coinSlot.hasDisplayInfo()) {
+                prepareDisplayInfo(coinSlot);
+            }
+            mImageCache.prefetch(mRes, coinSlot.getDisplayImageId(), mImageSizePx);
+        }
+    }
+
+    /**
+     * Creates the shared inline editor used to edit advanced info in the unlocked advanced view
+     * @param parent view group used to generate the editor's layout params
+     */
+    private void setupEditor(ViewGroup parent) {
+
+        mEditorView = LayoutInflater.from(mCollectionPageContext).inflate(R.layout.advanced_coin_editor, parent, false);
+        mEditorGradeSelector = mEditorView.findViewById(R.id.grade_selector);
+        mEditorQuantitySelector = mEditorView.findViewById(R.id.quantity_selector);
+        mEditorNotes = mEditorView.findViewById(R.id.notes_edit_text);
 
         // Create the adapter that will handle grade selections
-        mGradeArrayAdapter = ArrayAdapter.createFromResource(
+        ArrayAdapter<CharSequence> gradeArrayAdapter = ArrayAdapter.createFromResource(
                 mCollectionPageContext, R.array.coin_grades, android.R.layout.simple_spinner_item);
-        mGradeArrayAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        gradeArrayAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        mEditorGradeSelector.setAdapter(gradeArrayAdapter);
 
         // Create the listener that will handle grade selections
         mGradeOnItemSelectedListener = new OnItemSelectedListener() {
             public void onItemSelected(AdapterView<?> parent,
                                        View view, int pos, long id) {
 
-                CoinSlot coinSlot = (CoinSlot) parent.getTag();
+                CoinSlot coinSlot = mEditingCoinSlot;
 
                 // Update the values in the lists if this is a new value
-                if(pos != coinSlot.getAdvancedGrades()){
+                if(coinSlot != null && pos != coinSlot.getAdvancedGrades()){
 
                     // Update the data structure and set index changed
                     // - Changes will be committed to the database when the user presses save
@@ -223,19 +502,20 @@ class CoinSlotAdapter extends BaseAdapter {
         };
 
         // Create the adapter that will handle quantity selections
-        mQuantityArrayAdapter = ArrayAdapter.createFromResource (
+        ArrayAdapter<CharSequence> quantityArrayAdapter = ArrayAdapter.createFromResource (
                 mCollectionPageContext, R.array.coin_quantities, android.R.layout.simple_spinner_item);
-        mQuantityArrayAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        quantityArrayAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        mEditorQuantitySelector.setAdapter(quantityArrayAdapter);
 
         // Create the listener that will handle quantity selected
         mQuantityOnItemSelectedListener = new OnItemSelectedListener() {
             public void onItemSelected(AdapterView<?> parent,
                                        View view, int pos, long id) {
 
-                CoinSlot coinSlot = (CoinSlot) parent.getTag();
+                CoinSlot coinSlot = mEditingCoinSlot;
 
                 // Update the values in the lists if this is a new value
-                if(pos != coinSlot.getAdvancedQuantities()){
+                if(coinSlot != null && pos != coinSlot.getAdvancedQuantities()){
 
                     // Update the data structure and set index changed
                     // - Changes will be committed to the database when the user presses save
@@ -249,154 +529,99 @@ class CoinSlotAdapter extends BaseAdapter {
 
             public void onNothingSelected(AdapterView<?> parent) {}
         };
-    }
 
-    /**
-     * Handles setting up the advanced view components in the case that we should display them
-     * @param coinView The view that we are setting up
-     * @param position The list index of the coin that we are making the view for
-     * @param coinViewWasRecycled true if the view was recycled and is being reused
-     */
-    private void setupAdvancedView(View coinView, int position, boolean coinViewWasRecycled) {
-
-        // Get the coin slot at the position in the list
-        CoinSlot coinSlot = mCoinList.get(position);
-
-        // Set up on-click listeners for the image
-        final ImageView imageView = coinView.findViewById(R.id.coinImage);
-        imageView.setTag(coinSlot);
-        imageView.setOnClickListener(view -> {
-            // Need to check whether the collection is locked
-            if(mDisplayIsLocked){
-                // Collection is locked
-                String text = mRes.getString(R.string.collection_locked);
-                Toast toast = Toast.makeText(mCollectionPageContext, text, Toast.LENGTH_SHORT);
-                toast.show();
-            } else {
-                // Update the data structure and set index changed
-                // - Changes will be committed to the database when the user presses save
-                CoinSlot viewTagCoinSlot = (CoinSlot) view.getTag();
-                boolean oldValue = viewTagCoinSlot.isInCollection();
-                viewTagCoinSlot.setInCollection(!oldValue);
-                viewTagCoinSlot.setAdvInfoChanged(true);
-
-                // Notify the adapter to re-draw the view
-                CoinSlotAdapter.this.notifyDataSetChanged();
-
-                // Tell the parent page to show the unsaved changes view
-                mCollectionPageContext.showUnsavedTextView();
+        // Capture the notes once the user is done typing
+        // Note: This does not remove '[', ']', and ',' characters - bracket characters
+        // will be replaced by spaces if exported/imported but commas will be preserved
+        mEditorNotes.setOnFocusChangeListener((view, hasFocus) -> {
+            if (!hasFocus) {
+                commitPendingEdits();
             }
         });
 
-        // Add long-press handler for additional actions
-        imageView.setOnLongClickListener(view -> {
-            mCollectionPageContext.promptCoinSlotActions(position);
-            return true;
-        });
-
-        // Everything below here is specific to whether the collection is locked or not.
-        // Take care of the locked case first, since it is easier.
-
-        if(mDisplayIsLocked){
-            // Setup the locked view and return
-            String[] grades = mRes.getStringArray(R.array.coin_grades);
-            TextView gradeTextView = coinView.findViewById(R.id.grade_textview);
-            int gradeIndex = coinSlot.getAdvancedGrades();
-            if(gradeIndex != 0){
-                // Prefix the grade with 'Grade:'
-                gradeTextView.setText(mRes.getString(R.string.grade_text_view_template, grades[gradeIndex]));
-            } else {
-                // 'Grade:' will be printed
-                gradeTextView.setText(mRes.getString(R.string.grade_text_view_template_without_grade, grades[gradeIndex]));
-            }
-
-            String[] quantities = mRes.getStringArray(R.array.coin_quantities);
-            TextView quantitiesTextView = coinView.findViewById(R.id.quantity_textview);
-            quantitiesTextView.setText(mRes.getString(R.string.quantities_text_view_template, quantities[coinSlot.getAdvancedQuantities()]));
+        // Make the edittext scrollable
+        // TODO Get scrolling working all the way
+        // notesEditText.setMovementMethod(new ScrollingMovementMethod());
+    }
 
-            TextView notesTextView = coinView.findViewById(R.id.notes_textview);
-            notesTextView.setText(mRes.getString(R.string.notes_text_view_template, coinSlot.getAdvancedNotes()));
+    /**
+     * Attaches the shared inline editor to a row
+     * @param holder view holder of the row to edit
+     */
+    private void startEditing(CoinSlotViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        if (position == RecyclerView.NO_POSITION || holder == mEditingHolder) {
             return;
         }
 
-        // The collection is not locked, we need to set up the spinners and edittext
-
-        // Setup shared advanced view state if needed
-        if (mGradeOnItemSelectedListener == null) {
-            setupAdvancedSharedViews();
+        // Only one row can be edited at a time
+        stopEditing();
+        if (mEditorView == null) {
+            setupEditor(holder.mEditorContainer);
         }
-
-        // Setup the spinner that will let you select the coin grade
-        Spinner gradeSelector = coinView.findViewById(R.id.grade_selector);
-        gradeSelector.setTag(coinSlot);
-        gradeSelector.setAdapter(mGradeArrayAdapter);
-        gradeSelector.setSelection(coinSlot.getAdvancedGrades(), false);
-        gradeSelector.setOnItemSelectedListener(mGradeOnItemSelectedListener);
-
-        // Setup the spinner that will let you select the coin quantity
-        Spinner quantitySelector = coinView.findViewById(R.id.quantity_selector);
-        quantitySelector.setTag(coinSlot);
-        quantitySelector.setAdapter(mQuantityArrayAdapter);
-        quantitySelector.setSelection(coinSlot.getAdvancedQuantities(), false);
-        quantitySelector.setOnItemSelectedListener(mQuantityOnItemSelectedListener);
-
-        // Setup the edit text to allow for coin notes
-        EditText notesEditText = coinView.findViewById(R.id.notes_edit_text);
-        notesEditText.setTag(coinSlot);
+        CoinSlot coinSlot = getCoinSlot(position);
+        mEditingHolder = holder;
+        mEditingCoinSlot = coinSlot;
+
+        // Set up the spinners
+        // - Clear the listener first so that setting the selection doesn't trigger it
+        mEditorGradeSelector.setOnItemSelectedListener(null);
+        mEditorGradeSelector.setSelection(coinSlot.getAdvancedGrades(), false);
+        mEditorGradeSelector.setOnItemSelectedListener(mGradeOnItemSelectedListener);
+        mEditorQuantitySelector.setOnItemSelectedListener(null);
+        mEditorQuantitySelector.setSelection(coinSlot.getAdvancedQuantities(), false);
+        mEditorQuantitySelector.setOnItemSelectedListener(mQuantityOnItemSelectedListener);
 
         // Set the EditText to the string previously entered by the user
-        // - This will trigger the TextWatcher if recycled but the new/old values should match
         String advancedNotesText = coinSlot.getAdvancedNotes();
-        notesEditText.setText(advancedNotesText);
-        notesEditText.setSelection(advancedNotesText.length());
+        mEditorNotes.setText(advancedNotesText);
+        mEditorNotes.setSelection(advancedNotesText.length());
 
         // Make the hint specific for this coin's notes field
-        String notes = mRes.getString(R.string.notes);
-        String contextDesc = mRes.getString(R.string.coin_content_desc_template, coinSlot.getIdentifier(), coinSlot.getMint(), notes);
-        notesEditText.setHint(contextDesc);
-
-        // If the display is not locked, we also need to set up a TextWatcher so that we can know
-        // when the user types into the notes field. Create one for each unique EditText
-        if(!coinViewWasRecycled) {
-
-            // Add the TextWatcher for this EditText
-            notesEditText.addTextChangedListener(new TextWatcher() {
-                @Override
-                public void afterTextChanged(Editable s) {}
-                @Override
-                public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
-                @Override
-                public void onTextChanged(CharSequence s, int start, int before, int count) {
-
-                    // Note: This does not remove '[', ']', and ',' characters - bracket characters
-                    // will be replaced by spaces if exported/imported but commas will be preserved
-
-                    // If field was empty and remains empty, ignore
-                    if (before == 0 && count == 0) {
-                        return;
-                    }
-
-                    onCoinSlotAdvNotesChanged(coinView);
-                }
-            });
+        mEditorNotes.setHint(coinSlot.getDisplayNotesHint());
+
+        // Swap the read-only text for the editor
+        setReadOnlyViewsVisibility(holder, View.INVISIBLE);
+        holder.mEditorContainer.addView(mEditorView);
+        holder.mEditorContainer.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * Commits any pending changes and removes the shared inline editor from the row being edited
+     */
+    void stopEditing() {
+        if (mEditingHolder == null) {
+            return;
         }
+        commitPendingEdits();
 
-        // Make the edittext scrollable
-        // TODO Get scrolling working all the way
-        // notesEditText.setMovementMethod(new ScrollingMovementMethod());
+        // Hide the keyboard if the notes were being edited
+        if (mEditorNotes.hasFocus()) {
+            InputMethodManager imm = (InputMethodManager) mCollectionPageContext.getSystemService(Context.INPUT_METHOD_SERVICE);
+            imm.hideSoftInputFromWindow(mEditorNotes.getWindowToken(), 0);
+        }
+
+        CoinSlotViewHolder holder = mEditingHolder;
+        CoinSlot coinSlot = mEditingCoinSlot;
+        mEditingHolder = null;
+        mEditingCoinSlot = null;
+        holder.mEditorContainer.removeView(mEditorView);
+        holder.mEditorContainer.setVisibility(View.GONE);
+        bindReadOnlyViews(holder, coinSlot);
+        setReadOnlyViewsVisibility(holder, View.VISIBLE);
     }
 
     /**
-     * Called when advanced view notes are changed to capture the updated value
-     * @param coinView view to update
+     * Commits any notes typed into the shared inline editor to the coin being edited
      */
-    private void onCoinSlotAdvNotesChanged(View coinView) {
+    void commitPendingEdits() {
+        CoinSlot coinSlot = mEditingCoinSlot;
+        if (coinSlot == null) {
+            return;
+        }
 
         // Ignore if the text matches what's already saved
-        EditText notesEditText = coinView.findViewById(R.id.notes_edit_text);
-        CoinSlot coinSlot = (CoinSlot) notesEditText.getTag();
-        String newText = notesEditText.getText().toString();
-
+        String newText = mEditorNotes.getText().toString();
         if (coinSlot.getAdvancedNotes().equals(newText)) {
             return;
         }
@@ -409,4 +634,132 @@ class CoinSlotAdapter extends BaseAdapter {
         // Tell the parent page to show the unsaved changes view
         mCollectionPageContext.showUnsavedTextView();
     }
+
+    /**
+     * Shows or hides the read-only advanced info of a row
+     * @param holder view holder of the row
+     * @param visibility View visibility value
+     */
+    private static void setReadOnlyViewsVisibility(CoinSlotViewHolder holder, int visibility) {
+        holder.mGradeTextView.setVisibility(visibility);
+        holder.mQuantityTextView.setVisibility(visibility);
+        holder.mNotesTextView.setVisibility(visibility);
+    }
+
+    /**
+     * Formats the advanced view text for each grade and quantity
+     */
+    private void setupAdvancedSharedText() {
+        String[] grades = mRes.getStringArray(R.array.coin_grades);
+        mGradeText = new String[grades.length];
+        for (int i = 0; i < grades.length; i++) {
+            if (i != 0) {
+                // Prefix the grade with 'Grade:'
+                mGradeText[i] = mRes.getString(R.string.grade_text_view_template, grades[i]);
+            } else {
+                // 'Grade:' will be printed
+                mGradeText[i] = mRes.getString(R.string.grade_text_view_template_without_grade, grades[i]);
+            }
+        }
+
+        String[] quantities = mRes.getStringArray(R.array.coin_quantities);
+        mQuantityText = new String[quantities.length];
+        for (int i = 0; i < quantities.length; i++) {
+            mQuantityText[i] = mRes.getString(R.string.quantities_text_view_template, quantities[i]);
+        }
+    }
+
+    /**
+     * Handles the coin image being clicked in the advanced view
+     * @param position The adapter position of the coin that was clicked
+     */
+    private void onAdvancedCoinImageClicked(int position) {
+        // Need to check whether the collection is locked
+        if(mDisplayIsLocked){
+            // Collection is locked
+            showLockedMessage();
+        } else {
+            // Update the data structure and set index changed
+            // - Changes will be committed to the database when the user presses save
+            CoinSlot coinSlot = getCoinSlot(position);
+            coinSlot.setInCollection(!coinSlot.isInCollection());
+            coinSlot.setAdvInfoChanged(true);
+
+            // Notify the adapter to re-draw the view
+            notifyItemChanged(position);
+
+            // Tell the parent page to show the unsaved changes view
+            mCollectionPageContext.showUnsavedTextView();
+        }
+    }
+
+    /**
+     * Displays to the user that the collection is locked
+     */
+    private void showLockedMessage() {
+        String text = mRes.getString(R.string.collection_locked);
+        Toast toast = Toast.makeText(mCollectionPageContext, text, Toast.LENGTH_SHORT);
+        toast.show();
+    }
+
+    /**
+     * Handles setting up the advanced view components in the case that we should display them
+     * @param holder The view holder that we are setting up
+     * @param coinSlot The coin that we are making the view for
+     */
+    private void setupAdvancedView(CoinSlotViewHolder holder, CoinSlot coinSlot) {
+
+        // If this row was showing the editor for a different coin, close it
+        if (holder == mEditingHolder && coinSlot != mEditingCoinSlot) {
+            stopEditing();
+        }
+        bindReadOnlyViews(holder, coinSlot);
+    }
+
+    /**
+     * Sets the read-only advanced info text of a row
+     * @param holder The view holder that we are setting up
+     * @param coinSlot The coin that we are making the view for
+     */
+    private void bindReadOnlyViews(CoinSlotViewHolder holder, CoinSlot coinSlot) {
+        if (mGradeText == null) {
+            setupAdvancedSharedText();
+        }
+        holder.mGradeTextView.setText(mGradeText[coinSlot.getAdvancedGrades()]);
+        holder.mQuantityTextView.setText(mQuantityText[coinSlot.getAdvancedQuantities()]);
+        if (coinSlot.getDisplayNotes() == null) {
+            // The notes were loaded or edited since the display info was prepared
+            prepareDisplayNotes(coinSlot);
+        }
+        holder.mNotesTextView.setText(coinSlot.getDisplayNotes());
+    }
+
+    /**
+     * ViewHolder for a coin slot, which caches the child views used when binding
+     */
+    static class CoinSlotViewHolder extends RecyclerView.ViewHolder {
+        final TextView mCoinText;
+        final ImageView mCoinImage;
+
+        // Only present in the advanced views
+        final TextView mGradeTextView;
+        final TextView mQuantityTextView;
+        final TextView mNotesTextView;
+
+        // Only present in the unlocked advanced view
+        final ViewGroup mEditorContainer;
+
+        // Image currently loaded into the view, to skip reloading it on re-bind
+        int mBoundImageId = 0;
+
+        CoinSlotViewHolder(View itemView) {
+            super(itemView);
+            mCoinText = itemView.findViewById(R.id.coinText);
+            mCoinImage = itemView.findViewById(R.id.coinImage);
+            mEditorContainer = itemView.findViewById(R.id.coin_editor_container);
+            mGradeTextView = itemView.findViewById(R.id.grade_textview);
+            mQuantityTextView = itemView.findViewById(R.id.quantity_textview);
+            mNotesTextView = itemView.findViewById(R.id.notes_textview);
+        }
+    }
 }
@@ -0,0 +1,284 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection;
+
+import java.util.ArrayList;
+
+/**
+ * Filter and sort options for the coins shown on a collection page
+ *
+ * Filtering happens in two steps. A Snapshot of the coin keys is taken on the UI thread, which
+ * only copies values that CoinSlot has already computed, and then apply() can run on a
+ * background thread without touching the coin list. The result is an array of indices into the
+ * coin list rather than a copy of it, so the coins shown are still the ones in the list.
+ */
+class CoinSlotFilter {
+
+    // Collected state "enum" values
+    final static int SHOW_ALL = 0;
+    final static int SHOW_COLLECTED = 1;
+    final static int SHOW_MISSING = 2;
+
+    // Sort "enum" values - these match the order of R.array.coin_sort_types
+    final static int SORT_COLLECTION_ORDER = 0;
+    final static int SORT_YEAR = 1;
+    final static int SORT_GRADE = 2;
+    final static int SORT_QUANTITY = 3;
+    final static int SORT_COLLECTED = 4;
+
+    /** Used for the start or end of the year range if not set */
+    final static int ANY_YEAR = -1;
+
+    private final int mCollectedState;
+    private final String mMint;
+    private final String mMintKey;
+    private final int mStartYear;
+    private final int mEndYear;
+    private final String mNotes;
+    private final String mNotesKey;
+    private final int mSortType;
+
+    /**
+     * Constructor
+     * @param collectedState SHOW_ALL, SHOW_COLLECTED or SHOW_MISSING
+     * @param mint mint to show, or null to show all mints
+     * @param startYear first year to show, or ANY_YEAR
+     * @param endYear last year to show, or ANY_YEAR
+     * @param notes text the notes must contain, or "" to not filter on notes
+     * @param sortType one of the SORT_ values
+     */
+    CoinSlotFilter(int collectedState, String mint, int startYear, int endYear, String notes, int sortType) {
+        mCollectedState = collectedState;
+        mMint = (mint != null) ? mint.trim() : null;
+        mMintKey = (mint != null) ? mMint.toLowerCase() : null;
+        mStartYear = startYear;
+        mEndYear = endYear;
+        mNotes = notes;
+        mNotesKey = notes.toLowerCase();
+        mSortType = sortType;
+    }
+
+    /**
+     * @return true if this filter hides or re-orders any coins
+     */
+    boolean isActive() {
+        return mCollectedState != SHOW_ALL || mMintKey != null || mStartYear != ANY_YEAR
+                || mEndYear != ANY_YEAR || mNotesKey.length() != 0 || mSortType != SORT_COLLECTION_ORDER;
+    }
+
+    /**
+     * @return true if the filter uses the advanced info, which has to be loaded first
+     */
+    boolean needsAdvInfo() {
+        return mNotesKey.length() != 0 || mSortType == SORT_GRADE || mSortType == SORT_QUANTITY;
+    }
+
+    int getCollectedState() {
+        return mCollectedState;
+    }
+
+    String getMint() {
+        return mMint;
+    }
+
+    int getStartYear() {
+        return mStartYear;
+    }
+
+    int getEndYear() {
+        return mEndYear;
+    }
+
+    String getNotes() {
+        return mNotes;
+    }
+
+    int getSortType() {
+        return mSortType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof CoinSlotFilter)) {
+            return false;
+        }
+        CoinSlotFilter other = (CoinSlotFilter) o;
+        return mCollectedState == other.mCollectedState
+                && (mMintKey == null ? other.mMintKey == null : mMintKey.equals(other.mMintKey))
+                && mStartYear == other.mStartYear
+                && mEndYear == other.mEndYear
+                && mNotesKey.equals(other.mNotesKey)
+                && mSortType == other.mSortType;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mCollectedState;
+        result = 31 * result + (mMintKey != null ? mMintKey.hashCode() : 0);
+        result = 31 * result + mStartYear;
+        result = 31 * result + mEndYear;
+        result = 31 * result + mNotesKey.hashCode();
+        result = 31 * result + mSortType;
+        return result;
+    }
+
+    /**
+     * Finds the coins matching the filter, in the order they should be shown
+     * @param snapshot keys of the coins to filter
+     * @return indices into the coin list the snapshot was taken from
+     */
+    int[] apply(Snapshot snapshot) {
+        int size = snapshot.mYears.length;
+        int[] matches = new int[size];
+        int numMatches = 0;
+        for (int i = 0; i < size; i++) {
+            if (mCollectedState == SHOW_COLLECTED && !snapshot.mInCollection[i]) {
+                continue;
+            }
+            if (mCollectedState == SHOW_MISSING && snapshot.mInCollection[i]) {
+                continue;
+            }
+            if (mMintKey != null && !mMintKey.equals(snapshot.mMintKeys[i])) {
+                continue;
+            }
+            int year = snapshot.mYears[i];
+            if (mStartYear != ANY_YEAR && (year == CoinSlot.NO_YEAR || year < mStartYear)) {
+                continue;
+            }
+            if (mEndYear != ANY_YEAR && (year == CoinSlot.NO_YEAR || year > mEndYear)) {
+                continue;
+            }
+            if (mNotesKey.length() != 0 && !snapshot.mNotesKeys[i].contains(mNotesKey)) {
+                continue;
+            }
+            matches[numMatches++] = i;
+        }
+
+        // Sort on the numeric key, falling back to the collection order for ties
+        if (mSortType != SORT_COLLECTION_ORDER && numMatches > 1) {
+            int[] sortKeys;
+            switch (mSortType) {
+                case SORT_YEAR: sortKeys = snapshot.mYears; break;
+                case SORT_GRADE: sortKeys = snapshot.mGrades; break;
+                case SORT_QUANTITY: sortKeys = snapshot.mQuantities; break;
+                default: sortKeys = snapshot.mCollectedKeys; break;
+            }
+            sortByKey(matches, numMatches, sortKeys);
+        }
+
+        if (numMatches == size && mSortType == SORT_COLLECTION_ORDER) {
+            return matches;
+        }
+        int[] result = new int[numMatches];
+        System.arraycopy(matches, 0, result, 0, numMatches);
+        return result;
+    }
+
+    /**
+     * Stable sort of list indices by a key, without boxing
+     * @param indices list indices to sort (in increasing order)
+     * @param length number of indices to sort
+     * @param keys sort key of each list index
+     */
+    private static void sortByKey(int[] indices, int length, int[] keys) {
+        // Merge sort, since the indices go in already in collection order
+        int[] buffer = new int[length];
+        for (int width = 1; width < length; width *= 2) {
+            for (int start = 0; start < length; start += 2 * width) {
+                int mid = Math.min(start + width, length);
+                int end = Math.min(start + 2 * width, length);
+                int left = start, right = mid, out = start;
+                while (left < mid && right < end) {
+                    if (keys[indices[right]] < keys[indices[left]]) {
+                        buffer[out++] = indices[right++];
+                    } else {
+                        buffer[out++] = indices[left++];
+                    }
+                }
+                while (left < mid) {
+                    buffer[out++] = indices[left++];
+                }
+                while (right < end) {
+                    buffer[out++] = indices[right++];
+                }
+            }
+            System.arraycopy(buffer, 0, indices, 0, length);
+        }
+    }
+
+    /**
+     * Gets the distinct mints in a coin list, in the order they first appear
+     * @param coinList list of coins
+     * @return list of mints, with surrounding spaces removed
+     */
+    static ArrayList<String> getMints(ArrayList<CoinSlot> coinList) {
+        ArrayList<String> mints = new ArrayList<>();
+        ArrayList<String> mintKeys = new ArrayList<>();
+        for (CoinSlot coinSlot : coinList) {
+            String mintKey = coinSlot.getFilterMintKey();
+            if (!mintKeys.contains(mintKey)) {
+                mintKeys.add(mintKey);
+                mints.add(coinSlot.getMint() != null ? coinSlot.getMint().trim() : "");
+            }
+        }
+        return mints;
+    }
+
+    /**
+     * Copy of the filter keys of each coin in a list, which can be used from another thread
+     */
+    static class Snapshot {
+        final boolean[] mInCollection;
+        final int[] mCollectedKeys;
+        final String[] mMintKeys;
+        final int[] mYears;
+        final String[] mNotesKeys;
+        final int[] mGrades;
+        final int[] mQuantities;
+
+        /**
+         * Takes the snapshot - must be called from the thread that modifies the coin list
+         * @param coinList list of coins
+         */
+        Snapshot(ArrayList<CoinSlot> coinList) {
+            int size = coinList.size();
+            mInCollection = new boolean[size];
+            mCollectedKeys = new int[size];
+            mMintKeys = new String[size];
+            mYears = new int[size];
+            mNotesKeys = new String[size];
+            mGrades = new int[size];
+            mQuantities = new int[size];
+            for (int i = 0; i < size; i++) {
+                CoinSlot coinSlot = coinList.get(i);
+                mInCollection[i] = coinSlot.isInCollection();
+                // Show missing coins first when sorting by collected state
+                mCollectedKeys[i] = mInCollection[i] ? 1 : 0;
+                mMintKeys[i] = coinSlot.getFilterMintKey();
+                mYears[i] = coinSlot.getFilterYear();
+                mNotesKeys[i] = coinSlot.getFilterNotesKey();
+                mGrades[i] = coinSlot.getAdvancedGrades();
+                mQuantities[i] = coinSlot.getAdvancedQuantities();
+            }
+        }
+    }
+}
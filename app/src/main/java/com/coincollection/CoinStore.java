@@ -0,0 +1,360 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection;
+
+import android.database.SQLException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Storage for the collection metadata and coin rows
+ *
+ * Activities and ExportImportHelper only use this interface, so the storage engine can be
+ * swapped out. DatabaseAdapter is the SQLite implementation used by the app, and
+ * InMemoryCoinStore (in the sharedTest sources) keeps everything in memory for tests.
+ *
+ * Implementations are shared between all activities and background tasks. Each open() must be
+ * matched by a close(). Changes are made one at a time (see runWrite), and reads can be made
+ * from any thread.
+ */
+public interface CoinStore {
+
+    // Kinds of change reported to CollectionChangeListeners
+    int CHANGE_COLLECTION_CREATED = 0;
+    int CHANGE_COLLECTION_DROPPED = 1;
+    int CHANGE_COLLECTION_RENAMED = 2;
+    int CHANGE_COLLECTIONS_REORDERED = 3;
+    int CHANGE_COLLECTION_COUNTS = 4;
+    int CHANGE_ALL_COLLECTIONS = 5;
+
+    /**
+     * Listener for changes to the list of collections
+     */
+    interface CollectionChangeListener {
+        /**
+         * Called after a change has been made, on the thread that made it
+         * @param changeType one of the CHANGE_* constants
+         * @param collectionName the collection changed (the old name for renames), or null
+         *                       if the change isn't about a single collection
+         * @param newName the new name for CHANGE_COLLECTION_RENAMED, otherwise null
+         */
+        void onCollectionChanged(int changeType, String collectionName, String newName);
+    }
+
+    /**
+     * A change to the store, run by runWrite()
+     * @param <T> type of the result
+     */
+    interface WriteOperation<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * Takes a reference on the store, opening it if needed
+     * @throws SQLException if the store cannot be opened
+     */
+    void open() throws SQLException;
+
+    /**
+     * Releases a reference taken by open()
+     */
+    void close();
+
+    /**
+     * Runs a change, waiting for it to finish. Use this to group several changes that must
+     * not have other changes made in between them.
+     * @param operation change to make
+     * @param <T> type of the result
+     * @return the result of the operation
+     * @throws SQLException if the operation failed
+     */
+    <T> T runWrite(WriteOperation<T> operation) throws SQLException;
+
+    /**
+     * Registers a listener to be told about changes to the list of collections
+     * @param listener listener to add
+     */
+    void addCollectionChangeListener(CollectionChangeListener listener);
+
+    /**
+     * Unregisters a listener added with addCollectionChangeListener()
+     * @param listener listener to remove
+     */
+    void removeCollectionChangeListener(CollectionChangeListener listener);
+
+    /**
+     * Returns whether a coin has been marked as collected
+     * @param tableName collection name
+     * @param coinSlot coin to look up
+     * @return 1 if the coin is collected, 0 otherwise
+     * @throws SQLException if the coin could not be found
+     */
+    int fetchIsInCollection(String tableName, CoinSlot coinSlot) throws SQLException;
+
+    /**
+     * Toggles whether a coin is collected
+     * @param tableName collection name
+     * @param coinSlot coin to update
+     * @throws SQLException if the update was not successful
+     */
+    void toggleInCollection(String tableName, CoinSlot coinSlot) throws SQLException;
+
+    /**
+     * Returns the display type of a collection (advanced view, simple view, etc.)
+     * @param tableName collection name
+     * @return display type
+     * @throws SQLException if the collection could not be found
+     */
+    int fetchTableDisplay(String tableName) throws SQLException;
+
+    /**
+     * Updates the display type of a collection
+     * @param tableName collection name
+     * @param displayType new display type
+     * @throws SQLException if the update was not successful
+     */
+    void updateTableDisplay(String tableName, int displayType) throws SQLException;
+
+    /**
+     * Updates the position of a collection in the list of collections
+     * @param tableName collection name
+     * @param displayOrder new display order
+     * @throws SQLException if the update was not successful
+     */
+    void updateDisplayOrder(String tableName, int displayOrder) throws SQLException;
+
+    /**
+     * Updates whether a coin is collected and its advanced info (grade, quantity and notes)
+     * @param tableName collection name
+     * @param coinSlot coin to update
+     * @throws SQLException if the update was not successful
+     */
+    void updateAdvInfo(String tableName, CoinSlot coinSlot) throws SQLException;
+
+    /**
+     * Creates a collection and adds its coins
+     * @param collectionListInfo collection info
+     * @param displayOrder position in the list of collections
+     * @param coinData coins to add, or null. The database ids of the coins are set.
+     * @throws SQLException if the collection could not be created
+     */
+    void createAndPopulateNewTable(CollectionListInfo collectionListInfo, int displayOrder, ArrayList<CoinSlot> coinData) throws SQLException;
+
+    /**
+     * Creates a collection and adds its coins
+     * @param collectionListInfo collection info
+     * @param displayOrder position in the list of collections
+     * @param coinData coins to add, or null. The database ids of the coins are set.
+     * @param updateIndexes If false, the caller is responsible for rebuilding the search index
+     *                      and the statistics summary
+     * @throws SQLException if the collection could not be created
+     */
+    void createAndPopulateNewTable(CollectionListInfo collectionListInfo, int displayOrder, ArrayList<CoinSlot> coinData, boolean updateIndexes) throws SQLException;
+
+    /**
+     * Removes a collection
+     * @param tableName collection name
+     * @throws SQLException if the collection could not be removed
+     */
+    void dropCollectionTable(String tableName) throws SQLException;
+
+    /**
+     * Removes the metadata of all collections. Used when replacing the whole store on import.
+     * @throws SQLException if an error occurs
+     */
+    void dropCollectionInfoTable() throws SQLException;
+
+    /**
+     * Re-creates the (empty) metadata of all collections after dropCollectionInfoTable()
+     * @throws SQLException if an error occurs
+     */
+    void createCollectionInfoTable() throws SQLException;
+
+    /**
+     * Returns the names of all collections
+     * @return collection names, in display order
+     * @throws SQLException if an error occurs
+     */
+    ArrayList<String> getCollectionNames() throws SQLException;
+
+    /**
+     * Upgrades collections imported from an older database version
+     * @param oldVersion the database version to upgrade from
+     * @param fromImport true if the upgrade is part of a database import
+     * @throws SQLException if the collections could not be upgraded
+     */
+    void upgradeCollections(int oldVersion, boolean fromImport) throws SQLException;
+
+    /**
+     * Re-populates the search index from all collections
+     * @throws SQLException if an error occurs
+     */
+    void rebuildSearchIndex() throws SQLException;
+
+    /**
+     * Re-computes the statistics summary of all collections
+     * @throws SQLException if an error occurs
+     */
+    void rebuildStats() throws SQLException;
+
+    /**
+     * Reads the progress statistics of all collections
+     * @return statistics
+     * @throws SQLException if an error occurs
+     */
+    CollectionStats getCollectionStats() throws SQLException;
+
+    /**
+     * Searches all collections for coins matching the text typed in by the user
+     * @param searchText text typed in by the user
+     * @return list of matching coins, in collection display order
+     * @throws SQLException if an error occurs
+     */
+    ArrayList<CoinSearchResult> searchCoins(String searchText) throws SQLException;
+
+    /**
+     * Check if a name can be used for a new/renamed collection
+     * @param tableName collection name
+     * @return -1 if successful otherwise a resource id corresponding to an error message
+     */
+    int checkCollectionName(String tableName);
+
+    /**
+     * Get the next display order for a new collection
+     * @return the next display order to use
+     * @throws SQLException if an error occurs
+     */
+    int getNextDisplayOrder() throws SQLException;
+
+    /**
+     * Get the next sort order for a new coin
+     * @param tableName collection name
+     * @return the next sort order to use
+     * @throws SQLException if an error occurs
+     */
+    int getNextCoinSortOrder(String tableName) throws SQLException;
+
+    /**
+     * Copies a collection
+     * @param sourceCollectionListInfo collection to copy
+     * @param newTableName name of the new collection
+     * @param insertIndex display order of the new collection
+     * @return the new collection info
+     * @throws SQLException if an error occurs
+     */
+    CollectionListInfo createCollectionCopy(CollectionListInfo sourceCollectionListInfo, String newTableName, int insertIndex) throws SQLException;
+
+    /**
+     * Renames a collection
+     * @param oldName the original collection name
+     * @param newName the new collection name
+     * @throws SQLException if the update was not successful
+     */
+    void updateCollectionName(String oldName, String newName) throws SQLException;
+
+    /**
+     * Updates an existing coin's identifier and mint
+     * @param tableName collection name
+     * @param coinSlot coin to update
+     * @throws SQLException if an error occurs
+     */
+    void updateCoinNameAndMint(String tableName, CoinSlot coinSlot) throws SQLException;
+
+    /**
+     * Updates the info of an existing collection, and optionally replaces its coins
+     * @param oldTableName the original collection name
+     * @param collectionListInfo new collection info
+     * @param coinData new coins, or null to keep the existing coins
+     * @throws SQLException if an error occurs
+     */
+    void updateExistingCollection(String oldTableName, CollectionListInfo collectionListInfo, ArrayList<CoinSlot> coinData) throws SQLException;
+
+    /**
+     * Gets the list info of all collections
+     * @param collectionListEntries list to populate, in display order
+     * @throws SQLException if an error occurs
+     */
+    void getAllTables(ArrayList<CollectionListInfo> collectionListEntries) throws SQLException;
+
+    /**
+     * Returns the list info of a single collection
+     * @param tableName collection name
+     * @return the collection info, or null if there's no collection with that name
+     * @throws SQLException if an error occurs
+     */
+    CollectionListInfo getCollectionListInfo(String tableName) throws SQLException;
+
+    /**
+     * Inserts a hole in the sort order at a given position (to accommodate a new coin being added)
+     * @param tableName collection name
+     * @param insertSortOrder sort order where the new coin will be inserted
+     * @throws SQLException if an error occurs
+     */
+    void updateCoinSortOrderForInsert(String tableName, int insertSortOrder) throws SQLException;
+
+    /**
+     * Adds a coin to a collection
+     * @param coinSlot coin to add. Its database id is set.
+     * @param tableName collection name
+     * @param updateTotal if true, updates the collection total
+     * @param newCollectionSize new collection total
+     * @throws SQLException if the coin could not be added
+     */
+    void addCoinSlotToCollection(CoinSlot coinSlot, String tableName, boolean updateTotal, int newCollectionSize) throws SQLException;
+
+    /**
+     * Removes a coin from a collection
+     * @param coinSlot coin to remove
+     * @param tableName collection name
+     * @param newCollectionSize new collection total
+     * @throws SQLException if the coin could not be removed
+     */
+    void removeCoinSlotFromCollection(CoinSlot coinSlot, String tableName, int newCollectionSize) throws SQLException;
+
+    /**
+     * Gets the coins in a collection
+     * @param tableName collection name
+     * @param populateAdvInfo If true, includes advanced attributes
+     * @param useSortOrder If true, sorts by sort order, otherwise by database id (and sets the
+     *                     sort order to the database id)
+     * @return CoinSlot list
+     */
+    ArrayList<CoinSlot> getCoinList(String tableName, boolean populateAdvInfo, boolean useSortOrder);
+
+    /**
+     * Gets the coins in a collection, in sort order
+     * @param tableName collection name
+     * @param populateAdvInfo If true, includes advanced attributes
+     * @return CoinSlot list
+     */
+    ArrayList<CoinSlot> getCoinList(String tableName, boolean populateAdvInfo);
+
+    /**
+     * Reads the advanced attributes of every coin in a collection, for a coin list that was
+     * loaded without them
+     * @param tableName collection name
+     * @return map of coin id to advanced attributes
+     * @throws SQLException if an error occurs
+     */
+    HashMap<Long, CoinSlot.AdvInfo> getAdvInfo(String tableName) throws SQLException;
+}
@@ -22,6 +22,8 @@ package com.coincollection;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.core.CoinCreationParams;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 
@@ -98,9 +100,24 @@ public abstract class CollectionInfo {
      * @param coinList the ArrayList to populate with coin information
      *                       (Ex: ('2009', ''), ('George Washington', 'P'))
      */
-    abstract public void populateCollectionLists(
+    public void populateCollectionLists(
             HashMap<String, Object> parameters,
-            ArrayList<CoinSlot> coinList);
+            ArrayList<CoinSlot> coinList) {
+        populateCollectionLists(new CoinCreationParams(parameters), new CoinListBuilder(coinList));
+    }
+
+    /**
+     * Produces the coins for a collection based on the typed creation options.
+     * This is what each collection type implements - see the HashMap version
+     * above. The builder either collects the coins into a list or just counts
+     * them, so implementations must only pass coins to coinList.add().
+     *
+     * @param params the options to use when creating the collection
+     * @param coinList the builder to add each coin to
+     */
+    abstract public void populateCollectionLists(
+            CoinCreationParams params,
+            CoinListBuilder coinList);
 
     /**
      * Performs any updates to a collection's database tables.  This allows
@@ -145,4 +162,28 @@ public abstract class CollectionInfo {
      * @return Returns 0 if start/stop years aren't used by this series
      */
     abstract public int getStopYear();
+
+    // Cached identifier strings for years, shared by all collections so that creating a
+    // collection doesn't format a new string for each year
+    private final static int FIRST_CACHED_YEAR = 1780;
+    private final static int LAST_CACHED_YEAR = 2100;
+    private final static String[] YEAR_STRINGS = new String[LAST_CACHED_YEAR - FIRST_CACHED_YEAR + 1];
+
+    /**
+     * Gets the identifier string for a year
+     * @param year the year
+     * @return the year as a string (Ex: "1964")
+     */
+    protected static String getYearString(int year) {
+        if (year < FIRST_CACHED_YEAR || year > LAST_CACHED_YEAR) {
+            return Integer.toString(year);
+        }
+        // Racing threads may both fill in an entry, but they write equal strings
+        String yearString = YEAR_STRINGS[year - FIRST_CACHED_YEAR];
+        if (yearString == null) {
+            yearString = Integer.toString(year);
+            YEAR_STRINGS[year - FIRST_CACHED_YEAR] = yearString;
+        }
+        return yearString;
+    }
 }
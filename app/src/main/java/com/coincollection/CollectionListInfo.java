@@ -28,6 +28,10 @@ import android.os.Parcelable;
 import android.util.JsonReader;
 import android.util.JsonWriter;
 
+import com.coincollection.core.CoinDataSummary;
+import com.coincollection.core.CollectionFlags;
+import com.coincollection.core.CreationParameters;
+import com.coincollection.core.CsvFields;
 import com.spencerpages.MainApplication;
 import com.spencerpages.collections.AmericanEagleSilverDollars;
 import com.spencerpages.collections.BarberDimes;
@@ -47,7 +51,6 @@ import com.spencerpages.collections.NativeAmericanDollars;
 import com.spencerpages.collections.PeaceDollars;
 import com.spencerpages.collections.RooseveltDimes;
 import com.spencerpages.collections.StandingLibertyQuarters;
-import com.spencerpages.collections.StateQuarters;
 import com.spencerpages.collections.SusanBAnthonyDollars;
 import com.spencerpages.collections.WalkingLibertyHalfDollars;
 import com.spencerpages.collections.WashingtonQuarters;
@@ -74,29 +77,21 @@ public class CollectionListInfo implements Parcelable {
     private final CollectionInfo mCollectionInfo;
 
     // Flags for selected mint marks
-    public final static int ALL_MINT_MASK = 0x3F;
-    public final static int SHOW_MINT_MARKS = 0x1;
-    public final static int MINT_P = 0x2;
-    public final static int MINT_D = 0x4;
-    public final static int MINT_S = 0x8;
-    public final static int MINT_O = 0x10;
-    public final static int MINT_CC = 0x20;
+    public final static int ALL_MINT_MASK = CollectionFlags.ALL_MINT_MASK;
+    public final static int SHOW_MINT_MARKS = CollectionFlags.SHOW_MINT_MARKS;
+    public final static int MINT_P = CollectionFlags.MINT_P;
+    public final static int MINT_D = CollectionFlags.MINT_D;
+    public final static int MINT_S = CollectionFlags.MINT_S;
+    public final static int MINT_O = CollectionFlags.MINT_O;
+    public final static int MINT_CC = CollectionFlags.MINT_CC;
 
     // Flags for show checkboxes options
-    public final static int ALL_CHECKBOXES_MASK = 0x7;
-    public final static int CUSTOM_DATES = 0x1;
-    public final static int BURNISHED = 0x2;
-    public final static int TERRITORIES = 0x4;
+    public final static int ALL_CHECKBOXES_MASK = CollectionFlags.ALL_CHECKBOXES_MASK;
+    public final static int CUSTOM_DATES = CollectionFlags.CUSTOM_DATES;
+    public final static int BURNISHED = CollectionFlags.BURNISHED;
+    public final static int TERRITORIES = CollectionFlags.TERRITORIES;
 
-    public final static HashMap<String, Integer> MINT_STRING_TO_FLAGS = new HashMap<>();
-
-    static {
-        MINT_STRING_TO_FLAGS.put("P", MINT_P);
-        MINT_STRING_TO_FLAGS.put("D", MINT_D);
-        MINT_STRING_TO_FLAGS.put("S", MINT_S);
-        MINT_STRING_TO_FLAGS.put("O", MINT_O);
-        MINT_STRING_TO_FLAGS.put("CC", MINT_CC);
-    }
+    public final static HashMap<String, Integer> MINT_STRING_TO_FLAGS = CollectionFlags.MINT_STRING_TO_FLAGS;
 
     // Database tables and keys
     public final static String TBL_COLLECTION_INFO = "collection_info";
@@ -148,7 +143,7 @@ public class CollectionListInfo implements Parcelable {
         mEndYear = stopYear;
         mMintMarkFlags = mintMarkFlags;
         mCheckboxFlags = checkboxFlags;
-        mCollectionInfo = MainApplication.COLLECTION_TYPES[mCollectionTypeIndex];
+        mCollectionInfo = MainApplication.getCollectionType(mCollectionTypeIndex);
     }
 
     /**
@@ -169,6 +164,24 @@ public class CollectionListInfo implements Parcelable {
                 mCheckboxFlags);
     }
 
+    /**
+     * Checks whether another object describes the same collection with the same details
+     * @param other The object to compare against
+     * @return true if every displayed or stored field matches
+     */
+    public boolean hasSameContents(CollectionListInfo other) {
+        return (other != null)
+                && mCollectionName.equals(other.mCollectionName)
+                && (mTotalCoinsInCollection == other.mTotalCoinsInCollection)
+                && (mTotalCoinsCollected == other.mTotalCoinsCollected)
+                && (mCollectionTypeIndex == other.mCollectionTypeIndex)
+                && (mDisplayType == other.mDisplayType)
+                && (mStartYear == other.mStartYear)
+                && (mEndYear == other.mEndYear)
+                && (mMintMarkFlags == other.mMintMarkFlags)
+                && (mCheckboxFlags == other.mCheckboxFlags);
+    }
+
     public void setMax(int max) {
         mTotalCoinsInCollection = max;
     }
@@ -275,146 +288,30 @@ public class CollectionListInfo implements Parcelable {
      * @param coinList list of coins in the database
      */
     public void setCreationParametersFromCoinData(ArrayList<CoinSlot> coinList) {
-        String coinType = this.getType();
-        int startYear = this.getCollectionObj().getStartYear();
-        int endYear = this.getCollectionObj().getStopYear();
-        boolean showBurnished = false;
-        boolean showTerritories = false;
-        boolean hasBlankMint = false;
-        boolean showP = false;
-        boolean showD = false;
-        boolean showS = false;
-        boolean showO = false;
-        boolean showCC = false;
-        boolean hideMintMarksCheckValid = (coinType.equals(WalkingLibertyHalfDollars.COLLECTION_TYPE));
-        boolean hideMintMarks = false;
-
-        for (int i = 0; i < coinList.size(); i++) {
-            String mintMark = coinList.get(i).getMint();
-            String coinId = coinList.get(i).getIdentifier();
-            if (mintMark.equals("")) {
-                hasBlankMint = true;
-            }
-            if (mintMark.equals("P") || mintMark.equals(" P") || mintMark.contains(" P ")
-                    || isPMintSpecialCase(coinType, coinId, mintMark)) {
-                showP = true;
-            }
-            if (mintMark.equals("D") || mintMark.equals(" D") || mintMark.contains(" D ")) {
-                showD = true;
-            }
-            if (mintMark.equals("S") || mintMark.equals(" S") || mintMark.contains(" S ")) {
-                showS = true;
-            }
-            if (mintMark.equals("O") || mintMark.equals(" O") || mintMark.contains(" O ")) {
-                showO = true;
-            }
-            if (mintMark.equals("CC") || mintMark.equals(" CC") || mintMark.contains(" CC ")) {
-                showCC = true;
-            }
-            if (coinId.contains("Burnished")) {
-                showBurnished = true;
-            }
-            if (coinType.equals(StateQuarters.COLLECTION_TYPE) &&
-                    coinId.equals(StateQuarters.DC_AND_TERR_COIN_IDENTIFIERS[0][0])) {
-                showTerritories = true;
-            }
-            if (isHideMintMarkSpecialCase(coinType, coinId, mintMark)) {
-                hideMintMarks = true;
-            }
-        }
-        // Show mint marks if any mint is explicitly displayed
-        boolean showMintMarks = showP || showD || showS || showO || showCC;
-
-        // In certain cases we need to differentiate between "P" and no mints by seeing if a
-        // coin only in the hide mint mark list exists in the collection
-        if (hideMintMarksCheckValid && !hideMintMarks) {
-            showMintMarks = true;
-        }
-
-        // Include P mint mark if the collection has blanks or does not show mint marks
-        showP = showP || hasBlankMint || !showMintMarks;
-
-        // Get the start and end date
-        boolean useCustomDateRange = false;
-        if (doesCollectionTypeUseDates(coinType)) {
-            if (coinList.size() > 0) {
-                try {
-                    // Start Year
-                    int newStartYear = parseDateString(coinList.get(0).getIdentifier());
-                    useCustomDateRange = (newStartYear != startYear);
-                    startYear = newStartYear;
-                    // End Year
-                    int newEndYear = parseDateString(coinList.get(coinList.size() - 1).getIdentifier());
-                    useCustomDateRange |= (newEndYear != endYear);
-                    endYear = newEndYear;
-                } catch (NumberFormatException ignored) {
-                    // If a parsing error occurs for some reason, just use the start/end dates
-                }
-            }
-        }
-
-        // Combine flags for mint marks
-        int mintMarkFlags = showMintMarks ? CollectionListInfo.SHOW_MINT_MARKS : 0;
-        mintMarkFlags |= showP ? CollectionListInfo.MINT_P : 0;
-        mintMarkFlags |= showD ? CollectionListInfo.MINT_D : 0;
-        mintMarkFlags |= showS ? CollectionListInfo.MINT_S : 0;
-        mintMarkFlags |= showO ? CollectionListInfo.MINT_O : 0;
-        mintMarkFlags |= showCC ? CollectionListInfo.MINT_CC : 0;
-
-        // Combine flags for checkboxes
-        int checkboxFlags = useCustomDateRange ? CollectionListInfo.CUSTOM_DATES: 0;
-        checkboxFlags |= showBurnished ? CollectionListInfo.BURNISHED : 0;
-        checkboxFlags |= showTerritories ? CollectionListInfo.TERRITORIES : 0;
-
-        // Populate the collection creation details
-        this.setCreationParameters(
-                startYear,
-                endYear,
-                mintMarkFlags,
-                checkboxFlags
-        );
-    }
-
-    /**
-     * Parse date string to extract the start/stop year
-     * @param dateStr the data string
-     * @return parsed start/end date
-     * @throws NumberFormatException if the string does not contain a parsable integer.
-     */
-    private int parseDateString(String dateStr) throws NumberFormatException {
-        if (dateStr.equals("1776-1976")) {
-            return 1976;
-        } else {
-            return Integer.parseInt(dateStr.substring(0, 4));
-        }
+        setCreationParametersFromSummary(CoinDataSummary.fromCoinList(this.getType(), coinList));
     }
 
     /**
-     * Detect special cases indicating that the user selected "P" mint marks
-     * @param coinType collection type name
-     * @param coinId coin date or name
-     * @param mintMark coin mint mark
-     * @return true if the coin is a special case P mint mark coin, false otherwise
+     * Populates the creation parameters from a summary of the coin data, which can be read
+     * from the database without loading every coin
+     * @param summary summary of the coins in the database
      */
-    private boolean isPMintSpecialCase(String coinType, String coinId, String mintMark) {
-        return (coinType.equals(BuffaloNickels.COLLECTION_TYPE) && coinId.equals("1913") && mintMark.equals(" Type 1"))
-                || (coinType.equals(IndianHeadCents.COLLECTION_TYPE) && coinId.equals("1864") && mintMark.equals(" Copper"))
-                || (coinType.equals(MorganDollars.COLLECTION_TYPE) && coinId.equals("1878 8 Feathers"));
-    }
+    public void setCreationParametersFromSummary(CoinDataSummary summary) {
+        String coinType = this.getType();
+        CreationParameters params = CreationParameters.fromSummary(
+                coinType,
+                this.getCollectionObj().getStartYear(),
+                this.getCollectionObj().getStopYear(),
+                doesCollectionTypeUseDates(coinType),
+                summary);
 
-    /**
-     * Detect special cases indicating that the user did not check 'show mint marks'
-     * @param coinType collection type name
-     * @param coinId coin date or name
-     * @param mintMark coin mint mark
-     * @return true if the coin is a special case of no mint marks, false otherwise
-     */
-    private boolean isHideMintMarkSpecialCase(String coinType, String coinId, String mintMark) {
-        if (coinType.equals(WalkingLibertyHalfDollars.COLLECTION_TYPE) && mintMark.equals("")) {
-            int dateInt = Integer.parseInt(coinId.substring(0, 4));
-            return (dateInt >= 1923 && dateInt <= 1933);
-        }
-        return false;
+        // Populate the collection creation details
+        this.setCreationParameters(
+                params.getStartYear(),
+                params.getEndYear(),
+                params.getMintMarkFlags(),
+                params.getCheckboxFlags()
+        );
     }
 
     /**
@@ -436,7 +333,7 @@ public class CollectionListInfo implements Parcelable {
      * @param dbAdapter database adapter
      * @return string array with collection data
      */
-    public String[] getCsvExportProperties(DatabaseAdapter dbAdapter) {
+    public String[] getCsvExportProperties(CoinStore dbAdapter) {
 
         // NOTE For display, don't use item.getDisplayType bc I don't
         // think we populate that value except when importing...
@@ -503,7 +400,7 @@ public class CollectionListInfo implements Parcelable {
      * @param coinList coins associated with the collection
      * @throws IOException if an error occurred
      */
-    public void writeToJson(JsonWriter writer, DatabaseAdapter dbAdapter, ArrayList<CoinSlot> coinList) throws IOException {
+    public void writeToJson(JsonWriter writer, CoinStore dbAdapter, ArrayList<CoinSlot> coinList) throws IOException {
 
         // NOTE For display, don't use item.getDisplayType bc I don't
         // think we populate that value except when importing...
@@ -608,7 +505,7 @@ public class CollectionListInfo implements Parcelable {
         mMintMarkFlags = mintMarkFlags;
         mCheckboxFlags = checkboxFlags;
         mCollectionTypeIndex = collectionTypeIndex;
-        mCollectionInfo = MainApplication.COLLECTION_TYPES[mCollectionTypeIndex];
+        mCollectionInfo = MainApplication.getCollectionType(mCollectionTypeIndex);
     }
 
     /**
@@ -621,19 +518,19 @@ public class CollectionListInfo implements Parcelable {
         mCollectionName = in[0].replace('[', ' ').replace(']', ' ');
         mTotalCoinsCollected = Integer.parseInt(in[2]);
         mTotalCoinsInCollection = Integer.parseInt(in[3]);
-        mDisplayType = (in.length > 4) ? Integer.parseInt(in[4]) : 0;
+        mDisplayType = CsvFields.getInt(in, 4, 0);
 
         // If the properties below aren't present, they will be determined
         // using setCreationParametersFromCoinData()
-        mStartYear = (in.length > 5) ? Integer.parseInt(in[5]) : 0;
-        mEndYear = (in.length > 6) ? Integer.parseInt(in[6]) : 0;
-        mMintMarkFlags = (in.length > 7) ? Integer.parseInt(in[7]) : 0;
-        mCheckboxFlags = (in.length > 8) ? Integer.parseInt(in[8]) : 0;
+        mStartYear = CsvFields.getInt(in, 5, 0);
+        mEndYear = CsvFields.getInt(in, 6, 0);
+        mMintMarkFlags = CsvFields.getInt(in, 7, 0);
+        mCheckboxFlags = CsvFields.getInt(in, 8, 0);
 
         // If the coin type isn't recognized, an error occurred so just choose a safe value
         int collectionTypeIndex = MainApplication.getIndexFromCollectionNameStr(in[1]);
         mCollectionTypeIndex = (collectionTypeIndex != -1) ? collectionTypeIndex : 0;
-        mCollectionInfo = MainApplication.COLLECTION_TYPES[mCollectionTypeIndex];
+        mCollectionInfo = MainApplication.getCollectionType(mCollectionTypeIndex);
     }
 
     /**
@@ -650,7 +547,7 @@ public class CollectionListInfo implements Parcelable {
         mEndYear = in.readInt();
         mMintMarkFlags = in.readInt();
         mCheckboxFlags = in.readInt();
-        mCollectionInfo = MainApplication.COLLECTION_TYPES[mCollectionTypeIndex];
+        mCollectionInfo = MainApplication.getCollectionType(mCollectionTypeIndex);
     }
 
     @Override
@@ -0,0 +1,157 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection;
+
+import androidx.core.util.AtomicFile;
+
+import com.spencerpages.MainApplication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Small on-disk copy of the main collection list, so the list can be shown at startup before
+ * the database has been opened (and possibly upgraded)
+ *
+ * The snapshot holds each collection's name, type, totals and creation parameters in display
+ * order. It's only a cache - the list is always replaced with the database contents once the
+ * database is ready, and an unreadable snapshot is treated the same as a missing one.
+ */
+public class CollectionListSnapshot {
+
+    public final static String SNAPSHOT_FILE_NAME = "collection_list_snapshot.bin";
+
+    // Bump this if the file layout changes so that old snapshots are ignored
+    private final static int SNAPSHOT_VERSION = 1;
+
+    /**
+     * Serializes the collection list into the snapshot file format
+     * @param collectionListEntries collections in display order
+     * @param numberOfCollections number of collections in the list (excluding any spacers)
+     * @return snapshot contents
+     */
+    public static byte[] serialize(List<CollectionListInfo> collectionListEntries, int numberOfCollections) {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(byteStream)) {
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(numberOfCollections);
+            for (int i = 0; i < numberOfCollections; i++) {
+                CollectionListInfo info = collectionListEntries.get(i);
+                out.writeUTF(info.getName());
+                out.writeUTF(info.getType());
+                out.writeInt(info.getMax());
+                out.writeInt(info.getCollected());
+                out.writeInt(info.getDisplayType());
+                out.writeInt(info.getStartYear());
+                out.writeInt(info.getEndYear());
+                out.writeInt(info.getMintMarkFlags());
+                out.writeInt(info.getCheckboxFlags());
+            }
+        } catch (IOException e) {
+            // Not expected when writing to memory
+            return null;
+        }
+        return byteStream.toByteArray();
+    }
+
+    /**
+     * Parses snapshot contents back into a collection list
+     * @param data snapshot contents
+     * @return collections in display order, or null if the data isn't a valid snapshot
+     */
+    public static ArrayList<CollectionListInfo> deserialize(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                return null;
+            }
+            int numberOfCollections = in.readInt();
+            if (numberOfCollections < 0) {
+                return null;
+            }
+            ArrayList<CollectionListInfo> collectionListEntries = new ArrayList<>(numberOfCollections);
+            for (int i = 0; i < numberOfCollections; i++) {
+                String name = in.readUTF();
+                int collectionTypeIndex = MainApplication.getIndexFromCollectionNameStr(in.readUTF());
+                int total = in.readInt();
+                int collected = in.readInt();
+                int displayType = in.readInt();
+                int startYear = in.readInt();
+                int endYear = in.readInt();
+                int mintMarkFlags = in.readInt();
+                int checkboxFlags = in.readInt();
+                if (collectionTypeIndex == -1) {
+                    return null;
+                }
+                collectionListEntries.add(new CollectionListInfo(name, total, collected,
+                        collectionTypeIndex, displayType, startYear, endYear, mintMarkFlags,
+                        checkboxFlags));
+            }
+            return collectionListEntries;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the snapshot file
+     * @param directory directory holding the snapshot
+     * @return collections in display order, or null if there is no valid snapshot
+     */
+    public static ArrayList<CollectionListInfo> read(File directory) {
+        AtomicFile file = new AtomicFile(new File(directory, SNAPSHOT_FILE_NAME));
+        try {
+            return deserialize(file.readFully());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the snapshot file. The new contents are written to a temporary file and moved
+     * into place, so a crash part way through leaves the previous snapshot intact.
+     * @param directory directory holding the snapshot
+     * @param data snapshot contents from serialize()
+     * @return true if the snapshot was written
+     */
+    public static boolean write(File directory, byte[] data) {
+        AtomicFile file = new AtomicFile(new File(directory, SNAPSHOT_FILE_NAME));
+        FileOutputStream out = null;
+        try {
+            out = file.startWrite();
+            out.write(data);
+            file.finishWrite(out);
+            return true;
+        } catch (IOException e) {
+            if (out != null) {
+                file.failWrite(out);
+            }
+            return false;
+        }
+    }
+}
@@ -27,8 +27,13 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.database.SQLException;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.Editable;
 import android.text.InputFilter;
 import android.text.InputType;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.view.KeyEvent;
 import android.view.LayoutInflater;
@@ -37,22 +42,31 @@ import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.inputmethod.InputMethodManager;
-import android.widget.AbsListView;
-import android.widget.AbsListView.OnScrollListener;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
 import android.widget.EditText;
-import android.widget.GridView;
-import android.widget.ListView;
 import android.widget.RelativeLayout;
+import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.SimpleItemAnimator;
 
+import com.coincollection.CollectionPageViewModel.PendingCopy;
 import com.spencerpages.BuildConfig;
 import com.spencerpages.MainApplication;
 import com.spencerpages.R;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** Activity for managing each collection page
  *
@@ -62,15 +76,30 @@ public class CollectionPage extends BaseActivity {
     private String mCollectionName;
     public ArrayList<CoinSlot> mCoinList;
     private CoinSlotAdapter mCoinSlotAdapter;
+    private RecyclerView mRecyclerView;
+    private RecyclerView.OnScrollListener mScrollListener;
+    private CollectionPageViewModel mViewModel;
+
+    // Filtering runs on a background thread, and only the results of the latest filter are used
+    private final ExecutorService mFilterExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger mFilterGeneration = new AtomicInteger();
+    private boolean mFilterPending = false;
+    private AdapterView.OnItemSelectedListener mFilterSelectedListener;
+    private TextWatcher mFilterTextWatcher;
 
     // Saved Instance State Keywords
+    private final static String UNSAVED_COIN_IDS        = "unsaved_coin_ids";
+    private final static String UNSAVED_COIN_GRADES     = "unsaved_coin_grades";
+    private final static String UNSAVED_COIN_QUANTITIES = "unsaved_coin_quantities";
+    private final static String UNSAVED_COIN_NOTES      = "unsaved_coin_notes";
 
     // Intent Argument Keywords
     public final static String COLLECTION_NAME        = "Collection_Name";
     public final static String COLLECTION_TYPE_INDEX  = "Collection_Type_Index";
+    public final static String SCROLL_TO_COIN_ID      = "Scroll_To_Coin_Id";
     private final static String VIEW_INDEX            = "view_index";
     private final static String VIEW_POSITION         = "view_position";
-    private final static String COIN_LIST             = "coin_list";
 
     // Global "enum" values
     public static final int SIMPLE_DISPLAY = 0;
@@ -85,16 +114,11 @@ public class CollectionPage extends BaseActivity {
     private final static int ACTIONS_COPY = 2;
     private final static int ACTIONS_DELETE = 3;
 
-    /* Used in conjunction with the ListView in the advance view case to scroll the view to the last
-     * location.  Defaults to the first item, and will be set by:
-     *     1 The index and position saved in the Intent that started us
-     *         - Used to pass data when switching from the simple view to the advanced view
-     *     2 The index and position saved in the mSavedInstanceState
-     *         - Used to pass data when the screen rotates
-     *
-     * Info in the mSavedInstanceState will overwrite the info from the Intent (so that if the user
-     * switched from simple into advanced and then rotated the screen, where they were when they
-     * rotated the screen will display
+    /* Used in conjunction with the RecyclerView to scroll the view to the last
+     * location.  Defaults to the first item, and will be set by the index and
+     * position saved in the mSavedInstanceState (used to pass data when the
+     * screen rotates).  Switching between the simple and advanced views happens
+     * in place, so the position is carried over directly in that case.
      */
     private int mViewIndex = 0;
     private int mViewPosition = 0;
@@ -110,24 +134,26 @@ public class CollectionPage extends BaseActivity {
 
         // Need to get the coin type from the intent that started this process
         int collectionTypeIndex = mCallingIntent.getIntExtra(COLLECTION_TYPE_INDEX, 0);
-        CollectionInfo collectionTypeObj = MainApplication.COLLECTION_TYPES[collectionTypeIndex];
-
-        // Capture the collection name from the saved instance state if it's there,
-        // otherwise capture from the calling intent. Note that the calling intent
-        // is updated with any renames before re-creating the view.
-        if(savedInstanceState != null){
+        CollectionInfo collectionTypeObj = MainApplication.getCollectionType(collectionTypeIndex);
+
+        // The view model keeps the collection name, including any renames, across configuration
+        // changes. Otherwise capture it from the saved instance state if it's there, or else
+        // from the calling intent.
+        mViewModel = getViewModel();
+        if(mViewModel.mDbCollectionName != null){
+            mCollectionName = mViewModel.mDbCollectionName;
+        } else if(savedInstanceState != null){
             mCollectionName = savedInstanceState.getString(COLLECTION_NAME);
+            mViewModel.mDbCollectionName = mCollectionName;
         } else{
             mCollectionName = mCallingIntent.getStringExtra(COLLECTION_NAME);
+            mViewModel.mDbCollectionName = mCollectionName;
         }
 
         // Restore the view index and position
         if(savedInstanceState != null){
             mViewIndex = savedInstanceState.getInt(VIEW_INDEX);
             mViewPosition = savedInstanceState.getInt(VIEW_POSITION);
-        } else if(mCallingIntent.hasExtra(VIEW_INDEX)){
-            mViewIndex = mCallingIntent.getIntExtra(VIEW_INDEX, 0);
-            mViewPosition = mCallingIntent.getIntExtra(VIEW_POSITION, 0);
         }
 
         // Update the title
@@ -143,9 +169,6 @@ public class CollectionPage extends BaseActivity {
             createAndShowHelpDialog("first_Time_screen5", R.string.tutorial_edit_copy_delete_coins);
         }
 
-        // Determine whether we should show the advanced view or the basic view
-        mDisplayType = mDbAdapter.fetchTableDisplay(mCollectionName);
-
         // Update the icon
         if(mActionBar != null){
             mActionBar.setIcon(collectionTypeObj.getCoinImageIdentifier());
@@ -154,124 +177,473 @@ public class CollectionPage extends BaseActivity {
             mActionBar.setDisplayHomeAsUpEnabled(true);
         }
 
-        GridView gridview = null;
-        ListView listview = null;
+        // Populate the coin list
+        // - The list is retained in the view model across configuration changes, so it only
+        //   needs to be loaded from the database the first time or after the process was killed
+        if(mViewModel.mCoinList == null){
+            final String collectionName = mCollectionName;
+            runInBackground(() -> {
+                // Determine whether we should show the advanced view or the basic view
+                int displayType = mDbAdapter.fetchTableDisplay(collectionName);
+                // The advanced info is only needed for the advanced view, so it gets loaded
+                // later on if the user switches views
+                boolean populateAdvInfo = (displayType == ADVANCED_DISPLAY);
+                return new LoadedCoinList(displayType, mDbAdapter.getCoinList(collectionName, populateAdvInfo));
+            }, loaded -> {
+                mViewModel.mDisplayType = loaded.mDisplayType;
+                mViewModel.mCoinList = loaded.mCoinList;
+                mViewModel.mHasAdvInfo = (loaded.mDisplayType == ADVANCED_DISPLAY);
+                if(savedInstanceState != null){
+                    // Only the coins with unsaved changes were saved off, so re-apply
+                    // those on top of what was loaded from the database
+                    mViewModel.mHasUnsavedChanges = restoreUnsavedCoinSlots(savedInstanceState, mViewModel.mCoinList);
+                }
+                finishViewSetup(collectionTypeObj, savedInstanceState);
+                // The menu may have been created before the display type was known
+                invalidateOptionsMenu();
+            }, mRes.getString(R.string.error_reading_database));
+        } else {
+            if(BuildConfig.DEBUG) {
+                Log.d(APP_NAME, "Successfully restored previous state");
+            }
+            finishViewSetup(collectionTypeObj, savedInstanceState);
+            applyPreviousActivityWork();
+        }
+    }
 
-        if(mDisplayType == SIMPLE_DISPLAY) {
+    /**
+     * Gets the view model, which also owns the executor used before onCreate gets to it
+     * @return view model for this page
+     */
+    private CollectionPageViewModel getViewModel() {
+        if(mViewModel == null){
+            mViewModel = new ViewModelProvider(this).get(CollectionPageViewModel.class);
+        }
+        return mViewModel;
+    }
 
-            setContentView(R.layout.standard_collection_page);
-            gridview = findViewById(R.id.standard_collection_page);
+    @Override
+    protected ExecutorService getBackgroundExecutor() {
+        // Shared with the activity this one replaces, so its queued work runs before ours
+        return getViewModel().mBackgroundExecutor;
+    }
 
-        } else if(mDisplayType == ADVANCED_DISPLAY){
+    /**
+     * Applies the renames and copies that the activity this one replaced queued but didn't
+     * get the results of, since results are dropped once an activity is destroyed
+     */
+    private void applyPreviousActivityWork() {
+        final ArrayList<PendingCopy> previousCopies = new ArrayList<>(mViewModel.mPendingCopies);
+        runInBackground(() -> mViewModel.mDbCollectionName, dbCollectionName -> {
+            if(!dbCollectionName.equals(mCollectionName)){
+                onCollectionRenamed(dbCollectionName);
+            }
+            for(PendingCopy pendingCopy : previousCopies){
+                mViewModel.mPendingCopies.remove(pendingCopy);
+                long databaseId = pendingCopy.mDbCoinSlot.getDatabaseId();
+                if(databaseId != 0){
+                    pendingCopy.mShownCoinSlot.setDatabaseId(databaseId);
+                    showCopiedCoinSlot(pendingCopy.mShownCoinSlot);
+                }
+            }
+        }, null);
+    }
 
-            setContentView(R.layout.advanced_collection_page);
-            listview = findViewById(R.id.advanced_collection_page);
+    /**
+     * Display type and coin list read from the database when the page is opened
+     */
+    private static class LoadedCoinList {
+        final int mDisplayType;
+        final ArrayList<CoinSlot> mCoinList;
 
-            // Make it so that the elements in the listview cells can get focus
-            listview.setItemsCanFocus(true);
+        LoadedCoinList(int displayType, ArrayList<CoinSlot> coinList) {
+            mDisplayType = displayType;
+            mCoinList = coinList;
         }
+    }
 
-        // Populate the coin list
-        if(savedInstanceState == null){
-            boolean populateAdvInfo = (mDisplayType == ADVANCED_DISPLAY);
-            mCoinList = mDbAdapter.getCoinList(mCollectionName, populateAdvInfo);
-        } else {
-
-            // We have already loaded the advanced lists, so use those instead.
-            // That way we have all of the state from before the page loaded.
-            // yay
-            if(BuildConfig.DEBUG) {
-                Log.d(APP_NAME, "Successfully restored previous state");
-            }
-            mCoinList = savedInstanceState.getParcelableArrayList(COIN_LIST);
-            // Search through the hasChanged history and see whether we should
-            // re-display the "Unsaved Changes" view
-            if (mCoinList != null){
-                for(int i = 0; i < mCoinList.size(); i++){
-                    if(mCoinList.get(i).hasAdvInfoChanged()){
-                        this.showUnsavedTextView();
-                        break;
-                    }
+    /**
+     * Sets up the views once the coin list has been loaded
+     * @param collectionTypeObj collection type of this collection
+     * @param savedInstanceState saved instance state passed to onCreate
+     */
+    private void finishViewSetup(CollectionInfo collectionTypeObj, Bundle savedInstanceState) {
+        mDisplayType = mViewModel.mDisplayType;
+        mCoinList = mViewModel.mCoinList;
+
+        // If opened from a search result, start with the matching coin at the top
+        if(savedInstanceState == null && mCallingIntent.hasExtra(SCROLL_TO_COIN_ID)){
+            long scrollToCoinId = mCallingIntent.getLongExtra(SCROLL_TO_COIN_ID, -1);
+            for(int i = 0; i < mCoinList.size(); i++){
+                if(mCoinList.get(i).getDatabaseId() == scrollToCoinId){
+                    mViewIndex = i;
+                    mViewPosition = 0;
+                    break;
                 }
             }
         }
-        mCoinSlotAdapter = new CoinSlotAdapter(this, mCollectionName, collectionTypeObj, mCoinList, mDisplayType);
 
-        OnScrollListener scrollListener = new OnScrollListener(){
-            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
-                 // Auto-generated method stub
-                // TODO Something we can put here that isn't slow but fixes the scrolling issue
-                // Anything we put here is going to be hit a lot :(
+        boolean isLocked = getMainPreferences().getBoolean(mCollectionName + IS_LOCKED, false);
+        mCoinSlotAdapter = new CoinSlotAdapter(this, mCollectionName, collectionTypeObj, mCoinList, mDisplayType, isLocked);
+        if(mViewModel.mShownIndices != null){
+            // Keep showing the filtered coins after a configuration change
+            mCoinSlotAdapter.setShownIndices(mViewModel.mShownIndices);
+        }
+
+        mScrollListener = new RecyclerView.OnScrollListener() {
+            private int mLastFirstVisibleItem = -1;
+
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                // This gets hit a lot, so only do work when the first visible item changes
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                int firstVisibleItem = layoutManager.findFirstVisibleItemPosition();
+                int visibleItemCount = layoutManager.findLastVisibleItemPosition() - firstVisibleItem + 1;
+                if (firstVisibleItem == mLastFirstVisibleItem || firstVisibleItem == RecyclerView.NO_POSITION) {
+                    return;
+                }
+                // Prefetch the next screen of coin images in the direction of the scroll
+                if (dy >= 0) {
+                    int start = firstVisibleItem + visibleItemCount;
+                    mCoinSlotAdapter.prefetchImages(start, start + visibleItemCount);
+                } else {
+                    mCoinSlotAdapter.prefetchImages(firstVisibleItem - visibleItemCount, firstVisibleItem);
+                }
+                mLastFirstVisibleItem = firstVisibleItem;
             }
-            public void onScrollStateChanged(AbsListView view, int scrollState) {
-
-              if(scrollState == OnScrollListener.SCROLL_STATE_IDLE){
-                  // Refresh the view, fixing any layout issues
-                  mCoinSlotAdapter.notifyDataSetChanged();
-              }
-
-              // If this is the advanced view, we want to hide the soft keyboard if it exists
-              // This only gets called when a scroll starts (SCROLL_STATE_TOUCH_SCROLL),
-              // when the person has flung the view (SCROLL_STATE_FLING), and when the
-              // scrolling comes to an end (SCROLL_STATE_IDLE), so this won't cause any performance
-              // issues
-              // TODO Is there an easy way to determine if the soft keyboard is shown?
-              InputMethodManager imm = (InputMethodManager)getSystemService(Context.INPUT_METHOD_SERVICE);
-              imm.hideSoftInputFromWindow(view.getWindowToken(), 0);
+
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                // If this is the advanced view, we want to hide the soft keyboard if it exists
+                // This only gets called when a scroll starts, when the person has flung the
+                // view, and when the scrolling comes to an end, so this won't cause any
+                // performance issues
+                // TODO Is there an easy way to determine if the soft keyboard is shown?
+                if (mDisplayType == ADVANCED_DISPLAY) {
+                    InputMethodManager imm = (InputMethodManager) getSystemService(Context.INPUT_METHOD_SERVICE);
+                    imm.hideSoftInputFromWindow(recyclerView.getWindowToken(), 0);
+                }
             }
         };
 
-        if(mDisplayType == SIMPLE_DISPLAY){
+        // Restore the position in the list that the user was at
+        // (or go to the default of the first item)
+        setupDisplay(mViewIndex, mViewPosition);
+    }
+
+    /**
+     * Sets up the layout for the current display type and attaches the adapter to it
+     * @param viewIndex list index to scroll to
+     * @param viewPosition offset of the item at viewIndex from the top of the list
+     */
+    private void setupDisplay(int viewIndex, int viewPosition) {
 
-            // Apply the adapter to handle each entry in the grid
-            gridview.setAdapter(mCoinSlotAdapter);
+        if(mDisplayType == SIMPLE_DISPLAY) {
+            setContentView(R.layout.standard_collection_page);
+            mRecyclerView = findViewById(R.id.standard_collection_page);
 
-            // Restore the position in the list that the user was at
-            // (or go to the default of the first item)
-            gridview.setSelection(mViewIndex);
+            // Fit as many columns as will fit on the screen
+            int columnWidth = mRes.getDimensionPixelSize(R.dimen.coin_grid_column_width) +
+                    2 * mRes.getDimensionPixelSize(R.dimen.coin_grid_half_spacing);
+            int numColumns = Math.max(1, mRes.getDisplayMetrics().widthPixels / columnWidth);
+            mRecyclerView.setLayoutManager(new GridLayoutManager(this, numColumns));
+        } else {
+            setContentView(R.layout.advanced_collection_page);
+            mRecyclerView = findViewById(R.id.advanced_collection_page);
+            mRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        }
 
-            // Set the scroll listener so that the view re-adjusts to the new view
-            gridview.setOnScrollListener(scrollListener);
+        // Indicate that the contents do not change the layout size of the RecyclerView
+        mRecyclerView.setHasFixedSize(true);
+        // Re-bind changed rows in place rather than cross-fading to a new view, so that the
+        // advanced view editor stays attached to its row
+        RecyclerView.ItemAnimator itemAnimator = mRecyclerView.getItemAnimator();
+        if (itemAnimator instanceof SimpleItemAnimator) {
+            ((SimpleItemAnimator) itemAnimator).setSupportsChangeAnimations(false);
+        }
+        CoinSlotAdapter.setupRecycledViewPool(mRecyclerView.getRecycledViewPool());
+        mRecyclerView.addOnScrollListener(mScrollListener);
 
-            // Set the onClick listener that will handle changing the coin state
-            gridview.setOnItemClickListener((parent, v, position, id) -> {
-                toggleCoinSlotInCollection(mCoinList.get(position));
-            });
+        // Re-display the "Unsaved Changes" view if needed
+        if(mViewModel.mHasUnsavedChanges && mDisplayType == ADVANCED_DISPLAY){
+            this.showUnsavedTextView();
+        }
 
-            // Add long-press handler for additional actions
-            gridview.setOnItemLongClickListener((parent, view, position, id) -> {
-                promptCoinSlotActions(position);
-                return true;
-            });
+        setupFilterBar();
+
+        // Apply the adapter to handle each entry in the grid/list
+        mRecyclerView.setAdapter(mCoinSlotAdapter);
+        ((LinearLayoutManager) mRecyclerView.getLayoutManager()).scrollToPositionWithOffset(viewIndex, viewPosition);
+    }
 
-        } else if(mDisplayType == ADVANCED_DISPLAY){
-            // Apply the adapter to handle each entry in the list
-            listview.setAdapter(mCoinSlotAdapter);
-
-            // Restore the position in the list that the user was at
-            // (or go to the default of the first item)
-            listview.setSelectionFromTop(mViewIndex, mViewPosition);
-
-            // Set the scroll listener so that the view re-adjusts to the new view
-            listview.setOnScrollListener(scrollListener);
-
-            // Set the onClick listener for the whole view to provide a notice
-            // to users if the collection is locked. There's also a onClick listener
-            // on the imageView in CoinSlotAdapter
-            listview.setOnItemClickListener((parent, v, position, id) -> {
-                // Need to check whether the collection is locked
-                SharedPreferences mainPreferences = getSharedPreferences(MainApplication.PREFS, MODE_PRIVATE);
-                if(mainPreferences.getBoolean(mCollectionName + IS_LOCKED, false)){
-                    // Collection is locked
-                    showLockedMessage();
+    /**
+     * Switches between the simple and advanced views without reloading the coin list
+     * @param displayType SIMPLE_DISPLAY or ADVANCED_DISPLAY
+     */
+    private void switchDisplayType(final int displayType) {
+        runInBackground(() -> {
+            mDbAdapter.updateTableDisplay(mViewModel.mDbCollectionName, displayType);
+            return null;
+        }, null, mRes.getString(R.string.error_updating_database));
+
+        // The advanced info isn't loaded with the simple view, so fill it in the first
+        // time the advanced view is shown
+        if(displayType == ADVANCED_DISPLAY && !mViewModel.mHasAdvInfo){
+            loadAdvInfo(() -> showDisplayType(displayType));
+            return;
+        }
+        showDisplayType(displayType);
+    }
+
+    /**
+     * Swaps the current layout over to a different display type
+     * @param displayType SIMPLE_DISPLAY or ADVANCED_DISPLAY
+     */
+    private void showDisplayType(int displayType) {
+        // Save the position that the user was at for convenience
+        Integer[] viewPos = getRecyclerViewPosition(mRecyclerView);
+
+        // Detach the adapter from the old view so its rows get recycled
+        mRecyclerView.clearOnScrollListeners();
+        mRecyclerView.setAdapter(null);
+
+        boolean isLocked = getMainPreferences().getBoolean(mCollectionName + IS_LOCKED, false);
+        mDisplayType = displayType;
+        mViewModel.mDisplayType = displayType;
+        mCoinSlotAdapter.setDisplayType(displayType, isLocked);
+        setupDisplay(viewPos[0], viewPos[1]);
+
+        // Update the menu items for the new view
+        invalidateOptionsMenu();
+    }
+
+    /**
+     * Loads the advanced info into the coin list, if it wasn't loaded with the list. The info
+     * is read in the background and copied into the coins on the UI thread, skipping coins
+     * with unsaved changes.
+     * @param onLoaded called on the UI thread once the advanced info is loaded
+     */
+    private void loadAdvInfo(final Runnable onLoaded) {
+        if(mViewModel.mHasAdvInfo){
+            onLoaded.run();
+            return;
+        }
+        runInBackground(() -> mDbAdapter.getAdvInfo(mViewModel.mDbCollectionName), advInfoById -> {
+            for (CoinSlot coinSlot : mCoinList) {
+                CoinSlot.AdvInfo advInfo = advInfoById.get(coinSlot.getDatabaseId());
+                if (advInfo != null && !coinSlot.hasAdvInfoChanged()) {
+                    coinSlot.setAdvInfo(advInfo);
                 }
-            });
+            }
+            mViewModel.mHasAdvInfo = true;
+            onLoaded.run();
+        }, mRes.getString(R.string.error_reading_database));
+    }
 
-            // Add long-press handler for additional actions
-            listview.setOnItemLongClickListener((parent, view, position, id) -> {
-                promptCoinSlotActions(position);
-                return true;
+    /**
+     * Sets up the filter bar in the current layout from the current filter
+     */
+    private void setupFilterBar() {
+        View filterBar = findViewById(R.id.filter_bar);
+        filterBar.setVisibility(mViewModel.mShowFilterBar ? View.VISIBLE : View.GONE);
+        CoinSlotFilter filter = mViewModel.mFilter;
+
+        Spinner collectedSelector = findViewById(R.id.filter_collected_selector);
+        Spinner sortSelector = findViewById(R.id.filter_sort_selector);
+        Spinner mintSelector = findViewById(R.id.filter_mint_selector);
+        EditText startYearText = findViewById(R.id.filter_start_year);
+        EditText endYearText = findViewById(R.id.filter_end_year);
+        EditText notesText = findViewById(R.id.filter_notes);
+
+        // The mint options are the mints in this collection
+        ArrayList<String> mints = CoinSlotFilter.getMints(mCoinList);
+        ArrayList<String> mintOptions = new ArrayList<>();
+        mintOptions.add(mRes.getString(R.string.filter_all_mints));
+        for (String mint : mints) {
+            mintOptions.add(mint.length() != 0 ? mint : mRes.getString(R.string.filter_no_mint));
+        }
+        ArrayAdapter<String> mintAdapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item, mintOptions);
+        mintAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        mintSelector.setAdapter(mintAdapter);
+        mintSelector.setTag(mints);
+
+        // Re-filter whenever an option changes
+        // - Spinners also report their initial selection, which is ignored since the
+        //   filter doesn't change
+        if (mFilterSelectedListener == null) {
+            mFilterSelectedListener = new AdapterView.OnItemSelectedListener() {
+                @Override
+                public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                    onFilterChanged();
+                }
+
+                @Override
+                public void onNothingSelected(AdapterView<?> parent) {}
+            };
+            mFilterTextWatcher = new TextWatcher() {
+                @Override
+                public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+                @Override
+                public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+                @Override
+                public void afterTextChanged(Editable s) {
+                    onFilterChanged();
+                }
+            };
+        }
+
+        // Show the current filter
+        // - Clear the listeners first so that setting the values doesn't trigger them
+        collectedSelector.setOnItemSelectedListener(null);
+        sortSelector.setOnItemSelectedListener(null);
+        mintSelector.setOnItemSelectedListener(null);
+        startYearText.removeTextChangedListener(mFilterTextWatcher);
+        endYearText.removeTextChangedListener(mFilterTextWatcher);
+        notesText.removeTextChangedListener(mFilterTextWatcher);
+        if (filter != null) {
+            collectedSelector.setSelection(filter.getCollectedState(), false);
+            sortSelector.setSelection(filter.getSortType(), false);
+            int mintIndex = (filter.getMint() != null) ? mints.indexOf(filter.getMint()) : -1;
+            mintSelector.setSelection(mintIndex + 1, false);
+            startYearText.setText(filter.getStartYear() != CoinSlotFilter.ANY_YEAR ? String.valueOf(filter.getStartYear()) : "");
+            endYearText.setText(filter.getEndYear() != CoinSlotFilter.ANY_YEAR ? String.valueOf(filter.getEndYear()) : "");
+            notesText.setText(filter.getNotes());
+        } else {
+            collectedSelector.setSelection(CoinSlotFilter.SHOW_ALL, false);
+            sortSelector.setSelection(CoinSlotFilter.SORT_COLLECTION_ORDER, false);
+            mintSelector.setSelection(0, false);
+            startYearText.setText("");
+            endYearText.setText("");
+            notesText.setText("");
+        }
+        collectedSelector.setOnItemSelectedListener(mFilterSelectedListener);
+        sortSelector.setOnItemSelectedListener(mFilterSelectedListener);
+        mintSelector.setOnItemSelectedListener(mFilterSelectedListener);
+        startYearText.addTextChangedListener(mFilterTextWatcher);
+        endYearText.addTextChangedListener(mFilterTextWatcher);
+        notesText.addTextChangedListener(mFilterTextWatcher);
+    }
+
+    /**
+     * Reads the options in the filter bar and re-filters the coins if they changed
+     */
+    @SuppressWarnings("unchecked")
+    private void onFilterChanged() {
+        Spinner collectedSelector = findViewById(R.id.filter_collected_selector);
+        Spinner sortSelector = findViewById(R.id.filter_sort_selector);
+        Spinner mintSelector = findViewById(R.id.filter_mint_selector);
+        EditText startYearText = findViewById(R.id.filter_start_year);
+        EditText endYearText = findViewById(R.id.filter_end_year);
+        EditText notesText = findViewById(R.id.filter_notes);
+
+        ArrayList<String> mints = (ArrayList<String>) mintSelector.getTag();
+        int mintIndex = mintSelector.getSelectedItemPosition();
+        CoinSlotFilter filter = new CoinSlotFilter(
+                collectedSelector.getSelectedItemPosition(),
+                (mintIndex > 0) ? mints.get(mintIndex - 1) : null,
+                parseFilterYear(startYearText.getText().toString()),
+                parseFilterYear(endYearText.getText().toString()),
+                notesText.getText().toString(),
+                sortSelector.getSelectedItemPosition());
+        if (!filter.isActive()) {
+            filter = null;
+        }
+        if (filter == null ? mViewModel.mFilter == null : filter.equals(mViewModel.mFilter)) {
+            return;
+        }
+        mViewModel.mFilter = filter;
+        applyFilter();
+    }
+
+    /**
+     * Parses a year typed into the filter bar
+     * @param text text typed in
+     * @return year, or ANY_YEAR if empty
+     */
+    private static int parseFilterYear(String text) {
+        try {
+            return (text.length() != 0) ? Integer.parseInt(text) : CoinSlotFilter.ANY_YEAR;
+        } catch (NumberFormatException e) {
+            return CoinSlotFilter.ANY_YEAR;
+        }
+    }
+
+    /**
+     * Filters the coins shown using the current filter. The keys are copied on this thread
+     * and the filtering is done on a background thread, so this is quick even for large
+     * collections.
+     */
+    private void applyFilter() {
+        final CoinSlotFilter filter = mViewModel.mFilter;
+        if (filter != null && filter.needsAdvInfo() && !mViewModel.mHasAdvInfo) {
+            // Filter once the advanced info has been loaded
+            loadAdvInfo(this::applyFilter);
+            return;
+        }
+        if (filter == null) {
+            // Show all coins
+            mFilterGeneration.incrementAndGet();
+            mFilterPending = false;
+            mViewModel.mShownIndices = null;
+            mCoinSlotAdapter.setShownIndices(null);
+            return;
+        }
+
+        final CoinSlotFilter.Snapshot snapshot = new CoinSlotFilter.Snapshot(mCoinList);
+        final int generation = mFilterGeneration.incrementAndGet();
+        mFilterPending = true;
+        mFilterExecutor.execute(() -> {
+            // Skip if the filter has changed again since this was queued
+            if (generation != mFilterGeneration.get()) {
+                return;
+            }
+            long startTime = SystemClock.uptimeMillis();
+            final int[] shownIndices = filter.apply(snapshot);
+            if (BuildConfig.DEBUG) {
+                Log.d(APP_NAME, "Filtered " + snapshot.mYears.length + " coins to " + shownIndices.length
+                        + " in " + (SystemClock.uptimeMillis() - startTime) + "ms");
+            }
+            mMainHandler.post(() -> {
+                // Drop the results if the filter or the coin list has changed since
+                if (generation != mFilterGeneration.get() || isFinishing()) {
+                    return;
+                }
+                mFilterPending = false;
+                mViewModel.mShownIndices = shownIndices;
+                mCoinSlotAdapter.setShownIndices(shownIndices);
+                mRecyclerView.scrollToPosition(0);
             });
+        });
+    }
+
+    /**
+     * Shows or hides the filter bar. Hiding the filter bar shows all coins again.
+     */
+    private void toggleFilterBar() {
+        mViewModel.mShowFilterBar = !mViewModel.mShowFilterBar;
+        if (!mViewModel.mShowFilterBar) {
+            // Hide the keyboard if a filter was being typed
+            View focusView = getCurrentFocus();
+            if (focusView != null) {
+                InputMethodManager imm = (InputMethodManager) getSystemService(Context.INPUT_METHOD_SERVICE);
+                imm.hideSoftInputFromWindow(focusView.getWindowToken(), 0);
+            }
+            mViewModel.mFilter = null;
+            applyFilter();
+        }
+        setupFilterBar();
+    }
+
+    /**
+     * Keeps the coins shown in sync after a coin is added to or removed from the coin list
+     */
+    private void onCoinListResized() {
+        mViewModel.mShownIndices = mCoinSlotAdapter.getShownIndices();
+        if (mFilterPending) {
+            // The filter in progress used the old list indices, so start it again
+            applyFilter();
         }
     }
 
@@ -282,6 +654,7 @@ public class CollectionPage extends BaseActivity {
 
         TextView unsavedMessageView = findViewById(R.id.unsaved_message_textview);
         unsavedMessageView.setVisibility(View.VISIBLE);
+        mViewModel.mHasUnsavedChanges = true;
     }
 
     /**
@@ -291,6 +664,7 @@ public class CollectionPage extends BaseActivity {
 
         TextView unsavedMessageView = findViewById(R.id.unsaved_message_textview);
         unsavedMessageView.setVisibility(View.GONE);
+        mViewModel.mHasUnsavedChanges = false;
     }
 
     @Override
@@ -300,7 +674,7 @@ public class CollectionPage extends BaseActivity {
         inflater.inflate(R.menu.collection_page_menu_all, menu);
         
         // Need to check the preferences to see whether the collection is locked or unlocked
-        SharedPreferences mainPreferences = getSharedPreferences(MainApplication.PREFS, MODE_PRIVATE);
+        SharedPreferences mainPreferences = getMainPreferences();
         MenuItem item = menu.findItem(R.id.lock_unlock_collection);
 
         if(mainPreferences.getBoolean(mCollectionName + IS_LOCKED, false)){
@@ -334,13 +708,13 @@ public class CollectionPage extends BaseActivity {
     public boolean onOptionsItemSelected(MenuItem item) {
         // Handle item selection
         int itemId = item.getItemId();
+        if (mCoinSlotAdapter == null && itemId != android.R.id.home) {
+            // The coin list is still loading
+            return true;
+        }
         if (itemId == R.id.lock_unlock_collection) {
             // Need to check the preferences to see whether the collection is locked or unlocked
-            SharedPreferences mainPreferences = getSharedPreferences(MainApplication.PREFS, MODE_PRIVATE);
-            SharedPreferences.Editor editor = mainPreferences.edit();
-
-            boolean isLocked = mainPreferences.getBoolean(mCollectionName + IS_LOCKED, false);
-            boolean finishedSuccessfully = true;
+            final boolean isLocked = getMainPreferences().getBoolean(mCollectionName + IS_LOCKED, false);
 
             // If we are going from unlocked to lock in advance mode, we need to save the
             // changes the user may have made (if any)
@@ -348,97 +722,52 @@ public class CollectionPage extends BaseActivity {
                     !isLocked &&
                     this.doUnsavedChangesExist()) {
 
-                // In the advanced display case, we also need to save
+                // In the advanced display case, we also need to save. The changes are written
+                // in the background and the collection is locked once they're saved.
 
                 // TODO Show some kind of spinner
 
-                for (int i = 0; i < mCoinList.size(); i++) {
-                    CoinSlot coinSlot = mCoinList.get(i);
+                final ArrayList<CoinSlot> changedCoinSlots = new ArrayList<>();
+                for (CoinSlot coinSlot : mCoinList) {
                     if (coinSlot.hasAdvInfoChanged()) {
+                        changedCoinSlots.add(coinSlot);
+                    }
+                }
+                runInBackground(() -> {
+                    ArrayList<CoinSlot> savedCoinSlots = new ArrayList<>();
+                    for (CoinSlot coinSlot : changedCoinSlots) {
                         try {
-                            mDbAdapter.updateAdvInfo(mCollectionName, coinSlot);
+                            mDbAdapter.updateAdvInfo(mViewModel.mDbCollectionName, coinSlot);
                         } catch (SQLException e) {
-                            finishedSuccessfully = false;
                             // Keep going, though
                             continue;
                         }
-                        // Mark this data as being unchanged
-                        coinSlot.setAdvInfoChanged(false);
+                        savedCoinSlots.add(coinSlot);
                     }
-                }
-
-                if (finishedSuccessfully) {
-                    // Hide the unsaved changes view
-                    Toast.makeText(this, mRes.getString(R.string.changes_saved), Toast.LENGTH_SHORT).show();
-                    this.hideUnsavedTextView();
-                } else {
-                    showCancelableAlert(mRes.getString(R.string.error_updating_database));
-                }
-            }
-
-            if (finishedSuccessfully) {
-                if (isLocked) {
-                    // Locked, change to unlocked
-                    editor.putBoolean(mCollectionName + IS_LOCKED, false);
-                    // Change the text for next time
-                    if (mDisplayType == SIMPLE_DISPLAY) {
-                        item.setTitle(R.string.lock_collection);
+                    return savedCoinSlots;
+                }, savedCoinSlots -> {
+                    // Mark this data as being unchanged
+                    for (CoinSlot coinSlot : savedCoinSlots) {
+                        coinSlot.setAdvInfoChanged(false);
                     }
-                    // Don't update in the advance case, because we are going to blow
-                    // away this
-                } else {
-                    // Unlocked or preference doesn't exist, change preference to locked
-                    editor.putBoolean(mCollectionName + IS_LOCKED, true);
-                    // Change the text for next time
-                    if (mDisplayType == SIMPLE_DISPLAY) {
-                        item.setTitle(R.string.unlock_collection);
+                    if (savedCoinSlots.size() == changedCoinSlots.size()) {
+                        // Hide the unsaved changes view
+                        Toast.makeText(this, mRes.getString(R.string.changes_saved), Toast.LENGTH_SHORT).show();
+                        this.hideUnsavedTextView();
+                        toggleCollectionLock(item, false);
+                    } else {
+                        showCancelableAlert(mRes.getString(R.string.error_updating_database));
                     }
-                }
-            }
-
-            // Save changes
-            // TODO Consider not saving these if in advance mode and the db update
-            // fails below
-            editor.apply();
-
-            if (mDisplayType == ADVANCED_DISPLAY) {
-                // We need to restart the view so we can show the locked
-                // view.  Also, at this point there are no unsaved changes
-
-                // Save the position that the user was at for convenience
-                ListView listview = findViewById(R.id.advanced_collection_page);
-                Integer[] viewPos = getAbsListViewPosition(listview);
-
-                mCallingIntent.putExtra(VIEW_INDEX, viewPos[0]);
-                mCallingIntent.putExtra(VIEW_POSITION, viewPos[1]);
-                mCallingIntent.putExtra(COLLECTION_NAME, mCollectionName);
-
-                finish();
-                startActivity(mCallingIntent);
+                }, null);
+                return true;
             }
 
+            toggleCollectionLock(item, isLocked);
             return true;
         } else if (itemId == R.id.change_view) {
             if (mDisplayType == SIMPLE_DISPLAY) {
                 // Setup the advanced view
-                try {
-                    mDbAdapter.updateTableDisplay(mCollectionName, ADVANCED_DISPLAY);
-                } catch (SQLException e) {
-                    showCancelableAlert(mRes.getString(R.string.error_updating_database));
-                }
-
-                // Save the position that the user was at for convenience
-                GridView gridview = findViewById(R.id.standard_collection_page);
-                Integer[] viewPos = getAbsListViewPosition(gridview);
-
-                mCallingIntent.putExtra(VIEW_INDEX, viewPos[0]);
-                mCallingIntent.putExtra(VIEW_POSITION, viewPos[1]);
-                mCallingIntent.putExtra(COLLECTION_NAME, mCollectionName);
-
-                // Restart the activity
-                finish();
-                startActivity(mCallingIntent);
-
+                switchDisplayType(ADVANCED_DISPLAY);
                 return true;
 
             } else if (mDisplayType == ADVANCED_DISPLAY) {
@@ -454,29 +783,15 @@ public class CollectionPage extends BaseActivity {
                 }
 
                 // The user doesn't have any unsaved changes
-
-                try {
-                    mDbAdapter.updateTableDisplay(mCollectionName, SIMPLE_DISPLAY);
-                } catch (SQLException e) {
-                    showCancelableAlert(mRes.getString(R.string.error_updating_database));
-                }
-
-                // Save the position that the user was at for convenience
-                ListView listview = findViewById(R.id.advanced_collection_page);
-                Integer[] viewPos = getAbsListViewPosition(listview);
-
-                mCallingIntent.putExtra(VIEW_INDEX, viewPos[0]);
-                mCallingIntent.putExtra(VIEW_POSITION, viewPos[1]);
-                mCallingIntent.putExtra(COLLECTION_NAME, mCollectionName);
-
-                // Restart the activity
-                finish();
-                startActivity(mCallingIntent);
+                switchDisplayType(SIMPLE_DISPLAY);
                 return true;
             }
 
             // Shouldn't get here
             return true;
+        } else if (itemId == R.id.filter_coins) {
+            toggleFilterBar();
+            return true;
         } else if (itemId == R.id.rename_collection) {
             // Prompt user for new name via alert dialog
             showCollectionRenamePrompt();
@@ -497,44 +812,88 @@ public class CollectionPage extends BaseActivity {
     }
 
     /**
-     * Updates the collection name when the user renames a collection
-     * @param newCollectionName Name of the new collection
+     * Locks or unlocks the collection
+     * @param item the lock/unlock menu item
+     * @param isLocked whether the collection is currently locked
      */
-    private void updateCollectionName(String newCollectionName){
-
-        String oldCollectionName = mCollectionName;
-
-        // Do nothing if the name isn't actually changed
-        if (newCollectionName.equals(oldCollectionName)){
-            return;
+    private void toggleCollectionLock(MenuItem item, boolean isLocked) {
+        SharedPreferences.Editor editor = getMainPreferences().edit();
+        if (isLocked) {
+            // Locked, change to unlocked
+            editor.putBoolean(mCollectionName + IS_LOCKED, false);
+            // Change the text for next time
+            if (mDisplayType == SIMPLE_DISPLAY) {
+                item.setTitle(R.string.lock_collection);
+            }
+            // Don't update in the advance case, because we are going to blow
+            // away this
+        } else {
+            // Unlocked or preference doesn't exist, change preference to locked
+            editor.putBoolean(mCollectionName + IS_LOCKED, true);
+            // Change the text for next time
+            if (mDisplayType == SIMPLE_DISPLAY) {
+                item.setTitle(R.string.unlock_collection);
+            }
         }
 
-        // Make sure the new name isn't taken and is valid
-        int checkNameResult = mDbAdapter.checkCollectionName(newCollectionName);
-        if(checkNameResult != -1){
-            Toast.makeText(this, mRes.getString(checkNameResult), Toast.LENGTH_SHORT).show();
-            return;
+        // Save changes
+        editor.apply();
+
+        if (mDisplayType == ADVANCED_DISPLAY) {
+            // Swap the rows over to the locked/unlocked view in place.
+            // At this point there are no unsaved changes
+            mCoinSlotAdapter.setDisplayType(ADVANCED_DISPLAY, !isLocked);
+            mCoinSlotAdapter.notifyItemRangeChanged(0, mCoinSlotAdapter.getItemCount());
+            invalidateOptionsMenu();
         }
+    }
 
-        // Perform all actions needed to rename the collection
+    /**
+     * Updates the collection name when the user renames a collection
+     * NOTE: This is public so we can use it with our current test bench
+     * @param newCollectionName Name of the new collection
+     */
+    public void updateCollectionName(final String newCollectionName){
 
-        // Update database
-        try {
-            mDbAdapter.updateCollectionName(oldCollectionName, newCollectionName);
-        } catch (SQLException e) {
-            showCancelableAlert(mRes.getString(R.string.error_updating_database));
+        // Do nothing if the name isn't actually changed
+        if (newCollectionName.equals(mCollectionName)){
+            return;
         }
 
-        // Update app state
-        SharedPreferences mainPreferences = getSharedPreferences(MainApplication.PREFS, MODE_PRIVATE);
-        SharedPreferences.Editor editor = mainPreferences.edit();
-        boolean isLocked = mainPreferences.getBoolean(oldCollectionName + IS_LOCKED, false);
-        editor.remove(oldCollectionName + IS_LOCKED);
-        editor.putBoolean(newCollectionName + IS_LOCKED, isLocked);
-        editor.apply();
+        // Make sure the new name isn't taken and is valid, then update the database
+        runInBackground(() -> {
+            int checkNameResult = mDbAdapter.checkCollectionName(newCollectionName);
+            if(checkNameResult == -1){
+                String dbCollectionName = mViewModel.mDbCollectionName;
+                mDbAdapter.updateCollectionName(dbCollectionName, newCollectionName);
+                mViewModel.mDbCollectionName = newCollectionName;
+
+                // Move the lock setting over to the new name along with the table
+                SharedPreferences mainPreferences = getMainPreferences();
+                SharedPreferences.Editor editor = mainPreferences.edit();
+                boolean isLocked = mainPreferences.getBoolean(dbCollectionName + IS_LOCKED, false);
+                editor.remove(dbCollectionName + IS_LOCKED);
+                editor.putBoolean(newCollectionName + IS_LOCKED, isLocked);
+                editor.apply();
+            }
+            return checkNameResult;
+        }, checkNameResult -> {
+            if(checkNameResult != -1){
+                Toast.makeText(this, mRes.getString(checkNameResult), Toast.LENGTH_SHORT).show();
+                return;
+            }
+            onCollectionRenamed(newCollectionName);
+        }, mRes.getString(R.string.error_updating_database));
+    }
 
+    /**
+     * Updates the view after the collection was renamed in the database
+     * @param newCollectionName the new collection name
+     */
+    private void onCollectionRenamed(String newCollectionName) {
         // Update current view
         mCollectionName = newCollectionName;
+        mCallingIntent.putExtra(COLLECTION_NAME, newCollectionName);
         mCoinSlotAdapter.setTableName(newCollectionName);
         this.setTitle(newCollectionName);
     }
@@ -552,18 +911,19 @@ public class CollectionPage extends BaseActivity {
             return;
         }
 
-        // Update the coin in the coin list
-        try {
-            coinSlot.setIdentifier(coinName);
-            coinSlot.setMint(coinMint);
-            mDbAdapter.updateCoinNameAndMint(mCollectionName, coinSlot);
-        } catch (SQLException e){
-            showCancelableAlert(mRes.getString(R.string.error_updating_coin));
-            return;
-        }
+        // Update the coin in the coin list, and save it in the background
+        coinSlot.setIdentifier(coinName);
+        coinSlot.setMint(coinMint);
+        runInBackground(() -> {
+            mDbAdapter.updateCoinNameAndMint(mViewModel.mDbCollectionName, coinSlot);
+            return null;
+        }, null, mRes.getString(R.string.error_updating_coin));
 
         // Update the view
-        mCoinSlotAdapter.notifyDataSetChanged();
+        int position = getCoinSlotPosition(coinSlot);
+        if (position != -1) {
+            mCoinSlotAdapter.notifyCoinSlotChanged(position);
+        }
     }
 
     /**
@@ -571,13 +931,29 @@ public class CollectionPage extends BaseActivity {
      * http://stackoverflow.com/questions/3014089/maintain-save-restore-scroll-position-when-returning-to-a-listview
      * @param view to capture position from
      */
-    private static Integer[] getAbsListViewPosition(AbsListView view) {
-        int index = view.getFirstVisiblePosition();
-        View v = view.getChildAt(0);
-        int top = (v == null) ? 0 : v.getTop();
+    private static Integer[] getRecyclerViewPosition(RecyclerView view) {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) view.getLayoutManager();
+        int index = Math.max(layoutManager.findFirstVisibleItemPosition(), 0);
+        View v = layoutManager.findViewByPosition(index);
+        int top = (v == null) ? 0 : v.getTop() - view.getPaddingTop();
         return new Integer[] {index, top};
     }
 
+    /**
+     * Finds the position of a coin slot in the coin list
+     * @param coinSlot the CoinSlot to find
+     * @return index of the coin slot, or -1 if not found
+     */
+    private int getCoinSlotPosition(CoinSlot coinSlot) {
+        // Compare by reference since identifier/mint may not be unique
+        for (int i = 0; i < mCoinList.size(); i++) {
+            if (mCoinList.get(i) == coinSlot) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Prompts the user to rename the collection
      */
@@ -612,6 +988,9 @@ public class CollectionPage extends BaseActivity {
     private boolean doUnsavedChangesExist(){
 
         if(mDisplayType == ADVANCED_DISPLAY){
+            // Pick up any notes still being typed in the editor
+            mCoinSlotAdapter.commitPendingEdits();
+
             // There are probably better ways to do this check, but this one is easy
             TextView unsavedChangesView = this.findViewById(R.id.unsaved_message_textview);
             return (unsavedChangesView.getVisibility() == View.VISIBLE);
@@ -637,13 +1016,13 @@ public class CollectionPage extends BaseActivity {
         return super.onKeyDown(keyCode, event);	
     }
     
-    /* We have one problem, specifically with the advancedView, where all of the
-     * state is stored inside lists in the instance.  Normally, on an orientation
-     * change or something, onDestroy and then onCreate would be called, destroying
-     * the CoinSlotAdapter instance and all the state with it.  To prevent this,
-     * we want to save off this object and use it for the newly created view.
-     * http://stackoverflow.com/questions/7088816/my-views-are-being-reset-on-orientation-change
-     * http://stackoverflow.com/questions/4249897/how-to-send-objects-through-bundle
+    /* We have one problem, specifically with the advancedView, where the user's
+     * uncommitted changes are only stored in the coin list.  On an orientation
+     * change the list is kept in the CollectionPageViewModel, but if the process
+     * is killed while in the background the view model is lost too.  To handle
+     * that case, only the coins with unsaved changes are written to the bundle
+     * (parceling the whole list can exceed the binder transaction limit for large
+     * collections) and they get re-applied over the list loaded from the database.
      */
     
     @Override
@@ -651,29 +1030,89 @@ public class CollectionPage extends BaseActivity {
     {
         super.onSaveInstanceState(outState);
 
-        // In the advanced view, if we change orientation or something we need
-        // to save off the lists storing the uncommitted changes of coin grades,
-        // coin quantities, and coin notes.  This is pretty hacked together,
-        // so fix sometime, maybe
+        // Save off position of the list (or the position to restore, if still loading)
+        Integer[] viewPos = (mRecyclerView != null) ? getRecyclerViewPosition(mRecyclerView)
+                : new Integer[] {mViewIndex, mViewPosition};
 
-        // Save off position of listview/gridview
-        Integer[] viewPos;
-        if(mDisplayType == ADVANCED_DISPLAY){
-            // Finally, save off the position of the listview
-            ListView listview = findViewById(R.id.advanced_collection_page);
-            viewPos = getAbsListViewPosition(listview);
-        } else {
-            GridView gridview = findViewById(R.id.standard_collection_page);
-            viewPos = getAbsListViewPosition(gridview);
+        // Save off any unsaved user data
+        if(mCoinSlotAdapter != null){
+            mCoinSlotAdapter.commitPendingEdits();
+        }
+        if(mViewModel.mHasUnsavedChanges){
+            saveUnsavedCoinSlots(outState, mCoinList);
         }
-
-        // Save off these lists that may have unsaved user data
-        outState.putParcelableArrayList(COIN_LIST, mCoinList);
         outState.putInt(VIEW_INDEX, viewPos[0]);
         outState.putInt(VIEW_POSITION, viewPos[1]);
         outState.putString(COLLECTION_NAME, mCollectionName);
     }
 
+    /**
+     * Saves the advanced info of any coins with unsaved changes into a bundle
+     * @param outState bundle to save to
+     * @param coinList coin list to save the changes from
+     */
+    private static void saveUnsavedCoinSlots(Bundle outState, ArrayList<CoinSlot> coinList) {
+        int numChanged = 0;
+        for (CoinSlot coinSlot : coinList) {
+            if (coinSlot.hasAdvInfoChanged()) {
+                numChanged++;
+            }
+        }
+        long[] ids = new long[numChanged];
+        int[] grades = new int[numChanged];
+        int[] quantities = new int[numChanged];
+        String[] notes = new String[numChanged];
+        int i = 0;
+        for (CoinSlot coinSlot : coinList) {
+            if (coinSlot.hasAdvInfoChanged()) {
+                ids[i] = coinSlot.getDatabaseId();
+                grades[i] = coinSlot.getAdvancedGrades();
+                quantities[i] = coinSlot.getAdvancedQuantities();
+                notes[i] = coinSlot.getAdvancedNotes();
+                i++;
+            }
+        }
+        outState.putLongArray(UNSAVED_COIN_IDS, ids);
+        outState.putIntArray(UNSAVED_COIN_GRADES, grades);
+        outState.putIntArray(UNSAVED_COIN_QUANTITIES, quantities);
+        outState.putStringArray(UNSAVED_COIN_NOTES, notes);
+    }
+
+    /**
+     * Re-applies the unsaved coin changes from a bundle to a freshly loaded coin list
+     * @param savedInstanceState bundle containing the saved changes
+     * @param coinList coin list to apply the changes to
+     * @return true if any changes were applied
+     */
+    private static boolean restoreUnsavedCoinSlots(Bundle savedInstanceState, ArrayList<CoinSlot> coinList) {
+        long[] ids = savedInstanceState.getLongArray(UNSAVED_COIN_IDS);
+        int[] grades = savedInstanceState.getIntArray(UNSAVED_COIN_GRADES);
+        int[] quantities = savedInstanceState.getIntArray(UNSAVED_COIN_QUANTITIES);
+        String[] notes = savedInstanceState.getStringArray(UNSAVED_COIN_NOTES);
+        if (ids == null || grades == null || quantities == null || notes == null || ids.length == 0) {
+            return false;
+        }
+
+        // Map the database ids to the index of the saved changes
+        HashMap<Long, Integer> idToIndex = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            idToIndex.put(ids[i], i);
+        }
+
+        boolean changesApplied = false;
+        for (CoinSlot coinSlot : coinList) {
+            Integer i = idToIndex.get(coinSlot.getDatabaseId());
+            if (i != null) {
+                coinSlot.setAdvancedGrades(grades[i]);
+                coinSlot.setAdvancedQuantities(quantities[i]);
+                coinSlot.setAdvancedNotes(notes[i]);
+                coinSlot.setAdvInfoChanged(true);
+                changesApplied = true;
+            }
+        }
+        return changesApplied;
+    }
+
     /**
      * Displays to the user that the collection is locked
      */
@@ -683,6 +1122,14 @@ public class CollectionPage extends BaseActivity {
         toast.show();
     }
 
+    @Override
+    public void onDestroy() {
+        // Drop any filtering still in progress
+        mFilterGeneration.incrementAndGet();
+        mFilterExecutor.shutdownNow();
+        super.onDestroy();
+    }
+
     /**
      * Display message to save changes before performing an advanced action
      */
@@ -721,39 +1168,41 @@ public class CollectionPage extends BaseActivity {
 
     /**
      * Toggle whether a given coin slot is collected or not
-     * @param coinSlot the CoinSlot to update
+     * NOTE: This is public so we can use it with our current test bench
+     * @param position the CoinSlot index to update
      */
-    private void toggleCoinSlotInCollection(CoinSlot coinSlot) {
+    public void toggleCoinSlotInCollection(int position) {
         // Need to check whether the collection is locked
-        SharedPreferences mainPreferences = getSharedPreferences(MainApplication.PREFS, MODE_PRIVATE);
+        SharedPreferences mainPreferences = getMainPreferences();
 
         if(mainPreferences.getBoolean(mCollectionName + IS_LOCKED, false)){
             // Collection is locked
             showLockedMessage();
         } else {
             // Preference doesn't exist or Collection is unlocked
-            try {
-                mDbAdapter.toggleInCollection(mCollectionName, coinSlot);
-            } catch (SQLException e) {
-                showCancelableAlert(mRes.getString(R.string.error_updating_database));
-            }
+            CoinSlot coinSlot = mCoinList.get(position);
+            runInBackground(() -> {
+                mDbAdapter.toggleInCollection(mViewModel.mDbCollectionName, coinSlot);
+                return null;
+            }, null, mRes.getString(R.string.error_updating_database));
 
             // Update the mCoinSlotAdapters copy of the coins in this collection
             boolean oldValue = coinSlot.isInCollection();
             coinSlot.setInCollection(!oldValue);
 
             // And have the adapter redraw with this new info
-            mCoinSlotAdapter.notifyDataSetChanged();
+            mCoinSlotAdapter.notifyCoinSlotChanged(position);
         }
     }
 
     /**
-     * Makes a copy of the coin slot in the collection
+     * Makes a copy of the coin slot in the collection. The copy is shown once it's in the
+     * database, so that it always has its database id (which the adapter uses as a stable id).
      * @param coinSlot the CoinSlot to copy
      */
-    public void copyCoinSlot(CoinSlot coinSlot, int coinListInsertIndex) {
+    public void copyCoinSlot(CoinSlot coinSlot) {
         // Need to check whether the collection is locked
-        SharedPreferences mainPreferences = getSharedPreferences(MainApplication.PREFS, MODE_PRIVATE);
+        SharedPreferences mainPreferences = getMainPreferences();
 
         if(mainPreferences.getBoolean(mCollectionName + IS_LOCKED, false)){
             // Collection is locked
@@ -762,27 +1211,67 @@ public class CollectionPage extends BaseActivity {
             // Create the new coin slot
             // - copy() also sets the sort order to original + 1
             // - Mark as custom coin since it wasn't added when the collection was created
+            // - The database write gets its own copy, since the sort order of the one that gets
+            //   shown changes if more coins are copied before it's added
             CoinSlot newCoinSlot = coinSlot.copy(coinSlot.getIdentifier(), coinSlot.getMint(), true);
-            try {
-                // Update the sort order in the database and coin list
-                mDbAdapter.updateCoinSortOrderForInsert(mCollectionName, newCoinSlot.getSortOrder());
-                for(CoinSlot currCoinSlot : mCoinList) {
-                    if (currCoinSlot.getSortOrder() >= newCoinSlot.getSortOrder()) {
-                        currCoinSlot.setSortOrder(currCoinSlot.getSortOrder() + 1);
-                    }
+            CoinSlot dbCoinSlot = coinSlot.copy(coinSlot.getIdentifier(), coinSlot.getMint(), true);
+            final int insertSortOrder = newCoinSlot.getSortOrder();
+            final ArrayList<PendingCopy> pendingCopies = mViewModel.mPendingCopies;
+            final int newCollectionSize = mCoinList.size() + pendingCopies.size() + 1;
+
+            // Update the sort order in the coin list, and of the copies not added yet
+            shiftSortOrdersForInsert(mCoinList, insertSortOrder);
+            for (PendingCopy pendingCopy : pendingCopies) {
+                CoinSlot pendingCoinSlot = pendingCopy.mShownCoinSlot;
+                if (pendingCoinSlot.getSortOrder() >= insertSortOrder) {
+                    pendingCoinSlot.setSortOrder(pendingCoinSlot.getSortOrder() + 1);
                 }
+            }
+            final PendingCopy newCopy = new PendingCopy(newCoinSlot, dbCoinSlot);
+            pendingCopies.add(newCopy);
+
+            // Update the sort order and insert the new coin in the database in the background,
+            // then show it. If the activity is re-created first, the new activity shows it.
+            runInBackground(() -> {
+                mDbAdapter.updateCoinSortOrderForInsert(mViewModel.mDbCollectionName, insertSortOrder);
+                mDbAdapter.addCoinSlotToCollection(dbCoinSlot, mViewModel.mDbCollectionName, true, newCollectionSize);
+                return dbCoinSlot.getDatabaseId();
+            }, databaseId -> {
+                pendingCopies.remove(newCopy);
+                newCoinSlot.setDatabaseId(databaseId);
+                showCopiedCoinSlot(newCoinSlot);
+            }, mRes.getString(R.string.error_copying_coin));
+        }
+    }
 
-                // Insert the new coin into the database
-                mDbAdapter.addCoinSlotToCollection(newCoinSlot, mCollectionName, true, mCoinList.size() + 1);
-            } catch (SQLException e) {
-                showCancelableAlert(mRes.getString(R.string.error_copying_coin));
-                return;
+    /**
+     * Makes room in the sort order for a coin being inserted
+     * @param coinList coins to update
+     * @param insertSortOrder sort order of the new coin
+     */
+    private static void shiftSortOrdersForInsert(ArrayList<CoinSlot> coinList, int insertSortOrder) {
+        for(CoinSlot currCoinSlot : coinList) {
+            if (currCoinSlot.getSortOrder() >= insertSortOrder) {
+                currCoinSlot.setSortOrder(currCoinSlot.getSortOrder() + 1);
             }
+        }
+    }
 
-            // Insert the new coin and update the view
-            mCoinList.add(coinListInsertIndex, newCoinSlot);
-            mCoinSlotAdapter.notifyDataSetChanged();
+    /**
+     * Adds a copied coin to the coin list, in sort order, and updates the view
+     * @param newCoinSlot copied coin, which has been added to the database
+     */
+    private void showCopiedCoinSlot(CoinSlot newCoinSlot) {
+        int coinListInsertIndex = mCoinList.size();
+        for (int i = 0; i < mCoinList.size(); i++) {
+            if (mCoinList.get(i).getSortOrder() > newCoinSlot.getSortOrder()) {
+                coinListInsertIndex = i;
+                break;
+            }
         }
+        mCoinList.add(coinListInsertIndex, newCoinSlot);
+        mCoinSlotAdapter.notifyCoinSlotInserted(coinListInsertIndex);
+        onCoinListResized();
     }
 
     /**
@@ -791,23 +1280,23 @@ public class CollectionPage extends BaseActivity {
      */
     public void deleteCoinSlotAtPosition(int position) {
         // Need to check whether the collection is locked
-        SharedPreferences mainPreferences = getSharedPreferences(MainApplication.PREFS, MODE_PRIVATE);
+        SharedPreferences mainPreferences = getMainPreferences();
 
         if(mainPreferences.getBoolean(mCollectionName + IS_LOCKED, false)){
             // Collection is locked
             showLockedMessage();
         } else {
-            // Delete the coin from the coin list
+            // Delete the coin from the coin list, and from the database in the background
             CoinSlot coinSlot = mCoinList.remove(position);
-            try {
-                mDbAdapter.removeCoinSlotFromCollection(coinSlot, mCollectionName, mCoinList.size());
-            } catch (SQLException e) {
-                showCancelableAlert(mRes.getString(R.string.error_delete_coin));
-                return;
-            }
+            final int newCollectionSize = mCoinList.size() + mViewModel.mPendingCopies.size();
+            runInBackground(() -> {
+                mDbAdapter.removeCoinSlotFromCollection(coinSlot, mViewModel.mDbCollectionName, newCollectionSize);
+                return null;
+            }, null, mRes.getString(R.string.error_delete_coin));
 
             // Update the view
-            mCoinSlotAdapter.notifyDataSetChanged();
+            mCoinSlotAdapter.notifyCoinSlotRemoved(position);
+            onCoinListResized();
         }
     }
 
@@ -817,7 +1306,7 @@ public class CollectionPage extends BaseActivity {
      */
     private void showCoinRenamePrompt(int position){
         // Need to check whether the collection is locked
-        SharedPreferences mainPreferences = getSharedPreferences(MainApplication.PREFS, MODE_PRIVATE);
+        SharedPreferences mainPreferences = getMainPreferences();
 
         if(mainPreferences.getBoolean(mCollectionName + IS_LOCKED, false)){
             // Collection is locked
@@ -888,7 +1377,7 @@ public class CollectionPage extends BaseActivity {
                     switch (item) {
                         case ACTIONS_TOGGLE: {
                             // Toggle collected or not
-                            toggleCoinSlotInCollection(mCoinList.get(actionPosition));
+                            toggleCoinSlotInCollection(actionPosition);
                             break;
                         }
                         case ACTIONS_EDIT: {
@@ -898,7 +1387,7 @@ public class CollectionPage extends BaseActivity {
                         }
                         case ACTIONS_COPY: {
                             // Perform copy
-                            copyCoinSlot(mCoinList.get(actionPosition), actionPosition + 1);
+                            copyCoinSlot(mCoinList.get(actionPosition));
                             break;
                         }
                         case ACTIONS_DELETE: {
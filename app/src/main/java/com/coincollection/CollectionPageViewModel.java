@@ -0,0 +1,90 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.coincollection;
+
+import androidx.lifecycle.ViewModel;
+
+import java.util.ArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the state of a CollectionPage that should survive configuration changes
+ * (like screen rotations) without having to be parceled into the saved instance state
+ */
+public class CollectionPageViewModel extends ViewModel {
+
+    /**
+     * Runs the page's disk work. This outlives the activity so that work queued before a
+     * rotation still runs before the work queued by the new activity. The thread exits when
+     * idle, so it doesn't need to be shut down.
+     */
+    final ThreadPoolExecutor mBackgroundExecutor = new ThreadPoolExecutor(1, 1,
+            30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+
+    /** Name of the collection in the database, as of the last background work that ran */
+    volatile String mDbCollectionName = null;
+
+    /** Display type (simple or advanced) loaded from the database */
+    int mDisplayType = CollectionPage.SIMPLE_DISPLAY;
+
+    /** Coin list loaded from the database, including any unsaved changes */
+    ArrayList<CoinSlot> mCoinList = null;
+
+    /** Copied coins that are still being added to the database (UI thread only) */
+    final ArrayList<PendingCopy> mPendingCopies = new ArrayList<>();
+
+    /** Whether the coin list includes the advanced info (only loaded for the advanced view) */
+    boolean mHasAdvInfo = false;
+
+    /** Whether any coin in the list has unsaved advanced info changes */
+    boolean mHasUnsavedChanges = false;
+
+    /** Whether the filter bar is shown */
+    boolean mShowFilterBar = false;
+
+    /** Filter and sort options from the filter bar, or null if not filtered */
+    CoinSlotFilter mFilter = null;
+
+    /** Indices into the coin list of the coins shown, or null if showing all coins */
+    int[] mShownIndices = null;
+
+    public CollectionPageViewModel() {
+        mBackgroundExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * A copied coin that is being added to the database. The database gets its own copy of the
+     * coin, so the background thread never reads the one that is shown.
+     */
+    static class PendingCopy {
+        /** Coin that is shown once it has been added */
+        final CoinSlot mShownCoinSlot;
+        /** Coin passed to the database, which sets its database id */
+        final CoinSlot mDbCoinSlot;
+
+        PendingCopy(CoinSlot shownCoinSlot, CoinSlot dbCoinSlot) {
+            mShownCoinSlot = shownCoinSlot;
+            mDbCoinSlot = dbCoinSlot;
+        }
+    }
+}
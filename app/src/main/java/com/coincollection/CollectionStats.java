@@ -0,0 +1,141 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.coincollection;
+
+import static com.coincollection.CollectionStatsHelper.NUM_CATEGORIES;
+import static com.coincollection.CollectionStatsHelper.STAT_GRADE;
+import static com.coincollection.CollectionStatsHelper.STAT_MINT;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Collection progress statistics, as read from the summary table
+ */
+public class CollectionStats {
+
+    private final ArrayList<ArrayList<Entry>> mEntries = new ArrayList<>();
+    private int mTotalCollected = 0;
+    private int mTotal = 0;
+    private int mTotalQuantity = 0;
+
+    CollectionStats() {
+        for (int i = 0; i < NUM_CATEGORIES; i++) {
+            mEntries.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Adds a row read from the summary table
+     * @param category one of the CollectionStatsHelper STAT_ values
+     * @param key mint, decade, grade index or coin type
+     * @param collected number of coins collected
+     * @param total total number of coins
+     * @param quantity total quantity of the coins collected
+     */
+    void add(int category, String key, int collected, int total, int quantity) {
+        if (category < 0 || category >= NUM_CATEGORIES) {
+            return;
+        }
+        mEntries.get(category).add(new Entry(key, collected, total, quantity));
+        // Every coin has exactly one mint row, so use those for the totals
+        if (category == STAT_MINT) {
+            mTotalCollected += collected;
+            mTotal += total;
+            mTotalQuantity += quantity;
+        }
+    }
+
+    /**
+     * Puts the entries of each category in display order
+     */
+    void sort() {
+        for (int i = 0; i < NUM_CATEGORIES; i++) {
+            if (i == STAT_GRADE) {
+                // Grade keys are indices into the grade list
+                Collections.sort(mEntries.get(i), (a, b) -> Integer.compare(parseInt(a.mKey), parseInt(b.mKey)));
+            } else {
+                Collections.sort(mEntries.get(i), (a, b) -> a.mKey.compareTo(b.mKey));
+            }
+        }
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @param category one of the CollectionStatsHelper STAT_ values
+     * @return entries in that category
+     */
+    public ArrayList<Entry> getEntries(int category) {
+        return mEntries.get(category);
+    }
+
+    public int getTotalCollected() {
+        return mTotalCollected;
+    }
+
+    public int getTotal() {
+        return mTotal;
+    }
+
+    public int getTotalQuantity() {
+        return mTotalQuantity;
+    }
+
+    /**
+     * Totals for a single mint, decade, grade or coin type
+     */
+    public static class Entry {
+        private final String mKey;
+        private final int mCollected;
+        private final int mTotal;
+        private final int mQuantity;
+
+        Entry(String key, int collected, int total, int quantity) {
+            mKey = (key != null) ? key : "";
+            mCollected = collected;
+            mTotal = total;
+            mQuantity = quantity;
+        }
+
+        public String getKey() {
+            return mKey;
+        }
+
+        public int getCollected() {
+            return mCollected;
+        }
+
+        public int getTotal() {
+            return mTotal;
+        }
+
+        public int getQuantity() {
+            return mQuantity;
+        }
+    }
+}
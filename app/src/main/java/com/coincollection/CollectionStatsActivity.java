@@ -0,0 +1,200 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.coincollection;
+
+import static com.coincollection.CollectionStatsHelper.STAT_COIN_TYPE;
+import static com.coincollection.CollectionStatsHelper.STAT_DECADE;
+import static com.coincollection.CollectionStatsHelper.STAT_GRADE;
+import static com.coincollection.CollectionStatsHelper.STAT_MINT;
+
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.view.MenuItem;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+
+import com.spencerpages.R;
+
+import java.util.ArrayList;
+
+/**
+ * Activity showing collection progress across all collections, by coin type, mint, decade
+ * and grade
+ *
+ * All of the numbers come from a single query over the statistics summary table, so this
+ * opens quickly no matter how many collections there are.
+ */
+public class CollectionStatsActivity extends BaseActivity {
+
+    private StatsAdapter mStatsAdapter;
+
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.collection_stats_page);
+
+        if(mActionBar != null){
+            mActionBar.setDisplayHomeAsUpEnabled(true);
+        }
+
+        mStatsAdapter = new StatsAdapter();
+        ListView statsListView = findViewById(R.id.stats_list);
+        statsListView.setAdapter(mStatsAdapter);
+
+        // Read the statistics in the background
+        runInBackground(() -> mDbAdapter.getCollectionStats(), this::showStats,
+                mRes.getString(R.string.error_reading_database));
+    }
+
+    /**
+     * Displays the statistics
+     * @param stats statistics read from the database
+     */
+    private void showStats(CollectionStats stats) {
+        ArrayList<StatsRow> rows = new ArrayList<>();
+        rows.add(new StatsRow(mRes.getString(R.string.stats_overall), null));
+        rows.add(new StatsRow(mRes.getString(R.string.stats_all_collections),
+                new CollectionStats.Entry("", stats.getTotalCollected(), stats.getTotal(), stats.getTotalQuantity())));
+
+        String[] grades = mRes.getStringArray(R.array.coin_grades);
+        int[] categories = {STAT_COIN_TYPE, STAT_MINT, STAT_DECADE, STAT_GRADE};
+        int[] headers = {R.string.stats_by_coin_type, R.string.stats_by_mint, R.string.stats_by_decade, R.string.stats_by_grade};
+        for (int i = 0; i < categories.length; i++) {
+            ArrayList<CollectionStats.Entry> entries = stats.getEntries(categories[i]);
+            if (entries.isEmpty()) {
+                continue;
+            }
+            rows.add(new StatsRow(mRes.getString(headers[i]), null));
+            for (CollectionStats.Entry entry : entries) {
+                rows.add(new StatsRow(getEntryLabel(categories[i], entry.getKey(), grades), entry));
+            }
+        }
+
+        mStatsAdapter.setNotifyOnChange(false);
+        mStatsAdapter.clear();
+        for (StatsRow row : rows) {
+            mStatsAdapter.add(row);
+        }
+        mStatsAdapter.notifyDataSetChanged();
+    }
+
+    /**
+     * Gets the text to display for a statistic
+     * @param category one of the CollectionStatsHelper STAT_ values
+     * @param key key of the statistic
+     * @param grades list of grade names
+     * @return label
+     */
+    private String getEntryLabel(int category, String key, String[] grades) {
+        switch (category) {
+            case STAT_MINT: {
+                return (key.length() != 0) ? key : mRes.getString(R.string.filter_no_mint);
+            }
+            case STAT_DECADE: {
+                return (key.length() != 0) ? mRes.getString(R.string.stats_decade_template, key)
+                        : mRes.getString(R.string.stats_no_year);
+            }
+            case STAT_GRADE: {
+                int gradeIndex;
+                try {
+                    gradeIndex = Integer.parseInt(key);
+                } catch (NumberFormatException e) {
+                    gradeIndex = 0;
+                }
+                // Index 0 is the placeholder shown before a grade is picked
+                return (gradeIndex > 0 && gradeIndex < grades.length) ? grades[gradeIndex]
+                        : mRes.getString(R.string.stats_ungraded);
+            }
+            default: {
+                return key;
+            }
+        }
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            onBackPressed();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    /**
+     * A section header (if the entry is null) or a single statistic
+     */
+    private static class StatsRow {
+        final String mLabel;
+        final CollectionStats.Entry mEntry;
+
+        StatsRow(String label, CollectionStats.Entry entry) {
+            mLabel = label;
+            mEntry = entry;
+        }
+    }
+
+    /**
+     * Adapter for the list of statistics
+     */
+    private class StatsAdapter extends ArrayAdapter<StatsRow> {
+
+        StatsAdapter() {
+            super(CollectionStatsActivity.this, android.R.layout.simple_list_item_2, android.R.id.text1);
+        }
+
+        @Override
+        public boolean areAllItemsEnabled() {
+            return false;
+        }
+
+        @Override
+        public boolean isEnabled(int position) {
+            return false;
+        }
+
+        @Override
+        @NonNull
+        public View getView(int position, View convertView, @NonNull ViewGroup parent) {
+            View view = super.getView(position, convertView, parent);
+            StatsRow row = getItem(position);
+            TextView labelText = view.findViewById(android.R.id.text1);
+            TextView detailsText = view.findViewById(android.R.id.text2);
+            labelText.setText(row.mLabel);
+            if (row.mEntry == null) {
+                labelText.setTypeface(null, Typeface.BOLD);
+                detailsText.setVisibility(View.GONE);
+            } else {
+                CollectionStats.Entry entry = row.mEntry;
+                int percent = (entry.getTotal() != 0) ? (100 * entry.getCollected() / entry.getTotal()) : 0;
+                labelText.setTypeface(null, Typeface.NORMAL);
+                detailsText.setVisibility(View.VISIBLE);
+                detailsText.setText(mRes.getString(R.string.stats_details_template,
+                        entry.getCollected(), entry.getTotal(), percent, entry.getQuantity()));
+            }
+            return view;
+        }
+    }
+}
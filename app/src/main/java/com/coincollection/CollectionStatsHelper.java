@@ -0,0 +1,271 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.coincollection;
+
+import static com.coincollection.CoinSlot.COL_ADV_GRADE_INDEX;
+import static com.coincollection.CoinSlot.COL_ADV_QUANTITY_INDEX;
+import static com.coincollection.CoinSlot.COL_COIN_ID;
+import static com.coincollection.CoinSlot.COL_COIN_IDENTIFIER;
+import static com.coincollection.CoinSlot.COL_IN_COLLECTION;
+import static com.coincollection.CoinSlot.COL_MINT_CODE;
+import static com.coincollection.CollectionListInfo.COL_COIN_TYPE;
+import static com.coincollection.CollectionListInfo.COL_NAME;
+import static com.coincollection.CollectionListInfo.TBL_COLLECTION_INFO;
+import static com.spencerpages.MainApplication.APP_NAME;
+
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.coincollection.core.MintCodes;
+import com.spencerpages.BuildConfig;
+
+/**
+ * Maintains the summary table behind the statistics screen
+ *
+ * For each collection, the table holds the number of collected coins, total coins and quantity
+ * grouped by mint, by decade and by grade. The rows are computed with SQL aggregates when a
+ * collection is created or replaced, and adjusted by the DatabaseAdapter write paths when a
+ * single coin changes, so reading the statistics never has to scan the collection tables.
+ */
+public class CollectionStatsHelper {
+
+    final static String TBL_COLLECTION_STATS = "collection_stats";
+
+    // Columns of the summary table
+    private final static String COL_STAT_COLLECTION = "collection";
+    private final static String COL_STAT_CATEGORY = "category";
+    private final static String COL_STAT_KEY = "statKey";
+    private final static String COL_STAT_COLLECTED = "collected";
+    private final static String COL_STAT_TOTAL = "total";
+    private final static String COL_STAT_QUANTITY = "quantity";
+
+    // Statistic categories - only the first NUM_STORED_CATEGORIES are stored in the table,
+    // the coin type totals are summed from the mint rows when read
+    public final static int STAT_MINT = 0;
+    public final static int STAT_DECADE = 1;
+    public final static int STAT_GRADE = 2;
+    public final static int STAT_COIN_TYPE = 3;
+    private final static int NUM_STORED_CATEGORIES = 3;
+    final static int NUM_CATEGORIES = 4;
+
+    // SQL expressions computing the key of each stored category from a collection table row
+    // - Mints are grouped by mint code, so varieties count towards their mint (Ex: "D" for
+    //   " D Type 1") and coins without a single mint mark are ""
+    // - Decades are only computed for coins starting with a four digit year (Ex: "1950" for
+    //   "1955 DDO"), and are "" otherwise
+    private final static String[] KEY_EXPRESSIONS = {
+            MintCodes.getMintNameSqlExpression(COL_MINT_CODE),
+            "CASE WHEN substr(" + COL_COIN_IDENTIFIER + ", 1, 4) GLOB '[0-9][0-9][0-9][0-9]'"
+                    + " THEN substr(" + COL_COIN_IDENTIFIER + ", 1, 3) || '0' ELSE '' END",
+            "CAST(COALESCE(" + COL_ADV_GRADE_INDEX + ", 0) AS TEXT)"};
+
+    // SQL expressions for the counts of a collection table row
+    // - The quantity index is stored, where index 0 is a quantity of 1. Only the quantity of
+    //   collected coins counts towards the total quantity.
+    private final static String COLLECTED_EXPRESSION = "COALESCE(" + COL_IN_COLLECTION + ", 0)";
+    private final static String QUANTITY_EXPRESSION = "CASE WHEN " + COLLECTED_EXPRESSION + " != 0"
+            + " THEN COALESCE(" + COL_ADV_QUANTITY_INDEX + ", 0) + 1 ELSE 0 END";
+
+    /**
+     * Creates the summary table
+     * @param db database to add to
+     * @throws SQLException if an error occurs
+     */
+    static void createStatsTable(SQLiteDatabase db) throws SQLException {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TBL_COLLECTION_STATS + " ("
+                + " " + COL_STAT_COLLECTION + " text not null,"
+                + " " + COL_STAT_CATEGORY + " integer not null,"
+                + " " + COL_STAT_KEY + " text not null,"
+                + " " + COL_STAT_COLLECTED + " integer not null,"
+                + " " + COL_STAT_TOTAL + " integer not null,"
+                + " " + COL_STAT_QUANTITY + " integer not null,"
+                + " PRIMARY KEY (" + COL_STAT_COLLECTION + ", " + COL_STAT_CATEGORY + ", " + COL_STAT_KEY + "))");
+    }
+
+    /**
+     * Clears and re-computes the summary of every collection
+     * @param db database
+     * @throws SQLException if an error occurs
+     */
+    static void rebuildAllStats(SQLiteDatabase db) throws SQLException {
+        long startTime = SystemClock.uptimeMillis();
+        db.beginTransaction();
+        try {
+            db.execSQL("DELETE FROM " + TBL_COLLECTION_STATS);
+            Cursor cursor = db.query(TBL_COLLECTION_INFO, new String[] {COL_NAME}, null, null, null, null, null);
+            if (cursor.moveToFirst()) {
+                do {
+                    addCollection(db, cursor.getString(0));
+                } while (cursor.moveToNext());
+            }
+            cursor.close();
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        if (BuildConfig.DEBUG) {
+            Log.d(APP_NAME, "Rebuilt collection statistics in " + (SystemClock.uptimeMillis() - startTime) + "ms");
+        }
+    }
+
+    /**
+     * Computes the summary of a collection that isn't in the table yet
+     * @param db database
+     * @param tableName collection name
+     * @throws SQLException if an error occurs
+     */
+    static void addCollection(SQLiteDatabase db, String tableName) throws SQLException {
+        for (int category = 0; category < NUM_STORED_CATEGORIES; category++) {
+            String keyExpression = KEY_EXPRESSIONS[category];
+            db.execSQL("INSERT INTO " + TBL_COLLECTION_STATS + " (" + COL_STAT_COLLECTION + ", "
+                    + COL_STAT_CATEGORY + ", " + COL_STAT_KEY + ", " + COL_STAT_COLLECTED + ", "
+                    + COL_STAT_TOTAL + ", " + COL_STAT_QUANTITY + ")"
+                    + " SELECT ?, " + category + ", " + keyExpression + ", SUM(" + COLLECTED_EXPRESSION
+                    + "), COUNT(*), SUM(" + QUANTITY_EXPRESSION + ")"
+                    + " FROM [" + tableName + "] GROUP BY " + keyExpression, new Object[] {tableName});
+        }
+    }
+
+    /**
+     * Removes the summary of a collection
+     * @param db database
+     * @param tableName collection name
+     * @throws SQLException if an error occurs
+     */
+    static void removeCollection(SQLiteDatabase db, String tableName) throws SQLException {
+        db.execSQL("DELETE FROM " + TBL_COLLECTION_STATS + " WHERE " + COL_STAT_COLLECTION + "=?",
+                new Object[] {tableName});
+    }
+
+    /**
+     * Re-computes the summary of a collection, after its contents were replaced
+     * @param db database
+     * @param tableName collection name
+     * @throws SQLException if an error occurs
+     */
+    static void recomputeCollection(SQLiteDatabase db, String tableName) throws SQLException {
+        removeCollection(db, tableName);
+        addCollection(db, tableName);
+    }
+
+    /**
+     * Updates the collection name of a collection's summary
+     * @param db database
+     * @param oldName the original collection name
+     * @param newName the new collection name
+     * @throws SQLException if an error occurs
+     */
+    static void renameCollection(SQLiteDatabase db, String oldName, String newName) throws SQLException {
+        db.execSQL("UPDATE " + TBL_COLLECTION_STATS + " SET " + COL_STAT_COLLECTION + "=? WHERE "
+                + COL_STAT_COLLECTION + "=?", new Object[] {newName, oldName});
+    }
+
+    /**
+     * Adds the current database values of a coin to its collection's summary. Call this after
+     * inserting or updating the coin.
+     * @param db database
+     * @param tableName collection name
+     * @param coinSlot coin to add (must already have its database id)
+     * @throws SQLException if an error occurs
+     */
+    static void addCoin(SQLiteDatabase db, String tableName, CoinSlot coinSlot) throws SQLException {
+        applyCoin(db, tableName, coinSlot.getDatabaseId(), 1);
+    }
+
+    /**
+     * Subtracts the current database values of a coin from its collection's summary. Call this
+     * before updating or deleting the coin.
+     * @param db database
+     * @param tableName collection name
+     * @param coinSlot coin to remove
+     * @throws SQLException if an error occurs
+     */
+    static void removeCoin(SQLiteDatabase db, String tableName, CoinSlot coinSlot) throws SQLException {
+        applyCoin(db, tableName, coinSlot.getDatabaseId(), -1);
+        db.execSQL("DELETE FROM " + TBL_COLLECTION_STATS + " WHERE " + COL_STAT_COLLECTION + "=? AND "
+                + COL_STAT_TOTAL + " <= 0", new Object[] {tableName});
+    }
+
+    /**
+     * Adds or subtracts a coin's database values to/from the summary rows it falls under
+     * @param db database
+     * @param tableName collection name
+     * @param coinId database id of the coin
+     * @param sign 1 to add or -1 to subtract
+     * @throws SQLException if an error occurs
+     */
+    private static void applyCoin(SQLiteDatabase db, String tableName, long coinId, int sign) throws SQLException {
+        String coinWhere = " FROM [" + tableName + "] WHERE " + COL_COIN_ID + "=?";
+        for (int category = 0; category < NUM_STORED_CATEGORIES; category++) {
+            String keyExpression = KEY_EXPRESSIONS[category];
+            if (sign > 0) {
+                // Make sure the row exists
+                db.execSQL("INSERT OR IGNORE INTO " + TBL_COLLECTION_STATS + " (" + COL_STAT_COLLECTION + ", "
+                        + COL_STAT_CATEGORY + ", " + COL_STAT_KEY + ", " + COL_STAT_COLLECTED + ", "
+                        + COL_STAT_TOTAL + ", " + COL_STAT_QUANTITY + ")"
+                        + " SELECT ?, " + category + ", " + keyExpression + ", 0, 0, 0" + coinWhere,
+                        new Object[] {tableName, coinId});
+            }
+            db.execSQL("UPDATE " + TBL_COLLECTION_STATS + " SET "
+                    + COL_STAT_COLLECTED + "=" + COL_STAT_COLLECTED + "+" + sign + "*(SELECT " + COLLECTED_EXPRESSION + coinWhere + "), "
+                    + COL_STAT_TOTAL + "=" + COL_STAT_TOTAL + "+" + sign + ", "
+                    + COL_STAT_QUANTITY + "=" + COL_STAT_QUANTITY + "+" + sign + "*(SELECT " + QUANTITY_EXPRESSION + coinWhere + ")"
+                    + " WHERE " + COL_STAT_COLLECTION + "=? AND " + COL_STAT_CATEGORY + "=" + category
+                    + " AND " + COL_STAT_KEY + "=(SELECT " + keyExpression + coinWhere + ")",
+                    new Object[] {coinId, coinId, tableName, coinId});
+        }
+    }
+
+    /**
+     * Reads the statistics for all collections, in a single query over the summary table
+     * @param db database
+     * @return statistics
+     * @throws SQLException if an error occurs
+     */
+    static CollectionStats readStats(SQLiteDatabase db) throws SQLException {
+        long startTime = SystemClock.uptimeMillis();
+        String sqlCmd = "SELECT " + COL_STAT_CATEGORY + ", " + COL_STAT_KEY + ", SUM(" + COL_STAT_COLLECTED
+                + "), SUM(" + COL_STAT_TOTAL + "), SUM(" + COL_STAT_QUANTITY + ")"
+                + " FROM " + TBL_COLLECTION_STATS + " GROUP BY " + COL_STAT_CATEGORY + ", " + COL_STAT_KEY
+                + " UNION ALL"
+                + " SELECT " + STAT_COIN_TYPE + ", c." + COL_COIN_TYPE + ", SUM(s." + COL_STAT_COLLECTED
+                + "), SUM(s." + COL_STAT_TOTAL + "), SUM(s." + COL_STAT_QUANTITY + ")"
+                + " FROM " + TBL_COLLECTION_STATS + " s JOIN " + TBL_COLLECTION_INFO + " c"
+                + " ON c." + COL_NAME + "=s." + COL_STAT_COLLECTION
+                + " WHERE s." + COL_STAT_CATEGORY + "=" + STAT_MINT + " GROUP BY c." + COL_COIN_TYPE;
+        CollectionStats stats = new CollectionStats();
+        Cursor cursor = db.rawQuery(sqlCmd, null);
+        if (cursor.moveToFirst()) {
+            do {
+                stats.add(cursor.getInt(0), cursor.getString(1), cursor.getInt(2), cursor.getInt(3), cursor.getInt(4));
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        stats.sort();
+        if (BuildConfig.DEBUG) {
+            Log.d(APP_NAME, "Read collection statistics in " + (SystemClock.uptimeMillis() - startTime) + "ms");
+        }
+        return stats;
+    }
+}
@@ -26,7 +26,9 @@ import static com.coincollection.CoinSlot.COL_COIN_MINT;
 import static com.coincollection.CoinSlot.COL_COIN_ID;
 import static com.coincollection.CoinSlot.COL_CUSTOM_COIN;
 import static com.coincollection.CoinSlot.COL_IN_COLLECTION;
+import static com.coincollection.CoinSlot.COL_MINT_CODE;
 import static com.coincollection.CoinSlot.COL_SORT_ORDER;
+import static com.coincollection.CoinSlot.COL_VARIETY;
 import static com.coincollection.CollectionListInfo.COL_COIN_TYPE;
 import static com.coincollection.CollectionListInfo.COL_DISPLAY;
 import static com.coincollection.CollectionListInfo.COL_DISPLAY_ORDER;
@@ -37,6 +39,11 @@ import static com.coincollection.CollectionListInfo.COL_SHOW_MINT_MARKS;
 import static com.coincollection.CollectionListInfo.COL_START_YEAR;
 import static com.coincollection.CollectionListInfo.COL_TOTAL;
 import static com.coincollection.CollectionListInfo.TBL_COLLECTION_INFO;
+import static com.coincollection.DatabaseHelper.COLLECTION_INFO_NAME_INDEX;
+import static com.coincollection.DatabaseHelper.COLLECTION_INFO_NAME_NOCASE_INDEX;
+import static com.coincollection.DatabaseHelper.IN_COLLECTION_INDEX_SUFFIX;
+import static com.coincollection.DatabaseHelper.MINT_CODE_INDEX_SUFFIX;
+import static com.coincollection.DatabaseHelper.SORT_ORDER_INDEX_SUFFIX;
 import static com.coincollection.DatabaseHelper.simpleQueryForLong;
 import static com.coincollection.ExportImportHelper.LEGACY_EXPORT_COLLECTION_LIST_FILE_NAME;
 
@@ -45,26 +52,50 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteStatement;
 
 import com.spencerpages.MainApplication;
 import com.spencerpages.R;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Adapter based on the Simple Notes Database Access Helper Class on the Android site.
  * 
  * This Adapter is used to get information that the user has entered regarding his or her coin
  * collections (from the backing database.)
+ *
+ * The adapter is shared between all activities and background tasks. Each open() must be matched
+ * by a close(), and the database is only closed once nobody is using it. All changes to the
+ * database are made one at a time on a single writer thread, so a toggle from the UI can't land in
+ * the middle of an import. Callers still block until their change is done. Reads can be made from
+ * any thread.
  */
-public class DatabaseAdapter {
+public class DatabaseAdapter implements CoinStore {
 
     private final DatabaseHelper mDbHelper;
-    private SQLiteDatabase mDb = null;
+    private volatile SQLiteDatabase mDb = null;
+
+    // Number of open() calls that haven't been matched by a close()
+    private final Object mOpenLock = new Object();
+    private int mOpenCount = 0;
+
+    // All database changes run on this thread.  The thread exits when idle, so track the current
+    // one to let nested changes (and changes made from inside runWrite) run in place.
+    private final ThreadPoolExecutor mWriteExecutor;
+    private volatile Thread mWriteThread = null;
+    private final static long WRITE_THREAD_KEEP_ALIVE_SECS = 30;
+
+    private final CopyOnWriteArrayList<CollectionChangeListener> mChangeListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Record any internal DB names here!
@@ -72,11 +103,24 @@ public class DatabaseAdapter {
      * users from trying to create database collections that map to internal DB names
      * Must also include the collection export file name, so that import/exports work
      */
-    private final List<String> mReservedDbNames = new ArrayList<>(Arrays.asList(
+    private final static List<String> RESERVED_DB_NAMES = new ArrayList<>(Arrays.asList(
             TBL_COLLECTION_INFO,
+            COLLECTION_INFO_NAME_INDEX,
+            COLLECTION_INFO_NAME_NOCASE_INDEX,
             LEGACY_EXPORT_COLLECTION_LIST_FILE_NAME
     ));
 
+    static {
+        RESERVED_DB_NAMES.addAll(CoinSearchHelper.RESERVED_TABLE_NAMES);
+        RESERVED_DB_NAMES.add(CollectionStatsHelper.TBL_COLLECTION_STATS);
+    }
+
+    // Queries that are also checked by the query plan tests
+    public final static String DISPLAY_TYPE_QUERY = "SELECT " + COL_DISPLAY + " FROM " + TBL_COLLECTION_INFO
+            + " WHERE " + COL_NAME + "=? LIMIT 1";
+    public final static String COLLECTION_NAME_CHECK_QUERY = "SELECT " + COL_NAME + " FROM " + TBL_COLLECTION_INFO
+            + " WHERE " + COL_NAME + "=? COLLATE NOCASE LIMIT 1";
+
     /**
      * Constructor - takes the context to allow the database to be
      * opened/created
@@ -85,6 +129,14 @@ public class DatabaseAdapter {
      */
     public DatabaseAdapter(Context context) {
         mDbHelper = new DatabaseHelper(context);
+        mWriteExecutor = new ThreadPoolExecutor(1, 1, WRITE_THREAD_KEEP_ALIVE_SECS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "DatabaseWriter");
+                    thread.setDaemon(true);
+                    mWriteThread = thread;
+                    return thread;
+                });
+        mWriteExecutor.allowCoreThreadTimeOut(true);
     }
 
     /**
@@ -93,19 +145,123 @@ public class DatabaseAdapter {
      * signal the failure
      * @throws SQLException if the database cannot be opened
      */
+    @Override
     public void open() throws SQLException {
-        if (mDb == null || !mDb.isOpen()) {
+        // Take the reference first so a pending close can't close the database under us.  The
+        // open itself isn't done under the lock, as it may need to upgrade the database.
+        synchronized (mOpenLock) {
+            mOpenCount++;
+        }
+        try {
             mDb = mDbHelper.getWritableDatabase();
+        } catch (SQLException e) {
+            synchronized (mOpenLock) {
+                mOpenCount--;
+            }
+            throw e;
         }
     }
 
     /**
-     * Close the current database connection
+     * Release a reference taken by open(). The database connection is closed once every open()
+     * has been matched by a close(), after any changes already queued have finished.
      */
+    @Override
     public void close() {
-        if (mDb != null && mDb.isOpen()) {
-            mDb.close();
-            mDb = null;
+        synchronized (mOpenLock) {
+            if (mOpenCount == 0) {
+                return;
+            }
+            mOpenCount--;
+            if (mOpenCount != 0) {
+                return;
+            }
+        }
+        mWriteExecutor.execute(this::closeIfUnused);
+    }
+
+    /**
+     * Closes the database connection if it hasn't been re-opened since the last close()
+     */
+    private void closeIfUnused() {
+        synchronized (mOpenLock) {
+            if (mOpenCount == 0 && mDb != null) {
+                mDb.close();
+                mDb = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the open database
+     * @return database
+     * @throws SQLException if the database isn't open
+     */
+    private SQLiteDatabase getDb() throws SQLException {
+        SQLiteDatabase db = mDb;
+        if (db == null) {
+            throw new SQLException("Database is not open");
+        }
+        return db;
+    }
+
+    /**
+     * Runs a change to the database on the writer thread, waiting for it to finish. Use this to
+     * group several changes that must not have other changes made in between them.
+     * @param operation change to make
+     * @param <T> type of the result
+     * @return the result of the operation
+     * @throws SQLException if the operation failed
+     */
+    @Override
+    public <T> T runWrite(final WriteOperation<T> operation) throws SQLException {
+        if (Thread.currentThread() == mWriteThread) {
+            return operation.run();
+        }
+        Future<T> future = mWriteExecutor.submit(operation::run);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException(String.valueOf(cause));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for database write");
+        }
+    }
+
+    /**
+     * Registers a listener to be told about changes to the list of collections
+     * @param listener listener to add
+     */
+    @Override
+    public void addCollectionChangeListener(CollectionChangeListener listener) {
+        mChangeListeners.addIfAbsent(listener);
+    }
+
+    /**
+     * Unregisters a listener added with addCollectionChangeListener()
+     * @param listener listener to remove
+     */
+    @Override
+    public void removeCollectionChangeListener(CollectionChangeListener listener) {
+        mChangeListeners.remove(listener);
+    }
+
+    /**
+     * Tells the listeners about a change
+     * @param changeType one of the CHANGE_* constants
+     * @param collectionName the collection changed, or null
+     * @param newName the new name for renames, otherwise null
+     */
+    private void notifyCollectionChanged(int changeType, String collectionName, String newName) {
+        for (CollectionChangeListener listener : mChangeListeners) {
+            listener.onCollectionChanged(changeType, collectionName, newName);
         }
     }
 
@@ -119,14 +275,20 @@ public class DatabaseAdapter {
      */
     // TODO Retrieving the coin information individually (and onScroll) is inefficient... We should
     // instead have one query that returns all of the info.
+    @Override
     public int fetchIsInCollection(String tableName, CoinSlot coinSlot) throws SQLException {
-        String sqlCmd = "SELECT " + COL_IN_COLLECTION + " FROM [" + tableName + "] WHERE " + COIN_SLOT_COIN_ID_WHERE_CLAUSE + " LIMIT 1";
-        SQLiteStatement compiledStatement = mDb.compileStatement(sqlCmd);
-        compiledStatement.bindString(1, String.valueOf(coinSlot.getDatabaseId()));
-        int result = simpleQueryForLong(compiledStatement);
-        compiledStatement.clearBindings();
-        compiledStatement.close();
-        return result;
+        return simpleQueryForLong(getDb(), buildIsInCollectionQuery(tableName),
+                new String[] {String.valueOf(coinSlot.getDatabaseId())});
+    }
+
+    /**
+     * Builds the query used by fetchIsInCollection()
+     * NOTE: This is public so we can use it with our current test bench
+     * @param tableName The collection of interest
+     * @return SQL query, taking the coin id as its argument
+     */
+    public static String buildIsInCollectionQuery(String tableName) {
+        return "SELECT " + COL_IN_COLLECTION + " FROM [" + tableName + "] WHERE " + COIN_SLOT_COIN_ID_WHERE_CLAUSE + " LIMIT 1";
     }
 
     /**
@@ -136,13 +298,28 @@ public class DatabaseAdapter {
      * @param coinSlot The coin we want to retrieve data for
      * @throws SQLException if the database update was not successful
      */
+    @Override
     public void toggleInCollection(String tableName, CoinSlot coinSlot) throws SQLException {
-        int result = fetchIsInCollection(tableName, coinSlot);
-        int newValue = (result + 1) % 2;
-        ContentValues args = new ContentValues();
-        args.put(COL_IN_COLLECTION, newValue);
-        String[] whereValues = new String[] {String.valueOf(coinSlot.getDatabaseId())};
-        runSqlUpdateAndCheck(tableName, args, COIN_SLOT_COIN_ID_WHERE_CLAUSE, whereValues);
+        runWrite(() -> {
+            long startNanos = DatabaseStats.begin(DatabaseStats.OP_TOGGLE);
+            getDb().beginTransaction();
+            try {
+                int result = fetchIsInCollection(tableName, coinSlot);
+                int newValue = (result + 1) % 2;
+                ContentValues args = new ContentValues();
+                args.put(COL_IN_COLLECTION, newValue);
+                String[] whereValues = new String[] {String.valueOf(coinSlot.getDatabaseId())};
+                CollectionStatsHelper.removeCoin(getDb(), tableName, coinSlot);
+                runSqlUpdateAndCheck(tableName, args, COIN_SLOT_COIN_ID_WHERE_CLAUSE, whereValues);
+                CollectionStatsHelper.addCoin(getDb(), tableName, coinSlot);
+                getDb().setTransactionSuccessful();
+            } finally {
+                getDb().endTransaction();
+                DatabaseStats.end(DatabaseStats.OP_TOGGLE, startNanos, 1);
+            }
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, tableName, null);
+            return null;
+        });
     }
 
     /**
@@ -152,15 +329,10 @@ public class DatabaseAdapter {
      * @return which display we should show.  See MainApplication for the types
      * @throws SQLException if an SQL-related error occurs
      */
+    @Override
     public int fetchTableDisplay(String tableName) throws SQLException {
         // The database will only be set up this way in this case
-        String sqlCmd = "SELECT " + COL_DISPLAY + " FROM " + TBL_COLLECTION_INFO + " WHERE " + COL_NAME + "=? LIMIT 1";
-        SQLiteStatement compiledStatement = mDb.compileStatement(sqlCmd);
-        compiledStatement.bindString(1, tableName);
-        int result = simpleQueryForLong(compiledStatement);
-        compiledStatement.clearBindings();
-        compiledStatement.close();
-        return result;
+        return simpleQueryForLong(getDb(), DISPLAY_TYPE_QUERY, new String[] {tableName});
     }
 
     /**
@@ -170,10 +342,15 @@ public class DatabaseAdapter {
      * @param displayType - New display type to store for this table
      * @throws SQLException if the database update was not successful
      */
+    @Override
     public void updateTableDisplay(String tableName, int displayType) throws SQLException {
-        ContentValues args = new ContentValues();
-        args.put(COL_DISPLAY, displayType);
-        runSqlUpdateAndCheck(TBL_COLLECTION_INFO, args, COL_NAME + "=?", new String[] { tableName });
+        runWrite(() -> {
+            ContentValues args = new ContentValues();
+            args.put(COL_DISPLAY, displayType);
+            runSqlUpdateAndCheck(TBL_COLLECTION_INFO, args, COL_NAME + "=?", new String[] { tableName });
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, tableName, null);
+            return null;
+        });
     }
 
     /**
@@ -183,10 +360,15 @@ public class DatabaseAdapter {
      * @param displayOrder - New displayOrder to store for this table
      * @throws SQLException if the database update was not successful
      */
+    @Override
     public void updateDisplayOrder(String tableName, int displayOrder) throws SQLException {
-        ContentValues args = new ContentValues();
-        args.put(COL_DISPLAY_ORDER, displayOrder);
-        runSqlUpdateAndCheck(TBL_COLLECTION_INFO, args, COL_NAME + "=?", new String[] { tableName });
+        runWrite(() -> {
+            ContentValues args = new ContentValues();
+            args.put(COL_DISPLAY_ORDER, displayOrder);
+            runSqlUpdateAndCheck(TBL_COLLECTION_INFO, args, COL_NAME + "=?", new String[] { tableName });
+            notifyCollectionChanged(CHANGE_COLLECTIONS_REORDERED, tableName, null);
+            return null;
+        });
     }
 
     /**
@@ -197,14 +379,28 @@ public class DatabaseAdapter {
      * @param coinSlot Coin slot
      * @throws SQLException if the database update was not successful
      */
-    void updateAdvInfo(String tableName, CoinSlot coinSlot) throws SQLException {
-        ContentValues args = new ContentValues();
-        args.put(COL_IN_COLLECTION, coinSlot.isInCollectionInt());
-        args.put(COL_ADV_GRADE_INDEX, coinSlot.getAdvancedGrades());
-        args.put(COL_ADV_QUANTITY_INDEX, coinSlot.getAdvancedQuantities());
-        args.put(COL_ADV_NOTES, coinSlot.getAdvancedNotes());
-        String[] whereValues = new String[] {String.valueOf(coinSlot.getDatabaseId())};
-        runSqlUpdateAndCheck(tableName, args, COIN_SLOT_COIN_ID_WHERE_CLAUSE, whereValues);
+    @Override
+    public void updateAdvInfo(String tableName, CoinSlot coinSlot) throws SQLException {
+        runWrite(() -> {
+            ContentValues args = new ContentValues();
+            args.put(COL_IN_COLLECTION, coinSlot.isInCollectionInt());
+            args.put(COL_ADV_GRADE_INDEX, coinSlot.getAdvancedGrades());
+            args.put(COL_ADV_QUANTITY_INDEX, coinSlot.getAdvancedQuantities());
+            args.put(COL_ADV_NOTES, coinSlot.getAdvancedNotes());
+            String[] whereValues = new String[] {String.valueOf(coinSlot.getDatabaseId())};
+            getDb().beginTransaction();
+            try {
+                CollectionStatsHelper.removeCoin(getDb(), tableName, coinSlot);
+                runSqlUpdateAndCheck(tableName, args, COIN_SLOT_COIN_ID_WHERE_CLAUSE, whereValues);
+                CollectionStatsHelper.addCoin(getDb(), tableName, coinSlot);
+                CoinSearchHelper.updateCoin(getDb(), tableName, coinSlot);
+                getDb().setTransactionSuccessful();
+            } finally {
+                getDb().endTransaction();
+            }
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, tableName, null);
+            return null;
+        });
     }
 
     /**
@@ -224,8 +420,10 @@ public class DatabaseAdapter {
         + " " + COL_ADV_QUANTITY_INDEX + " integer default 0,"
         + " " + COL_ADV_NOTES + " text default \"\","
         + " " + COL_SORT_ORDER + " integer not null,"
-        + " " + COL_CUSTOM_COIN + " integer default 0);";
-        mDb.execSQL(sqlCmd);
+        + " " + COL_CUSTOM_COIN + " integer default 0,"
+        + " " + COL_MINT_CODE + " integer default 0,"
+        + " " + COL_VARIETY + " text default \"\");";
+        getDb().execSQL(sqlCmd);
     }
 
     /**
@@ -235,31 +433,57 @@ public class DatabaseAdapter {
      * @param coinData The data that should be put into the backing database once it is created
      * @throws SQLException if the database update was not successful
      */
+    @Override
     public void createAndPopulateNewTable(CollectionListInfo collectionListInfo, int displayOrder, ArrayList<CoinSlot> coinData) throws SQLException {
+        createAndPopulateNewTable(collectionListInfo, displayOrder, coinData, true);
+    }
 
-        // Actually make the table
-        String tableName = collectionListInfo.getName();
-        createCollectionTable(tableName);
+    /**
+     * Handles adding everything needed for a collection to store it's data in the database.
+     * This also allows the data to be pre-populated in the database.
+     * @param collectionListInfo The collection info
+     * @param coinData The data that should be put into the backing database once it is created
+     * @param updateIndexes If false, the caller is responsible for rebuilding the search index
+     *                      and the statistics summary
+     * @throws SQLException if the database update was not successful
+     */
+    @Override
+    public void createAndPopulateNewTable(CollectionListInfo collectionListInfo, int displayOrder, ArrayList<CoinSlot> coinData, boolean updateIndexes) throws SQLException {
+        runWrite(() -> {
+            // Actually make the table
+            String tableName = collectionListInfo.getName();
+            createCollectionTable(tableName);
+
+            // We have the list of identifiers, now set them correctly
+            if (coinData != null) {
+                for (CoinSlot coinSlot : coinData) {
+                    insertCoinSlot(coinSlot, tableName);
+                }
+            }
+            // Index once the coins are in, rather than on every insert
+            DatabaseHelper.createCollectionIndexes(getDb(), tableName);
 
-        // We have the list of identifiers, now set them correctly
-        if (coinData != null) {
-            for (CoinSlot coinSlot : coinData) {
-                addCoinSlotToCollection(coinSlot, tableName, false, 0);
+            // Index the new coins all at once
+            if (updateIndexes) {
+                CoinSearchHelper.indexCollection(getDb(), tableName);
+                CollectionStatsHelper.addCollection(getDb(), tableName);
             }
-        }
 
-        // We also need to add the table to the list of tables
-        ContentValues values = new ContentValues();
-        values.put(COL_NAME, collectionListInfo.getName());
-        values.put(COL_COIN_TYPE, collectionListInfo.getType());
-        values.put(COL_TOTAL, collectionListInfo.getMax());
-        values.put(COL_DISPLAY_ORDER, displayOrder);
-        values.put(COL_DISPLAY, collectionListInfo.getDisplayType());
-        values.put(COL_START_YEAR, collectionListInfo.getStartYear());
-        values.put(COL_END_YEAR, collectionListInfo.getEndYear());
-        values.put(COL_SHOW_MINT_MARKS, collectionListInfo.getMintMarkFlags());
-        values.put(COL_SHOW_CHECKBOXES, collectionListInfo.getCheckboxFlags());
-        runSqlInsert(TBL_COLLECTION_INFO, values);
+            // We also need to add the table to the list of tables
+            ContentValues values = new ContentValues();
+            values.put(COL_NAME, collectionListInfo.getName());
+            values.put(COL_COIN_TYPE, collectionListInfo.getType());
+            values.put(COL_TOTAL, collectionListInfo.getMax());
+            values.put(COL_DISPLAY_ORDER, displayOrder);
+            values.put(COL_DISPLAY, collectionListInfo.getDisplayType());
+            values.put(COL_START_YEAR, collectionListInfo.getStartYear());
+            values.put(COL_END_YEAR, collectionListInfo.getEndYear());
+            values.put(COL_SHOW_MINT_MARKS, collectionListInfo.getMintMarkFlags());
+            values.put(COL_SHOW_CHECKBOXES, collectionListInfo.getCheckboxFlags());
+            runSqlInsert(TBL_COLLECTION_INFO, values);
+            notifyCollectionChanged(CHANGE_COLLECTION_CREATED, tableName, null);
+            return null;
+        });
     }
 
     /**
@@ -267,19 +491,31 @@ public class DatabaseAdapter {
      * @param tableName The collection name
      * @throws SQLException if a database error occurs
      */
+    @Override
     public void dropCollectionTable(String tableName) throws SQLException {
-        String dropTableCmd = "DROP TABLE [" + tableName + "];";
-        mDb.execSQL(dropTableCmd);
-        runSqlDeleteAndCheck(TBL_COLLECTION_INFO, COL_NAME + "=?", new String[] { tableName });
+        runWrite(() -> {
+            String dropTableCmd = "DROP TABLE [" + tableName + "];";
+            getDb().execSQL(dropTableCmd);
+            runSqlDeleteAndCheck(TBL_COLLECTION_INFO, COL_NAME + "=?", new String[] { tableName });
+            CoinSearchHelper.removeCollection(getDb(), tableName);
+            CollectionStatsHelper.removeCollection(getDb(), tableName);
+            notifyCollectionChanged(CHANGE_COLLECTION_DROPPED, tableName, null);
+            return null;
+        });
     }
 
     /**
      * Deletes the table of metadata about all the current collections
      * @throws SQLException if a database error occurs
      */
-    void dropCollectionInfoTable() throws SQLException {
-        String dropTableCmd = "DROP TABLE [" + TBL_COLLECTION_INFO + "];";
-        mDb.execSQL(dropTableCmd);
+    @Override
+    public void dropCollectionInfoTable() throws SQLException {
+        runWrite(() -> {
+            String dropTableCmd = "DROP TABLE [" + TBL_COLLECTION_INFO + "];";
+            getDb().execSQL(dropTableCmd);
+            notifyCollectionChanged(CHANGE_ALL_COLLECTIONS, null, null);
+            return null;
+        });
     }
 
     /**
@@ -287,7 +523,21 @@ public class DatabaseAdapter {
      * @return Cursor to iterate over
      */
     public Cursor getAllCollectionNames() {
-        return mDb.query(TBL_COLLECTION_INFO, new String[] {COL_NAME}, null, null, null, null, COL_DISPLAY_ORDER);
+        return getDb().query(TBL_COLLECTION_INFO, new String[] {COL_NAME}, null, null, null, null, COL_DISPLAY_ORDER);
+    }
+
+    @Override
+    public ArrayList<String> getCollectionNames() throws SQLException {
+        ArrayList<String> names = new ArrayList<>();
+        Cursor cursor = getAllCollectionNames();
+        try {
+            while (cursor.moveToNext()) {
+                names.add(cursor.getString(0));
+            }
+        } finally {
+            cursor.close();
+        }
+        return names;
     }
 
     /**
@@ -296,8 +546,58 @@ public class DatabaseAdapter {
      * @param oldVersion the db version to upgrade from
      * @param fromImport true if the upgrade is part of a database import
      */
-    void upgradeCollections(int oldVersion, boolean fromImport) {
-        DatabaseHelper.upgradeDb(mDb, oldVersion, MainApplication.DATABASE_VERSION, fromImport);
+    @Override
+    public void upgradeCollections(int oldVersion, boolean fromImport) {
+        runWrite(() -> {
+            DatabaseHelper.upgradeDb(getDb(), oldVersion, MainApplication.DATABASE_VERSION, fromImport);
+            notifyCollectionChanged(CHANGE_ALL_COLLECTIONS, null, null);
+            return null;
+        });
+    }
+
+    /**
+     * Clears and re-populates the search index from all collections
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public void rebuildSearchIndex() throws SQLException {
+        runWrite(() -> {
+            CoinSearchHelper.rebuildSearchIndex(getDb());
+            return null;
+        });
+    }
+
+    /**
+     * Clears and re-computes the statistics summary of all collections
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public void rebuildStats() throws SQLException {
+        runWrite(() -> {
+            CollectionStatsHelper.rebuildAllStats(getDb());
+            return null;
+        });
+    }
+
+    /**
+     * Reads the progress statistics of all collections
+     * @return statistics
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public CollectionStats getCollectionStats() throws SQLException {
+        return CollectionStatsHelper.readStats(getDb());
+    }
+
+    /**
+     * Searches all collections for coins matching the text typed in by the user
+     * @param searchText text typed in by the user
+     * @return list of matching coins
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public ArrayList<CoinSearchResult> searchCoins(String searchText) throws SQLException {
+        return CoinSearchHelper.search(getDb(), searchText, CoinSearchHelper.MAX_SEARCH_RESULTS);
     }
 
     /**
@@ -305,13 +605,27 @@ public class DatabaseAdapter {
      * @param tableName The collection name
      * @return -1 if successful otherwise a resource id corresponding to an error message
      */
+    @Override
     public int checkCollectionName(String tableName) {
 
-        // Make sure the name isn't in the reserved list
-        if (mReservedDbNames.contains(tableName)) {
+        if (isReservedName(tableName)) {
             return R.string.collection_name_reserved;
         }
 
+        // Names made of ASCII characters can be looked up with the case-insensitive index.
+        // SQLite only folds the case of ASCII characters, so other names are compared here.
+        if (isAscii(tableName)) {
+            long startNanos = SlowQueryLog.begin();
+            String[] bindArgs = new String[] {tableName};
+            Cursor cursor = getDb().rawQuery(COLLECTION_NAME_CHECK_QUERY, bindArgs);
+            try {
+                return cursor.moveToFirst() ? R.string.collection_name_exists : -1;
+            } finally {
+                cursor.close();
+                SlowQueryLog.record(startNanos, COLLECTION_NAME_CHECK_QUERY, bindArgs);
+            }
+        }
+
         // By the time the user is able to click this mDbAdapter should not be NULL anymore
         Cursor cursor = this.getAllCollectionNames();
         if (cursor.moveToFirst()){
@@ -328,18 +642,44 @@ public class DatabaseAdapter {
         return -1;
     }
 
+    /**
+     * Checks whether a collection name is reserved. Names used by the database can't be used,
+     * and neither can names that would clash with the indexes named after each collection.
+     * Other CoinStore implementations use the same rules, so that exports can move between them.
+     * @param tableName The collection name
+     * @return true if the name can't be used
+     */
+    static boolean isReservedName(String tableName) {
+        String lowerCaseName = tableName.toLowerCase(Locale.US);
+        return RESERVED_DB_NAMES.contains(tableName)
+                || lowerCaseName.endsWith(SORT_ORDER_INDEX_SUFFIX.toLowerCase(Locale.US))
+                || lowerCaseName.endsWith(IN_COLLECTION_INDEX_SUFFIX.toLowerCase(Locale.US))
+                || lowerCaseName.endsWith(MINT_CODE_INDEX_SUFFIX.toLowerCase(Locale.US));
+    }
+
+    /**
+     * Checks whether a string only contains ASCII characters
+     * @param str string to check
+     * @return true if every character is ASCII
+     */
+    private static boolean isAscii(String str) {
+        for (int i = 0; i < str.length(); i++) {
+            if (str.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Get the next display order for a new collection
      * @return The next display order to use
      * @throws SQLException if a database error occurred
      */
+    @Override
     public int getNextDisplayOrder() throws SQLException {
         String sqlCmd = "SELECT MAX(" + COL_DISPLAY_ORDER + ") FROM " + TBL_COLLECTION_INFO;
-        SQLiteStatement compiledStatement = mDb.compileStatement(sqlCmd);
-        int result = simpleQueryForLong(compiledStatement);
-        compiledStatement.clearBindings();
-        compiledStatement.close();
-        return result + 1;
+        return simpleQueryForLong(getDb(), sqlCmd, null) + 1;
     }
 
     /**
@@ -348,8 +688,9 @@ public class DatabaseAdapter {
      * @return The next display order to use
      * @throws SQLException if a database error occurred
      */
+    @Override
     public int getNextCoinSortOrder(String tableName) throws SQLException {
-        return DatabaseHelper.getNextCoinSortOrder(mDb, tableName);
+        return DatabaseHelper.getNextCoinSortOrder(getDb(), tableName);
     }
 
     /**
@@ -360,19 +701,24 @@ public class DatabaseAdapter {
      * @throws SQLException if a database error occurs
      * @return the newly created CollectionListInfo
      */
-    CollectionListInfo createCollectionCopy(CollectionListInfo sourceCollectionListInfo, String newTableName, int insertIndex) throws SQLException {
-
-        // Add the new table but don't populate
-        CollectionListInfo newCollectionListInfo = sourceCollectionListInfo.copy(newTableName);
-        createAndPopulateNewTable(newCollectionListInfo, insertIndex, null);
+    @Override
+    public CollectionListInfo createCollectionCopy(CollectionListInfo sourceCollectionListInfo, String newTableName, int insertIndex) throws SQLException {
+        return runWrite(() -> {
+            // Add the new table but don't populate
+            CollectionListInfo newCollectionListInfo = sourceCollectionListInfo.copy(newTableName);
+            createAndPopulateNewTable(newCollectionListInfo, insertIndex, null);
 
-        // Populate the contents use SQL commands
-        String sourceTableName = sourceCollectionListInfo.getName();
-        String populateDbCmd = "INSERT INTO [" + newTableName + "] SELECT * FROM [" + sourceTableName + "];";
-        mDb.execSQL(populateDbCmd);
+            // Populate the contents use SQL commands
+            String sourceTableName = sourceCollectionListInfo.getName();
+            String populateDbCmd = "INSERT INTO [" + newTableName + "] SELECT * FROM [" + sourceTableName + "];";
+            getDb().execSQL(populateDbCmd);
+            CoinSearchHelper.indexCollection(getDb(), newTableName);
+            CollectionStatsHelper.recomputeCollection(getDb(), newTableName);
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, newTableName, null);
 
-        // Return the newly created object
-        return newCollectionListInfo;
+            // Return the newly created object
+            return newCollectionListInfo;
+        });
     }
 
     /**
@@ -381,8 +727,15 @@ public class DatabaseAdapter {
      * @param newName The new collection name
      * @throws SQLException if the database update was not successful
      */
+    @Override
     public void updateCollectionName(String oldName, String newName) throws SQLException {
-        DatabaseHelper.updateCollectionName(mDb, oldName, newName);
+        runWrite(() -> {
+            DatabaseHelper.updateCollectionName(getDb(), oldName, newName);
+            CoinSearchHelper.renameCollection(getDb(), oldName, newName);
+            CollectionStatsHelper.renameCollection(getDb(), oldName, newName);
+            notifyCollectionChanged(CHANGE_COLLECTION_RENAMED, oldName, newName);
+            return null;
+        });
     }
 
     /**
@@ -391,12 +744,25 @@ public class DatabaseAdapter {
      * @param coinSlot coin data to use for updates
      * @throws SQLException if a database error occurs
      */
+    @Override
     public void updateCoinNameAndMint(String tableName, CoinSlot coinSlot) throws SQLException {
-        ContentValues values = new ContentValues();
-        values.put(COL_COIN_IDENTIFIER, coinSlot.getIdentifier());
-        values.put(COL_COIN_MINT, coinSlot.getMint());
-        String[] whereValues = new String[] {String.valueOf(coinSlot.getDatabaseId())};
-        runSqlUpdateAndCheck(tableName, values, COIN_SLOT_COIN_ID_WHERE_CLAUSE, whereValues);
+        runWrite(() -> {
+            ContentValues values = new ContentValues();
+            values.put(COL_COIN_IDENTIFIER, coinSlot.getIdentifier());
+            DatabaseHelper.putMintValues(values, coinSlot.getMint());
+            String[] whereValues = new String[] {String.valueOf(coinSlot.getDatabaseId())};
+            getDb().beginTransaction();
+            try {
+                CollectionStatsHelper.removeCoin(getDb(), tableName, coinSlot);
+                runSqlUpdateAndCheck(tableName, values, COIN_SLOT_COIN_ID_WHERE_CLAUSE, whereValues);
+                CollectionStatsHelper.addCoin(getDb(), tableName, coinSlot);
+                CoinSearchHelper.updateCoin(getDb(), tableName, coinSlot);
+                getDb().setTransactionSuccessful();
+            } finally {
+                getDb().endTransaction();
+            }
+            return null;
+        });
     }
 
     /**
@@ -406,8 +772,26 @@ public class DatabaseAdapter {
      * @param coinData new coin data
      * @throws SQLException if a database error occurs
      */
+    @Override
     public void updateExistingCollection(String oldTableName, CollectionListInfo collectionListInfo, ArrayList<CoinSlot> coinData) throws SQLException {
-        DatabaseHelper.updateExistingCollection(mDb, oldTableName, collectionListInfo, coinData);
+        runWrite(() -> {
+            DatabaseHelper.updateExistingCollection(getDb(), oldTableName, collectionListInfo, coinData);
+            String newTableName = collectionListInfo.getName();
+            if (!oldTableName.equals(newTableName)) {
+                CoinSearchHelper.renameCollection(getDb(), oldTableName, newTableName);
+                CollectionStatsHelper.renameCollection(getDb(), oldTableName, newTableName);
+            }
+            if (coinData != null) {
+                // All of the coins were replaced
+                CoinSearchHelper.reindexCollection(getDb(), newTableName);
+                CollectionStatsHelper.recomputeCollection(getDb(), newTableName);
+            }
+            if (!oldTableName.equals(newTableName)) {
+                notifyCollectionChanged(CHANGE_COLLECTION_RENAMED, oldTableName, newTableName);
+            }
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, newTableName, null);
+            return null;
+        });
     }
 
 
@@ -415,16 +799,33 @@ public class DatabaseAdapter {
      * Creates the table of metadata for all the current collections
      * @throws SQLException if a database error occurs
      */
-    void createCollectionInfoTable() throws SQLException {
-        DatabaseHelper.createCollectionInfoTable(mDb);
+    @Override
+    public void createCollectionInfoTable() throws SQLException {
+        runWrite(() -> {
+            DatabaseHelper.createCollectionInfoTable(getDb());
+            notifyCollectionChanged(CHANGE_ALL_COLLECTIONS, null, null);
+            return null;
+        });
     }
 
     /**
      * Returns a list of all collections in the database
      * @throws SQLException if a database error occurs
      */
+    @Override
     public void getAllTables(ArrayList<CollectionListInfo> collectionListEntries) throws SQLException {
-        DatabaseHelper.getAllTables(mDb, collectionListEntries);
+        DatabaseHelper.getAllTables(getDb(), collectionListEntries);
+    }
+
+    /**
+     * Returns the list info of a single collection
+     * @param tableName collection name
+     * @return the collection info, or null if there's no collection with that name
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public CollectionListInfo getCollectionListInfo(String tableName) throws SQLException {
+        return DatabaseHelper.getTable(getDb(), tableName);
     }
 
     /**
@@ -433,9 +834,13 @@ public class DatabaseAdapter {
      * @param insertSortOrder sort order where the new coin will be inserted
      * @throws SQLException if a database error occurs
      */
+    @Override
     public void updateCoinSortOrderForInsert(String tableName, int insertSortOrder) throws SQLException {
-        mDb.execSQL("UPDATE [" + tableName + "] SET " + COL_SORT_ORDER + " = " + COL_SORT_ORDER + "+1 "
-                + "WHERE " + COL_SORT_ORDER + " >= " + insertSortOrder);
+        runWrite(() -> {
+            getDb().execSQL("UPDATE [" + tableName + "] SET " + COL_SORT_ORDER + " = " + COL_SORT_ORDER + "+1 "
+                    + "WHERE " + COL_SORT_ORDER + " >= " + insertSortOrder);
+            return null;
+        });
     }
 
     /**
@@ -444,10 +849,34 @@ public class DatabaseAdapter {
      * @param tableName table name to add coin to
      * @throws SQLException thrown if the database insert fails
      */
+    @Override
     public void addCoinSlotToCollection(CoinSlot coinSlot, String tableName, boolean updateTotal, int newCollectionSize) throws SQLException {
+        runWrite(() -> {
+            insertCoinSlot(coinSlot, tableName);
+            CoinSearchHelper.addCoin(getDb(), tableName, coinSlot);
+            CollectionStatsHelper.addCoin(getDb(), tableName, coinSlot);
+
+            // Update the collection total if needed
+            if (updateTotal) {
+                ContentValues values = new ContentValues();
+                values.put(COL_TOTAL, newCollectionSize);
+                runSqlUpdateAndCheck(TBL_COLLECTION_INFO, values, COL_NAME + "=?", new String[] { tableName });
+            }
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, tableName, null);
+            return null;
+        });
+    }
+
+    /**
+     * Inserts a coin slot into a collection table
+     * @param coinSlot coin details to add
+     * @param tableName table name to add coin to
+     * @throws SQLException thrown if the database insert fails
+     */
+    private void insertCoinSlot(CoinSlot coinSlot, String tableName) throws SQLException {
         ContentValues values = new ContentValues();
         values.put(COL_COIN_IDENTIFIER, coinSlot.getIdentifier());
-        values.put(COL_COIN_MINT, coinSlot.getMint());
+        DatabaseHelper.putMintValues(values, coinSlot.getMint());
         values.put(COL_IN_COLLECTION, coinSlot.isInCollectionInt());
         values.put(COL_ADV_GRADE_INDEX, coinSlot.getAdvancedGrades());
         values.put(COL_ADV_QUANTITY_INDEX, coinSlot.getAdvancedQuantities());
@@ -457,13 +886,6 @@ public class DatabaseAdapter {
 
         // Add coin into database and record database id in CoinSlot object
         coinSlot.setDatabaseId(runSqlInsert(tableName, values));
-
-        // Update the collection total if needed
-        if (updateTotal) {
-            values = new ContentValues();
-            values.put(COL_TOTAL, newCollectionSize);
-            runSqlUpdateAndCheck(TBL_COLLECTION_INFO, values, COL_NAME + "=?", new String[] { tableName });
-        }
     }
 
     /**
@@ -472,16 +894,23 @@ public class DatabaseAdapter {
      * @param tableName table name to delete from
      * @throws SQLException if a database error occurs
      */
+    @Override
     public void removeCoinSlotFromCollection(CoinSlot coinSlot, String tableName, int newCollectionSize) throws SQLException {
-        String[] whereValues = new String[] {String.valueOf(coinSlot.getDatabaseId())};
-        runSqlDeleteAndCheck(tableName, COIN_SLOT_COIN_ID_WHERE_CLAUSE, whereValues);
-        // Note: This doesn't update the sort order of all remaining coins, which means there
-        //       may be holes in the sort order after this.
-
-        // Update the collection total
-        ContentValues values = new ContentValues();
-        values.put(COL_TOTAL, newCollectionSize);
-        runSqlUpdateAndCheck(TBL_COLLECTION_INFO, values, COL_NAME + "=?", new String[] { tableName });
+        runWrite(() -> {
+            String[] whereValues = new String[] {String.valueOf(coinSlot.getDatabaseId())};
+            CollectionStatsHelper.removeCoin(getDb(), tableName, coinSlot);
+            runSqlDeleteAndCheck(tableName, COIN_SLOT_COIN_ID_WHERE_CLAUSE, whereValues);
+            CoinSearchHelper.removeCoin(getDb(), tableName, coinSlot);
+            // Note: This doesn't update the sort order of all remaining coins, which means there
+            //       may be holes in the sort order after this.
+
+            // Update the collection total
+            ContentValues values = new ContentValues();
+            values.put(COL_TOTAL, newCollectionSize);
+            runSqlUpdateAndCheck(TBL_COLLECTION_INFO, values, COL_NAME + "=?", new String[] { tableName });
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, tableName, null);
+            return null;
+        });
     }
 
     /**
@@ -492,8 +921,9 @@ public class DatabaseAdapter {
      * @param useSortOrder If true, includes sort order and uses it for sorting
      * @return CoinSlot list
      */
+    @Override
     public ArrayList<CoinSlot> getCoinList(String tableName, boolean populateAdvInfo, boolean useSortOrder) {
-        return DatabaseHelper.getCoinList(mDb, tableName, populateAdvInfo, useSortOrder);
+        return DatabaseHelper.getCoinList(getDb(), tableName, populateAdvInfo, useSortOrder);
     }
 
     /**
@@ -503,8 +933,21 @@ public class DatabaseAdapter {
      * @param populateAdvInfo If true, includes advanced attributes
      * @return CoinSlot list
      */
+    @Override
     public ArrayList<CoinSlot> getCoinList(String tableName, boolean populateAdvInfo) {
-        return DatabaseHelper.getCoinList(mDb, tableName, populateAdvInfo, true);
+        return DatabaseHelper.getCoinList(getDb(), tableName, populateAdvInfo, true);
+    }
+
+    /**
+     * Reads the advanced attributes of every coin in a collection
+     *
+     * @param tableName The name of the collection
+     * @return map of coin id to advanced attributes
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public HashMap<Long, CoinSlot.AdvInfo> getAdvInfo(String tableName) throws SQLException {
+        return DatabaseHelper.getAdvInfo(getDb(), tableName);
     }
     /**
      * Executes the SQL insert command and returns false if an error occurs
@@ -514,7 +957,7 @@ public class DatabaseAdapter {
      * @return id of row inserted into database
      */
     long runSqlInsert(String tableName, ContentValues values) throws SQLException {
-        return DatabaseHelper.runSqlInsert(mDb, tableName, values);
+        return runWrite(() -> DatabaseHelper.runSqlInsert(getDb(), tableName, values));
     }
 
     /**
@@ -526,9 +969,12 @@ public class DatabaseAdapter {
      * @throws SQLException if the update did not affect any rows
      */
     void runSqlUpdateAndCheck(String tableName, ContentValues values, String whereClause, String[] whereArgs) throws SQLException {
-        if (DatabaseHelper.runSqlUpdate(mDb, tableName, values, whereClause, whereArgs) <= 0) {
-            throw new SQLException();
-        }
+        runWrite(() -> {
+            if (DatabaseHelper.runSqlUpdate(getDb(), tableName, values, whereClause, whereArgs) <= 0) {
+                throw new SQLException();
+            }
+            return null;
+        });
     }
 
     /**
@@ -539,8 +985,11 @@ public class DatabaseAdapter {
      * @throws SQLException if the delete did not affect any rows
      */
     void runSqlDeleteAndCheck(String table, String whereClause, String[] whereArgs) throws SQLException {
-        if (DatabaseHelper.runSqlDelete(mDb, table, whereClause, whereArgs) <= 0) {
-            throw new SQLException();
-        }
+        runWrite(() -> {
+            if (DatabaseHelper.runSqlDelete(getDb(), table, whereClause, whereArgs) <= 0) {
+                throw new SQLException();
+            }
+            return null;
+        });
     }
 }
@@ -0,0 +1,118 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection;
+
+import static com.spencerpages.MainApplication.APP_NAME;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.widget.TextView;
+
+import com.spencerpages.MainApplication;
+import com.spencerpages.R;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Debug-only activity showing the numbers recorded by DatabaseStats, the slow statements
+ * recorded by SlowQueryLog and the startup timings, as JSON that can be copied or shared
+ */
+public class DatabaseDiagnosticsActivity extends BaseActivity {
+
+    private final static int JSON_INDENT = 2;
+
+    private TextView mDiagnosticsTextView;
+
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        // Only reads what's already in memory
+        mOpenDbAdapterInOnCreate = false;
+        super.onCreate(savedInstanceState);
+        if (!DatabaseStats.ENABLED) {
+            finish();
+            return;
+        }
+        setContentView(R.layout.database_diagnostics_page);
+
+        if(mActionBar != null){
+            mActionBar.setDisplayHomeAsUpEnabled(true);
+        }
+
+        mDiagnosticsTextView = findViewById(R.id.diagnostics_text);
+        showDiagnostics();
+    }
+
+    /**
+     * Builds the diagnostics JSON
+     * @return JSON text
+     */
+    private String getDiagnosticsJson() {
+        try {
+            JSONObject result = new JSONObject();
+            result.put("database", DatabaseStats.toJson());
+            result.put("slowQueries", SlowQueryLog.toJson());
+            result.put("startup", ((MainApplication) getApplication()).getStartup().getTimingReport());
+            return result.toString(JSON_INDENT);
+        } catch (JSONException e) {
+            Log.e(APP_NAME, "Failed to build diagnostics JSON: " + e);
+            return "";
+        }
+    }
+
+    /**
+     * Displays the current numbers
+     */
+    private void showDiagnostics() {
+        mDiagnosticsTextView.setText(getDiagnosticsJson());
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.database_diagnostics_menu, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        int itemId = item.getItemId();
+        if (itemId == android.R.id.home) {
+            onBackPressed();
+            return true;
+        } else if (itemId == R.id.diagnostics_share) {
+            Intent intent = new Intent(Intent.ACTION_SEND);
+            intent.setType("application/json");
+            intent.putExtra(Intent.EXTRA_TEXT, getDiagnosticsJson());
+            startActivity(Intent.createChooser(intent, mRes.getString(R.string.diagnostics_share)));
+            return true;
+        } else if (itemId == R.id.diagnostics_reset) {
+            DatabaseStats.reset();
+            SlowQueryLog.reset();
+            showDiagnostics();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+}
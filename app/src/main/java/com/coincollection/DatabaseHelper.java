@@ -1,5 +1,6 @@
 package com.coincollection;
 
+import static com.coincollection.CoinSlot.COIN_SLOT_NAME_MINT_WHERE_CLAUSE;
 import static com.coincollection.CoinSlot.COL_ADV_GRADE_INDEX;
 import static com.coincollection.CoinSlot.COL_ADV_NOTES;
 import static com.coincollection.CoinSlot.COL_ADV_QUANTITY_INDEX;
@@ -8,7 +9,9 @@ import static com.coincollection.CoinSlot.COL_COIN_MINT;
 import static com.coincollection.CoinSlot.COL_COIN_ID;
 import static com.coincollection.CoinSlot.COL_CUSTOM_COIN;
 import static com.coincollection.CoinSlot.COL_IN_COLLECTION;
+import static com.coincollection.CoinSlot.COL_MINT_CODE;
 import static com.coincollection.CoinSlot.COL_SORT_ORDER;
+import static com.coincollection.CoinSlot.COL_VARIETY;
 import static com.coincollection.CollectionListInfo.COL_COIN_TYPE;
 import static com.coincollection.CollectionListInfo.COL_DISPLAY;
 import static com.coincollection.CollectionListInfo.COL_DISPLAY_ORDER;
@@ -28,21 +31,43 @@ import static com.spencerpages.MainApplication.DATABASE_VERSION;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteDoneException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteQueryBuilder;
 import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
+import com.coincollection.core.CoinDataSummary;
+import com.coincollection.core.CreationParameters;
+import com.coincollection.core.MintCodes;
 import com.spencerpages.BuildConfig;
 import com.spencerpages.MainApplication;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 
 public class DatabaseHelper extends SQLiteOpenHelper {
 
+    // Columns of the collection info table needed to build a CollectionListInfo
+    private final static String[] COLLECTION_LIST_INFO_COLUMNS = {COL_NAME, COL_COIN_TYPE,
+            COL_TOTAL, COL_DISPLAY, COL_START_YEAR, COL_END_YEAR, COL_SHOW_MINT_MARKS,
+            COL_SHOW_CHECKBOXES};
+
+    // Indexes on the collection info table, for lookups by exact name and for the
+    // case-insensitive name check
+    final static String COLLECTION_INFO_NAME_INDEX = TBL_COLLECTION_INFO + "_name";
+    final static String COLLECTION_INFO_NAME_NOCASE_INDEX = TBL_COLLECTION_INFO + "_name_nocase";
+
+    // Each collection table has indexes named after it with these suffixes, so collection
+    // names can't end with them
+    final static String SORT_ORDER_INDEX_SUFFIX = "#sortOrderIndex";
+    final static String IN_COLLECTION_INDEX_SUFFIX = "#inCollectionIndex";
+    final static String MINT_CODE_INDEX_SUFFIX = "#mintCodeIndex";
+
     public DatabaseHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
     }
@@ -51,6 +76,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public void onCreate(SQLiteDatabase db) {
         // This is called if the DB doesn't exist (A fresh installation)
         createCollectionInfoTable(db);
+        CoinSearchHelper.createSearchTables(db);
+        CollectionStatsHelper.createStatsTable(db);
     }
 
     /**
@@ -76,6 +103,47 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 + ");";
 
         db.execSQL(makeCollectionInfoTable);
+        createCollectionInfoIndexes(db);
+    }
+
+    /**
+     * Creates the indexes on the collection info table, if they don't exist
+     * @param db database to add to
+     * @throws SQLException if an error occurs
+     */
+    private static void createCollectionInfoIndexes(SQLiteDatabase db) throws SQLException {
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + COLLECTION_INFO_NAME_INDEX + " ON "
+                + TBL_COLLECTION_INFO + " (" + COL_NAME + ")");
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + COLLECTION_INFO_NAME_NOCASE_INDEX + " ON "
+                + TBL_COLLECTION_INFO + " (" + COL_NAME + " COLLATE NOCASE)");
+    }
+
+    /**
+     * Creates the indexes on a collection table, if they don't exist. These keep the coin list
+     * (ordered by sort order), the collected count and mint lookups from scanning the table.
+     * @param db database to add to
+     * @param tableName collection name
+     * @throws SQLException if an error occurs
+     */
+    static void createCollectionIndexes(SQLiteDatabase db, String tableName) throws SQLException {
+        db.execSQL("CREATE INDEX IF NOT EXISTS [" + tableName + SORT_ORDER_INDEX_SUFFIX + "] ON ["
+                + tableName + "] (" + COL_SORT_ORDER + ")");
+        db.execSQL("CREATE INDEX IF NOT EXISTS [" + tableName + IN_COLLECTION_INDEX_SUFFIX + "] ON ["
+                + tableName + "] (" + COL_IN_COLLECTION + ")");
+        db.execSQL("CREATE INDEX IF NOT EXISTS [" + tableName + MINT_CODE_INDEX_SUFFIX + "] ON ["
+                + tableName + "] (" + COL_MINT_CODE + ", " + COL_VARIETY + ")");
+    }
+
+    /**
+     * Drops the indexes created by createCollectionIndexes()
+     * @param db database to update
+     * @param tableName collection name the indexes were created for
+     * @throws SQLException if an error occurs
+     */
+    private static void dropCollectionIndexes(SQLiteDatabase db, String tableName) throws SQLException {
+        db.execSQL("DROP INDEX IF EXISTS [" + tableName + SORT_ORDER_INDEX_SUFFIX + "]");
+        db.execSQL("DROP INDEX IF EXISTS [" + tableName + IN_COLLECTION_INDEX_SUFFIX + "]");
+        db.execSQL("DROP INDEX IF EXISTS [" + tableName + MINT_CODE_INDEX_SUFFIX + "]");
     }
 
     @Override
@@ -241,6 +309,46 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             }
             resultCursor.close();
         }
+
+        // Add the full-text search index (populated once the collections are upgraded)
+        // - Skip if importing, since the database will be created with the latest structure
+        if (oldVersion <= 18 && !fromImport) {
+            CoinSearchHelper.createSearchTables(db);
+        }
+
+        // Add the statistics summary table (populated once the collections are upgraded)
+        if (oldVersion <= 19 && !fromImport) {
+            CollectionStatsHelper.createStatsTable(db);
+        }
+
+        // Add the mint code and variety columns, filled in from the existing mints
+        // - Skip if importing, since the database will be created with the latest structure
+        if (oldVersion <= 21 && !fromImport) {
+            Cursor resultCursor = db.query(TBL_COLLECTION_INFO, new String[]{COL_NAME}, null, null, null, null, COL_DISPLAY_ORDER);
+            if (resultCursor.moveToFirst()) {
+                do {
+                    String name = resultCursor.getString(resultCursor.getColumnIndexOrThrow(COL_NAME));
+                    db.execSQL("ALTER TABLE [" + name + "] ADD COLUMN " + COL_MINT_CODE + " INTEGER DEFAULT 0");
+                    db.execSQL("ALTER TABLE [" + name + "] ADD COLUMN " + COL_VARIETY + " TEXT DEFAULT ''");
+                    backfillMintCodes(db, name);
+                } while (resultCursor.moveToNext());
+            }
+            resultCursor.close();
+        }
+
+        // Add the indexes used by the coin list, the collected count, mint lookups and the name lookups
+        // - Skip if importing, since the database will be created with the latest structure
+        if (oldVersion <= 21 && !fromImport) {
+            createCollectionInfoIndexes(db);
+            Cursor resultCursor = db.query(TBL_COLLECTION_INFO, new String[]{COL_NAME}, null, null, null, null, COL_DISPLAY_ORDER);
+            if (resultCursor.moveToFirst()) {
+                do {
+                    String name = resultCursor.getString(resultCursor.getColumnIndexOrThrow(COL_NAME));
+                    createCollectionIndexes(db, name);
+                } while (resultCursor.moveToNext());
+            }
+            resultCursor.close();
+        }
     }
 
     /**
@@ -252,11 +360,63 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      */
     public static int getNextCoinSortOrder(SQLiteDatabase db, String tableName) throws SQLException {
         String sqlCmd = "SELECT MAX(" + COL_SORT_ORDER + ") FROM [" + tableName + "]";
-        SQLiteStatement compiledStatement = db.compileStatement(sqlCmd);
-        int result = simpleQueryForLong(compiledStatement);
-        compiledStatement.clearBindings();
-        compiledStatement.close();
-        return result + 1;
+        return simpleQueryForLong(db, sqlCmd, null) + 1;
+    }
+
+    /**
+     * Fills in the mint code and variety of every coin in a collection from its mint
+     * @param db the database to access
+     * @param tableName the collection name to update
+     * @throws SQLException if a database error occurred
+     */
+    private static void backfillMintCodes(SQLiteDatabase db, String tableName) throws SQLException {
+        ArrayList<String> mints = new ArrayList<>();
+        Cursor cursor = db.rawQuery("SELECT DISTINCT " + COL_COIN_MINT + " FROM [" + tableName + "]", null);
+        if (cursor.moveToFirst()) {
+            do {
+                mints.add(cursor.isNull(0) ? null : cursor.getString(0));
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        for (String mint : mints) {
+            if (mint == null) {
+                continue;
+            }
+            ContentValues values = new ContentValues();
+            values.put(COL_MINT_CODE, MintCodes.getMintCode(mint));
+            values.put(COL_VARIETY, MintCodes.getVariety(mint));
+            runSqlUpdate(db, tableName, values, COL_COIN_MINT + "=?", new String[]{mint});
+        }
+    }
+
+    /**
+     * Adds a coin's mint to a set of values, along with the mint code and variety split out of it
+     * @param values values to add to
+     * @param mint coin mint
+     */
+    public static void putMintValues(ContentValues values, String mint) {
+        values.put(COL_COIN_MINT, mint);
+        values.put(COL_MINT_CODE, MintCodes.getMintCode(mint));
+        values.put(COL_VARIETY, MintCodes.getVariety(mint));
+    }
+
+    /**
+     * Gets the arguments for CoinSlot.COIN_SLOT_MINT_CODE_WHERE_CLAUSE
+     * @param mint coin mint
+     * @return where clause arguments
+     */
+    public static String[] getMintCodeWhereArgs(String mint) {
+        return new String[]{String.valueOf(MintCodes.getMintCode(mint)), MintCodes.getVariety(mint)};
+    }
+
+    /**
+     * Gets the arguments for CoinSlot.COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE
+     * @param identifier coin identifier
+     * @param mint coin mint
+     * @return where clause arguments
+     */
+    public static String[] getNameMintCodeWhereArgs(String identifier, String mint) {
+        return new String[]{identifier, String.valueOf(MintCodes.getMintCode(mint)), MintCodes.getVariety(mint)};
     }
 
     /**
@@ -275,26 +435,64 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
         // First call the MainApplication's onDatabaseUpgrade to ensure that any changes necessary
         // for the app to work are done.
-        upgradeDbStructure(db, oldVersion, newVersion, fromImport);
+        long startNanos = DatabaseStats.begin(DatabaseStats.OP_UPGRADE_STRUCTURE);
+        long startChanges = getTotalChanges(db);
+        try {
+            upgradeDbStructure(db, oldVersion, newVersion, fromImport);
+        } finally {
+            DatabaseStats.end(DatabaseStats.OP_UPGRADE_STRUCTURE, startNanos, getTotalChanges(db) - startChanges);
+        }
 
         // Now get a list of the collections and call each one's onCollectionDatabaseUpgrade method
-        ArrayList<CollectionListInfo> collectionList = new ArrayList<>();
-        getAllTables(db, collectionList);
-        for (CollectionListInfo collectionListInfo : collectionList) {
-            String tableName = collectionListInfo.getName();
-            int numCoinsAdded = collectionListInfo.getCollectionObj().onCollectionDatabaseUpgrade (
-                    db, collectionListInfo, oldVersion, newVersion);
-            // Update the collection total if coins were added or removed
-            if (numCoinsAdded != 0) {
-                int newTotal = collectionListInfo.getMax() + numCoinsAdded;
-                collectionListInfo.setMax(newTotal);
-                ContentValues values = new ContentValues();
-                values.put(COL_TOTAL, newTotal);
-                runSqlUpdate(db, TBL_COLLECTION_INFO, values, COL_NAME + "=?", new String[]{tableName});
+        startNanos = DatabaseStats.begin(DatabaseStats.OP_UPGRADE_COLLECTIONS);
+        startChanges = getTotalChanges(db);
+        try {
+            ArrayList<CollectionListInfo> collectionList = new ArrayList<>();
+            getAllTables(db, collectionList);
+            for (CollectionListInfo collectionListInfo : collectionList) {
+                String tableName = collectionListInfo.getName();
+                int numCoinsAdded = collectionListInfo.getCollectionObj().onCollectionDatabaseUpgrade (
+                        db, collectionListInfo, oldVersion, newVersion);
+                // Update the collection total if coins were added or removed
+                if (numCoinsAdded != 0) {
+                    int newTotal = collectionListInfo.getMax() + numCoinsAdded;
+                    collectionListInfo.setMax(newTotal);
+                    ContentValues values = new ContentValues();
+                    values.put(COL_TOTAL, newTotal);
+                    runSqlUpdate(db, TBL_COLLECTION_INFO, values, COL_NAME + "=?", new String[]{tableName});
+                }
+            }
+        } finally {
+            DatabaseStats.end(DatabaseStats.OP_UPGRADE_COLLECTIONS, startNanos, getTotalChanges(db) - startChanges);
+        }
+
+        // Coins may have been added or changed above, so re-index everything
+        // - Imports rebuild the index themselves once all collections are added
+        if (!fromImport) {
+            startNanos = DatabaseStats.begin(DatabaseStats.OP_UPGRADE_INDEXES);
+            startChanges = getTotalChanges(db);
+            try {
+                CoinSearchHelper.rebuildSearchIndex(db);
+                CollectionStatsHelper.rebuildAllStats(db);
+            } finally {
+                DatabaseStats.end(DatabaseStats.OP_UPGRADE_INDEXES, startNanos, getTotalChanges(db) - startChanges);
             }
         }
     }
 
+    /**
+     * Gets the number of rows inserted, updated or deleted on a connection since it was opened,
+     * for recording the rows touched by an operation. Schema changes aren't counted.
+     * @param db database
+     * @return total changes, or 0 if the database stats are disabled
+     */
+    private static long getTotalChanges(SQLiteDatabase db) {
+        if (!DatabaseStats.ENABLED) {
+            return 0;
+        }
+        return DatabaseUtils.longForQuery(db, "SELECT total_changes()", null);
+    }
+
     /**
      * Helper function to rename a collection
      * @param db database
@@ -305,6 +503,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     static void updateCollectionName(SQLiteDatabase db, String oldName, String newName) throws SQLException {
         String alterDbSqlStr = "ALTER TABLE [" + oldName + "] RENAME TO [" + newName + "]";
         db.execSQL(alterDbSqlStr);
+        // The indexes move with the table, but are named after the old name
+        dropCollectionIndexes(db, oldName);
+        createCollectionIndexes(db, newName);
         ContentValues args = new ContentValues();
         args.put(COL_NAME, newName);
         runSqlUpdate(db, TBL_COLLECTION_INFO, args, COL_NAME + "=?", new String[] { oldName });
@@ -329,7 +530,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                         ContentValues insertValues = new ContentValues();
                         insertValues.put(COL_COIN_IDENTIFIER, values.get(i));
                         insertValues.put(COL_IN_COLLECTION, 0);
-                        insertValues.put(COL_COIN_MINT, flagStr);
+                        putMintValues(insertValues, flagStr);
                         insertValues.put(COL_SORT_ORDER, newSortOrder++);
                         if (db.insert("[" + tableName + "]", null, insertValues) != -1) {
                             total++;
@@ -340,7 +541,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 ContentValues insertValues = new ContentValues();
                 insertValues.put(COL_COIN_IDENTIFIER, values.get(i));
                 insertValues.put(COL_IN_COLLECTION, 0);
-                insertValues.put(COL_COIN_MINT, "");
+                putMintValues(insertValues, "");
                 insertValues.put(COL_SORT_ORDER, newSortOrder++);
                 if (db.insert("[" + tableName + "]", null, insertValues) != -1) {
                     total++;
@@ -410,7 +611,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     ContentValues insertValues = new ContentValues();
                     insertValues.put(COL_COIN_IDENTIFIER, identifier);
                     insertValues.put(COL_IN_COLLECTION, 0);
-                    insertValues.put(COL_COIN_MINT, flagStr);
+                    putMintValues(insertValues, flagStr);
                     insertValues.put(COL_SORT_ORDER, newSortOrder++);
                     if (db.insert("[" + tableName + "]", null, insertValues) != -1) {
                         total++;
@@ -421,7 +622,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             ContentValues insertValues = new ContentValues();
             insertValues.put(COL_COIN_IDENTIFIER, identifier);
             insertValues.put(COL_IN_COLLECTION, 0);
-            insertValues.put(COL_COIN_MINT, "");
+            putMintValues(insertValues, "");
             insertValues.put(COL_SORT_ORDER, newSortOrder++);
             if (db.insert("[" + tableName + "]", null, insertValues) != -1) {
                 total++;
@@ -447,75 +648,179 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      */
     static ArrayList<CoinSlot> getCoinList(SQLiteDatabase db, String tableName, boolean populateAdvInfo, boolean useSortOrder) {
 
+        long startNanos = DatabaseStats.begin(DatabaseStats.OP_GET_COIN_LIST);
+        long queryStartNanos = SlowQueryLog.begin();
+        ArrayList<CoinSlot> coinList = new ArrayList<>();
+        String sqlCmd = buildCoinListQuery(tableName, populateAdvInfo, useSortOrder);
+        try {
+            Cursor cursor = db.rawQuery(sqlCmd, null);
+            try {
+                if (cursor.moveToFirst()) {
+                    do {
+                        int sortOrder = useSortOrder ? cursor.getInt(cursor.getColumnIndexOrThrow(COL_SORT_ORDER))
+                                : (int) cursor.getLong(cursor.getColumnIndexOrThrow(COL_COIN_ID));
+                        if (populateAdvInfo) {
+                            coinList.add(new CoinSlot(
+                                    cursor.getLong(cursor.getColumnIndexOrThrow(COL_COIN_ID)),
+                                    cursor.getString(cursor.getColumnIndexOrThrow(COL_COIN_IDENTIFIER)),
+                                    cursor.getString(cursor.getColumnIndexOrThrow(COL_COIN_MINT)),
+                                    (cursor.getInt(cursor.getColumnIndexOrThrow(COL_IN_COLLECTION)) != 0),
+                                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_ADV_GRADE_INDEX)),
+                                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_ADV_QUANTITY_INDEX)),
+                                    cursor.getString(cursor.getColumnIndexOrThrow(COL_ADV_NOTES)),
+                                    sortOrder,
+                                    (cursor.getInt(cursor.getColumnIndexOrThrow(COL_CUSTOM_COIN)) != 0)));
+                        } else {
+                            coinList.add(new CoinSlot(
+                                    cursor.getLong(cursor.getColumnIndexOrThrow(COL_COIN_ID)),
+                                    cursor.getString(cursor.getColumnIndexOrThrow(COL_COIN_IDENTIFIER)),
+                                    cursor.getString(cursor.getColumnIndexOrThrow(COL_COIN_MINT)),
+                                    (cursor.getInt(cursor.getColumnIndexOrThrow(COL_IN_COLLECTION)) != 0),
+                                    sortOrder,
+                                    (cursor.getInt(cursor.getColumnIndexOrThrow(COL_CUSTOM_COIN)) != 0)));
+                        }
+                    } while(cursor.moveToNext());
+                }
+            } finally {
+                cursor.close();
+            }
+            SlowQueryLog.record(queryStartNanos, sqlCmd, null);
+        } finally {
+            DatabaseStats.end(DatabaseStats.OP_GET_COIN_LIST, startNanos, coinList.size());
+        }
+        return coinList;
+    }
+
+    /**
+     * Builds the query used by getCoinList()
+     * NOTE: This is public so we can use it with our current test bench
+     * @param tableName The name of the collection
+     * @param populateAdvInfo If true, includes advanced attributes
+     * @param useSortOrder If true, sorts by sort order instead of coin id
+     * @return SQL query
+     */
+    public static String buildCoinListQuery(String tableName, boolean populateAdvInfo, boolean useSortOrder) {
         ArrayList<String> dbColumns = new ArrayList<>(
                 Arrays.asList(COL_COIN_ID, COL_COIN_IDENTIFIER, COL_COIN_MINT, COL_IN_COLLECTION, COL_SORT_ORDER, COL_CUSTOM_COIN));
         if (populateAdvInfo) {
             dbColumns.addAll(
                     Arrays.asList(COL_ADV_GRADE_INDEX, COL_ADV_QUANTITY_INDEX, COL_ADV_NOTES));
         }
-
-        ArrayList<CoinSlot> coinList = new ArrayList<>();
         String sortColumn = useSortOrder ? COL_SORT_ORDER : COL_COIN_ID;
-        Cursor cursor = db.query("[" + tableName + "]", dbColumns.toArray(new String[0]),
-                null, null, null, null, sortColumn);
+        return SQLiteQueryBuilder.buildQueryString(false, "[" + tableName + "]",
+                dbColumns.toArray(new String[0]), null, null, null, sortColumn, null);
+    }
+
+    /**
+     * Reads the advanced attributes of every coin in a collection, for a coin list that was
+     * loaded without them. These are returned by coin id rather than written into the coins,
+     * so that this can run in the background while the UI is using the coin list.
+     * @param db database
+     * @param tableName The name of the collection
+     * @return map of coin id to advanced attributes
+     * @throws SQLException if a database error occurs
+     */
+    static HashMap<Long, CoinSlot.AdvInfo> getAdvInfo(SQLiteDatabase db, String tableName) throws SQLException {
+
+        HashMap<Long, CoinSlot.AdvInfo> advInfoById = new HashMap<>();
+        Cursor cursor = db.query("[" + tableName + "]",
+                new String[] {COL_COIN_ID, COL_ADV_GRADE_INDEX, COL_ADV_QUANTITY_INDEX, COL_ADV_NOTES},
+                null, null, null, null, null);
         if (cursor.moveToFirst()) {
+            int idIndex = cursor.getColumnIndexOrThrow(COL_COIN_ID);
+            int gradeIndex = cursor.getColumnIndexOrThrow(COL_ADV_GRADE_INDEX);
+            int quantityIndex = cursor.getColumnIndexOrThrow(COL_ADV_QUANTITY_INDEX);
+            int notesIndex = cursor.getColumnIndexOrThrow(COL_ADV_NOTES);
             do {
-                int sortOrder = useSortOrder ? cursor.getInt(cursor.getColumnIndexOrThrow(COL_SORT_ORDER))
-                        : (int) cursor.getLong(cursor.getColumnIndexOrThrow(COL_COIN_ID));
-                if (populateAdvInfo) {
-                    coinList.add(new CoinSlot(
-                            cursor.getLong(cursor.getColumnIndexOrThrow(COL_COIN_ID)),
-                            cursor.getString(cursor.getColumnIndexOrThrow(COL_COIN_IDENTIFIER)),
-                            cursor.getString(cursor.getColumnIndexOrThrow(COL_COIN_MINT)),
-                            (cursor.getInt(cursor.getColumnIndexOrThrow(COL_IN_COLLECTION)) != 0),
-                            cursor.getInt(cursor.getColumnIndexOrThrow(COL_ADV_GRADE_INDEX)),
-                            cursor.getInt(cursor.getColumnIndexOrThrow(COL_ADV_QUANTITY_INDEX)),
-                            cursor.getString(cursor.getColumnIndexOrThrow(COL_ADV_NOTES)),
-                            sortOrder,
-                            (cursor.getInt(cursor.getColumnIndexOrThrow(COL_CUSTOM_COIN)) != 0)));
-                } else {
-                    coinList.add(new CoinSlot(
-                            cursor.getLong(cursor.getColumnIndexOrThrow(COL_COIN_ID)),
-                            cursor.getString(cursor.getColumnIndexOrThrow(COL_COIN_IDENTIFIER)),
-                            cursor.getString(cursor.getColumnIndexOrThrow(COL_COIN_MINT)),
-                            (cursor.getInt(cursor.getColumnIndexOrThrow(COL_IN_COLLECTION)) != 0),
-                            sortOrder,
-                            (cursor.getInt(cursor.getColumnIndexOrThrow(COL_CUSTOM_COIN)) != 0)));
-                }
+                advInfoById.put(cursor.getLong(idIndex), new CoinSlot.AdvInfo(cursor.getInt(gradeIndex),
+                        cursor.getInt(quantityIndex), cursor.getString(notesIndex)));
             } while(cursor.moveToNext());
         }
         cursor.close();
-        return coinList;
+        return advInfoById;
     }
 
     /**
-     * Get the basic coin information used by the legacy code to determine collection params
+     * Summarizes the coins used by the legacy code to determine collection params. Rather than
+     * loading every coin, this reads the distinct mints, checks for the few special case coins
+     * and reads the first and last coins by id.
      * This function should not be updated past DB version 16
+     * NOTE: This is public so we can use it with our current test bench
      * @param db database
      * @param tableName The name of the collection
-     * @return CoinSlot list
+     * @param coinType The collection type name
+     * @return summary of the coins
+     * @throws SQLException if a database error occurs
      */
-    static ArrayList<CoinSlot> getCoinListForLegacyCollectionParams(SQLiteDatabase db, String tableName) {
+    public static CoinDataSummary getLegacyCoinDataSummary(SQLiteDatabase db, String tableName, String coinType) throws SQLException {
 
-        ArrayList<String> dbColumns = new ArrayList<>(
-                Arrays.asList(COL_COIN_ID, COL_COIN_IDENTIFIER, COL_COIN_MINT, COL_IN_COLLECTION));
+        CoinDataSummary summary = new CoinDataSummary();
+        Cursor cursor = db.rawQuery("SELECT DISTINCT " + COL_COIN_MINT + " FROM [" + tableName + "]", null);
+        try {
+            while (cursor.moveToNext()) {
+                summary.addMint(cursor.isNull(0) ? "" : cursor.getString(0));
+            }
+        } finally {
+            cursor.close();
+        }
 
-        ArrayList<CoinSlot> coinList = new ArrayList<>();
-        Cursor cursor = db.query("[" + tableName + "]", dbColumns.toArray(new String[0]),
-                null, null, null, null, COL_COIN_ID);
-        if (cursor.moveToFirst()) {
-            do {
-                coinList.add(new CoinSlot(
-                        cursor.getLong(cursor.getColumnIndexOrThrow(COL_COIN_ID)),
-                        cursor.getString(cursor.getColumnIndexOrThrow(COL_COIN_IDENTIFIER)),
-                        cursor.getString(cursor.getColumnIndexOrThrow(COL_COIN_MINT)),
-                        (cursor.getInt(cursor.getColumnIndexOrThrow(COL_IN_COLLECTION)) == 1),
-                        (int) cursor.getLong(cursor.getColumnIndexOrThrow(COL_COIN_ID)),
-                        false));
-            } while(cursor.moveToNext());
+        String[] pMintSpecialCase = CreationParameters.getPMintSpecialCase(coinType);
+        if (pMintSpecialCase != null) {
+            summary.setHasPMintSpecialCase((pMintSpecialCase[1] == null)
+                    ? coinExists(db, tableName, COL_COIN_IDENTIFIER + "=?", new String[] {pMintSpecialCase[0]})
+                    : coinExists(db, tableName, COIN_SLOT_NAME_MINT_WHERE_CLAUSE, pMintSpecialCase));
+        }
+        // GLOB rather than LIKE, since it's case sensitive like String.contains()
+        summary.setHasBurnished(coinExists(db, tableName, COL_COIN_IDENTIFIER + " GLOB ?",
+                new String[] {"*" + CreationParameters.BURNISHED_IDENTIFIER_TEXT + "*"}));
+        if (coinType.equals(CreationParameters.STATE_QUARTERS_TYPE)) {
+            summary.setHasFirstTerritory(coinExists(db, tableName, COL_COIN_IDENTIFIER + "=?",
+                    new String[] {CreationParameters.STATE_QUARTERS_FIRST_TERRITORY}));
+        }
+        if (coinType.equals(CreationParameters.WALKING_LIBERTY_HALF_DOLLARS_TYPE)) {
+            summary.setHasHideMintMarkCoin(coinExists(db, tableName, COL_COIN_MINT + "='' AND CAST(substr("
+                    + COL_COIN_IDENTIFIER + ", 1, 4) AS INTEGER) BETWEEN ? AND ?",
+                    new String[] {String.valueOf(CreationParameters.HIDE_MINT_MARKS_FIRST_YEAR),
+                            String.valueOf(CreationParameters.HIDE_MINT_MARKS_LAST_YEAR)}));
+        }
+
+        // The coins were added in order, so the ids give the first and last coins
+        String firstIdentifier = getIdentifierByCoinId(db, tableName, "ASC");
+        if (firstIdentifier != null) {
+            summary.setFirstAndLastIdentifiers(firstIdentifier, getIdentifierByCoinId(db, tableName, "DESC"));
+        }
+        return summary;
+    }
+
+    /**
+     * Checks whether any coin in a collection matches a where clause
+     * @param db database
+     * @param tableName The name of the collection
+     * @param whereClause where clause
+     * @param whereArgs where args
+     * @return true if a coin matches
+     * @throws SQLException if a database error occurs
+     */
+    private static boolean coinExists(SQLiteDatabase db, String tableName, String whereClause, String[] whereArgs) throws SQLException {
+        return simpleQueryForLong(db, "SELECT EXISTS (SELECT 1 FROM [" + tableName + "] WHERE "
+                + whereClause + ")", whereArgs) != 0;
+    }
+
+    /**
+     * Gets the identifier of the coin with the lowest or highest id
+     * @param db database
+     * @param tableName The name of the collection
+     * @param direction "ASC" for the lowest id or "DESC" for the highest
+     * @return coin identifier, or null if the collection is empty
+     */
+    private static String getIdentifierByCoinId(SQLiteDatabase db, String tableName, String direction) {
+        Cursor cursor = db.rawQuery("SELECT " + COL_COIN_IDENTIFIER + " FROM [" + tableName + "] ORDER BY "
+                + COL_COIN_ID + " " + direction + " LIMIT 1", null);
+        try {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        } finally {
+            cursor.close();
         }
-        cursor.close();
-        return coinList;
     }
 
     /**
@@ -526,12 +831,17 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * @throws SQLException if an error occurs
      */
     public static int fetchTotalCollected(SQLiteDatabase db, String tableName) throws SQLException {
-        String sqlCmd = "SELECT COUNT(" + COL_COIN_ID + ") FROM [" + tableName + "] WHERE " + COL_IN_COLLECTION + "=1 LIMIT 1";
-        SQLiteStatement compiledStatement = db.compileStatement(sqlCmd);
-        int result = simpleQueryForLong(compiledStatement);
-        compiledStatement.clearBindings();
-        compiledStatement.close();
-        return result;
+        return simpleQueryForLong(db, buildTotalCollectedQuery(tableName), null);
+    }
+
+    /**
+     * Builds the query used by fetchTotalCollected()
+     * NOTE: This is public so we can use it with our current test bench
+     * @param tableName The name of the collection
+     * @return SQL query
+     */
+    public static String buildTotalCollectedQuery(String tableName) {
+        return "SELECT COUNT(" + COL_COIN_ID + ") FROM [" + tableName + "] WHERE " + COL_IN_COLLECTION + "=1 LIMIT 1";
     }
 
     /**
@@ -543,41 +853,70 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public static void getAllTables(SQLiteDatabase db, ArrayList<CollectionListInfo> collectionListEntries) throws SQLException {
 
         // Get rid of the other items in the list (if any)
+        long startNanos = DatabaseStats.begin(DatabaseStats.OP_GET_ALL_TABLES);
         collectionListEntries.clear();
-        Cursor cursor = db.query(TBL_COLLECTION_INFO,
-                new String[] {COL_NAME, COL_COIN_TYPE, COL_TOTAL, COL_DISPLAY, COL_START_YEAR,
-                        COL_END_YEAR, COL_SHOW_MINT_MARKS, COL_SHOW_CHECKBOXES},
+        Cursor cursor = db.query(TBL_COLLECTION_INFO, COLLECTION_LIST_INFO_COLUMNS,
                 null, null, null, null, COL_DISPLAY_ORDER);
-        if (cursor.moveToFirst()) {
-            do {
-                String tableName = cursor.getString(cursor.getColumnIndexOrThrow(COL_NAME));
-                String coinType = cursor.getString(cursor.getColumnIndexOrThrow(COL_COIN_TYPE));
-                // Figure out what collection type maps to this
-                int index = MainApplication.getIndexFromCollectionNameStr(coinType);
-                if (index == -1) {
-                    cursor.close();
-                    throw new SQLException();
-                }
-                // Get the number of coins collected
-                int collected = fetchTotalCollected(db, tableName);
-                if (collected == -1) {
-                    cursor.close();
-                    throw new SQLException();
-                }
-                // Add it to the list of collections
-                collectionListEntries.add(new CollectionListInfo(
-                        tableName,
-                        cursor.getInt(cursor.getColumnIndexOrThrow(COL_TOTAL)),
-                        collected,
-                        index,
-                        cursor.getInt(cursor.getColumnIndexOrThrow(COL_DISPLAY)),
-                        cursor.getInt(cursor.getColumnIndexOrThrow(COL_START_YEAR)),
-                        cursor.getInt(cursor.getColumnIndexOrThrow(COL_END_YEAR)),
-                        cursor.getInt(cursor.getColumnIndexOrThrow(COL_SHOW_MINT_MARKS)),
-                        cursor.getInt(cursor.getColumnIndexOrThrow(COL_SHOW_CHECKBOXES))));
-            } while(cursor.moveToNext());
+        try {
+            if (cursor.moveToFirst()) {
+                do {
+                    // Add it to the list of collections
+                    collectionListEntries.add(readCollectionListInfo(db, cursor));
+                } while(cursor.moveToNext());
+            }
+        } finally {
+            cursor.close();
+            DatabaseStats.end(DatabaseStats.OP_GET_ALL_TABLES, startNanos, collectionListEntries.size());
+        }
+    }
+
+    /**
+     * Reads the list info of a single collection
+     * @param db database
+     * @param tableName collection name
+     * @return the collection info, or null if there's no collection with that name
+     * @throws SQLException if a database error occurs
+     */
+    public static CollectionListInfo getTable(SQLiteDatabase db, String tableName) throws SQLException {
+        Cursor cursor = db.query(TBL_COLLECTION_INFO, COLLECTION_LIST_INFO_COLUMNS,
+                COL_NAME + "=?", new String[] {tableName}, null, null, null);
+        try {
+            return cursor.moveToFirst() ? readCollectionListInfo(db, cursor) : null;
+        } finally {
+            cursor.close();
         }
-        cursor.close();
+    }
+
+    /**
+     * Builds a CollectionListInfo from the current row of a collection info query
+     * @param db database
+     * @param cursor cursor over COLLECTION_LIST_INFO_COLUMNS
+     * @return the collection info
+     * @throws SQLException if the collection type is unknown or its coins can't be counted
+     */
+    private static CollectionListInfo readCollectionListInfo(SQLiteDatabase db, Cursor cursor) throws SQLException {
+        String tableName = cursor.getString(cursor.getColumnIndexOrThrow(COL_NAME));
+        String coinType = cursor.getString(cursor.getColumnIndexOrThrow(COL_COIN_TYPE));
+        // Figure out what collection type maps to this
+        int index = MainApplication.getIndexFromCollectionNameStr(coinType);
+        if (index == -1) {
+            throw new SQLException();
+        }
+        // Get the number of coins collected
+        int collected = fetchTotalCollected(db, tableName);
+        if (collected == -1) {
+            throw new SQLException();
+        }
+        return new CollectionListInfo(
+                tableName,
+                cursor.getInt(cursor.getColumnIndexOrThrow(COL_TOTAL)),
+                collected,
+                index,
+                cursor.getInt(cursor.getColumnIndexOrThrow(COL_DISPLAY)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(COL_START_YEAR)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(COL_END_YEAR)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(COL_SHOW_MINT_MARKS)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(COL_SHOW_CHECKBOXES)));
     }
 
     /**
@@ -591,8 +930,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         ArrayList<CollectionListInfo> collectionListEntries = new ArrayList<>();
         getAllTables(db, collectionListEntries);
         for (CollectionListInfo collectionListEntry : collectionListEntries) {
-            ArrayList<CoinSlot> coinList = getCoinListForLegacyCollectionParams(db, collectionListEntry.getName());
-            collectionListEntry.setCreationParametersFromCoinData(coinList);
+            collectionListEntry.setCreationParametersFromSummary(getLegacyCoinDataSummary(
+                    db, collectionListEntry.getName(), collectionListEntry.getType()));
         }
         return collectionListEntries;
     }
@@ -610,7 +949,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         for (CoinSlot coinSlot : coinData) {
             ContentValues values = new ContentValues();
             values.put(COL_COIN_IDENTIFIER, coinSlot.getIdentifier());
-            values.put(COL_COIN_MINT, coinSlot.getMint());
+            putMintValues(values, coinSlot.getMint());
             values.put(COL_IN_COLLECTION, coinSlot.isInCollectionInt());
             values.put(COL_ADV_GRADE_INDEX, coinSlot.getAdvancedGrades());
             values.put(COL_ADV_QUANTITY_INDEX, coinSlot.getAdvancedQuantities());
@@ -667,7 +1006,12 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * @throws SQLException if an insert error occurred
      */
     public static long runSqlInsert(SQLiteDatabase db, String tableName, ContentValues values) throws SQLException {
-        return db.insertOrThrow("[" + tableName + "]", null, values);
+        long startNanos = SlowQueryLog.begin();
+        long result = db.insertOrThrow("[" + tableName + "]", null, values);
+        if (SlowQueryLog.isSlow(startNanos)) {
+            SlowQueryLog.record(startNanos, "INSERT INTO [" + tableName + "] " + values, null);
+        }
+        return result;
     }
 
     /**
@@ -680,7 +1024,12 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * @return the number of rows impacted
      */
     public static int runSqlUpdate(SQLiteDatabase db, String tableName, ContentValues values, String whereClause, String[] whereArgs) {
-        return db.update("[" + tableName + "]", values, whereClause, whereArgs);
+        long startNanos = SlowQueryLog.begin();
+        int result = db.update("[" + tableName + "]", values, whereClause, whereArgs);
+        if (SlowQueryLog.isSlow(startNanos)) {
+            SlowQueryLog.record(startNanos, "UPDATE [" + tableName + "] SET " + values + " WHERE " + whereClause, whereArgs);
+        }
+        return result;
     }
 
     /**
@@ -697,6 +1046,28 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
     }
 
+    /**
+     * Compiles and runs a query that returns a single number
+     * @param db The database
+     * @param sqlCmd query to run
+     * @param bindArgs arguments to bind as strings, or null
+     * @return int query result
+     * @throws SQLException if a database exception occurs
+     */
+    public static int simpleQueryForLong(SQLiteDatabase db, String sqlCmd, String[] bindArgs) throws SQLException {
+        long startNanos = SlowQueryLog.begin();
+        SQLiteStatement compiledStatement = db.compileStatement(sqlCmd);
+        try {
+            if (bindArgs != null) {
+                compiledStatement.bindAllArgsAsStrings(bindArgs);
+            }
+            return simpleQueryForLong(compiledStatement);
+        } finally {
+            compiledStatement.close();
+            SlowQueryLog.record(startNanos, sqlCmd, bindArgs);
+        }
+    }
+
     /**
      * Wrapper for delete
      * @param db The database
@@ -706,6 +1077,11 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * @return the number of rows impacted
      */
     public static int runSqlDelete(SQLiteDatabase db, String tableName, String whereClause, String[] whereArgs) {
-        return db.delete("[" + tableName + "]", whereClause, whereArgs);
+        long startNanos = SlowQueryLog.begin();
+        int result = db.delete("[" + tableName + "]", whereClause, whereArgs);
+        if (SlowQueryLog.isSlow(startNanos)) {
+            SlowQueryLog.record(startNanos, "DELETE FROM [" + tableName + "] WHERE " + whereClause, whereArgs);
+        }
+        return result;
     }
 }
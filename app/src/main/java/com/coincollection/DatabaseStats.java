@@ -0,0 +1,189 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection;
+
+import androidx.core.os.TraceCompat;
+
+import com.spencerpages.BuildConfig;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+
+/**
+ * Records call counts, rows touched and latency histograms for database operations
+ *
+ * Each operation is wrapped in a begin()/end() pair, which also marks it as a trace section so
+ * it shows up in systrace. Recording is only enabled in debug builds. In release builds the
+ * calls return right away, since ENABLED is a compile-time constant.
+ */
+public class DatabaseStats {
+
+    public final static boolean ENABLED = BuildConfig.DEBUG;
+
+    // Operations that are recorded
+    public final static int OP_TOGGLE = 0;
+    public final static int OP_GET_COIN_LIST = 1;
+    public final static int OP_GET_ALL_TABLES = 2;
+    public final static int OP_IMPORT = 3;
+    public final static int OP_EXPORT = 4;
+    public final static int OP_UPGRADE_STRUCTURE = 5;
+    public final static int OP_UPGRADE_COLLECTIONS = 6;
+    public final static int OP_UPGRADE_INDEXES = 7;
+    private final static int NUM_OPS = 8;
+
+    private final static String[] OP_NAMES = {
+            "toggle",
+            "getCoinList",
+            "getAllTables",
+            "import",
+            "export",
+            "upgradeStructure",
+            "upgradeCollections",
+            "upgradeIndexes",
+    };
+
+    // Upper bounds of the histogram buckets in microseconds. The last bucket holds the rest.
+    private final static long[] BUCKET_LIMITS_US = {
+            100, 250, 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000, 250000, 1000000};
+
+    private final static long NANOS_PER_US = 1000;
+
+    private final static OpStats[] sOpStats = new OpStats[NUM_OPS];
+    private final static String[] sTraceSectionNames = new String[NUM_OPS];
+    static {
+        for (int i = 0; i < NUM_OPS; i++) {
+            sOpStats[i] = new OpStats();
+            sTraceSectionNames[i] = "DB " + OP_NAMES[i];
+        }
+    }
+
+    /**
+     * Counters for a single operation
+     */
+    private static class OpStats {
+        long mCount = 0;
+        long mRows = 0;
+        long mTotalNanos = 0;
+        long mMaxNanos = 0;
+        final long[] mBuckets = new long[BUCKET_LIMITS_US.length + 1];
+    }
+
+    /**
+     * Starts timing an operation. Must be followed by end() on the same thread.
+     * @param op one of the OP_ constants
+     * @return start time to pass to end()
+     */
+    public static long begin(int op) {
+        if (!ENABLED) {
+            return 0;
+        }
+        TraceCompat.beginSection(sTraceSectionNames[op]);
+        return System.nanoTime();
+    }
+
+    /**
+     * Finishes timing an operation started with begin()
+     * @param op one of the OP_ constants
+     * @param startNanos value returned by begin()
+     * @param rows number of rows read or written
+     */
+    public static void end(int op, long startNanos, long rows) {
+        if (!ENABLED) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        TraceCompat.endSection();
+        int bucket = 0;
+        long elapsedUs = elapsedNanos / NANOS_PER_US;
+        while (bucket < BUCKET_LIMITS_US.length && elapsedUs >= BUCKET_LIMITS_US[bucket]) {
+            bucket++;
+        }
+        OpStats stats = sOpStats[op];
+        synchronized (stats) {
+            stats.mCount++;
+            stats.mRows += rows;
+            stats.mTotalNanos += elapsedNanos;
+            stats.mMaxNanos = Math.max(stats.mMaxNanos, elapsedNanos);
+            stats.mBuckets[bucket]++;
+        }
+    }
+
+    /**
+     * Gets the call count recorded for an operation
+     * @param op one of the OP_ constants
+     * @return number of calls since the last reset
+     */
+    public static long getCount(int op) {
+        OpStats stats = sOpStats[op];
+        synchronized (stats) {
+            return stats.mCount;
+        }
+    }
+
+    /**
+     * Clears all of the recorded numbers
+     */
+    public static void reset() {
+        for (OpStats stats : sOpStats) {
+            synchronized (stats) {
+                stats.mCount = 0;
+                stats.mRows = 0;
+                stats.mTotalNanos = 0;
+                stats.mMaxNanos = 0;
+                Arrays.fill(stats.mBuckets, 0);
+            }
+        }
+    }
+
+    /**
+     * Dumps the recorded numbers. Each histogram bucket is keyed by its upper bound in
+     * microseconds, with "more" for the last bucket.
+     * @return JSON object keyed by operation name
+     * @throws JSONException if the JSON can't be built
+     */
+    public static JSONObject toJson() throws JSONException {
+        JSONObject result = new JSONObject();
+        for (int op = 0; op < NUM_OPS; op++) {
+            OpStats stats = sOpStats[op];
+            JSONObject opJson = new JSONObject();
+            synchronized (stats) {
+                opJson.put("count", stats.mCount);
+                opJson.put("rows", stats.mRows);
+                opJson.put("totalUs", stats.mTotalNanos / NANOS_PER_US);
+                opJson.put("maxUs", stats.mMaxNanos / NANOS_PER_US);
+                JSONArray buckets = new JSONArray();
+                for (int i = 0; i < stats.mBuckets.length; i++) {
+                    JSONObject bucket = new JSONObject();
+                    bucket.put("limitUs", (i < BUCKET_LIMITS_US.length) ? String.valueOf(BUCKET_LIMITS_US[i]) : "more");
+                    bucket.put("count", stats.mBuckets[i]);
+                    buckets.put(bucket);
+                }
+                opJson.put("histogram", buckets);
+            }
+            result.put(OP_NAMES[op], opJson);
+        }
+        return result;
+    }
+}
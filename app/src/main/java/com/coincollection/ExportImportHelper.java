@@ -46,7 +46,10 @@ public class ExportImportHelper {
 
     // Internal state
     final Resources mRes;
-    final DatabaseAdapter mDbAdapter;
+    final CoinStore mDbAdapter;
+
+    // Number of collection and coin rows read or written, for the database stats
+    private int mNumRows = 0;
 
     public final static String JSON_CHARSET = "UTF-8";
 
@@ -84,11 +87,18 @@ public class ExportImportHelper {
     public final static String LEGACY_EXPORT_COLLECTION_LIST_FILE_EXT = ".csv";
     public final static String LEGACY_EXPORT_DB_VERSION_FILE = "database_version.txt";
 
-    public ExportImportHelper(Resources res, DatabaseAdapter dbAdapter) {
+    public ExportImportHelper(Resources res, CoinStore dbAdapter) {
         mRes = res;
         mDbAdapter = dbAdapter;
     }
 
+    /**
+     * @return number of collection and coin rows read by exports or written by imports
+     */
+    public int getNumRows() {
+        return mNumRows;
+    }
+
     /**
      * This method imports collections from the external storage (legacy storage). New versions
      * of the app export to JSON and store in a user-accessible storage location
@@ -223,6 +233,7 @@ public class ExportImportHelper {
         // Get all collection lists from the database
         ArrayList<CollectionListInfo> collectionListEntries = new ArrayList<>();
         mDbAdapter.getAllTables(collectionListEntries);
+        mNumRows += collectionListEntries.size();
 
         // Write out the collection_info table
         File outputFile = new File(dir, LEGACY_EXPORT_COLLECTION_LIST_FILE_NAME + LEGACY_EXPORT_COLLECTION_LIST_FILE_EXT);
@@ -263,6 +274,7 @@ public class ExportImportHelper {
             csvOutputLines = new ArrayList<>();
 
             ArrayList<CoinSlot> coinList = mDbAdapter.getCoinList(name, true);
+            mNumRows += coinList.size();
             for (CoinSlot coinSlot : coinList) {
                 csvOutputLines.add(coinSlot.getLegacyCsvExportProperties());
             }
@@ -330,6 +342,22 @@ public class ExportImportHelper {
     private String updateDatabaseFromImport(int importDatabaseVersion,
                                             ArrayList<CollectionListInfo> importedCollectionInfoList,
                                             ArrayList<ArrayList<CoinSlot>> importedCollectionContents) {
+        // Run the whole import as one change, so no other changes are made part way through
+        return mDbAdapter.runWrite(() -> replaceDatabaseContents(importDatabaseVersion,
+                importedCollectionInfoList, importedCollectionContents));
+    }
+
+    /**
+     * Replaces the contents of the database with the imported data. Must be run on the database
+     * writer thread.
+     * @param importDatabaseVersion imported database version
+     * @param importedCollectionInfoList imported list of CollectionListInfo
+     * @param importedCollectionContents imported list of coins
+     * @return "" if successful, otherwise an error string
+     */
+    private String replaceDatabaseContents(int importDatabaseVersion,
+                                           ArrayList<CollectionListInfo> importedCollectionInfoList,
+                                           ArrayList<ArrayList<CoinSlot>> importedCollectionContents) {
 
         // Drop existing tables
         ArrayList<CollectionListInfo> existingCollections = new ArrayList<>();
@@ -353,13 +381,18 @@ public class ExportImportHelper {
                 if (checkName != -1) {
                     return mRes.getString(R.string.error_import);
                 }
-                mDbAdapter.createAndPopulateNewTable(collectionListInfo, i, collectionContent);
+                mDbAdapter.createAndPopulateNewTable(collectionListInfo, i, collectionContent, false);
+                mNumRows += 1 + collectionContent.size();
             }
 
             // Update any imported tables, if necessary
             if (importDatabaseVersion != MainApplication.DATABASE_VERSION) {
                 mDbAdapter.upgradeCollections(importDatabaseVersion, true);
             }
+
+            // Index all of the imported coins at once
+            mDbAdapter.rebuildSearchIndex();
+            mDbAdapter.rebuildStats();
         } catch (SQLException e) {
             // Report an import error message to display on the UI thread
             return mRes.getString(R.string.error_import);
@@ -380,6 +413,7 @@ public class ExportImportHelper {
         // Get all collection lists from the database
         ArrayList<CollectionListInfo> collectionListEntries = new ArrayList<>();
         mDbAdapter.getAllTables(collectionListEntries);
+        mNumRows += collectionListEntries.size();
 
         try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(outputStream, JSON_CHARSET))) {
             writer.beginObject();
@@ -389,6 +423,7 @@ public class ExportImportHelper {
                 // Add the collection and coin info
                 CollectionListInfo collectionListInfo = collectionListEntries.get(i);
                 ArrayList<CoinSlot> coinList = mDbAdapter.getCoinList(collectionListInfo.getName(), true);
+                mNumRows += coinList.size();
                 collectionListInfo.writeToJson(writer, mDbAdapter, coinList);
             }
             writer.endArray();
@@ -527,6 +562,7 @@ public class ExportImportHelper {
         // Get all collection lists from the database
         ArrayList<CollectionListInfo> collectionListEntries = new ArrayList<>();
         mDbAdapter.getAllTables(collectionListEntries);
+        mNumRows += collectionListEntries.size();
 
         try (CSVWriter csvWriter = new CSVWriter(new OutputStreamWriter(outputStream))) {
 
@@ -541,6 +577,7 @@ public class ExportImportHelper {
                 // Get the collection and coin info
                 CollectionListInfo collectionListInfo = collectionListEntries.get(i);
                 ArrayList<CoinSlot> coinList = mDbAdapter.getCoinList(collectionListInfo.getName(), true);
+                mNumRows += coinList.size();
 
                 csvWriter.writeNext(new String[]{CSV_SEPARATOR, SectionType.COLLECTIONS.label});
                 csvWriter.writeNext(CollectionListInfo.getCsvExportHeader());
@@ -20,7 +20,6 @@
 
 package com.coincollection;
 
-import static com.coincollection.CollectionListInfo.COL_NAME;
 import static com.coincollection.ExportImportHelper.LEGACY_EXPORT_FOLDER_NAME;
 import static com.coincollection.ReorderCollections.REORDER_COLLECTION;
 import static com.spencerpages.MainApplication.APP_NAME;
@@ -34,13 +33,18 @@ import android.content.res.Resources;
 import android.database.Cursor;
 import android.database.SQLException;
 import android.net.Uri;
+import android.os.AsyncTask;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Environment;
+import android.os.Handler;
+import android.os.Looper;
 import android.provider.DocumentsContract;
 import android.provider.OpenableColumns;
 import android.util.Log;
 import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
@@ -53,6 +57,7 @@ import androidx.annotation.NonNull;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.spencerpages.BuildConfig;
 import com.spencerpages.MainApplication;
@@ -65,10 +70,15 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * The main Activity for the app.  Implements a ListView which lets the user view a previously
@@ -82,6 +92,29 @@ public class MainActivity extends BaseActivity {
     // The number of actual collections in mCollectionListEntries
     public int mNumberOfCollections = 0;
 
+    // Set while the list is showing the startup snapshot instead of the database contents
+    private boolean mShowingSnapshot = false;
+    // Contents of the last snapshot written, used to skip writes when nothing changed
+    private byte[] mLastSnapshotData = null;
+    private final ExecutorService mSnapshotExecutor = Executors.newSingleThreadExecutor();
+
+    // Changes made to the collections since the list was last updated.  These are recorded on the
+    // database writer thread and applied when the list regains focus, or shortly after if it
+    // already has focus.
+    private final Object mPendingChangesLock = new Object();
+    private final HashSet<String> mPendingChangedCollections = new HashSet<>();
+    private final HashSet<String> mPendingDroppedCollections = new HashSet<>();
+    private boolean mPendingOrderChange = false;
+    private boolean mPendingReloadAll = false;
+    private final CoinStore.CollectionChangeListener mCollectionChangeListener = this::recordCollectionChange;
+
+    // Changes recorded while the list already has focus are applied after this delay, so that a
+    // burst of writes (Ex: from a collection page that was just closed) is only applied once
+    private final static long PENDING_CHANGES_DELAY_MS = 100;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean mHasWindowFocus = false;
+    private final Runnable mApplyPendingChangesRunnable = this::applyPendingCollectionChangesIfFocused;
+
     // Used for the Update Database functionality
     private boolean mIsImportingCollection = false;
     private boolean mImportExportLegacyCsv = false;
@@ -129,6 +162,9 @@ public class MainActivity extends BaseActivity {
         mOpenDbAdapterInOnCreate = false;
         super.onCreate(savedInstanceState);
 
+        // Keep track of changes made to the collections while the list isn't showing
+        ((MainApplication) getApplication()).getDbAdapter().addCollectionChangeListener(mCollectionChangeListener);
+
         setContentView(R.layout.main_activity_layout);
 
         // In legacy code we used first_Time_screen2 here so that the message would be displayed
@@ -137,6 +173,12 @@ public class MainActivity extends BaseActivity {
         // isn't set
         createAndShowHelpDialog("first_Time_screen1", R.string.intro_message);
 
+        // Show the list from the last snapshot while the database opens, since opening it may
+        // involve an upgrade and the list needs a count query for every collection
+        if (mPreviousTask == null || mPreviousTask.mAsyncTaskId == TASK_OPEN_DATABASE) {
+            loadCollectionListSnapshot();
+        }
+
         if(mPreviousTask == null){
             if(BuildConfig.DEBUG) {
                 Log.d(APP_NAME, "No previous state so kicking off AsyncProgressTask to doOpen");
@@ -154,15 +196,18 @@ public class MainActivity extends BaseActivity {
             // There's two possible AsyncProgressTask's that could be running:
             //     - The one to open the database for the first time
             //     - The one to import collections
-            // In the case of the former, we just want to show the dialog that the user had on the
-            // screen.  For the latter case, we still need something to call finishViewSetup, and
+            // In the case of the former, we just want to show the snapshot again, or the dialog if
+            // there's no snapshot.  For the latter case, we still need something to call finishViewSetup, and
             // we don't want to call it here bc it will try to use the database too early.  Instead,
             // set a flag that will have that AsyncProgressTask call finishViewSetup for us as well.
             asyncProgressOnPreExecute();
 
-            // If we were in the middle of importing, the DB adapter may now be closed
+            // The task opened the DB adapter for the previous activity, so this one still needs
+            // to open it. If the database is still opening, this waits in the background for it.
+            if(mTask.mAsyncTaskId == TASK_IMPORT_COLLECTIONS || mTask.mAsyncTaskId == TASK_OPEN_DATABASE){
+                openDbAdapterForActivity();
+            }
             if(mTask.mAsyncTaskId == TASK_IMPORT_COLLECTIONS){
-                openDbAdapterForUIThread();
                 mIsImportingCollection = true;
             }
         }
@@ -191,13 +236,19 @@ public class MainActivity extends BaseActivity {
                         }
 
                         // The collections may have been re-ordered, so update them here.
-                        updateCollectionListFromDatabaseAndUpdateViewForUIThread();
+                        applyPendingCollectionChanges();
                     }
                 });
 
         // Now set the onItemClickListener to perform a certain action based on what's clicked
         lv.setOnItemClickListener((parent, view, position, id) -> {
 
+            // Wait for the database before acting on anything in the list
+            if (mShowingSnapshot) {
+                createProgressDialog(mRes.getString(R.string.opening_database));
+                return;
+            }
+
             // See whether it was one of the special list entries (Add collection, delete
             // collection, etc.)
             if(position >= mNumberOfCollections){
@@ -255,6 +306,10 @@ public class MainActivity extends BaseActivity {
 
         // Add long-press handler for additional actions
         lv.setOnItemLongClickListener((parent, view, position, id) -> {
+            if (mShowingSnapshot) {
+                createProgressDialog(mRes.getString(R.string.opening_database));
+                return true;
+            }
             if(position < mNumberOfCollections) {
                 // For each collection item, populate a menu of actions for the collection
                 CharSequence[] actionsList = new CharSequence[NUM_ACTIONS];
@@ -337,11 +392,38 @@ public class MainActivity extends BaseActivity {
     }
 
     @Override
-    public void onDestroy() {
-        // Only MainActivity closes the DB adapter, as it's shared between all activities
-        if (mDbAdapter != null) {
-            mDbAdapter.close();
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.main_activity_menu, menu);
+        // The database diagnostics are only recorded in debug builds
+        menu.findItem(R.id.database_diagnostics).setVisible(DatabaseStats.ENABLED);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.search_coins) {
+            Intent intent = new Intent(mContext, CoinSearchActivity.class);
+            startActivity(intent);
+            return true;
+        } else if (item.getItemId() == R.id.collection_stats) {
+            Intent intent = new Intent(mContext, CollectionStatsActivity.class);
+            startActivity(intent);
+            return true;
+        } else if (item.getItemId() == R.id.database_diagnostics) {
+            Intent intent = new Intent(mContext, DatabaseDiagnosticsActivity.class);
+            startActivity(intent);
+            return true;
         }
+        return super.onOptionsItemSelected(item);
+    }
+
+    @Override
+    public void onDestroy() {
+        ((MainApplication) getApplication()).getDbAdapter().removeCollectionChangeListener(mCollectionChangeListener);
+        mHasWindowFocus = false;
+        mMainHandler.removeCallbacks(mApplyPendingChangesRunnable);
+        // Let any pending snapshot write finish
+        mSnapshotExecutor.shutdown();
         // Don't try and stop any tasks, as they could be in the middle of a DB upgrade
         super.onDestroy();
     }
@@ -350,55 +432,106 @@ public class MainActivity extends BaseActivity {
     public String asyncProgressDoInBackground() {
         switch (mTask.mAsyncTaskId) {
             case TASK_OPEN_DATABASE: {
-                return openDbAdapterForAsyncThread();
+                // Run this as part of the startup tasks so that it waits for the collection
+                // types to be ready and gets included in the startup timings
+                return ((MainApplication) getApplication()).getStartup().runTask(
+                        MainApplication.STARTUP_DATABASE, this::openDbAdapterForAsyncThread,
+                        MainApplication.STARTUP_CATALOG);
             }
-            case TASK_IMPORT_COLLECTIONS: {
-                ExportImportHelper helper = new ExportImportHelper(mRes, mDbAdapter);
-                if (mImportExportLegacyCsv) {
-                    return helper.importCollectionsFromLegacyCSV(getLegacyExportFolderName());
-                } else {
-                    try (InputStream inputStream = getContentResolver().openInputStream(mImportExportFileUri)) {
-                        String fileName = getFileNameFromUri(mImportExportFileUri);
-                        if (fileName.endsWith(".csv")) {
-                            return helper.importCollectionsFromSingleCSV(inputStream);
-                        } else {
-                            return helper.importCollectionsFromJson(inputStream);
-                        }
-                    } catch (FileNotFoundException e) {
-                        return mRes.getString(R.string.error_importing, e.getMessage());
-                    } catch (IOException e) {
-                        return mRes.getString(R.string.error_importing, e.getMessage());
+            case TASK_IMPORT_COLLECTIONS:
+            case TASK_EXPORT_COLLECTIONS: {
+                // Hold a reference for the whole import/export, so the database stays open if
+                // the activity is re-created part way through
+                CoinStore dbAdapter = mDbAdapter;
+                int statsOp = (mTask.mAsyncTaskId == TASK_IMPORT_COLLECTIONS) ?
+                        DatabaseStats.OP_IMPORT : DatabaseStats.OP_EXPORT;
+                ExportImportHelper helper = new ExportImportHelper(mRes, dbAdapter);
+                dbAdapter.open();
+                long startNanos = DatabaseStats.begin(statsOp);
+                try {
+                    if (mTask.mAsyncTaskId == TASK_IMPORT_COLLECTIONS) {
+                        return importCollections(helper);
+                    } else {
+                        return exportCollections(helper);
                     }
+                } finally {
+                    DatabaseStats.end(statsOp, startNanos, helper.getNumRows());
+                    dbAdapter.close();
                 }
             }
-            case TASK_EXPORT_COLLECTIONS: {
-                ExportImportHelper helper = new ExportImportHelper(mRes, mDbAdapter);
-                if (mImportExportLegacyCsv) {
-                    return helper.exportCollectionsToLegacyCSV(getLegacyExportFolderName());
+        }
+        return "";
+    }
+
+    /**
+     * Imports collections from the file selected by the user
+     * @param helper helper to import with
+     * @return "" if successful, otherwise an error string
+     */
+    private String importCollections(ExportImportHelper helper) {
+        if (mImportExportLegacyCsv) {
+            return helper.importCollectionsFromLegacyCSV(getLegacyExportFolderName());
+        } else {
+            try (InputStream inputStream = getContentResolver().openInputStream(mImportExportFileUri)) {
+                String fileName = getFileNameFromUri(mImportExportFileUri);
+                if (fileName.endsWith(".csv")) {
+                    return helper.importCollectionsFromSingleCSV(inputStream);
                 } else {
-                    try (OutputStream outputStream = getContentResolver().openOutputStream(mImportExportFileUri)) {
-                        String fileName = getFileNameFromUri(mImportExportFileUri);
-                        if (fileName.endsWith(".csv")) {
-                            return helper.exportCollectionsToSingleCSV(outputStream, fileName);
-                        } else {
-                            return helper.exportCollectionsToJson(outputStream, fileName);
-                        }
-                    } catch (FileNotFoundException e) {
-                        return mRes.getString(R.string.error_exporting, e.getMessage());
-                    } catch (IOException e) {
-                        return mRes.getString(R.string.error_exporting, e.getMessage());
-                    }
+                    return helper.importCollectionsFromJson(inputStream);
                 }
+            } catch (FileNotFoundException e) {
+                return mRes.getString(R.string.error_importing, e.getMessage());
+            } catch (IOException e) {
+                return mRes.getString(R.string.error_importing, e.getMessage());
             }
         }
-        return "";
+    }
+
+    /**
+     * Exports collections to the file selected by the user
+     * @param helper helper to export with
+     * @return A message to be displayed to the user, whether successful or not
+     */
+    private String exportCollections(ExportImportHelper helper) {
+        if (mImportExportLegacyCsv) {
+            return helper.exportCollectionsToLegacyCSV(getLegacyExportFolderName());
+        } else {
+            try (OutputStream outputStream = getContentResolver().openOutputStream(mImportExportFileUri)) {
+                String fileName = getFileNameFromUri(mImportExportFileUri);
+                if (fileName.endsWith(".csv")) {
+                    return helper.exportCollectionsToSingleCSV(outputStream, fileName);
+                } else {
+                    return helper.exportCollectionsToJson(outputStream, fileName);
+                }
+            } catch (FileNotFoundException e) {
+                return mRes.getString(R.string.error_exporting, e.getMessage());
+            } catch (IOException e) {
+                return mRes.getString(R.string.error_exporting, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public Object onRetainCustomNonConfigurationInstance() {
+        // The database may still be opening behind the snapshot with no dialog showing, so keep
+        // the task running rather than having the new activity start another one
+        if (mTask != null && mTask.mAsyncTaskId == TASK_OPEN_DATABASE
+                && mTask.getStatus() == AsyncTask.Status.RUNNING) {
+            dismissProgressDialog();
+            return mTask;
+        }
+        return super.onRetainCustomNonConfigurationInstance();
     }
 
     @Override
     public void asyncProgressOnPreExecute() {
         switch (mTask.mAsyncTaskId) {
             case TASK_OPEN_DATABASE: {
-                createProgressDialog(mRes.getString(R.string.opening_database));
+                // The snapshot is already on screen, so only block the UI if the user tries to
+                // use the list before the database is ready
+                if (!mShowingSnapshot) {
+                    createProgressDialog(mRes.getString(R.string.opening_database));
+                }
                 break;
             }
             case TASK_IMPORT_COLLECTIONS: {
@@ -419,6 +552,14 @@ public class MainActivity extends BaseActivity {
         if (mTask.mAsyncTaskId == TASK_IMPORT_COLLECTIONS) {
             mIsImportingCollection = false;
         }
+        if (mTask.mAsyncTaskId == TASK_OPEN_DATABASE && BuildConfig.DEBUG) {
+            Log.d(APP_NAME, "Startup timings:\n" + ((MainApplication) getApplication()).getStartup().getTimingReport());
+        }
+        // Replace the snapshot with the real contents
+        mShowingSnapshot = false;
+        if (mTask.mAsyncTaskId == TASK_OPEN_DATABASE) {
+            new ViewModelProvider(this).get(MainActivityViewModel.class).mSnapshotEntries = null;
+        }
         updateCollectionListFromDatabaseAndUpdateViewForUIThread();
     }
 
@@ -545,14 +686,16 @@ public class MainActivity extends BaseActivity {
             mImportExportLegacyCsv = true;
 
             // Check to see if the folder exists already
-            File dir = new File(getLegacyExportFolderName());
-            if(dir.isDirectory() || dir.exists()){
-                // Let the user decide whether they want to delete this
-                showExportConfirmation();
-            } else {
-                // Finish the export by kicking off an AsyncTask to do the heavy lifting
-                kickOffAsyncProgressTask(TASK_EXPORT_COLLECTIONS);
-            }
+            final File dir = new File(getLegacyExportFolderName());
+            runInBackground(() -> dir.isDirectory() || dir.exists(), dirExists -> {
+                if(dirExists){
+                    // Let the user decide whether they want to delete this
+                    showExportConfirmation();
+                } else {
+                    // Finish the export by kicking off an AsyncTask to do the heavy lifting
+                    kickOffAsyncProgressTask(TASK_EXPORT_COLLECTIONS);
+                }
+            }, null);
         }
     }
 
@@ -734,6 +877,7 @@ public class MainActivity extends BaseActivity {
     @Override
     public void onWindowFocusChanged(boolean hasFocus){
         super.onWindowFocusChanged(hasFocus);
+        mHasWindowFocus = hasFocus;
 
         // Note that this provides information about global focus state, which is managed
         // independently of activity lifecycle. As such, while focus changes will generally have
@@ -741,16 +885,280 @@ public class MainActivity extends BaseActivity {
         // window focus), you should not rely on any particular order between the callbacks here
         // and those in the other lifecycle methods such as onResume().
 
-        // We use this function as a convenience for updating the database once the list gets focus
-        // after returning from the add/delete/reorder views.
+        // We use this function as a convenience for updating the list once it gets focus after
+        // returning from the add/delete/reorder views.  Only the collections that changed are
+        // re-read, so this does nothing if nothing changed.
 
-        if (hasFocus && !mIsImportingCollection){
+        if (hasFocus && !mIsImportingCollection && !mShowingSnapshot){
             // Only do this if the database has been opened with the AsyncTask first
             // and we aren't modifying the database like crazy (importing)
             // We need this so that new collections that are added/removed get shown
 
+            applyPendingCollectionChanges();
+        }
+    }
+
+    /**
+     * Records a change made to the collections, to be applied to the list later. Called on the
+     * database writer thread. If the list has focus, the changes are applied shortly after.
+     * @param changeType one of the CoinStore.CHANGE_* constants
+     * @param collectionName the collection changed, or null
+     * @param newName the new name for renames, otherwise null
+     */
+    private void recordCollectionChange(int changeType, String collectionName, String newName) {
+        synchronized (mPendingChangesLock) {
+            switch (changeType) {
+                case CoinStore.CHANGE_COLLECTION_CREATED:
+                    mPendingChangedCollections.add(collectionName);
+                    mPendingOrderChange = true;
+                    break;
+                case CoinStore.CHANGE_COLLECTION_DROPPED:
+                    mPendingDroppedCollections.add(collectionName);
+                    break;
+                case CoinStore.CHANGE_COLLECTION_RENAMED:
+                    mPendingDroppedCollections.add(collectionName);
+                    mPendingChangedCollections.add(newName);
+                    mPendingOrderChange = true;
+                    break;
+                case CoinStore.CHANGE_COLLECTIONS_REORDERED:
+                    mPendingOrderChange = true;
+                    break;
+                case CoinStore.CHANGE_COLLECTION_COUNTS:
+                    mPendingChangedCollections.add(collectionName);
+                    break;
+                default:
+                    mPendingReloadAll = true;
+                    break;
+            }
+        }
+
+        // Changes made while the list has focus wouldn't otherwise be applied until the next
+        // focus change, so apply them from the UI thread once the writes settle
+        if (mHasWindowFocus) {
+            mMainHandler.removeCallbacks(mApplyPendingChangesRunnable);
+            mMainHandler.postDelayed(mApplyPendingChangesRunnable, PENDING_CHANGES_DELAY_MS);
+        }
+    }
+
+    /**
+     * Applies the recorded changes if the list still has focus and isn't waiting on the database
+     */
+    private void applyPendingCollectionChangesIfFocused() {
+        if (mHasWindowFocus && !mIsImportingCollection && !mShowingSnapshot) {
+            applyPendingCollectionChanges();
+        }
+    }
+
+    /**
+     * Brings the collection list up to date with the changes recorded since it was last updated,
+     * re-reading only the collections that changed. This method should only be called from the
+     * UI Thread
+     */
+    private void applyPendingCollectionChanges() {
+        if (mDbAdapter == null) {
+            // The list will be loaded once the database has been opened
+            return;
+        }
+        HashSet<String> changedCollections;
+        HashSet<String> droppedCollections;
+        boolean orderChanged;
+        synchronized (mPendingChangesLock) {
+            if (!mPendingReloadAll && mPendingChangedCollections.isEmpty()
+                    && mPendingDroppedCollections.isEmpty() && !mPendingOrderChange) {
+                return;
+            }
+            if (mPendingReloadAll) {
+                changedCollections = null;
+                droppedCollections = null;
+                orderChanged = false;
+            } else {
+                changedCollections = new HashSet<>(mPendingChangedCollections);
+                droppedCollections = new HashSet<>(mPendingDroppedCollections);
+                orderChanged = mPendingOrderChange;
+                clearPendingCollectionChanges();
+            }
+        }
+        if (changedCollections == null) {
             updateCollectionListFromDatabaseAndUpdateViewForUIThread();
+            return;
         }
+
+        // Work out the new list in the background, then show it if nothing else has changed
+        // the list in the meantime
+        final ArrayList<CollectionListInfo> baseCollections = new ArrayList<>(mCollectionListEntries.subList(0, mNumberOfCollections));
+        final ArrayList<CollectionListInfo> collections = new ArrayList<>(baseCollections);
+        final boolean finalOrderChanged = orderChanged;
+        runInBackground(() -> findCollectionListChanges(collections, changedCollections, droppedCollections, finalOrderChanged),
+                changes -> {
+                    if (changes == null || !baseCollections.equals(mCollectionListEntries.subList(0, mNumberOfCollections))) {
+                        updateCollectionListFromDatabaseAndUpdateViewForUIThread();
+                    } else {
+                        showCollectionListChanges(collections, changes);
+                    }
+                }, null);
+    }
+
+    /**
+     * Result of applying recorded changes to the collection list
+     */
+    private static class CollectionListChanges {
+        // Whether collections were added, removed or moved
+        boolean mStructureChanged = false;
+        // Positions of the collections whose contents changed
+        final ArrayList<Integer> mUpdatedPositions = new ArrayList<>();
+    }
+
+    /**
+     * Applies recorded changes to a copy of the collection list, re-reading only the collections
+     * that changed. Called on a background thread.
+     * @param collections list to update in place
+     * @param changedCollections names of the collections added or changed
+     * @param droppedCollections names of the collections removed
+     * @param orderChanged whether the display order may have changed
+     * @return the changes made, or null if the database couldn't be read
+     */
+    private CollectionListChanges findCollectionListChanges(ArrayList<CollectionListInfo> collections,
+                                                            HashSet<String> changedCollections,
+                                                            HashSet<String> droppedCollections,
+                                                            boolean orderChanged) {
+        CollectionListChanges changes = new CollectionListChanges();
+        try {
+            for (int i = collections.size() - 1; i >= 0; i--) {
+                if (droppedCollections.contains(collections.get(i).getName())) {
+                    collections.remove(i);
+                    changes.mStructureChanged = true;
+                }
+            }
+            for (String name : changedCollections) {
+                CollectionListInfo info = mDbAdapter.getCollectionListInfo(name);
+                int position = findCollectionPosition(collections, name);
+                if (info == null) {
+                    if (position != -1) {
+                        collections.remove(position);
+                        changes.mStructureChanged = true;
+                    }
+                } else if (position == -1) {
+                    collections.add(info);
+                    changes.mStructureChanged = true;
+                    orderChanged = true;
+                } else if (!info.hasSameContents(collections.get(position))) {
+                    collections.set(position, info);
+                    changes.mUpdatedPositions.add(position);
+                }
+            }
+            if (orderChanged && sortByDisplayOrder(collections)) {
+                changes.mStructureChanged = true;
+            }
+        } catch (SQLException e) {
+            return null;
+        }
+        return changes;
+    }
+
+    /**
+     * Shows the collection list after changes were applied to it. This method should only be
+     * called from the UI Thread
+     * @param collections the new collection list
+     * @param changes the changes made to get to the new list
+     */
+    private void showCollectionListChanges(ArrayList<CollectionListInfo> collections, CollectionListChanges changes) {
+        if (!changes.mStructureChanged && changes.mUpdatedPositions.isEmpty()) {
+            return;
+        }
+
+        setCollectionListEntries(collections);
+        saveCollectionListSnapshot();
+        if (mListAdapter == null) {
+            return;
+        }
+        if (changes.mStructureChanged) {
+            mListAdapter.numberOfCollections = mNumberOfCollections;
+            mListAdapter.notifyDataSetChanged();
+        } else {
+            // Only re-bind the rows that changed and are on screen
+            ListView lv = findViewById(R.id.main_activity_listview);
+            int firstVisiblePosition = lv.getFirstVisiblePosition();
+            for (int position : changes.mUpdatedPositions) {
+                View row = lv.getChildAt(position - firstVisiblePosition);
+                if (row != null) {
+                    buildListElement(mCollectionListEntries.get(position), row, mRes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the collection list entries, adding the spacers for the static list items
+     * @param collections the collections to show
+     */
+    private void setCollectionListEntries(ArrayList<CollectionListInfo> collections) {
+        mCollectionListEntries.clear();
+        mCollectionListEntries.addAll(collections);
+        mNumberOfCollections = collections.size();
+
+        // We use an ArrayAdapter to power the ListView, but since we want to add in somethings that
+        // don't have items in the list, we add in some blank entries to account for them.  Pretty
+        // hacked together but it should work.
+        for(int i = 0; i < NUMBER_OF_COLLECTION_LIST_SPACERS; i++) {
+            mCollectionListEntries.add(null);
+        }
+    }
+
+    /**
+     * Clears the recorded changes. Must be called with mPendingChangesLock held.
+     */
+    private void clearPendingCollectionChanges() {
+        mPendingChangedCollections.clear();
+        mPendingDroppedCollections.clear();
+        mPendingOrderChange = false;
+        mPendingReloadAll = false;
+    }
+
+    /**
+     * Finds a collection in a list by name
+     * @param collections list to search
+     * @param name collection name
+     * @return the position of the collection, or -1 if not found
+     */
+    private static int findCollectionPosition(ArrayList<CollectionListInfo> collections, String name) {
+        for (int i = 0; i < collections.size(); i++) {
+            if (collections.get(i).getName().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sorts a list of collections into the order they're stored in the database
+     * @param collections list to sort in place
+     * @return true if the order changed
+     * @throws SQLException if a database error occurs
+     */
+    private boolean sortByDisplayOrder(ArrayList<CollectionListInfo> collections) throws SQLException {
+        final HashMap<String, Integer> displayPositions = new HashMap<>();
+        for (String collectionName : mDbAdapter.getCollectionNames()) {
+            displayPositions.put(collectionName, displayPositions.size());
+        }
+        ArrayList<CollectionListInfo> sorted = new ArrayList<>(collections);
+        Collections.sort(sorted, (a, b) -> getDisplayPosition(displayPositions, a) - getDisplayPosition(displayPositions, b));
+        if (sorted.equals(collections)) {
+            return false;
+        }
+        collections.clear();
+        collections.addAll(sorted);
+        return true;
+    }
+
+    /**
+     * Looks up the position of a collection in the database order
+     * @param displayPositions map of collection name to position
+     * @param info collection to look up
+     * @return the position, or the end of the list if the collection isn't in the database
+     */
+    private static int getDisplayPosition(HashMap<String, Integer> displayPositions, CollectionListInfo info) {
+        Integer position = displayPositions.get(info.getName());
+        return (position != null) ? position : displayPositions.size();
     }
 
     /**
@@ -759,49 +1167,96 @@ public class MainActivity extends BaseActivity {
      */
     public void updateCollectionListFromDatabase(){
 
+        // This reads everything, so any changes recorded before now are covered
+        synchronized (mPendingChangesLock) {
+            clearPendingCollectionChanges();
+        }
+
         //Get a list of all the database tables
+        ArrayList<CollectionListInfo> collections = new ArrayList<>();
+        boolean readSucceeded = true;
         try {
-            mDbAdapter.getAllTables(mCollectionListEntries);
+            mDbAdapter.getAllTables(collections);
         } catch (SQLException e){
             showCancelableAlert(mRes.getString(R.string.error_reading_database));
+            readSucceeded = false;
         }
 
-        // Record the actual number of collections before spacers are added
-        mNumberOfCollections = mCollectionListEntries.size();
+        setCollectionListEntries(collections);
+        if (readSucceeded) {
+            saveCollectionListSnapshot();
+        }
+    }
 
-        // We use an ArrayAdapter to power the ListView, but since we want to add in somethings that
-        // don't have items in the list, we add in some blank entries to account for them.  Pretty
-        // hacked together but it should work.
-        for(int i = 0; i < NUMBER_OF_COLLECTION_LIST_SPACERS; i++) {
-            mCollectionListEntries.add(null);
+    /**
+     * Fills in the collection list from the startup snapshot, if there is one
+     */
+    private void loadCollectionListSnapshot() {
+        // The snapshot file was already read in the background during startup. The entries are
+        // kept in the view model until the database is open, in case the activity is re-created.
+        MainActivityViewModel viewModel = new ViewModelProvider(this).get(MainActivityViewModel.class);
+        if (viewModel.mSnapshotEntries == null) {
+            viewModel.mSnapshotEntries = ((MainApplication) getApplication()).takeStartupSnapshot();
         }
+        ArrayList<CollectionListInfo> snapshotEntries = viewModel.mSnapshotEntries;
+        if (snapshotEntries == null) {
+            return;
+        }
+        if(BuildConfig.DEBUG) {
+            Log.d(APP_NAME, "Showing " + snapshotEntries.size() + " collections from the startup snapshot");
+        }
+        setCollectionListEntries(snapshotEntries);
+        mLastSnapshotData = CollectionListSnapshot.serialize(mCollectionListEntries, mNumberOfCollections);
+        mShowingSnapshot = true;
     }
 
     /**
-     * Reloads the collection list from the database and updates the list adapter. This method
-     * should only be called from the UI Thread
+     * Writes the current collection list out as the startup snapshot. The write happens on a
+     * background thread and is skipped if the list hasn't changed since the last write.
+     */
+    private void saveCollectionListSnapshot() {
+        final byte[] snapshotData = CollectionListSnapshot.serialize(mCollectionListEntries, mNumberOfCollections);
+        if (snapshotData == null || Arrays.equals(snapshotData, mLastSnapshotData)
+                || mSnapshotExecutor.isShutdown()) {
+            return;
+        }
+        mLastSnapshotData = snapshotData;
+        mSnapshotExecutor.execute(() -> CollectionListSnapshot.write(getFilesDir(), snapshotData));
+    }
+
+    /**
+     * Reloads the collection list from the database and updates the list adapter. The database
+     * is read in the background. This method should only be called from the UI Thread
      */
     public void updateCollectionListFromDatabaseAndUpdateViewForUIThread() {
 
         // mDbAdapter may be null in some corner cases where this method gets called
-        // before the DB has been opened or after it has closed - ignore the update
-        // in that case
-        try {
-            // Refresh mCollectionListEntries and mNumberOfCollections from the database
-            updateCollectionListFromDatabase();
-        } catch (NullPointerException e) {
+        // before the DB has been opened - ignore the update in that case
+        if (mDbAdapter == null) {
             if(BuildConfig.DEBUG) {
                 Log.e(APP_NAME, "Called updateCollectionListFromDatabaseAndUpdateViewForUIThread() before mDbAdapter initialized ");
             }
             return;
         }
 
-        // Update the list view adapter
-        if (mListAdapter != null) {
-            mListAdapter.items = mCollectionListEntries;
-            mListAdapter.numberOfCollections = mNumberOfCollections;
-            mListAdapter.notifyDataSetChanged();
+        // This reads everything, so any changes recorded before now are covered
+        synchronized (mPendingChangesLock) {
+            clearPendingCollectionChanges();
         }
+
+        runInBackground(() -> {
+            ArrayList<CollectionListInfo> collections = new ArrayList<>();
+            mDbAdapter.getAllTables(collections);
+            return collections;
+        }, collections -> {
+            setCollectionListEntries(collections);
+            saveCollectionListSnapshot();
+            if (mListAdapter != null) {
+                mListAdapter.items = mCollectionListEntries;
+                mListAdapter.numberOfCollections = mNumberOfCollections;
+                mListAdapter.notifyDataSetChanged();
+            }
+        }, mRes.getString(R.string.error_reading_database));
     }
 
     /**
@@ -850,32 +1305,33 @@ public class MainActivity extends BaseActivity {
                 .setCancelable(false)
                 .setPositiveButton(mRes.getString(R.string.yes), (dialog, id) -> {
                     dialog.dismiss();
-                    //Do the deleting
-                    Cursor cursor = null;
-                    try {
-                        mDbAdapter.dropCollectionTable(name);
-                        //Get a list of all the database tables
-                        cursor = mDbAdapter.getAllCollectionNames();
-                        int i = 0;
-                        if (cursor.moveToFirst()) {
-                            do {
-                                String name1 = cursor.getString(cursor.getColumnIndexOrThrow(COL_NAME));
-                                // Fix up the displayOrder
-                                mDbAdapter.updateDisplayOrder(name1, i);
-                                i++;
-                            } while (cursor.moveToNext());
-                        }
-                        cursor.close();
-                    } catch (SQLException e) {
-                        showCancelableAlert(mRes.getString(R.string.error_delete_database));
-                        if (cursor != null) {
-                            cursor.close();
-                        }
-                    }
+                    //Do the deleting, then show the list without the collection
+                    runInBackground(() -> {
+                        deleteCollection(name);
+                        return null;
+                    }, result -> applyPendingCollectionChanges(),
+                            mRes.getString(R.string.error_delete_database));
                 })
                 .setNegativeButton(mRes.getString(R.string.no), (dialog, id) -> dialog.cancel()));
     }
 
+    /**
+     * Deletes a collection and fixes up the display order of the rest. Called on a background
+     * thread.
+     * @param name collection name
+     * @throws SQLException if a database error occurs
+     */
+    private void deleteCollection(String name) throws SQLException {
+        mDbAdapter.dropCollectionTable(name);
+        //Get a list of all the database tables
+        int i = 0;
+        for (String name1 : mDbAdapter.getCollectionNames()) {
+            // Fix up the displayOrder
+            mDbAdapter.updateDisplayOrder(name1, i);
+            i++;
+        }
+    }
+
     /**
      * Makes a copy of the collection specified by tableName
      * @param tableName The collection name to make a copy of
@@ -908,30 +1364,32 @@ public class MainActivity extends BaseActivity {
             }
         }
 
-        // Pick a new table name
-        String newTableName;
-        int checkNameResult;
-        int attemptNumber = 0;
-        do {
-            String suffixIndex = (attemptNumber == 0) ?  "" : Integer.toString(attemptNumber);
-            newTableName = baseNewTableName + mRes.getString(R.string.copy_name_suffix) + suffixIndex;
-            checkNameResult = mDbAdapter.checkCollectionName(newTableName);
-            attemptNumber++;
-        } while(checkNameResult != -1);
-
-        // Create the new table
-        CollectionListInfo newCollectionListInfo;
-        try {
-            newCollectionListInfo = mDbAdapter.createCollectionCopy(sourceCollectionListInfo, newTableName, insertIndex);
-        } catch (SQLException e){
-            showCancelableAlert(mRes.getString(R.string.error_copying_database));
-            return;
-        }
-
-        // Insert into the collection list and update the database sort order
-        mCollectionListEntries.add(insertIndex, newCollectionListInfo);
-        mNumberOfCollections += 1;
-        handleCollectionsReordered(new ArrayList<>(mCollectionListEntries.subList(0, mNumberOfCollections)));
+        // Pick a new table name and create the new table in the background
+        final String finalBaseNewTableName = baseNewTableName;
+        final String suffix = mRes.getString(R.string.copy_name_suffix);
+        final CollectionListInfo finalSourceCollectionListInfo = sourceCollectionListInfo;
+        final int finalInsertIndex = insertIndex;
+        runInBackground(() -> {
+            String newTableName;
+            int checkNameResult;
+            int attemptNumber = 0;
+            do {
+                String suffixIndex = (attemptNumber == 0) ?  "" : Integer.toString(attemptNumber);
+                newTableName = finalBaseNewTableName + suffix + suffixIndex;
+                checkNameResult = mDbAdapter.checkCollectionName(newTableName);
+                attemptNumber++;
+            } while(checkNameResult != -1);
+            return mDbAdapter.createCollectionCopy(finalSourceCollectionListInfo, newTableName, finalInsertIndex);
+        }, newCollectionListInfo -> {
+            // Insert after the source collection and update the database sort order
+            int newIndex = mCollectionListEntries.indexOf(finalSourceCollectionListInfo) + 1;
+            if (newIndex == 0 || newIndex > mNumberOfCollections) {
+                newIndex = mNumberOfCollections;
+            }
+            mCollectionListEntries.add(newIndex, newCollectionListInfo);
+            mNumberOfCollections += 1;
+            handleCollectionsReordered(new ArrayList<>(mCollectionListEntries.subList(0, mNumberOfCollections)));
+        }, mRes.getString(R.string.error_copying_database));
     }
 
     /**
@@ -941,16 +1399,21 @@ public class MainActivity extends BaseActivity {
      */
     public void handleCollectionsReordered(ArrayList<CollectionListInfo> reorderedList){
 
+        final ArrayList<String> names = new ArrayList<>();
         for(int i = 0; i < reorderedList.size(); i++){
             CollectionListInfo info = reorderedList.get(i);
-            try {
-                mDbAdapter.updateDisplayOrder(info.getName(), i);
-            } catch (SQLException e) {
-                showCancelableAlert(mRes.getString(R.string.error_reordering_databases));
-                return;
-            }
+            names.add(info.getName());
             mCollectionListEntries.set(i, info);
         }
+        saveCollectionListSnapshot();
+
+        // Save the new order in the background
+        runInBackground(() -> {
+            for(int i = 0; i < names.size(); i++){
+                mDbAdapter.updateDisplayOrder(names.get(i), i);
+            }
+            return null;
+        }, null, mRes.getString(R.string.error_reordering_databases));
     }
 
     /**
@@ -959,7 +1422,7 @@ public class MainActivity extends BaseActivity {
      */
     public String buildInfoText(){
         HashSet<String> attributions = new HashSet<>();
-        for(CollectionInfo collection : MainApplication.COLLECTION_TYPES){
+        for(CollectionInfo collection : MainApplication.getAllCollectionTypes()){
             int attributionResId = collection.getAttributionResId();
             if (attributionResId == -1 || attributionResId == R.string.attr_mint) {
                 // US mint attribution is included at the end
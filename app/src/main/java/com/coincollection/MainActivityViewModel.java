@@ -0,0 +1,38 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.coincollection;
+
+import androidx.lifecycle.ViewModel;
+
+import java.util.ArrayList;
+
+/**
+ * Holds the state of MainActivity that should survive configuration changes (like screen
+ * rotations) without having to be parceled into the saved instance state
+ */
+public class MainActivityViewModel extends ViewModel {
+
+    /**
+     * Collections from the startup snapshot, kept while the database opens so a re-created
+     * activity can show them too. The application only hands the snapshot out once.
+     */
+    ArrayList<CollectionListInfo> mSnapshotEntries = null;
+}
@@ -188,6 +188,13 @@ public class ReorderCollections extends Fragment implements OnStartDragListener
         // Inflate the menu - it has the 'Save' button.  This is also another
         // thing necessary for proper 'Up' button operation.
         inflater.inflate(R.menu.menu_reorder_collections, menu);
+        // Searching and statistics aren't available while reordering
+        for (int itemId : new int[] {R.id.search_coins, R.id.collection_stats}) {
+            MenuItem item = menu.findItem(itemId);
+            if (item != null) {
+                item.setVisible(false);
+            }
+        }
     }
 
     @Override
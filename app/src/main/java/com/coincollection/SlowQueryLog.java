@@ -0,0 +1,145 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection;
+
+import static com.spencerpages.MainApplication.APP_NAME;
+
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Debug-only log of database statements that take longer than SLOW_QUERY_THRESHOLD_MS
+ *
+ * Callers take a start time with begin() and pass it to record() along with the statement once
+ * it finishes. Slow statements are logged and the most recent ones are kept for the diagnostics
+ * screen. Statement text that has to be built should only be built once isSlow() returns true.
+ */
+public class SlowQueryLog {
+
+    public final static boolean ENABLED = DatabaseStats.ENABLED;
+
+    // Statements longer than this are recorded (about one frame)
+    public final static long SLOW_QUERY_THRESHOLD_MS = 16;
+    private final static long NANOS_PER_MS = 1000000;
+
+    // Number of slow statements kept for the diagnostics screen
+    private final static int MAX_ENTRIES = 50;
+
+    private final static ArrayDeque<Entry> sEntries = new ArrayDeque<>();
+
+    /**
+     * A slow statement
+     */
+    private static class Entry {
+        final String mSql;
+        final String[] mBindArgs;
+        final long mDurationMs;
+        final String mThreadName;
+
+        Entry(String sql, String[] bindArgs, long durationMs, String threadName) {
+            mSql = sql;
+            mBindArgs = bindArgs;
+            mDurationMs = durationMs;
+            mThreadName = threadName;
+        }
+    }
+
+    /**
+     * Gets the start time of a statement
+     * @return start time to pass to isSlow() and record()
+     */
+    public static long begin() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Checks whether a statement went over the threshold
+     * @param startNanos value returned by begin()
+     * @return true if the statement should be recorded
+     */
+    public static boolean isSlow(long startNanos) {
+        return ENABLED && (System.nanoTime() - startNanos) >= SLOW_QUERY_THRESHOLD_MS * NANOS_PER_MS;
+    }
+
+    /**
+     * Records a statement if it went over the threshold
+     * @param startNanos value returned by begin()
+     * @param sql statement text
+     * @param bindArgs arguments bound to the statement, or null
+     */
+    public static void record(long startNanos, String sql, String[] bindArgs) {
+        if (!isSlow(startNanos)) {
+            return;
+        }
+        long durationMs = (System.nanoTime() - startNanos) / NANOS_PER_MS;
+        String threadName = Thread.currentThread().getName();
+        Log.w(APP_NAME, "Slow query (" + durationMs + " ms on " + threadName + "): " + sql
+                + ((bindArgs != null) ? " " + Arrays.toString(bindArgs) : ""));
+        synchronized (sEntries) {
+            if (sEntries.size() == MAX_ENTRIES) {
+                sEntries.removeFirst();
+            }
+            sEntries.addLast(new Entry(sql, bindArgs, durationMs, threadName));
+        }
+    }
+
+    /**
+     * Clears the recorded statements
+     */
+    public static void reset() {
+        synchronized (sEntries) {
+            sEntries.clear();
+        }
+    }
+
+    /**
+     * Dumps the recorded statements, oldest first
+     * @return JSON array of statements
+     * @throws JSONException if the JSON can't be built
+     */
+    public static JSONArray toJson() throws JSONException {
+        JSONArray result = new JSONArray();
+        synchronized (sEntries) {
+            for (Entry entry : sEntries) {
+                JSONObject entryJson = new JSONObject();
+                entryJson.put("sql", entry.mSql);
+                JSONArray bindArgs = new JSONArray();
+                if (entry.mBindArgs != null) {
+                    for (String bindArg : entry.mBindArgs) {
+                        bindArgs.put(bindArg);
+                    }
+                }
+                entryJson.put("bindArgs", bindArgs);
+                entryJson.put("durationMs", entry.mDurationMs);
+                entryJson.put("thread", entry.mThreadName);
+                result.put(entryJson);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.coincollection.helper;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.LruCache;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.core.view.ViewCompat;
+
+import com.spencerpages.R;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * App-wide memory cache of coin images, decoded off the UI thread at the size they're displayed
+ *
+ * Images are keyed by resource id and target size, so the same drawable shown at two different
+ * sizes gets two entries. Requests made for a view are cancelled if the view gets re-bound to a
+ * different image before the decode finishes (for instance, when a list row is recycled).
+ */
+public class CoinImageCache {
+
+    private static CoinImageCache sInstance = null;
+
+    // Use 1/8th of the available memory for the cache
+    private final static int CACHE_DIVISOR = 8;
+    private final static int NUM_DECODE_THREADS = 2;
+
+    private final LruCache<Long, Bitmap> mCache;
+    private final ExecutorService mDecodeExecutor;
+    private final Handler mMainHandler;
+
+    // Stats for tuning the cache
+    private final AtomicLong mHitCount = new AtomicLong();
+    private final AtomicLong mMissCount = new AtomicLong();
+    private final AtomicLong mDecodeCount = new AtomicLong();
+    private final AtomicLong mDecodeTimeMs = new AtomicLong();
+
+    private CoinImageCache() {
+        int maxKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / CACHE_DIVISOR);
+        mCache = new LruCache<Long, Bitmap>(maxKb) {
+            @Override
+            protected int sizeOf(Long key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+        };
+        mDecodeExecutor = Executors.newFixedThreadPool(NUM_DECODE_THREADS);
+        mMainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Gets the app-wide image cache
+     * @return the image cache
+     */
+    public static synchronized CoinImageCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new CoinImageCache();
+        }
+        return sInstance;
+    }
+
+    /**
+     * Loads a coin image into an ImageView, using the cached bitmap if available
+     * @param imageView view to display the image in
+     * @param resId drawable resource id of the image
+     * @param sizePx size (in pixels) the image will be displayed at
+     */
+    public void loadImage(ImageView imageView, int resId, int sizePx) {
+        load(imageView, resId, sizePx, false);
+    }
+
+    /**
+     * Loads a coin image as the background of a view, using the cached bitmap if available
+     * @param view view to set the background of
+     * @param resId drawable resource id of the image
+     * @param sizePx size (in pixels) the image will be displayed at
+     */
+    public void loadBackground(View view, int resId, int sizePx) {
+        load(view, resId, sizePx, true);
+    }
+
+    /**
+     * Decodes an image into the cache ahead of time, if not already present
+     * @param res resources to decode from
+     * @param resId drawable resource id of the image
+     * @param sizePx size (in pixels) the image will be displayed at
+     */
+    public void prefetch(final Resources res, final int resId, final int sizePx) {
+        final long key = getKey(resId, sizePx);
+        if (mCache.get(key) != null) {
+            return;
+        }
+        mDecodeExecutor.submit(() -> {
+            if (mCache.get(key) == null) {
+                decodeIntoCache(res, resId, sizePx);
+            }
+        });
+    }
+
+    /**
+     * Cancels any pending image request for a view
+     * @param view view to cancel the request for
+     */
+    public void cancel(View view) {
+        Object tag = view.getTag(R.id.coin_image_request);
+        if (tag instanceof ImageRequest) {
+            ((ImageRequest) tag).mFuture.cancel(false);
+        }
+        view.setTag(R.id.coin_image_request, null);
+    }
+
+    /**
+     * Loads an image into a view
+     * @param view view to update
+     * @param resId drawable resource id of the image
+     * @param sizePx size (in pixels) the image will be displayed at
+     * @param asBackground if true, set the image as the background instead of the image
+     */
+    private void load(final View view, final int resId, final int sizePx, final boolean asBackground) {
+        final Resources res = view.getResources();
+        final long key = getKey(resId, sizePx);
+
+        // Skip if this image is already being loaded for this view
+        Object tag = view.getTag(R.id.coin_image_request);
+        if (tag instanceof ImageRequest && ((ImageRequest) tag).mKey == key) {
+            return;
+        }
+        cancel(view);
+
+        Bitmap bitmap = mCache.get(key);
+        if (bitmap != null) {
+            mHitCount.incrementAndGet();
+            setDrawable(view, new BitmapDrawable(res, bitmap), asBackground);
+            return;
+        }
+        mMissCount.incrementAndGet();
+
+        // Show an empty placeholder with the same size until the decode finishes, so that
+        // the layout doesn't jump around
+        setDrawable(view, new PlaceholderDrawable(sizePx), asBackground);
+
+        final ImageRequest request = new ImageRequest(key);
+        request.mFuture = mDecodeExecutor.submit(() -> {
+            Bitmap result = mCache.get(key);
+            if (result == null) {
+                result = decodeIntoCache(res, resId, sizePx);
+            }
+            final Bitmap decoded = result;
+            mMainHandler.post(() -> {
+                // Only apply if the view hasn't been re-bound to something else
+                if (view.getTag(R.id.coin_image_request) != request) {
+                    return;
+                }
+                view.setTag(R.id.coin_image_request, null);
+                if (decoded != null) {
+                    setDrawable(view, new BitmapDrawable(res, decoded), asBackground);
+                } else {
+                    // Not a bitmap resource, so fall back to letting the view load it
+                    if (asBackground) {
+                        view.setBackgroundResource(resId);
+                    } else {
+                        ((ImageView) view).setImageResource(resId);
+                    }
+                }
+            });
+        });
+        view.setTag(R.id.coin_image_request, request);
+    }
+
+    /**
+     * Decodes a bitmap sampled down to the target size and adds it to the cache
+     * @param res resources to decode from
+     * @param resId drawable resource id of the image
+     * @param sizePx size (in pixels) the image will be displayed at
+     * @return the decoded bitmap, or null if it couldn't be decoded
+     */
+    private Bitmap decodeIntoCache(Resources res, int resId, int sizePx) {
+        long startTime = SystemClock.uptimeMillis();
+
+        // Read the dimensions first to figure out how much to sample the image down
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        options.inScaled = false;
+        BitmapFactory.decodeResource(res, resId, options);
+        int largestSide = Math.max(options.outWidth, options.outHeight);
+        int sampleSize = 1;
+        while (sizePx > 0 && largestSide / (sampleSize * 2) >= sizePx) {
+            sampleSize *= 2;
+        }
+
+        // Then do the actual decode
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        Bitmap bitmap = BitmapFactory.decodeResource(res, resId, options);
+        if (bitmap != null && sampleSize > 1 && bitmap.getDensity() != Bitmap.DENSITY_NONE) {
+            // Keep the same display size as the full image
+            bitmap.setDensity(bitmap.getDensity() / sampleSize);
+        }
+
+        mDecodeCount.incrementAndGet();
+        mDecodeTimeMs.addAndGet(SystemClock.uptimeMillis() - startTime);
+        if (bitmap != null) {
+            mCache.put(getKey(resId, sizePx), bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Sets the drawable of a view
+     * @param view view to update
+     * @param drawable drawable to set
+     * @param asBackground if true, set the drawable as the background instead of the image
+     */
+    private static void setDrawable(View view, Drawable drawable, boolean asBackground) {
+        if (asBackground) {
+            ViewCompat.setBackground(view, drawable);
+        } else {
+            ((ImageView) view).setImageDrawable(drawable);
+        }
+    }
+
+    /**
+     * Creates the cache key from the resource id and size
+     * @param resId drawable resource id of the image
+     * @param sizePx size (in pixels) the image will be displayed at
+     * @return the cache key
+     */
+    private static long getKey(int resId, int sizePx) {
+        return ((long) resId << 32) | (sizePx & 0xFFFFFFFFL);
+    }
+
+    /** @return number of requests that were served from the cache */
+    public long getHitCount() {
+        return mHitCount.get();
+    }
+
+    /** @return number of requests that needed a decode */
+    public long getMissCount() {
+        return mMissCount.get();
+    }
+
+    /** @return number of images that have been decoded (including prefetches) */
+    public long getDecodeCount() {
+        return mDecodeCount.get();
+    }
+
+    /** @return total time (in ms) spent decoding images */
+    public long getDecodeTimeMs() {
+        return mDecodeTimeMs.get();
+    }
+
+    /** @return human readable summary of the cache stats */
+    public String getStatsString() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        long decodes = getDecodeCount();
+        return "Image cache: " + hits + "/" + total + " hits, " + decodes + " decodes, " +
+                (decodes == 0 ? 0 : getDecodeTimeMs() / decodes) + "ms avg decode, " +
+                mCache.size() + "/" + mCache.maxSize() + "KB used";
+    }
+
+    /**
+     * Tracks a pending image request for a view
+     */
+    private static class ImageRequest {
+        final long mKey;
+        Future<?> mFuture;
+
+        ImageRequest(long key) {
+            mKey = key;
+        }
+    }
+
+    /**
+     * Transparent drawable with a fixed size, used while an image is loading
+     */
+    private static class PlaceholderDrawable extends ColorDrawable {
+        private final int mSizePx;
+
+        PlaceholderDrawable(int sizePx) {
+            super(Color.TRANSPARENT);
+            mSizePx = sizePx;
+        }
+
+        @Override
+        public int getIntrinsicWidth() {
+            return mSizePx;
+        }
+
+        @Override
+        public int getIntrinsicHeight() {
+            return mSizePx;
+        }
+    }
+}
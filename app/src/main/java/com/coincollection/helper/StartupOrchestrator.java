@@ -0,0 +1,288 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection.helper;
+
+import static com.spencerpages.MainApplication.APP_NAME;
+
+import android.util.Log;
+
+import com.spencerpages.BuildConfig;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the app's startup work as a set of named tasks with dependencies
+ *
+ * Tasks without outstanding dependencies run in parallel on a small pool of background threads.
+ * Work that has to happen on a particular thread (like the database open, which runs on the
+ * activity's async task) can join in with runTask(), which waits for its dependencies and then
+ * runs on the calling thread. Each task's wait and run times are recorded so the critical path
+ * through startup can be measured.
+ */
+public class StartupOrchestrator {
+
+    private final static int NUM_THREADS = 2;
+    public final static long NANOS_PER_MS = 1000000L;
+
+    private final HashMap<String, Task> mTasks = new HashMap<>();
+    // Tasks in the order they were added, for reporting
+    private final ArrayList<Task> mTaskList = new ArrayList<>();
+    private final ThreadPoolExecutor mExecutor;
+    private final long mCreatedNanos = System.nanoTime();
+    private boolean mStarted = false;
+
+    /**
+     * A single unit of startup work
+     */
+    private static class Task {
+        final String mName;
+        final Task[] mDependencies;
+        final Runnable mWork;
+        final ArrayList<Task> mDependents = new ArrayList<>();
+        final CountDownLatch mDone = new CountDownLatch(1);
+        int mRemainingDependencies;
+        long mAddedNanos;
+        long mStartNanos;
+        long mEndNanos;
+
+        Task(String name, Task[] dependencies, Runnable work) {
+            mName = name;
+            mDependencies = dependencies;
+            mWork = work;
+        }
+
+        long getRunNanos() {
+            return mEndNanos - mStartNanos;
+        }
+    }
+
+    public StartupOrchestrator() {
+        mExecutor = new ThreadPoolExecutor(NUM_THREADS, NUM_THREADS, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        // Let the threads go away once startup is over
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Adds a task to run on the background threads. Dependencies must already have been added,
+     * which also rules out cycles.
+     * @param name unique task name
+     * @param work work to perform
+     * @param dependsOn names of tasks that must finish before this one starts
+     */
+    public synchronized void addTask(String name, Runnable work, String... dependsOn) {
+        Task task = registerTask(name, work, dependsOn);
+        if (mStarted && task.mRemainingDependencies == 0) {
+            submit(task);
+        }
+    }
+
+    /**
+     * Starts running the tasks added so far. Tasks added after this start as soon as their
+     * dependencies finish.
+     */
+    public synchronized void start() {
+        mStarted = true;
+        for (Task task : mTaskList) {
+            if (task.mRemainingDependencies == 0 && task.mWork != null && task.mStartNanos == 0) {
+                submit(task);
+            }
+        }
+    }
+
+    /**
+     * Waits for a task's dependencies, then runs the task on the calling thread. If a task with
+     * this name has already been run, the work runs again but the first timing is kept.
+     * @param name unique task name
+     * @param work work to perform
+     * @param dependsOn names of tasks that must finish before this one starts
+     * @return result of the work
+     */
+    public <T> T runTask(String name, Callable<T> work, String... dependsOn) {
+        Task task = null;
+        synchronized (this) {
+            if (!mTasks.containsKey(name)) {
+                task = registerTask(name, null, dependsOn);
+            }
+        }
+        for (String dependency : dependsOn) {
+            awaitTask(dependency);
+        }
+        if (task != null) {
+            task.mStartNanos = System.nanoTime();
+        }
+        try {
+            return work.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (task != null) {
+                complete(task);
+            }
+        }
+    }
+
+    /**
+     * Blocks until a task has finished. Returns immediately for unknown tasks.
+     * @param name task name
+     */
+    public void awaitTask(String name) {
+        Task task;
+        synchronized (this) {
+            task = mTasks.get(name);
+        }
+        if (task == null) {
+            return;
+        }
+        try {
+            task.mDone.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the longest chain of dependent tasks, measured by run time
+     * @return critical path length in milliseconds, counting only finished tasks
+     */
+    public synchronized long getCriticalPathMs() {
+        long longestNanos = 0;
+        HashMap<Task, Long> pathNanos = new HashMap<>();
+        for (Task task : mTaskList) {
+            longestNanos = Math.max(longestNanos, getPathNanos(task, pathNanos));
+        }
+        return longestNanos / NANOS_PER_MS;
+    }
+
+    /**
+     * Builds a human-readable summary of the startup timings
+     * @return one line per task followed by the critical path
+     */
+    public synchronized String getTimingReport() {
+        StringBuilder report = new StringBuilder();
+        for (Task task : mTaskList) {
+            if (task.mDone.getCount() != 0) {
+                report.append(String.format(Locale.US, "%s: not finished\n", task.mName));
+                continue;
+            }
+            report.append(String.format(Locale.US, "%s: started at %d ms, waited %d ms, ran %d ms\n",
+                    task.mName,
+                    (task.mStartNanos - mCreatedNanos) / NANOS_PER_MS,
+                    (task.mStartNanos - task.mAddedNanos) / NANOS_PER_MS,
+                    task.getRunNanos() / NANOS_PER_MS));
+        }
+        report.append(String.format(Locale.US, "critical path: %d ms", getCriticalPathMs()));
+        return report.toString();
+    }
+
+    /**
+     * Creates a task and links it to its dependencies (must hold the lock)
+     */
+    private Task registerTask(String name, Runnable work, String[] dependsOn) {
+        if (mTasks.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate startup task " + name);
+        }
+        Task[] dependencies = new Task[dependsOn.length];
+        for (int i = 0; i < dependsOn.length; i++) {
+            dependencies[i] = mTasks.get(dependsOn[i]);
+            if (dependencies[i] == null) {
+                throw new IllegalArgumentException("Unknown startup task " + dependsOn[i]);
+            }
+        }
+        Task task = new Task(name, dependencies, work);
+        task.mAddedNanos = System.nanoTime();
+        for (Task dependency : dependencies) {
+            if (dependency.mDone.getCount() != 0) {
+                dependency.mDependents.add(task);
+                task.mRemainingDependencies++;
+            }
+        }
+        mTasks.put(name, task);
+        mTaskList.add(task);
+        return task;
+    }
+
+    /**
+     * Queues a task on the background threads (must hold the lock)
+     */
+    private void submit(final Task task) {
+        // Mark the task as started so start() doesn't submit it twice
+        task.mStartNanos = System.nanoTime();
+        mExecutor.execute(() -> {
+            task.mStartNanos = System.nanoTime();
+            try {
+                task.mWork.run();
+            } catch (RuntimeException e) {
+                // Startup work is only an optimization, so a failure here just means the
+                // work will happen later on demand
+                Log.e(APP_NAME, "Startup task " + task.mName + " failed", e);
+            } finally {
+                complete(task);
+            }
+        });
+    }
+
+    /**
+     * Records that a task finished and starts any tasks that were waiting on it
+     */
+    private synchronized void complete(Task task) {
+        task.mEndNanos = System.nanoTime();
+        if(BuildConfig.DEBUG) {
+            Log.d(APP_NAME, "Startup task " + task.mName + " ran in "
+                    + (task.getRunNanos() / NANOS_PER_MS) + " ms");
+        }
+        for (Task dependent : task.mDependents) {
+            dependent.mRemainingDependencies--;
+            if (dependent.mRemainingDependencies == 0 && dependent.mWork != null && mStarted) {
+                submit(dependent);
+            }
+        }
+        task.mDependents.clear();
+        task.mDone.countDown();
+    }
+
+    /**
+     * Gets the run time of the longest chain ending at a task
+     */
+    private long getPathNanos(Task task, HashMap<Task, Long> pathNanos) {
+        Long cached = pathNanos.get(task);
+        if (cached != null) {
+            return cached;
+        }
+        long longestDependency = 0;
+        for (Task dependency : task.mDependencies) {
+            longestDependency = Math.max(longestDependency, getPathNanos(dependency, pathNanos));
+        }
+        long result = (task.mDone.getCount() == 0) ? longestDependency + task.getRunNanos() : longestDependency;
+        pathNanos.put(task, result);
+        return result;
+    }
+}
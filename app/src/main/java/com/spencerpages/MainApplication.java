@@ -20,10 +20,17 @@
 
 package com.spencerpages;
 
+import static com.coincollection.helper.StartupOrchestrator.NANOS_PER_MS;
+
 import android.app.Application;
+import android.util.Log;
 
+import com.coincollection.CoinStore;
 import com.coincollection.CollectionInfo;
+import com.coincollection.CollectionListInfo;
+import com.coincollection.CollectionListSnapshot;
 import com.coincollection.DatabaseAdapter;
+import com.coincollection.helper.StartupOrchestrator;
 import com.spencerpages.collections.AmericanEagleSilverDollars;
 import com.spencerpages.collections.AmericanInnovationDollars;
 import com.spencerpages.collections.AmericanWomenQuarters;
@@ -52,6 +59,11 @@ import com.spencerpages.collections.SusanBAnthonyDollars;
 import com.spencerpages.collections.WalkingLibertyHalfDollars;
 import com.spencerpages.collections.WashingtonQuarters;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 public class MainApplication extends Application {
 
     // App name string, used when printing log messages
@@ -62,47 +74,108 @@ public class MainApplication extends Application {
     // dialogs have been seen before.
     public static final String PREFS = "mainPreferences";
 
-    // List of all the supported collection types by the app.  New collections
-    // should be added here
-    public static final CollectionInfo[] COLLECTION_TYPES =
+    // List of all the supported collection types by the app, in the order they're shown.  New
+    // collections should be added here and in createCollectionType().  Only the type names are
+    // referenced here (these are compile-time constants), so a collection type's class and its
+    // image tables aren't loaded until the type is first used.
+    private static final String[] COLLECTION_TYPE_NAMES =
             {
-                    new LincolnCents(),
-                    new JeffersonNickels(),
-                    new RooseveltDimes(),
-                    new WashingtonQuarters(),
-                    new StateQuarters(),
-                    new NationalParkQuarters(),
-                    new KennedyHalfDollars(),
-                    new EisenhowerDollar(),
-                    new SusanBAnthonyDollars(),
-                    new NativeAmericanDollars(),
-                    new PresidentialDollars(),
-                    new IndianHeadCents(),
-                    new LibertyHeadNickels(),
-                    new BuffaloNickels(),
-                    new BarberDimes(),
-                    new MercuryDimes(),
-                    new BarberQuarters(),
-                    new StandingLibertyQuarters(),
-                    new BarberHalfDollars(),
-                    new WalkingLibertyHalfDollars(),
-                    new FranklinHalfDollars(),
-                    new MorganDollars(),
-                    new PeaceDollars(),
-                    new AmericanEagleSilverDollars(),
-                    new FirstSpouseGoldCoins(),
-                    new AmericanInnovationDollars(),
-                    new AmericanWomenQuarters(),
+                    LincolnCents.COLLECTION_TYPE,
+                    JeffersonNickels.COLLECTION_TYPE,
+                    RooseveltDimes.COLLECTION_TYPE,
+                    WashingtonQuarters.COLLECTION_TYPE,
+                    StateQuarters.COLLECTION_TYPE,
+                    NationalParkQuarters.COLLECTION_TYPE,
+                    KennedyHalfDollars.COLLECTION_TYPE,
+                    EisenhowerDollar.COLLECTION_TYPE,
+                    SusanBAnthonyDollars.COLLECTION_TYPE,
+                    NativeAmericanDollars.COLLECTION_TYPE,
+                    PresidentialDollars.COLLECTION_TYPE,
+                    IndianHeadCents.COLLECTION_TYPE,
+                    LibertyHeadNickels.COLLECTION_TYPE,
+                    BuffaloNickels.COLLECTION_TYPE,
+                    BarberDimes.COLLECTION_TYPE,
+                    MercuryDimes.COLLECTION_TYPE,
+                    BarberQuarters.COLLECTION_TYPE,
+                    StandingLibertyQuarters.COLLECTION_TYPE,
+                    BarberHalfDollars.COLLECTION_TYPE,
+                    WalkingLibertyHalfDollars.COLLECTION_TYPE,
+                    FranklinHalfDollars.COLLECTION_TYPE,
+                    MorganDollars.COLLECTION_TYPE,
+                    PeaceDollars.COLLECTION_TYPE,
+                    AmericanEagleSilverDollars.COLLECTION_TYPE,
+                    FirstSpouseGoldCoins.COLLECTION_TYPE,
+                    AmericanInnovationDollars.COLLECTION_TYPE,
+                    AmericanWomenQuarters.COLLECTION_TYPE,
             };
 
+    // Collection type name to index into COLLECTION_TYPE_NAMES
+    private static final HashMap<String, Integer> COLLECTION_TYPE_INDEXES = new HashMap<>();
+
+    static {
+        for (int i = 0; i < COLLECTION_TYPE_NAMES.length; i++) {
+            COLLECTION_TYPE_INDEXES.put(COLLECTION_TYPE_NAMES[i], i);
+        }
+    }
+
+    // Collection type objects, created on first use
+    private static final AtomicReferenceArray<CollectionInfo> COLLECTION_TYPES =
+            new AtomicReferenceArray<>(COLLECTION_TYPE_NAMES.length);
+
     public static final String DATABASE_NAME = "CoinCollection";
 
-    private final DatabaseAdapter mDbAdapter = new DatabaseAdapter(this);
+    // Names of the startup tasks
+    public static final String STARTUP_CATALOG = "catalog";
+    public static final String STARTUP_PREFERENCES = "preferences";
+    public static final String STARTUP_DATABASE = "database";
+
+    private final CoinStore mDbAdapter = new DatabaseAdapter(this);
+    private final StartupOrchestrator mStartup = new StartupOrchestrator();
+    // Collection list snapshot read during startup, until MainActivity takes it
+    private volatile ArrayList<CollectionListInfo> mStartupSnapshot = null;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // Start the startup work that doesn't depend on anything. The database open is added
+        // by MainActivity, since it runs on its async task and needs the catalog first.
+        mStartup.addTask(STARTUP_CATALOG, this::warmCollectionTypes);
+        mStartup.addTask(STARTUP_PREFERENCES,
+                () -> getSharedPreferences(PREFS, MODE_PRIVATE).getAll());
+        mStartup.start();
+    }
 
-    public DatabaseAdapter getDbAdapter() {
+    public CoinStore getDbAdapter() {
         return mDbAdapter;
     }
 
+    public StartupOrchestrator getStartup() {
+        return mStartup;
+    }
+
+    /**
+     * Takes the collection list snapshot read during startup, waiting for the read to finish.
+     * It's only handed out once, since it may be out of date after that.
+     * @return snapshot entries, or null if there isn't one or it was already taken
+     */
+    public ArrayList<CollectionListInfo> takeStartupSnapshot() {
+        mStartup.awaitTask(STARTUP_CATALOG);
+        ArrayList<CollectionListInfo> snapshot = mStartupSnapshot;
+        mStartupSnapshot = null;
+        return snapshot;
+    }
+
+    /**
+     * Loads the collection types used by the collections in the startup snapshot, so they're
+     * ready by the time the main list and any database upgrade need them
+     */
+    private void warmCollectionTypes() {
+        // Reading the snapshot creates the collection type for each entry. The entries are kept
+        // so MainActivity can show them without reading the file on the UI thread.
+        mStartupSnapshot = CollectionListSnapshot.read(getFilesDir());
+    }
+
     /**
      *  DATABASE_VERSION Tracks the current database version, and is essential for periodic
      *                   database updating.  It should be raised anytime we need to insert new
@@ -125,8 +198,13 @@ public class MainApplication extends Application {
      *                   Version 16 - Used in Version 3.1.0 of the app
      *                   Version 17 - Used in Version 3.3.0 of the app
      *                   Version 18 - Used in Version 3.4.0 of the app
+     *                   Version 19 - Adds the full-text search index
+     *                   Version 20 - Adds the collection statistics summary table
+     *                   Version 21 - Adds indexes for the coin list, collected counts and
+     *                                collection name lookups
+     *                   Version 22 - Adds the indexed mint code and variety columns
      */
-    public static final int DATABASE_VERSION = 18;
+    public static final int DATABASE_VERSION = 22;
 
     /**
      * Get the collection index from collection type name
@@ -134,11 +212,95 @@ public class MainApplication extends Application {
      * @return int index or -1 if not found
      */
     public static int getIndexFromCollectionNameStr (String collectionTypeName) {
-        for (int i = 0; i < COLLECTION_TYPES.length; i++) {
-            if (COLLECTION_TYPES[i].getCoinType().equals(collectionTypeName)) {
-                return i;
+        Integer index = COLLECTION_TYPE_INDEXES.get(collectionTypeName);
+        return (index != null) ? index : -1;
+    }
+
+    /**
+     * Gets the number of supported collection types
+     * @return number of collection types
+     */
+    public static int getNumberOfCollectionTypes() {
+        return COLLECTION_TYPE_NAMES.length;
+    }
+
+    /**
+     * Gets a collection type name without loading the collection type
+     * @param index collection type index
+     * @return collection type name
+     */
+    public static String getCollectionTypeName(int index) {
+        return COLLECTION_TYPE_NAMES[index];
+    }
+
+    /**
+     * Gets a collection type, creating it on first use
+     * @param index collection type index
+     * @return collection type object
+     */
+    public static CollectionInfo getCollectionType(int index) {
+        CollectionInfo collectionInfo = COLLECTION_TYPES.get(index);
+        if (collectionInfo == null) {
+            long startNanos = System.nanoTime();
+            collectionInfo = createCollectionType(COLLECTION_TYPE_NAMES[index]);
+            if (!COLLECTION_TYPES.compareAndSet(index, null, collectionInfo)) {
+                // Another thread got there first
+                collectionInfo = COLLECTION_TYPES.get(index);
+            } else if (BuildConfig.DEBUG) {
+                Log.d(APP_NAME, "Loaded collection type " + COLLECTION_TYPE_NAMES[index] + " in "
+                        + ((System.nanoTime() - startNanos) / NANOS_PER_MS) + " ms");
             }
         }
-        return -1;
+        return collectionInfo;
+    }
+
+    /**
+     * Gets all of the collection types, creating any that haven't been used yet
+     * @return list of collection types in display order
+     */
+    public static List<CollectionInfo> getAllCollectionTypes() {
+        ArrayList<CollectionInfo> collectionTypes = new ArrayList<>(COLLECTION_TYPE_NAMES.length);
+        for (int i = 0; i < COLLECTION_TYPE_NAMES.length; i++) {
+            collectionTypes.add(getCollectionType(i));
+        }
+        return collectionTypes;
+    }
+
+    /**
+     * Creates the object for a collection type
+     * @param collectionTypeName collection type name
+     * @return new collection type object
+     */
+    private static CollectionInfo createCollectionType(String collectionTypeName) {
+        switch (collectionTypeName) {
+            case LincolnCents.COLLECTION_TYPE: return new LincolnCents();
+            case JeffersonNickels.COLLECTION_TYPE: return new JeffersonNickels();
+            case RooseveltDimes.COLLECTION_TYPE: return new RooseveltDimes();
+            case WashingtonQuarters.COLLECTION_TYPE: return new WashingtonQuarters();
+            case StateQuarters.COLLECTION_TYPE: return new StateQuarters();
+            case NationalParkQuarters.COLLECTION_TYPE: return new NationalParkQuarters();
+            case KennedyHalfDollars.COLLECTION_TYPE: return new KennedyHalfDollars();
+            case EisenhowerDollar.COLLECTION_TYPE: return new EisenhowerDollar();
+            case SusanBAnthonyDollars.COLLECTION_TYPE: return new SusanBAnthonyDollars();
+            case NativeAmericanDollars.COLLECTION_TYPE: return new NativeAmericanDollars();
+            case PresidentialDollars.COLLECTION_TYPE: return new PresidentialDollars();
+            case IndianHeadCents.COLLECTION_TYPE: return new IndianHeadCents();
+            case LibertyHeadNickels.COLLECTION_TYPE: return new LibertyHeadNickels();
+            case BuffaloNickels.COLLECTION_TYPE: return new BuffaloNickels();
+            case BarberDimes.COLLECTION_TYPE: return new BarberDimes();
+            case MercuryDimes.COLLECTION_TYPE: return new MercuryDimes();
+            case BarberQuarters.COLLECTION_TYPE: return new BarberQuarters();
+            case StandingLibertyQuarters.COLLECTION_TYPE: return new StandingLibertyQuarters();
+            case BarberHalfDollars.COLLECTION_TYPE: return new BarberHalfDollars();
+            case WalkingLibertyHalfDollars.COLLECTION_TYPE: return new WalkingLibertyHalfDollars();
+            case FranklinHalfDollars.COLLECTION_TYPE: return new FranklinHalfDollars();
+            case MorganDollars.COLLECTION_TYPE: return new MorganDollars();
+            case PeaceDollars.COLLECTION_TYPE: return new PeaceDollars();
+            case AmericanEagleSilverDollars.COLLECTION_TYPE: return new AmericanEagleSilverDollars();
+            case FirstSpouseGoldCoins.COLLECTION_TYPE: return new FirstSpouseGoldCoins();
+            case AmericanInnovationDollars.COLLECTION_TYPE: return new AmericanInnovationDollars();
+            case AmericanWomenQuarters.COLLECTION_TYPE: return new AmericanWomenQuarters();
+            default: throw new IllegalArgumentException("Unknown collection type " + collectionTypeName);
+        }
     }
 }
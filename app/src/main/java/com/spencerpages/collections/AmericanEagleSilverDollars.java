@@ -22,14 +22,15 @@ package com.spencerpages.collections;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionInfo;
 import com.coincollection.CollectionListInfo;
 import com.coincollection.DatabaseHelper;
+import com.coincollection.core.CoinCreationParams;
 import com.spencerpages.R;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class AmericanEagleSilverDollars extends CollectionInfo {
@@ -66,31 +67,31 @@ public class AmericanEagleSilverDollars extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
 
-        Integer startYear       = (Integer) parameters.get(CoinPageCreator.OPT_START_YEAR);
-        Integer stopYear        = (Integer) parameters.get(CoinPageCreator.OPT_STOP_YEAR);
-        Boolean showBurnished   = (Boolean) parameters.get(CoinPageCreator.OPT_CHECKBOX_2);
+        int startYear           = params.getStartYear();
+        int stopYear            = params.getStopYear();
+        boolean showBurnished   = params.getCheckbox(2);
         int coinIndex = 0;
 
         for(int i = startYear; i <= stopYear; i++){
 
-            coinList.add(new CoinSlot(Integer.toString(i), "", coinIndex++));
+            coinList.add(getYearString(i), "", coinIndex++);
 
             if(showBurnished){
                 if(i == 2006){
-                    coinList.add(new CoinSlot("2006 W Burnished", "", coinIndex++));
+                    coinList.add("2006 W Burnished", "", coinIndex++);
                 }
 
                 else if(i == 2007){
-                    coinList.add(new CoinSlot("2007 W Burnished", "", coinIndex++));
+                    coinList.add("2007 W Burnished", "", coinIndex++);
                 }
 
                 else if(i == 2008){
-                    coinList.add(new CoinSlot("2008 W Burnished", "", coinIndex++));
+                    coinList.add("2008 W Burnished", "", coinIndex++);
                 }
                 else if(i == 2011){
-                    coinList.add(new CoinSlot("2011 W Burnished", "", coinIndex++));
+                    coinList.add("2011 W Burnished", "", coinIndex++);
                 }
             }
         }
@@ -22,11 +22,13 @@ package com.spencerpages.collections;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionInfo;
 import com.coincollection.CollectionListInfo;
 import com.coincollection.DatabaseHelper;
+import com.coincollection.core.CoinCreationParams;
 import com.spencerpages.R;
 
 import java.util.ArrayList;
@@ -95,11 +97,11 @@ public class AmericanInnovationDollars extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
 
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showD           = params.getShowMintMark(2);
         int coinIndex = 0;
 
         for(Object[] coinData : COIN_IDENTIFIERS){
@@ -107,13 +109,13 @@ public class AmericanInnovationDollars extends CollectionInfo {
 
             if(showMintMarks){
                 if(showP){
-                    coinList.add(new CoinSlot(identifier, "P", coinIndex++));
+                    coinList.add(identifier, "P", coinIndex++);
                 }
                 if(showD){
-                    coinList.add(new CoinSlot(identifier, "D", coinIndex++));
+                    coinList.add(identifier, "D", coinIndex++);
                 }
             } else {
-                coinList.add(new CoinSlot(identifier, "", coinIndex++));
+                coinList.add(identifier, "", coinIndex++);
             }
         }
     }
@@ -22,13 +22,14 @@ package com.spencerpages.collections;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionInfo;
 import com.coincollection.CollectionListInfo;
+import com.coincollection.core.CoinCreationParams;
 import com.spencerpages.R;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class AmericanWomenQuarters extends CollectionInfo {
@@ -87,12 +88,12 @@ public class AmericanWomenQuarters extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
 
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
-        Boolean showS           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_3);
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showD           = params.getShowMintMark(2);
+        boolean showS           = params.getShowMintMark(3);
         int coinIndex = 0;
 
         for (Object[] parksImageIdentifier : COIN_IDENTIFIERS) {
@@ -100,16 +101,16 @@ public class AmericanWomenQuarters extends CollectionInfo {
 
             if (showMintMarks) {
                 if (showP) {
-                    coinList.add(new CoinSlot(identifier, "P", coinIndex++));
+                    coinList.add(identifier, "P", coinIndex++);
                 }
                 if (showD) {
-                    coinList.add(new CoinSlot(identifier, "D", coinIndex++));
+                    coinList.add(identifier, "D", coinIndex++);
                 }
                 if (showS) {
-                    coinList.add(new CoinSlot(identifier, "S", coinIndex++));
+                    coinList.add(identifier, "S", coinIndex++);
                 }
             } else {
-                coinList.add(new CoinSlot(identifier, "", coinIndex++));
+                coinList.add(identifier, "", coinIndex++);
             }
         }
     }
@@ -22,13 +22,14 @@ package com.spencerpages.collections;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionListInfo;
 import com.spencerpages.R;
 import com.coincollection.CollectionInfo;
+import com.coincollection.core.CoinCreationParams;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class BarberDimes extends CollectionInfo {
@@ -82,40 +83,40 @@ public class BarberDimes extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
-
-        Integer startYear       = (Integer) parameters.get(CoinPageCreator.OPT_START_YEAR);
-        Integer stopYear        = (Integer) parameters.get(CoinPageCreator.OPT_STOP_YEAR);
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
-        Boolean showS           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_3);
-        Boolean showO           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_4);
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
+
+        int startYear           = params.getStartYear();
+        int stopYear            = params.getStopYear();
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showD           = params.getShowMintMark(2);
+        boolean showS           = params.getShowMintMark(3);
+        boolean showO           = params.getShowMintMark(4);
         int coinIndex = 0;
 
         for(int i = startYear; i <= stopYear; i++){
 
             if(showMintMarks){
                 if(showP){
-                    coinList.add(new CoinSlot(Integer.toString(i), "", coinIndex++));
+                    coinList.add(getYearString(i), "", coinIndex++);
                 }
                 if(showD){
                     if( (i >= 1906 && i <= 1912) || i == 1914 ){
-                        coinList.add(new CoinSlot(Integer.toString(i), "D", coinIndex++));
+                        coinList.add(getYearString(i), "D", coinIndex++);
                     }
                 }
                 if(showS){
                     if(i != 1894){
-                        coinList.add(new CoinSlot(Integer.toString(i), "S", coinIndex++));
+                        coinList.add(getYearString(i), "S", coinIndex++);
                     }
                 }
                 if(showO){
                     if(i != 1904 && i < 1910 ){
-                        coinList.add(new CoinSlot(Integer.toString(i), "O", coinIndex++));
+                        coinList.add(getYearString(i), "O", coinIndex++);
                     }
                 }
             } else {
-                coinList.add(new CoinSlot(Integer.toString(i), "", coinIndex++));
+                coinList.add(getYearString(i), "", coinIndex++);
             }
         }
     }
@@ -22,13 +22,14 @@ package com.spencerpages.collections;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionListInfo;
 import com.spencerpages.R;
 import com.coincollection.CollectionInfo;
+import com.coincollection.core.CoinCreationParams;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class BuffaloNickels extends CollectionInfo {
@@ -77,14 +78,14 @@ public class BuffaloNickels extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
-
-        Integer startYear       = (Integer) parameters.get(CoinPageCreator.OPT_START_YEAR);
-        Integer stopYear        = (Integer) parameters.get(CoinPageCreator.OPT_STOP_YEAR);
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
-        Boolean showS           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_3);
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
+
+        int startYear           = params.getStartYear();
+        int stopYear            = params.getStopYear();
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showD           = params.getShowMintMark(2);
+        boolean showS           = params.getShowMintMark(3);
         int coinIndex = 0;
 
         for(int i = startYear; i <= stopYear; i++){
@@ -97,35 +98,35 @@ public class BuffaloNickels extends CollectionInfo {
                 if(showP){
                     if(i != 1931 && i != 1938){
                         if(i == 1913){
-                            coinList.add(new CoinSlot(Integer.toString(i), " Type 1", coinIndex++));
-                            coinList.add(new CoinSlot(Integer.toString(i), " Type 2", coinIndex++));
+                            coinList.add(getYearString(i), " Type 1", coinIndex++);
+                            coinList.add(getYearString(i), " Type 2", coinIndex++);
                         } else {
-                            coinList.add(new CoinSlot(Integer.toString(i), "", coinIndex++));
+                            coinList.add(getYearString(i), "", coinIndex++);
                         }
                     }
                 }
                 if(showD){
                     if(i != 1921 && i != 1923 && i != 1930 && i != 1931){
                         if(i == 1913){
-                            coinList.add(new CoinSlot(Integer.toString(i), " D Type 1", coinIndex++));
-                            coinList.add(new CoinSlot(Integer.toString(i), " D Type 2", coinIndex++));
+                            coinList.add(getYearString(i), " D Type 1", coinIndex++);
+                            coinList.add(getYearString(i), " D Type 2", coinIndex++);
                         } else {
-                            coinList.add(new CoinSlot(Integer.toString(i), "D", coinIndex++));
+                            coinList.add(getYearString(i), "D", coinIndex++);
                         }
                     }
                 }
                 if(showS){
                     if(i != 1934 && i != 1938){
                         if(i == 1913){
-                            coinList.add(new CoinSlot(Integer.toString(i), " S Type 1", coinIndex++));
-                            coinList.add(new CoinSlot(Integer.toString(i), " S Type 2", coinIndex++));
+                            coinList.add(getYearString(i), " S Type 1", coinIndex++);
+                            coinList.add(getYearString(i), " S Type 2", coinIndex++);
                         } else {
-                            coinList.add(new CoinSlot(Integer.toString(i), "S", coinIndex++));
+                            coinList.add(getYearString(i), "S", coinIndex++);
                         }
                     }
                 }
             } else {
-                coinList.add(new CoinSlot(Integer.toString(i), "", coinIndex++));
+                coinList.add(getYearString(i), "", coinIndex++);
             }
         }
     }
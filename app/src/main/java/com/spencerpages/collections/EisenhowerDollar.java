@@ -20,19 +20,21 @@
 
 package com.spencerpages.collections;
 
+import static com.coincollection.CoinSlot.COIN_SLOT_MINT_CODE_WHERE_CLAUSE;
 import static com.coincollection.CoinSlot.COL_COIN_IDENTIFIER;
-import static com.coincollection.CoinSlot.COL_COIN_MINT;
+import static com.coincollection.DatabaseHelper.getMintCodeWhereArgs;
 import static com.coincollection.DatabaseHelper.runSqlDelete;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionInfo;
 import com.coincollection.CollectionListInfo;
+import com.coincollection.core.CoinCreationParams;
 import com.spencerpages.R;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class EisenhowerDollar extends CollectionInfo {
@@ -82,17 +84,17 @@ public class EisenhowerDollar extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
 
-        Integer startYear = (Integer) parameters.get(CoinPageCreator.OPT_START_YEAR);
-        Integer stopYear = (Integer) parameters.get(CoinPageCreator.OPT_STOP_YEAR);
-        Boolean showMintMarks = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
+        int startYear = params.getStartYear();
+        int stopYear = params.getStopYear();
+        boolean showMintMarks = params.getShowMintMarks();
+        boolean showP = params.getShowMintMark(1);
+        boolean showD = params.getShowMintMark(2);
         int coinIndex = 0;
 
         for (int i = startYear; i <= stopYear; i++) {
-            String newValue = Integer.toString(i);
+            String newValue = getYearString(i);
             if (i == 1975 || i == 1976) {
                 newValue = "1776-1976";
             }
@@ -101,13 +103,13 @@ public class EisenhowerDollar extends CollectionInfo {
 
             if (showMintMarks) {
                 if (showP) {
-                    coinList.add(new CoinSlot(newValue, "", coinIndex++));
+                    coinList.add(newValue, "", coinIndex++);
                 }
                 if (showD) {
-                    coinList.add(new CoinSlot(newValue, "D", coinIndex++));
+                    coinList.add(newValue, "D", coinIndex++);
                 }
             } else {
-                coinList.add(new CoinSlot(newValue, "", coinIndex++));
+                coinList.add(newValue, "", coinIndex++);
             }
 
             //if(i < 1973){
@@ -148,7 +150,7 @@ public class EisenhowerDollar extends CollectionInfo {
             }
 
             // Take out Eisenhower dollars with S marks
-            total -= runSqlDelete(db, tableName, COL_COIN_MINT + "=?", new String[]{"S"});
+            total -= runSqlDelete(db, tableName, COIN_SLOT_MINT_CODE_WHERE_CLAUSE, getMintCodeWhereArgs("S"));
         }
 
         return total;
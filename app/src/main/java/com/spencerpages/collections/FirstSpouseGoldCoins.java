@@ -26,10 +26,12 @@ import static com.coincollection.DatabaseHelper.runSqlUpdate;
 import android.content.ContentValues;
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionInfo;
 import com.coincollection.CollectionListInfo;
 import com.coincollection.DatabaseHelper;
+import com.coincollection.core.CoinCreationParams;
 import com.spencerpages.R;
 
 import java.util.ArrayList;
@@ -112,12 +114,12 @@ public class FirstSpouseGoldCoins extends CollectionInfo {
     }
 
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
 
         int coinIndex = 0;
         for (Object[] coinData : COIN_IDENTIFIERS) {
             String identifier = (String) coinData[0];
-            coinList.add(new CoinSlot(identifier, "", coinIndex++));
+            coinList.add(identifier, "", coinIndex++);
         }
     }
 
@@ -22,13 +22,14 @@ package com.spencerpages.collections;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionListInfo;
 import com.spencerpages.R;
 import com.coincollection.CollectionInfo;
+import com.coincollection.core.CoinCreationParams;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class IndianHeadCents extends CollectionInfo {
@@ -74,13 +75,13 @@ public class IndianHeadCents extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
 
-        Integer startYear       = (Integer) parameters.get(CoinPageCreator.OPT_START_YEAR);
-        Integer stopYear        = (Integer) parameters.get(CoinPageCreator.OPT_STOP_YEAR);
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showS           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_3);
+        int startYear           = params.getStartYear();
+        int stopYear            = params.getStopYear();
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showS           = params.getShowMintMark(3);
         int coinIndex = 0;
 
         for(int i = startYear; i <= stopYear; i++){
@@ -93,21 +94,21 @@ public class IndianHeadCents extends CollectionInfo {
                     // 1864 L
 
                     if(i == 1864){
-                        coinList.add(new CoinSlot(Integer.toString(i), " Copper", coinIndex++));
-                        coinList.add(new CoinSlot(Integer.toString(i), " Bronze", coinIndex++));
-                        coinList.add(new CoinSlot(Integer.toString(i), " L", coinIndex++));
+                        coinList.add(getYearString(i), " Copper", coinIndex++);
+                        coinList.add(getYearString(i), " Bronze", coinIndex++);
+                        coinList.add(getYearString(i), " L", coinIndex++);
                     } else {
-                        coinList.add(new CoinSlot(Integer.toString(i), "", coinIndex++));
+                        coinList.add(getYearString(i), "", coinIndex++);
                     }
                 }
                 if(showS){
                     if(i == 1908 || i == 1909){
-                        coinList.add(new CoinSlot(Integer.toString(i), "S", coinIndex++));
+                        coinList.add(getYearString(i), "S", coinIndex++);
                     }
                 }
 
             } else {
-                coinList.add(new CoinSlot(Integer.toString(i), "", coinIndex++));
+                coinList.add(getYearString(i), "", coinIndex++);
             }
         }
     }
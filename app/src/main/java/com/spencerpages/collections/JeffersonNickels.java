@@ -20,19 +20,21 @@
 
 package com.spencerpages.collections;
 
-import static com.coincollection.CoinSlot.COIN_SLOT_NAME_MINT_WHERE_CLAUSE;
+import static com.coincollection.CoinSlot.COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE;
+import static com.coincollection.DatabaseHelper.getNameMintCodeWhereArgs;
 import static com.coincollection.DatabaseHelper.runSqlDelete;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionInfo;
 import com.coincollection.CollectionListInfo;
 import com.coincollection.DatabaseHelper;
+import com.coincollection.core.CoinCreationParams;
 import com.spencerpages.R;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class JeffersonNickels extends CollectionInfo {
@@ -103,14 +105,14 @@ public class JeffersonNickels extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
-
-        Integer startYear       = (Integer) parameters.get(CoinPageCreator.OPT_START_YEAR);
-        Integer stopYear        = (Integer) parameters.get(CoinPageCreator.OPT_STOP_YEAR);
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
-        Boolean showS           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_3);
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
+
+        int startYear           = params.getStartYear();
+        int stopYear            = params.getStopYear();
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showD           = params.getShowMintMark(2);
+        boolean showS           = params.getShowMintMark(3);
         int coinIndex = 0;
 
         for(int i = startYear; i <= stopYear; i++){
@@ -122,13 +124,13 @@ public class JeffersonNickels extends CollectionInfo {
 
                     if (showMintMarks) {
                         if (showP) {
-                            coinList.add(new CoinSlot(identifier, "P", coinIndex++));
+                            coinList.add(identifier, "P", coinIndex++);
                         }
                         if (showD) {
-                            coinList.add(new CoinSlot(identifier, "D", coinIndex++));
+                            coinList.add(identifier, "D", coinIndex++);
                         }
                     } else {
-                        coinList.add(new CoinSlot(identifier, "", coinIndex++));
+                        coinList.add(identifier, "", coinIndex++);
                     }
                 }
                 continue;
@@ -141,13 +143,13 @@ public class JeffersonNickels extends CollectionInfo {
 
                     if (showMintMarks) {
                         if (showP) {
-                            coinList.add(new CoinSlot(identifier, "P", coinIndex++));
+                            coinList.add(identifier, "P", coinIndex++);
                         }
                         if (showD) {
-                            coinList.add(new CoinSlot(identifier, "D", coinIndex++));
+                            coinList.add(identifier, "D", coinIndex++);
                         }
                     } else {
-                        coinList.add(new CoinSlot(identifier, "", coinIndex++));
+                        coinList.add(identifier, "", coinIndex++);
                     }
                 }
                 continue;
@@ -157,24 +159,24 @@ public class JeffersonNickels extends CollectionInfo {
                 if(showP) {
                     if (i != 1968 && i != 1969 && i != 1970) {
                         if (i >= 1980) {
-                            coinList.add(new CoinSlot(Integer.toString(i), "P", coinIndex++));
+                            coinList.add(getYearString(i), "P", coinIndex++);
                         } else {
-                            coinList.add(new CoinSlot(Integer.toString(i), "", coinIndex++));
+                            coinList.add(getYearString(i), "", coinIndex++);
                         }
                     }
                 }
                 if(showD){
                     if(i != 1965 && i != 1966 && i != 1967){
-                        coinList.add(new CoinSlot(Integer.toString(i), "D", coinIndex++));
+                        coinList.add(getYearString(i), "D", coinIndex++);
                     }
                 }
                 if(showS){
                     if(i <= 1970 && i != 1950 && (i < 1955 || i > 1967)){
-                        coinList.add(new CoinSlot(Integer.toString(i), "S", coinIndex++));
+                        coinList.add(getYearString(i), "S", coinIndex++);
                     }
                 }
             } else {
-                coinList.add(new CoinSlot(Integer.toString(i), "", coinIndex++));
+                coinList.add(getYearString(i), "", coinIndex++);
             }
         }
     }
@@ -203,11 +205,11 @@ public class JeffersonNickels extends CollectionInfo {
         if(oldVersion <= 2) {
 
             // Remove 1955s nickel
-            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_WHERE_CLAUSE, new String[]{"1955", "S"});
+            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE, getNameMintCodeWhereArgs("1955", "S"));
             // Remove 1965-1967 D Nickel
-            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_WHERE_CLAUSE, new String[]{"1965", "D"});
-            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_WHERE_CLAUSE, new String[]{"1966", "D"});
-            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_WHERE_CLAUSE, new String[]{"1967", "D"});
+            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE, getNameMintCodeWhereArgs("1965", "D"));
+            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE, getNameMintCodeWhereArgs("1966", "D"));
+            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE, getNameMintCodeWhereArgs("1967", "D"));
 
             // We can't add the new identifiers, just delete the old ones
             // TODO What should we do
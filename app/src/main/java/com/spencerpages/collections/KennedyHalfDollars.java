@@ -22,14 +22,15 @@ package com.spencerpages.collections;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionInfo;
 import com.coincollection.CollectionListInfo;
 import com.coincollection.DatabaseHelper;
+import com.coincollection.core.CoinCreationParams;
 import com.spencerpages.R;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class KennedyHalfDollars extends CollectionInfo {
@@ -71,17 +72,17 @@ public class KennedyHalfDollars extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
 
-        Integer startYear       = (Integer) parameters.get(CoinPageCreator.OPT_START_YEAR);
-        Integer stopYear        = (Integer) parameters.get(CoinPageCreator.OPT_STOP_YEAR);
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
+        int startYear           = params.getStartYear();
+        int stopYear            = params.getStopYear();
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showD           = params.getShowMintMark(2);
         int coinIndex = 0;
 
         for(int i = startYear; i <= stopYear; i++){
-            String newValue = Integer.toString(i);
+            String newValue = getYearString(i);
             if(i == 1975 || i == 1976){
                 newValue = "1776-1976";
             }
@@ -92,19 +93,19 @@ public class KennedyHalfDollars extends CollectionInfo {
                 if(showP){
                     if(i < 1968 || i > 1970){
                         if(i >= 1980){
-                            coinList.add(new CoinSlot(newValue, "P", coinIndex++));
+                            coinList.add(newValue, "P", coinIndex++);
                         } else {
-                            coinList.add(new CoinSlot(newValue, "", coinIndex++));
+                            coinList.add(newValue, "", coinIndex++);
                         }
                     }
                 }
                 if(showD){
                     if(i != 1965 && i != 1966 && i != 1967){
-                        coinList.add(new CoinSlot(newValue, "D", coinIndex++));
+                        coinList.add(newValue, "D", coinIndex++);
                     }
                 }
             } else {
-                coinList.add(new CoinSlot(newValue, "", coinIndex++));
+                coinList.add(newValue, "", coinIndex++);
             }
         }
     }
@@ -22,13 +22,14 @@ package com.spencerpages.collections;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionListInfo;
 import com.spencerpages.R;
 import com.coincollection.CollectionInfo;
+import com.coincollection.core.CoinCreationParams;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class LibertyHeadNickels extends CollectionInfo {
@@ -78,20 +79,20 @@ public class LibertyHeadNickels extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
-
-        Integer startYear       = (Integer) parameters.get(CoinPageCreator.OPT_START_YEAR);
-        Integer stopYear        = (Integer) parameters.get(CoinPageCreator.OPT_STOP_YEAR);
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
-        Boolean showS           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_3);
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
+
+        int startYear           = params.getStartYear();
+        int stopYear            = params.getStopYear();
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showD           = params.getShowMintMark(2);
+        boolean showS           = params.getShowMintMark(3);
         int coinIndex = 0;
 
         boolean added1883WithCents = false;
         for(int i = startYear; i <= stopYear; i++){
 
-            String newValue = Integer.toString(i);
+            String newValue = getYearString(i);
 
             if(i == 1883){
                 if(!added1883WithCents){
@@ -103,18 +104,18 @@ public class LibertyHeadNickels extends CollectionInfo {
 
             if(showMintMarks){
                 if(showP){
-                    coinList.add(new CoinSlot(newValue, "", coinIndex++));
+                    coinList.add(newValue, "", coinIndex++);
                 }
                 if(i == 1912){
                     if(showD){
-                        coinList.add(new CoinSlot(newValue, "D", coinIndex++));
+                        coinList.add(newValue, "D", coinIndex++);
                     }
                     if(showS){
-                        coinList.add(new CoinSlot(newValue, "S", coinIndex++));
+                        coinList.add(newValue, "S", coinIndex++);
                     }
                 }
             } else {
-                coinList.add(new CoinSlot(newValue, "", coinIndex++));
+                coinList.add(newValue, "", coinIndex++);
             }
 
             if(i == 1883 && !added1883WithCents){
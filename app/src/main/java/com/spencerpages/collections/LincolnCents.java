@@ -20,22 +20,26 @@
 
 package com.spencerpages.collections;
 
-import static com.coincollection.CoinSlot.COL_COIN_MINT;
-import static com.coincollection.CoinSlot.COIN_SLOT_NAME_MINT_WHERE_CLAUSE;
+import static com.coincollection.CoinSlot.COIN_SLOT_MINT_CODE_WHERE_CLAUSE;
+import static com.coincollection.CoinSlot.COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE;
+import static com.coincollection.DatabaseHelper.getMintCodeWhereArgs;
+import static com.coincollection.DatabaseHelper.getNameMintCodeWhereArgs;
+import static com.coincollection.DatabaseHelper.putMintValues;
 import static com.coincollection.DatabaseHelper.runSqlDelete;
 import static com.coincollection.DatabaseHelper.runSqlUpdate;
 
 import android.content.ContentValues;
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionInfo;
 import com.coincollection.CollectionListInfo;
 import com.coincollection.DatabaseHelper;
+import com.coincollection.core.CoinCreationParams;
 import com.spencerpages.R;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class LincolnCents extends CollectionInfo {
@@ -100,22 +104,22 @@ public class LincolnCents extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
-
-        Integer startYear       = (Integer) parameters.get(CoinPageCreator.OPT_START_YEAR);
-        Integer stopYear        = (Integer) parameters.get(CoinPageCreator.OPT_STOP_YEAR);
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
-        Boolean showS           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_3);
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
+
+        int startYear           = params.getStartYear();
+        int stopYear            = params.getStopYear();
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showD           = params.getShowMintMark(2);
+        boolean showS           = params.getShowMintMark(3);
         int coinIndex = 0;
 
         boolean addedVdb = false;
 
-        for(Integer i = startYear; i <= stopYear; i++){
+        for(int i = startYear; i <= stopYear; i++){
 
             // Support V.D.B.
-            String newValue = Integer.toString(i);
+            String newValue = getYearString(i);
             if(i == 1909 && !addedVdb){
                 newValue = "1909 V.D.B";
             }
@@ -128,13 +132,13 @@ public class LincolnCents extends CollectionInfo {
 
                     if (showMintMarks) {
                         if (showP) {
-                            coinList.add(new CoinSlot(bicentIdentifier, "", coinIndex++));
+                            coinList.add(bicentIdentifier, "", coinIndex++);
                         }
                         if (showD) {
-                            coinList.add(new CoinSlot(bicentIdentifier, "D", coinIndex++));
+                            coinList.add(bicentIdentifier, "D", coinIndex++);
                         }
                     } else {
-                        coinList.add(new CoinSlot(bicentIdentifier, "", coinIndex++));
+                        coinList.add(bicentIdentifier, "", coinIndex++);
                     }
                 }
                 continue;
@@ -143,20 +147,20 @@ public class LincolnCents extends CollectionInfo {
             if(showMintMarks){
                 if(showP){
                     // The P was never on any Pennies
-                    coinList.add(new CoinSlot(newValue, "", coinIndex++));
+                    coinList.add(newValue, "", coinIndex++);
                 }
                 if(showD){
                     if(i != 1909 && i != 1910 && i != 1921 && i != 1923 && i != 1965 && i != 1966 && i != 1967){
-                        coinList.add(new CoinSlot(newValue, "D", coinIndex++));
+                        coinList.add(newValue, "D", coinIndex++);
                     }
                 }
                 if(showS){
                     if(i <= 1974 && i != 1922 && i != 1932 && i != 1933 && i != 1934 && (i < 1956 || i > 1967)){
-                        coinList.add(new CoinSlot(newValue, "S", coinIndex++));
+                        coinList.add(newValue, "S", coinIndex++);
                     }
                 }
             } else {
-                coinList.add(new CoinSlot(newValue, "", coinIndex++));
+                coinList.add(newValue, "", coinIndex++);
             }
 
             // If we are adding in the VDB, turn this off
@@ -191,7 +195,7 @@ public class LincolnCents extends CollectionInfo {
         if(oldVersion <= 2) {
 
             // Remove 1921 D Penny
-            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_WHERE_CLAUSE, new String[]{"1921", "D"});
+            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE, getNameMintCodeWhereArgs("1921", "D"));
 
             // TODO What should we do?
             // We can't add the new identifiers, just delete the old ones
@@ -202,9 +206,9 @@ public class LincolnCents extends CollectionInfo {
 
             // 1. Bug fix: The bicentennials should not display mint mark "P"
             ContentValues values = new ContentValues();
-            values.put(COL_COIN_MINT, "");
+            putMintValues(values, "");
             // This shortcut works because pennies never carried the "P" mint mark
-            runSqlUpdate(db, tableName, values, COL_COIN_MINT + "=?", new String[]{"P"});
+            runSqlUpdate(db, tableName, values, COIN_SLOT_MINT_CODE_WHERE_CLAUSE, getMintCodeWhereArgs("P"));
 
             // 3. 1909 V.D.B. - Can't do anything since it is in the middle of the collection
 
@@ -22,13 +22,14 @@ package com.spencerpages.collections;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionListInfo;
 import com.spencerpages.R;
 import com.coincollection.CollectionInfo;
+import com.coincollection.core.CoinCreationParams;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class MorganDollars extends CollectionInfo {
@@ -86,16 +87,16 @@ public class MorganDollars extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
-
-        Integer startYear       = (Integer) parameters.get(CoinPageCreator.OPT_START_YEAR);
-        Integer stopYear        = (Integer) parameters.get(CoinPageCreator.OPT_STOP_YEAR);
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
-        Boolean showS           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_3);
-        Boolean showO           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_4);
-        Boolean showCC           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_5);
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
+
+        int startYear           = params.getStartYear();
+        int stopYear            = params.getStopYear();
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showD           = params.getShowMintMark(2);
+        boolean showS           = params.getShowMintMark(3);
+        boolean showO           = params.getShowMintMark(4);
+        boolean showCC           = params.getShowMintMark(5);
         int coinIndex = 0;
 
         for(int i = startYear; i <= stopYear; i++){
@@ -107,32 +108,32 @@ public class MorganDollars extends CollectionInfo {
             if(showMintMarks){
                 if(showP){
                     if(i == 1878){
-                        coinList.add(new CoinSlot("1878 8 Feathers", "", coinIndex++));
-                        coinList.add(new CoinSlot("1878 7 Feathers", "", coinIndex++));
+                        coinList.add("1878 8 Feathers", "", coinIndex++);
+                        coinList.add("1878 7 Feathers", "", coinIndex++);
                     } else if(i != 1895){
-                        coinList.add(new CoinSlot(Integer.toString(i), "", coinIndex++));
+                        coinList.add(getYearString(i), "", coinIndex++);
                     }
                 }
                 if(showD){
                     if(i == 1921){
-                        coinList.add(new CoinSlot(Integer.toString(i), "D", coinIndex++));
+                        coinList.add(getYearString(i), "D", coinIndex++);
                     }
                 }
                 if(showO){
                     if(i != 1878 && i != 1921){
-                        coinList.add(new CoinSlot(Integer.toString(i), "O", coinIndex++));
+                        coinList.add(getYearString(i), "O", coinIndex++);
                     }
                 }
                 if(showCC){
                     if( i != 1886 && i != 1887 && i != 1888 && i <= 1893 ){
-                        coinList.add(new CoinSlot(Integer.toString(i), "CC", coinIndex++));
+                        coinList.add(getYearString(i), "CC", coinIndex++);
                     }
                 }
                 if(showS){
-                    coinList.add(new CoinSlot(Integer.toString(i), "S", coinIndex++));
+                    coinList.add(getYearString(i), "S", coinIndex++);
                 }
             } else {
-                coinList.add(new CoinSlot(Integer.toString(i), "", coinIndex++));
+                coinList.add(getYearString(i), "", coinIndex++);
             }
         }
     }
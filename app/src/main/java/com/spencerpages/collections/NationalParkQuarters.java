@@ -26,11 +26,13 @@ import static com.coincollection.DatabaseHelper.runSqlUpdate;
 import android.content.ContentValues;
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionInfo;
 import com.coincollection.CollectionListInfo;
 import com.coincollection.DatabaseHelper;
+import com.coincollection.core.CoinCreationParams;
 import com.spencerpages.R;
 
 import java.util.ArrayList;
@@ -139,11 +141,11 @@ public class NationalParkQuarters extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
 
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showD           = params.getShowMintMark(2);
         int coinIndex = 0;
 
         for (Object[] parksImageIdentifier : COIN_IDENTIFIERS) {
@@ -151,13 +153,13 @@ public class NationalParkQuarters extends CollectionInfo {
 
             if (showMintMarks) {
                 if (showP) {
-                    coinList.add(new CoinSlot(identifier, "P", coinIndex++));
+                    coinList.add(identifier, "P", coinIndex++);
                 }
                 if (showD) {
-                    coinList.add(new CoinSlot(identifier, "D", coinIndex++));
+                    coinList.add(identifier, "D", coinIndex++);
                 }
             } else {
-                coinList.add(new CoinSlot(identifier, "", coinIndex++));
+                coinList.add(identifier, "", coinIndex++);
             }
         }
     }
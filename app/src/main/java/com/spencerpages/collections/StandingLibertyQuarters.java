@@ -22,13 +22,14 @@ package com.spencerpages.collections;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionListInfo;
 import com.spencerpages.R;
 import com.coincollection.CollectionInfo;
+import com.coincollection.core.CoinCreationParams;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class StandingLibertyQuarters extends CollectionInfo {
@@ -78,14 +79,14 @@ public class StandingLibertyQuarters extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
-
-        Integer startYear       = (Integer) parameters.get(CoinPageCreator.OPT_START_YEAR);
-        Integer stopYear        = (Integer) parameters.get(CoinPageCreator.OPT_STOP_YEAR);
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
-        Boolean showS           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_3);
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
+
+        int startYear           = params.getStartYear();
+        int stopYear            = params.getStopYear();
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showD           = params.getShowMintMark(2);
+        boolean showS           = params.getShowMintMark(3);
         int coinIndex = 0;
 
         boolean addedTypeOne = false;
@@ -104,25 +105,25 @@ public class StandingLibertyQuarters extends CollectionInfo {
                     newValue = "1917 Type 2";
                 }
             } else {
-                newValue = Integer.toString(i);
+                newValue = getYearString(i);
             }
 
             if(showMintMarks){
                 if(showP){
-                    coinList.add(new CoinSlot(newValue, "", coinIndex++));
+                    coinList.add(newValue, "", coinIndex++);
                 }
                 if(showD){
                     if(i != 1916 && i != 1921 && i != 1925 && i != 1923 && i != 1930){
-                        coinList.add(new CoinSlot(newValue, "D", coinIndex++));
+                        coinList.add(newValue, "D", coinIndex++);
                     }
                 }
                 if(showS){
                     if(i != 1916 && i != 1921 && i != 1925){
-                        coinList.add(new CoinSlot(newValue, "S", coinIndex++));
+                        coinList.add(newValue, "S", coinIndex++);
                     }
                 }
             } else {
-                coinList.add(new CoinSlot(newValue, "", coinIndex++));
+                coinList.add(newValue, "", coinIndex++);
             }
 
             if(i == 1917 && !addedTypeOne){
@@ -22,13 +22,14 @@ package com.spencerpages.collections;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionListInfo;
 import com.spencerpages.R;
 import com.coincollection.CollectionInfo;
+import com.coincollection.core.CoinCreationParams;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class StateQuarters extends CollectionInfo {
@@ -146,12 +147,12 @@ public class StateQuarters extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
 
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
-        Boolean showTerritories = (Boolean) parameters.get(CoinPageCreator.OPT_CHECKBOX_1);
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showD           = params.getShowMintMark(2);
+        boolean showTerritories = params.getCheckbox(1);
         int coinIndex = 0;
 
         for(Object[] coinData : STATES_COIN_IDENTIFIERS){
@@ -159,13 +160,13 @@ public class StateQuarters extends CollectionInfo {
 
             if (showMintMarks) {
                 if (showP) {
-                    coinList.add(new CoinSlot(identifier, "P", coinIndex++));
+                    coinList.add(identifier, "P", coinIndex++);
                 }
                 if (showD) {
-                    coinList.add(new CoinSlot(identifier, "D", coinIndex++));
+                    coinList.add(identifier, "D", coinIndex++);
                 }
             } else {
-                coinList.add(new CoinSlot(identifier, "", coinIndex++));
+                coinList.add(identifier, "", coinIndex++);
             }
         }
         if(showTerritories){
@@ -175,13 +176,13 @@ public class StateQuarters extends CollectionInfo {
 
                 if (showMintMarks) {
                     if (showP) {
-                        coinList.add(new CoinSlot(identifier, "P", coinIndex++));
+                        coinList.add(identifier, "P", coinIndex++);
                     }
                     if (showD) {
-                        coinList.add(new CoinSlot(identifier, "D", coinIndex++));
+                        coinList.add(identifier, "D", coinIndex++);
                     }
                 } else {
-                    coinList.add(new CoinSlot(identifier, "", coinIndex++));
+                    coinList.add(identifier, "", coinIndex++);
                 }
             }
         }
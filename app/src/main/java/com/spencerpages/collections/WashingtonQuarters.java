@@ -20,19 +20,21 @@
 
 package com.spencerpages.collections;
 
-import static com.coincollection.CoinSlot.COIN_SLOT_NAME_MINT_WHERE_CLAUSE;
+import static com.coincollection.CoinSlot.COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE;
+import static com.coincollection.DatabaseHelper.getNameMintCodeWhereArgs;
 import static com.coincollection.DatabaseHelper.runSqlDelete;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionInfo;
 import com.coincollection.CollectionListInfo;
 import com.coincollection.DatabaseHelper;
+import com.coincollection.core.CoinCreationParams;
 import com.spencerpages.R;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class WashingtonQuarters extends CollectionInfo {
@@ -96,18 +98,18 @@ public class WashingtonQuarters extends CollectionInfo {
 
     // TODO Perform validation and throw exception
     @Override
-    public void populateCollectionLists(HashMap<String, Object> parameters, ArrayList<CoinSlot> coinList) {
-
-        Integer startYear       = (Integer) parameters.get(CoinPageCreator.OPT_START_YEAR);
-        Integer stopYear        = (Integer) parameters.get(CoinPageCreator.OPT_STOP_YEAR);
-        Boolean showMintMarks   = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARKS);
-        Boolean showP           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_1);
-        Boolean showD           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_2);
-        Boolean showS           = (Boolean) parameters.get(CoinPageCreator.OPT_SHOW_MINT_MARK_3);
+    public void populateCollectionLists(CoinCreationParams params, CoinListBuilder coinList) {
+
+        int startYear           = params.getStartYear();
+        int stopYear            = params.getStopYear();
+        boolean showMintMarks   = params.getShowMintMarks();
+        boolean showP           = params.getShowMintMark(1);
+        boolean showD           = params.getShowMintMark(2);
+        boolean showS           = params.getShowMintMark(3);
         int coinIndex = 0;
 
         for(int i = startYear; i <= stopYear; i++){
-            String newValue = Integer.toString(i);
+            String newValue = getYearString(i);
             if(i == 1975 || i == 1976){
                 newValue = "1776-1976";
             }
@@ -122,23 +124,23 @@ public class WashingtonQuarters extends CollectionInfo {
             if(showMintMarks){
                 if(showP){
                     if(i >= 1980){
-                        coinList.add(new CoinSlot(newValue, "P", coinIndex++));
+                        coinList.add(newValue, "P", coinIndex++);
                     } else {
-                        coinList.add(new CoinSlot(newValue, "", coinIndex++));
+                        coinList.add(newValue, "", coinIndex++);
                     }
                 }
                 if(showD){
                     if(i != 1938 && (i < 1965 || i > 1967)){
-                        coinList.add(new CoinSlot(newValue, "D", coinIndex++));
+                        coinList.add(newValue, "D", coinIndex++);
                     }
                 }
                 if(showS){
                     if(i < 1955 && i != 1934 && i != 1949){
-                        coinList.add(new CoinSlot(newValue, "S", coinIndex++));
+                        coinList.add(newValue, "S", coinIndex++);
                     }
                 }
             } else {
-                coinList.add(new CoinSlot(newValue, "", coinIndex++));
+                coinList.add(newValue, "", coinIndex++);
             }
         }
     }
@@ -166,9 +168,9 @@ public class WashingtonQuarters extends CollectionInfo {
 
         if(oldVersion <= 2) {
             // Remove 1965 - 1967 D quarters
-            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_WHERE_CLAUSE, new String[]{"1965", "D"});
-            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_WHERE_CLAUSE, new String[]{"1966", "D"});
-            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_WHERE_CLAUSE, new String[]{"1967", "D"});
+            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE, getNameMintCodeWhereArgs("1965", "D"));
+            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE, getNameMintCodeWhereArgs("1966", "D"));
+            total -= runSqlDelete(db, tableName, COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE, getNameMintCodeWhereArgs("1967", "D"));
         }
 
         if (oldVersion <= 16) {
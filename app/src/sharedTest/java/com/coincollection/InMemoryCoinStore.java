@@ -0,0 +1,716 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.coincollection;
+
+import static com.coincollection.CollectionStatsHelper.STAT_COIN_TYPE;
+import static com.coincollection.CollectionStatsHelper.STAT_DECADE;
+import static com.coincollection.CollectionStatsHelper.STAT_GRADE;
+import static com.coincollection.CollectionStatsHelper.STAT_MINT;
+
+import android.database.SQLException;
+
+import com.coincollection.core.MintCodes;
+import com.spencerpages.MainApplication;
+import com.spencerpages.R;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * CoinStore that keeps everything in memory, for tests and benchmarks that don't need SQLite
+ *
+ * This is only built into the test source sets, and uses Android classes, so it can't be used
+ * from the :benchmark JMH module. Compare it against SQLite from the Robolectric tests instead.
+ *
+ * Everything is guarded by a single lock. Changes run in place on the calling thread while
+ * holding the lock, so they are still made one at a time. The search index and statistics
+ * summary are computed when they are read, so there's nothing to rebuild. Collections can't be
+ * upgraded from older database versions, since that needs the SQLite upgrade code.
+ */
+public class InMemoryCoinStore implements CoinStore {
+
+    private final Object mLock = new Object();
+
+    // Collections by name, in the order they were created
+    private final LinkedHashMap<String, StoredCollection> mCollections = new LinkedHashMap<>();
+
+    private final CopyOnWriteArrayList<CollectionChangeListener> mChangeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * A collection's info and coin rows
+     */
+    private static class StoredCollection {
+        String mName;
+        String mCoinType;
+        int mTotal;
+        int mDisplayOrder;
+        int mDisplay;
+        int mStartYear;
+        int mEndYear;
+        int mMintMarkFlags;
+        int mCheckboxFlags;
+        // Coin rows by database id, in id order
+        final TreeMap<Long, CoinSlot> mCoins = new TreeMap<>();
+
+        /**
+         * Stores a copy of a coin, assigning it the next database id
+         * @param coinSlot coin to store, which has its database id updated
+         * @param customCoin whether to store the coin as a custom coin
+         */
+        void insert(CoinSlot coinSlot, boolean customCoin) {
+            long databaseId = mCoins.isEmpty() ? 1 : mCoins.lastKey() + 1;
+            coinSlot.setDatabaseId(databaseId);
+            mCoins.put(databaseId, copyCoin(coinSlot, databaseId, customCoin));
+        }
+    }
+
+    @Override
+    public void open() throws SQLException {
+        // Nothing to open
+    }
+
+    @Override
+    public void close() {
+        // Nothing to close
+    }
+
+    /**
+     * Runs a change in place while holding the store lock
+     * @param operation change to make
+     * @param <T> type of the result
+     * @return the result of the operation
+     * @throws SQLException if the operation failed
+     */
+    @Override
+    public <T> T runWrite(WriteOperation<T> operation) throws SQLException {
+        synchronized (mLock) {
+            return operation.run();
+        }
+    }
+
+    @Override
+    public void addCollectionChangeListener(CollectionChangeListener listener) {
+        mChangeListeners.addIfAbsent(listener);
+    }
+
+    @Override
+    public void removeCollectionChangeListener(CollectionChangeListener listener) {
+        mChangeListeners.remove(listener);
+    }
+
+    /**
+     * Tells the listeners about a change
+     * @param changeType one of the CHANGE_* constants
+     * @param collectionName the collection changed, or null
+     * @param newName the new name for renames, otherwise null
+     */
+    private void notifyCollectionChanged(int changeType, String collectionName, String newName) {
+        for (CollectionChangeListener listener : mChangeListeners) {
+            listener.onCollectionChanged(changeType, collectionName, newName);
+        }
+    }
+
+    /**
+     * Returns a collection, failing like a query against a missing table would
+     * @param tableName collection name
+     * @return the collection
+     * @throws SQLException if there's no collection with that name
+     */
+    private StoredCollection getCollection(String tableName) throws SQLException {
+        StoredCollection collection = mCollections.get(tableName);
+        if (collection == null) {
+            throw new SQLException("No such collection: " + tableName);
+        }
+        return collection;
+    }
+
+    /**
+     * Returns a stored coin row
+     * @param collection collection holding the coin
+     * @param coinSlot coin to look up by database id
+     * @return the stored row
+     * @throws SQLException if the coin isn't in the collection
+     */
+    private static CoinSlot getCoin(StoredCollection collection, CoinSlot coinSlot) throws SQLException {
+        CoinSlot storedCoin = collection.mCoins.get(coinSlot.getDatabaseId());
+        if (storedCoin == null) {
+            throw new SQLException("No such coin: " + coinSlot.getDatabaseId());
+        }
+        return storedCoin;
+    }
+
+    /**
+     * Copies a coin, filling in the defaults that SQLite would use for missing advanced info
+     * @param coinSlot coin to copy
+     * @param databaseId database id of the copy
+     * @param customCoin whether the copy is a custom coin
+     * @return the copy
+     */
+    private static CoinSlot copyCoin(CoinSlot coinSlot, long databaseId, boolean customCoin) {
+        return new CoinSlot(
+                databaseId,
+                coinSlot.getIdentifier(),
+                coinSlot.getMint(),
+                coinSlot.isInCollection(),
+                (coinSlot.getAdvancedGrades() != null) ? coinSlot.getAdvancedGrades() : 0,
+                (coinSlot.getAdvancedQuantities() != null) ? coinSlot.getAdvancedQuantities() : 0,
+                (coinSlot.getAdvancedNotes() != null) ? coinSlot.getAdvancedNotes() : "",
+                coinSlot.getSortOrder(),
+                customCoin);
+    }
+
+    @Override
+    public int fetchIsInCollection(String tableName, CoinSlot coinSlot) throws SQLException {
+        synchronized (mLock) {
+            return getCoin(getCollection(tableName), coinSlot).isInCollectionInt();
+        }
+    }
+
+    @Override
+    public void toggleInCollection(String tableName, CoinSlot coinSlot) throws SQLException {
+        runWrite(() -> {
+            CoinSlot storedCoin = getCoin(getCollection(tableName), coinSlot);
+            storedCoin.setInCollection(!storedCoin.isInCollection());
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, tableName, null);
+            return null;
+        });
+    }
+
+    @Override
+    public int fetchTableDisplay(String tableName) throws SQLException {
+        synchronized (mLock) {
+            return getCollection(tableName).mDisplay;
+        }
+    }
+
+    @Override
+    public void updateTableDisplay(String tableName, int displayType) throws SQLException {
+        runWrite(() -> {
+            getCollection(tableName).mDisplay = displayType;
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, tableName, null);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateDisplayOrder(String tableName, int displayOrder) throws SQLException {
+        runWrite(() -> {
+            getCollection(tableName).mDisplayOrder = displayOrder;
+            notifyCollectionChanged(CHANGE_COLLECTIONS_REORDERED, tableName, null);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateAdvInfo(String tableName, CoinSlot coinSlot) throws SQLException {
+        runWrite(() -> {
+            CoinSlot storedCoin = getCoin(getCollection(tableName), coinSlot);
+            storedCoin.setInCollection(coinSlot.isInCollection());
+            storedCoin.setAdvancedGrades(coinSlot.getAdvancedGrades());
+            storedCoin.setAdvancedQuantities(coinSlot.getAdvancedQuantities());
+            storedCoin.setAdvancedNotes(coinSlot.getAdvancedNotes());
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, tableName, null);
+            return null;
+        });
+    }
+
+    @Override
+    public void createAndPopulateNewTable(CollectionListInfo collectionListInfo, int displayOrder, ArrayList<CoinSlot> coinData) throws SQLException {
+        createAndPopulateNewTable(collectionListInfo, displayOrder, coinData, true);
+    }
+
+    @Override
+    public void createAndPopulateNewTable(CollectionListInfo collectionListInfo, int displayOrder, ArrayList<CoinSlot> coinData, boolean updateIndexes) throws SQLException {
+        runWrite(() -> {
+            String tableName = collectionListInfo.getName();
+            if (mCollections.containsKey(tableName)) {
+                throw new SQLException("Collection already exists: " + tableName);
+            }
+            StoredCollection collection = new StoredCollection();
+            collection.mName = tableName;
+            collection.mDisplayOrder = displayOrder;
+            setCollectionInfo(collection, collectionListInfo);
+            if (coinData != null) {
+                for (CoinSlot coinSlot : coinData) {
+                    collection.insert(coinSlot, coinSlot.isCustomCoin());
+                }
+            }
+            mCollections.put(tableName, collection);
+            notifyCollectionChanged(CHANGE_COLLECTION_CREATED, tableName, null);
+            return null;
+        });
+    }
+
+    /**
+     * Copies everything but the name and display order from a collection info
+     * @param collection collection to update
+     * @param collectionListInfo info to copy
+     */
+    private static void setCollectionInfo(StoredCollection collection, CollectionListInfo collectionListInfo) {
+        collection.mCoinType = collectionListInfo.getType();
+        collection.mTotal = collectionListInfo.getMax();
+        collection.mDisplay = collectionListInfo.getDisplayType();
+        collection.mStartYear = collectionListInfo.getStartYear();
+        collection.mEndYear = collectionListInfo.getEndYear();
+        collection.mMintMarkFlags = collectionListInfo.getMintMarkFlags();
+        collection.mCheckboxFlags = collectionListInfo.getCheckboxFlags();
+    }
+
+    @Override
+    public void dropCollectionTable(String tableName) throws SQLException {
+        runWrite(() -> {
+            getCollection(tableName);
+            mCollections.remove(tableName);
+            notifyCollectionChanged(CHANGE_COLLECTION_DROPPED, tableName, null);
+            return null;
+        });
+    }
+
+    @Override
+    public void dropCollectionInfoTable() throws SQLException {
+        // The info is kept with the coins, so both go at once
+        runWrite(() -> {
+            mCollections.clear();
+            notifyCollectionChanged(CHANGE_ALL_COLLECTIONS, null, null);
+            return null;
+        });
+    }
+
+    @Override
+    public void createCollectionInfoTable() throws SQLException {
+        runWrite(() -> {
+            notifyCollectionChanged(CHANGE_ALL_COLLECTIONS, null, null);
+            return null;
+        });
+    }
+
+    @Override
+    public ArrayList<String> getCollectionNames() throws SQLException {
+        ArrayList<String> names = new ArrayList<>();
+        for (StoredCollection collection : getCollectionsInDisplayOrder()) {
+            names.add(collection.mName);
+        }
+        return names;
+    }
+
+    /**
+     * Returns the collections sorted by display order
+     * @return list of collections
+     */
+    private ArrayList<StoredCollection> getCollectionsInDisplayOrder() {
+        ArrayList<StoredCollection> collections;
+        synchronized (mLock) {
+            collections = new ArrayList<>(mCollections.values());
+        }
+        Collections.sort(collections, (a, b) -> Integer.compare(a.mDisplayOrder, b.mDisplayOrder));
+        return collections;
+    }
+
+    /**
+     * Collections can only be upgraded by the SQLite upgrade code, so this only accepts
+     * collections that are already at the current database version
+     * @param oldVersion the db version to upgrade from
+     * @param fromImport true if the upgrade is part of a database import
+     * @throws SQLException if the collections need upgrading
+     */
+    @Override
+    public void upgradeCollections(int oldVersion, boolean fromImport) throws SQLException {
+        if (oldVersion < MainApplication.DATABASE_VERSION) {
+            throw new SQLException("Can't upgrade collections from version " + oldVersion);
+        }
+        runWrite(() -> {
+            notifyCollectionChanged(CHANGE_ALL_COLLECTIONS, null, null);
+            return null;
+        });
+    }
+
+    @Override
+    public void rebuildSearchIndex() throws SQLException {
+        // Searches read the coins directly
+    }
+
+    @Override
+    public void rebuildStats() throws SQLException {
+        // Statistics are computed when read
+    }
+
+    @Override
+    public CollectionStats getCollectionStats() throws SQLException {
+        ArrayList<TreeMap<String, int[]>> categories = new ArrayList<>();
+        for (int i = 0; i < CollectionStatsHelper.NUM_CATEGORIES; i++) {
+            categories.add(new TreeMap<>());
+        }
+        synchronized (mLock) {
+            for (StoredCollection collection : mCollections.values()) {
+                for (CoinSlot coinSlot : collection.mCoins.values()) {
+                    String identifier = coinSlot.getIdentifier();
+                    String mintName = MintCodes.getMintName(MintCodes.getMintCode(coinSlot.getMint()));
+                    boolean hasYear = identifier.length() >= 4
+                            && identifier.substring(0, 4).matches("[0-9]{4}");
+                    int grade = (coinSlot.getAdvancedGrades() != null) ? coinSlot.getAdvancedGrades() : 0;
+                    int quantityIndex = (coinSlot.getAdvancedQuantities() != null) ? coinSlot.getAdvancedQuantities() : 0;
+                    int collected = coinSlot.isInCollectionInt();
+                    int quantity = (collected != 0) ? quantityIndex + 1 : 0;
+                    addStat(categories.get(STAT_MINT), mintName, collected, quantity);
+                    addStat(categories.get(STAT_DECADE), hasYear ? identifier.substring(0, 3) + "0" : "", collected, quantity);
+                    addStat(categories.get(STAT_GRADE), String.valueOf(grade), collected, quantity);
+                    addStat(categories.get(STAT_COIN_TYPE), collection.mCoinType, collected, quantity);
+                }
+            }
+        }
+        CollectionStats stats = new CollectionStats();
+        for (int i = 0; i < categories.size(); i++) {
+            for (Map.Entry<String, int[]> entry : categories.get(i).entrySet()) {
+                int[] counts = entry.getValue();
+                stats.add(i, entry.getKey(), counts[0], counts[1], counts[2]);
+            }
+        }
+        stats.sort();
+        return stats;
+    }
+
+    /**
+     * Adds a coin to the counts for a statistics key
+     * @param counts collected, total and quantity counts by key
+     * @param key statistics key
+     * @param collected 1 if the coin is collected, otherwise 0
+     * @param quantity quantity of the coin if collected, otherwise 0
+     */
+    private static void addStat(TreeMap<String, int[]> counts, String key, int collected, int quantity) {
+        int[] keyCounts = counts.get(key);
+        if (keyCounts == null) {
+            keyCounts = new int[3];
+            counts.put(key, keyCounts);
+        }
+        keyCounts[0] += collected;
+        keyCounts[1]++;
+        keyCounts[2] += quantity;
+    }
+
+    /**
+     * Searches all collections for coins matching the text typed in by the user. Like the
+     * SQLite search index, each word is matched as a prefix of a word in the coin identifier,
+     * mint, notes or collection name.
+     * @param searchText text typed in by the user
+     * @return list of matching coins, in collection display order
+     * @throws SQLException if an error occurs
+     */
+    @Override
+    public ArrayList<CoinSearchResult> searchCoins(String searchText) throws SQLException {
+        ArrayList<CoinSearchResult> results = new ArrayList<>();
+        String matchQuery = CoinSearchHelper.buildMatchQuery(searchText);
+        if (matchQuery.length() == 0) {
+            return results;
+        }
+        String[] prefixes = matchQuery.replace("*", "").split(" ");
+        for (StoredCollection collection : getCollectionsInDisplayOrder()) {
+            synchronized (mLock) {
+                for (CoinSlot coinSlot : collection.mCoins.values()) {
+                    String searchableText = coinSlot.getIdentifier() + " "
+                            + ((coinSlot.getMint() != null) ? coinSlot.getMint() : "") + " "
+                            + ((coinSlot.getAdvancedNotes() != null) ? coinSlot.getAdvancedNotes() : "") + " "
+                            + collection.mName;
+                    if (matchesAllPrefixes(searchableText, prefixes)) {
+                        results.add(new CoinSearchResult(collection.mName, collection.mCoinType,
+                                coinSlot.getDatabaseId(), coinSlot.getIdentifier(), coinSlot.getMint(),
+                                coinSlot.getAdvancedNotes()));
+                        if (results.size() == CoinSearchHelper.MAX_SEARCH_RESULTS) {
+                            return results;
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Checks whether every prefix starts one of the words in some text
+     * @param text text to check, split into words on anything other than letters and digits
+     * @param prefixes lower case prefixes
+     * @return true if all of the prefixes match
+     */
+    private static boolean matchesAllPrefixes(String text, String[] prefixes) {
+        String[] words = text.toLowerCase(Locale.US).split("[^\\p{L}\\p{N}]+");
+        for (String prefix : prefixes) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int checkCollectionName(String tableName) {
+        if (DatabaseAdapter.isReservedName(tableName)) {
+            return R.string.collection_name_reserved;
+        }
+        Locale defaultLocale = Locale.getDefault();
+        synchronized (mLock) {
+            for (String name : mCollections.keySet()) {
+                if (name.toLowerCase(defaultLocale).equals(tableName.toLowerCase(defaultLocale))) {
+                    return R.string.collection_name_exists;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getNextDisplayOrder() throws SQLException {
+        int maxDisplayOrder = 0;
+        synchronized (mLock) {
+            for (StoredCollection collection : mCollections.values()) {
+                maxDisplayOrder = Math.max(maxDisplayOrder, collection.mDisplayOrder);
+            }
+        }
+        return maxDisplayOrder + 1;
+    }
+
+    @Override
+    public int getNextCoinSortOrder(String tableName) throws SQLException {
+        int maxSortOrder = 0;
+        synchronized (mLock) {
+            for (CoinSlot coinSlot : getCollection(tableName).mCoins.values()) {
+                maxSortOrder = Math.max(maxSortOrder, coinSlot.getSortOrder());
+            }
+        }
+        return maxSortOrder + 1;
+    }
+
+    @Override
+    public CollectionListInfo createCollectionCopy(CollectionListInfo sourceCollectionListInfo, String newTableName, int insertIndex) throws SQLException {
+        return runWrite(() -> {
+            StoredCollection sourceCollection = getCollection(sourceCollectionListInfo.getName());
+            CollectionListInfo newCollectionListInfo = sourceCollectionListInfo.copy(newTableName);
+            createAndPopulateNewTable(newCollectionListInfo, insertIndex, null);
+
+            // Keep the database ids, like copying the table rows would
+            StoredCollection newCollection = getCollection(newTableName);
+            for (CoinSlot coinSlot : sourceCollection.mCoins.values()) {
+                newCollection.mCoins.put(coinSlot.getDatabaseId(),
+                        copyCoin(coinSlot, coinSlot.getDatabaseId(), coinSlot.isCustomCoin()));
+            }
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, newTableName, null);
+            return newCollectionListInfo;
+        });
+    }
+
+    @Override
+    public void updateCollectionName(String oldName, String newName) throws SQLException {
+        runWrite(() -> {
+            renameCollection(oldName, newName);
+            notifyCollectionChanged(CHANGE_COLLECTION_RENAMED, oldName, newName);
+            return null;
+        });
+    }
+
+    /**
+     * Moves a collection to a new name, keeping its place in the creation order
+     * @param oldName The original collection name
+     * @param newName The new collection name
+     * @throws SQLException if the collection doesn't exist or the new name is taken
+     */
+    private void renameCollection(String oldName, String newName) throws SQLException {
+        getCollection(oldName);
+        if (mCollections.containsKey(newName)) {
+            throw new SQLException("Collection already exists: " + newName);
+        }
+        LinkedHashMap<String, StoredCollection> collections = new LinkedHashMap<>(mCollections);
+        mCollections.clear();
+        for (StoredCollection collection : collections.values()) {
+            if (collection.mName.equals(oldName)) {
+                collection.mName = newName;
+            }
+            mCollections.put(collection.mName, collection);
+        }
+    }
+
+    @Override
+    public void updateCoinNameAndMint(String tableName, CoinSlot coinSlot) throws SQLException {
+        runWrite(() -> {
+            CoinSlot storedCoin = getCoin(getCollection(tableName), coinSlot);
+            storedCoin.setIdentifier(coinSlot.getIdentifier());
+            storedCoin.setMint(coinSlot.getMint());
+            return null;
+        });
+    }
+
+    @Override
+    public void updateExistingCollection(String oldTableName, CollectionListInfo collectionListInfo, ArrayList<CoinSlot> coinData) throws SQLException {
+        runWrite(() -> {
+            StoredCollection collection = getCollection(oldTableName);
+            if (coinData != null) {
+                // Like the SQLite version, the replaced coins aren't marked as custom coins
+                collection.mCoins.clear();
+                for (CoinSlot coinSlot : coinData) {
+                    collection.insert(coinSlot, false);
+                }
+            }
+            setCollectionInfo(collection, collectionListInfo);
+            String newTableName = collectionListInfo.getName();
+            if (!oldTableName.equals(newTableName)) {
+                renameCollection(oldTableName, newTableName);
+                notifyCollectionChanged(CHANGE_COLLECTION_RENAMED, oldTableName, newTableName);
+            }
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, newTableName, null);
+            return null;
+        });
+    }
+
+    @Override
+    public void getAllTables(ArrayList<CollectionListInfo> collectionListEntries) throws SQLException {
+        collectionListEntries.clear();
+        for (StoredCollection collection : getCollectionsInDisplayOrder()) {
+            collectionListEntries.add(buildCollectionListInfo(collection));
+        }
+    }
+
+    @Override
+    public CollectionListInfo getCollectionListInfo(String tableName) throws SQLException {
+        StoredCollection collection;
+        synchronized (mLock) {
+            collection = mCollections.get(tableName);
+        }
+        return (collection != null) ? buildCollectionListInfo(collection) : null;
+    }
+
+    /**
+     * Builds the list info of a collection
+     * @param collection stored collection
+     * @return the collection info
+     * @throws SQLException if the collection type is unknown
+     */
+    private CollectionListInfo buildCollectionListInfo(StoredCollection collection) throws SQLException {
+        int index = MainApplication.getIndexFromCollectionNameStr(collection.mCoinType);
+        if (index == -1) {
+            throw new SQLException();
+        }
+        synchronized (mLock) {
+            int collected = 0;
+            for (CoinSlot coinSlot : collection.mCoins.values()) {
+                collected += coinSlot.isInCollectionInt();
+            }
+            return new CollectionListInfo(
+                    collection.mName,
+                    collection.mTotal,
+                    collected,
+                    index,
+                    collection.mDisplay,
+                    collection.mStartYear,
+                    collection.mEndYear,
+                    collection.mMintMarkFlags,
+                    collection.mCheckboxFlags);
+        }
+    }
+
+    @Override
+    public void updateCoinSortOrderForInsert(String tableName, int insertSortOrder) throws SQLException {
+        runWrite(() -> {
+            for (CoinSlot coinSlot : getCollection(tableName).mCoins.values()) {
+                if (coinSlot.getSortOrder() >= insertSortOrder) {
+                    coinSlot.setSortOrder(coinSlot.getSortOrder() + 1);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void addCoinSlotToCollection(CoinSlot coinSlot, String tableName, boolean updateTotal, int newCollectionSize) throws SQLException {
+        runWrite(() -> {
+            StoredCollection collection = getCollection(tableName);
+            collection.insert(coinSlot, coinSlot.isCustomCoin());
+            if (updateTotal) {
+                collection.mTotal = newCollectionSize;
+            }
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, tableName, null);
+            return null;
+        });
+    }
+
+    @Override
+    public void removeCoinSlotFromCollection(CoinSlot coinSlot, String tableName, int newCollectionSize) throws SQLException {
+        runWrite(() -> {
+            StoredCollection collection = getCollection(tableName);
+            getCoin(collection, coinSlot);
+            collection.mCoins.remove(coinSlot.getDatabaseId());
+            collection.mTotal = newCollectionSize;
+            notifyCollectionChanged(CHANGE_COLLECTION_COUNTS, tableName, null);
+            return null;
+        });
+    }
+
+    @Override
+    public ArrayList<CoinSlot> getCoinList(String tableName, boolean populateAdvInfo, boolean useSortOrder) {
+        ArrayList<CoinSlot> coinList = new ArrayList<>();
+        synchronized (mLock) {
+            StoredCollection collection = getCollection(tableName);
+            for (CoinSlot coinSlot : collection.mCoins.values()) {
+                int sortOrder = useSortOrder ? coinSlot.getSortOrder() : (int) coinSlot.getDatabaseId();
+                if (populateAdvInfo) {
+                    coinList.add(new CoinSlot(coinSlot.getDatabaseId(), coinSlot.getIdentifier(),
+                            coinSlot.getMint(), coinSlot.isInCollection(), coinSlot.getAdvancedGrades(),
+                            coinSlot.getAdvancedQuantities(), coinSlot.getAdvancedNotes(), sortOrder,
+                            coinSlot.isCustomCoin()));
+                } else {
+                    coinList.add(new CoinSlot(coinSlot.getDatabaseId(), coinSlot.getIdentifier(),
+                            coinSlot.getMint(), coinSlot.isInCollection(), sortOrder, coinSlot.isCustomCoin()));
+                }
+            }
+        }
+        if (useSortOrder) {
+            // Stable, so ties stay in id order
+            Collections.sort(coinList, (a, b) -> Integer.compare(a.getSortOrder(), b.getSortOrder()));
+        }
+        return coinList;
+    }
+
+    @Override
+    public ArrayList<CoinSlot> getCoinList(String tableName, boolean populateAdvInfo) {
+        return getCoinList(tableName, populateAdvInfo, true);
+    }
+
+    @Override
+    public HashMap<Long, CoinSlot.AdvInfo> getAdvInfo(String tableName) throws SQLException {
+        HashMap<Long, CoinSlot.AdvInfo> advInfoById = new HashMap<>();
+        synchronized (mLock) {
+            for (CoinSlot storedCoin : getCollection(tableName).mCoins.values()) {
+                advInfoById.put(storedCoin.getDatabaseId(), new CoinSlot.AdvInfo(storedCoin.getAdvancedGrades(),
+                        storedCoin.getAdvancedQuantities(), storedCoin.getAdvancedNotes()));
+            }
+        }
+        return advInfoById;
+    }
+}
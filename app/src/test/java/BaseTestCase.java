@@ -27,7 +27,9 @@ import static com.coincollection.CollectionListInfo.COL_TOTAL;
 import static com.coincollection.CollectionListInfo.TBL_COLLECTION_INFO;
 import static com.coincollection.CollectionPage.ADVANCED_DISPLAY;
 import static com.coincollection.CollectionPage.SIMPLE_DISPLAY;
-import static com.spencerpages.MainApplication.COLLECTION_TYPES;
+import static com.spencerpages.MainApplication.getAllCollectionTypes;
+import static com.spencerpages.MainApplication.getCollectionType;
+import static com.spencerpages.MainApplication.getNumberOfCollectionTypes;
 import static com.spencerpages.MainApplication.DATABASE_NAME;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -50,9 +52,11 @@ import androidx.test.core.app.ApplicationProvider;
 import com.coincollection.BaseActivity;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
+import com.coincollection.CoinStore;
 import com.coincollection.CollectionInfo;
 import com.coincollection.CollectionListInfo;
 import com.coincollection.DatabaseAdapter;
+import com.coincollection.DatabaseHelper;
 import com.coincollection.MainActivity;
 import com.coincollection.helper.ParcelableHashMap;
 import com.spencerpages.MainApplication;
@@ -156,7 +160,7 @@ public class BaseTestCase {
     @SuppressWarnings("SameReturnValue")
     public boolean setupOneOfEachCollectionTypes(MainActivity activity) {
         int displayOrder = 0;
-        for (CollectionInfo collectionInfo : COLLECTION_TYPES) {
+        for (CollectionInfo collectionInfo : getAllCollectionTypes()) {
             ParcelableHashMap parameters = new ParcelableHashMap();
             collectionInfo.getCreationParameters(parameters);
             ArrayList<CoinSlot> newCoinList = new ArrayList<>();
@@ -179,7 +183,7 @@ public class BaseTestCase {
     public boolean setupCollectionsWithNames(MainActivity activity, ArrayList<String> collectionNames) {
         int displayOrder = 0;
         for (String collectionName : collectionNames) {
-            CollectionInfo collectionInfo = COLLECTION_TYPES[displayOrder % COLLECTION_TYPES.length];
+            CollectionInfo collectionInfo = getCollectionType(displayOrder % getNumberOfCollectionTypes());
             ParcelableHashMap parameters = new ParcelableHashMap();
             collectionInfo.getCreationParameters(parameters);
             ArrayList<CoinSlot> newCoinList = new ArrayList<>();
@@ -255,11 +259,7 @@ public class BaseTestCase {
         }
         @Override
         public void onCreate(SQLiteDatabase db) {
-            db.execSQL("CREATE TABLE collection_info (_id integer primary key,"
-                    + " name text not null,"
-                    + " coinType text not null,"
-                    + " total integer"
-                    + ");");
+            createV1CollectionInfoTable(db);
         }
         @Override
         public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
@@ -267,6 +267,18 @@ public class BaseTestCase {
         }
     }
 
+    /**
+     * Creates the collection info table as it was in version 1 of the app's DB scheme
+     * @param db database to populate
+     */
+    public static void createV1CollectionInfoTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE collection_info (_id integer primary key,"
+                + " name text not null,"
+                + " coinType text not null,"
+                + " total integer"
+                + ");");
+    }
+
     /**
      * Adds a collection to the database that looks like version 1 of the app's DB scheme
      * @param db database to populate
@@ -364,6 +376,22 @@ public class BaseTestCase {
         if (coinList.size() != 0) {
             CollectionListInfo collectionListInfo = getCollectionListInfo("X", coinClass, coinList);
             collectionListInfo.setCreationParametersFromCoinData(coinList);
+
+            // Reading the summary from the database must give the same result
+            SQLiteDatabase db = SQLiteDatabase.create(null);
+            db.execSQL("CREATE TABLE [X] (_id integer primary key, coinIdentifier text not null, coinMint text);");
+            for (CoinSlot coinSlot : coinList) {
+                ContentValues values = new ContentValues();
+                values.put(COL_COIN_IDENTIFIER, coinSlot.getIdentifier());
+                values.put(COL_COIN_MINT, coinSlot.getMint());
+                db.insert("[X]", null, values);
+            }
+            CollectionListInfo dbCollectionListInfo = getCollectionListInfo("X", coinClass, coinList);
+            dbCollectionListInfo.setCreationParametersFromSummary(
+                    DatabaseHelper.getLegacyCoinDataSummary(db, "X", coinClass.getCoinType()));
+            db.close();
+            compareCollectionListInfos(collectionListInfo, dbCollectionListInfo);
+
             ParcelableHashMap checkParameters = CoinPageCreator.getParametersFromCollectionListInfo(collectionListInfo);
             ArrayList<CoinSlot> coinListFromDerivedParams = new ArrayList<>();
             coinClass.populateCollectionLists(checkParameters, coinListFromDerivedParams);
@@ -663,12 +691,12 @@ public class BaseTestCase {
     }
 
     /**
-     * @param dbAdapter database adapter
+     * @param dbAdapter coin store
      * @param collectionNames List of collection names
      * @param populateAdvInfo if true, populates the advanced info
      * @return a list of coin slot lists
      */
-    ArrayList<ArrayList<CoinSlot>> getCoinSlotListsFromCollectionNames(DatabaseAdapter dbAdapter, ArrayList<String> collectionNames, boolean populateAdvInfo) {
+    ArrayList<ArrayList<CoinSlot>> getCoinSlotListsFromCollectionNames(CoinStore dbAdapter, ArrayList<String> collectionNames, boolean populateAdvInfo) {
         ArrayList<ArrayList<CoinSlot>> coinSlotLists = new ArrayList<>();
         for(String collectionName : collectionNames) {
             coinSlotLists.add(dbAdapter.getCoinList(collectionName, populateAdvInfo, false));
@@ -19,6 +19,7 @@
  */
 
 import static com.spencerpages.SharedTest.COLLECTION_LIST_INFO_SCENARIOS;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import android.content.Intent;
@@ -27,9 +28,11 @@ import android.os.Build;
 import androidx.test.core.app.ActivityScenario;
 import androidx.test.core.app.ApplicationProvider;
 
+import com.coincollection.CoinListBuilder;
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
 import com.coincollection.CollectionListInfo;
+import com.coincollection.core.CoinCreationParams;
 import com.coincollection.helper.ParcelableHashMap;
 import com.spencerpages.SharedTest;
 
@@ -98,4 +101,25 @@ public class CoinPageCreatorTests extends BaseTestCase {
             }
         }
     }
+
+    /**
+     * Test that the count-only path used for the collection size preview matches the coin list
+     */
+    @Test
+    public void test_coinCountPreview() {
+        for (CollectionListInfo info : COLLECTION_LIST_INFO_SCENARIOS) {
+            HashMap<String, Object> parameters = CoinPageCreator.getParametersFromCollectionListInfo(info);
+            ArrayList<CoinSlot> coinList = new ArrayList<>();
+            info.getCollectionObj().populateCollectionLists(parameters, coinList);
+
+            CoinListBuilder counter = new CoinListBuilder(2);
+            info.getCollectionObj().populateCollectionLists(new CoinCreationParams(parameters), counter);
+            assertEquals(coinList.size(), counter.getCount());
+            assertEquals(Math.min(2, coinList.size()), counter.getPreviewCount());
+            for (int i = 0; i < counter.getPreviewCount(); i++) {
+                assertEquals(coinList.get(i).getIdentifier(), counter.getPreviewIdentifier(i));
+                assertEquals(coinList.get(i).getMint(), counter.getPreviewMint(i));
+            }
+        }
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Intent;
+import android.os.Build;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.coincollection.CoinSearchResult;
+import com.coincollection.CoinSlot;
+import com.coincollection.CollectionInfo;
+import com.coincollection.CollectionListInfo;
+import com.coincollection.MainActivity;
+import com.spencerpages.MainApplication;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+@RunWith(RobolectricTestRunner.class)
+// TODO - Must keep at 28 until Robolectric supports Java 9 (required to use 29+)
+@Config(sdk = Build.VERSION_CODES.P)
+public class CoinSearchTests extends BaseTestCase {
+
+    /**
+     * Test that the search index follows changes made through the database adapter
+     */
+    @Test
+    public void test_searchIndexUpdates() {
+        try(ActivityScenario<MainActivity> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), MainActivity.class)
+                        .putExtra(MainActivity.UNIT_TEST_USE_ASYNC_TASKS, false))) {
+            scenario.onActivity(activity -> {
+                CollectionInfo coinType = MainApplication.getCollectionType(0);
+                ArrayList<CoinSlot> coinList = new ArrayList<>();
+                coinList.add(new CoinSlot(1L, "1999", "P", false, 0, 0, "Toned", 0, false));
+                coinList.add(new CoinSlot(2L, "1999", "D", false, 0, 0, "", 1, false));
+                coinList.add(new CoinSlot(3L, "2000", "P", false, 0, 0, "", 2, false));
+                CollectionListInfo info = getCollectionListInfo("Zebra Set", coinType, coinList);
+                activity.mDbAdapter.createAndPopulateNewTable(info, 0, coinList);
+
+                // New collection
+                assertEquals(2, activity.mDbAdapter.searchCoins("1999").size());
+                assertEquals(1, activity.mDbAdapter.searchCoins("1999 D").size());
+                assertEquals(1, activity.mDbAdapter.searchCoins("tone").size());
+                assertEquals(3, activity.mDbAdapter.searchCoins("zeb").size());
+                assertEquals(0, activity.mDbAdapter.searchCoins("2001").size());
+                assertEquals(0, activity.mDbAdapter.searchCoins("\" OR *").size());
+
+                // Check the result contents
+                CoinSearchResult result = activity.mDbAdapter.searchCoins("tone").get(0);
+                assertEquals("Zebra Set", result.getCollectionName());
+                assertEquals(coinType.getCoinType(), result.getCoinType());
+                assertEquals("1999", result.getIdentifier());
+                assertEquals("P", result.getMint());
+                assertEquals("Toned", result.getNotes());
+
+                // Rename the collection
+                activity.mDbAdapter.updateCollectionName("Zebra Set", "Walrus Set");
+                assertEquals(0, activity.mDbAdapter.searchCoins("zebra").size());
+                assertEquals(3, activity.mDbAdapter.searchCoins("walrus").size());
+
+                // Edit a coin
+                CoinSlot editCoin = coinList.get(2);
+                editCoin.setIdentifier("2005");
+                activity.mDbAdapter.updateCoinNameAndMint("Walrus Set", editCoin);
+                assertEquals(0, activity.mDbAdapter.searchCoins("2000").size());
+                assertEquals(1, activity.mDbAdapter.searchCoins("2005").size());
+
+                // Add and remove coins
+                CoinSlot newCoin = new CoinSlot("2010", "S", 3);
+                activity.mDbAdapter.addCoinSlotToCollection(newCoin, "Walrus Set", true, 4);
+                assertEquals(1, activity.mDbAdapter.searchCoins("2010 S").size());
+                activity.mDbAdapter.removeCoinSlotFromCollection(coinList.get(0), "Walrus Set", 3);
+                assertEquals(0, activity.mDbAdapter.searchCoins("tone").size());
+                assertEquals(3, activity.mDbAdapter.searchCoins("walrus").size());
+
+                // Delete the collection
+                activity.mDbAdapter.dropCollectionTable("Walrus Set");
+                assertEquals(0, activity.mDbAdapter.searchCoins("walrus").size());
+            });
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static com.coincollection.CollectionPage.ADVANCED_DISPLAY;
+import static com.coincollection.CollectionPage.SIMPLE_DISPLAY;
+import static com.spencerpages.MainApplication.getAllCollectionTypes;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.content.Intent;
+import android.os.Build;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.coincollection.CoinPageCreator;
+import com.coincollection.CoinSlot;
+import com.coincollection.CollectionInfo;
+import com.coincollection.CollectionListInfo;
+import com.coincollection.CollectionPage;
+import com.coincollection.helper.ParcelableHashMap;
+import com.spencerpages.MainApplication;
+import com.spencerpages.R;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+/**
+ * Benchmark for binding coin slot views in the collection page. This writes the time and
+ * allocations per bind to a JSON report for each display type (measured under Robolectric, so
+ * the absolute numbers are only useful for comparing against previous runs).
+ *
+ * The run can be set up with -P options to gradle:
+ *   perf.binds           number of binds timed for each display type
+ *   perf.bindReportDir   directory to write the reports to
+ */
+@RunWith(RobolectricTestRunner.class)
+// TODO - Must keep at 28 until Robolectric supports Java 9 (required to use 29+)
+@Config(sdk = Build.VERSION_CODES.P)
+public class CoinSlotBindBenchmarkTests extends BaseTestCase {
+
+    private final static int NUM_BINDS = Integer.getInteger("perf.binds", 500);
+    private final static int NUM_WARMUP_BINDS = 200;
+    private final static String REPORT_DIR = System.getProperty("perf.bindReportDir", "build/reports/perf");
+
+    private String mCollectionName;
+    private int mCoinTypeIdx;
+
+    @Before
+    public void databaseSetup() {
+        // Use the collection type with the most coins
+        CollectionInfo largestCollection = null;
+        ArrayList<CoinSlot> largestCoinList = new ArrayList<>();
+        for (CollectionInfo collectionInfo : getAllCollectionTypes()) {
+            ParcelableHashMap parameters = new ParcelableHashMap();
+            collectionInfo.getCreationParameters(parameters);
+            ArrayList<CoinSlot> coinList = new ArrayList<>();
+            collectionInfo.populateCollectionLists(parameters, coinList);
+            if (coinList.size() > largestCoinList.size()) {
+                largestCollection = collectionInfo;
+                largestCoinList = coinList;
+            }
+        }
+        assertTrue(largestCollection != null);
+        mCollectionName = largestCollection.getCoinType();
+        mCoinTypeIdx = MainApplication.getIndexFromCollectionNameStr(mCollectionName);
+        final CollectionListInfo info = getCollectionListInfo(mCollectionName, largestCollection, largestCoinList);
+        final ArrayList<CoinSlot> coinList = largestCoinList;
+
+        try(ActivityScenario<CoinPageCreator> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), CoinPageCreator.class)
+                        .putExtra(CoinPageCreator.UNIT_TEST_USE_ASYNC_TASKS, false))) {
+            scenario.onActivity(activity -> activity.mDbAdapter.createAndPopulateNewTable(info, 0, coinList));
+        }
+    }
+
+    /**
+     * Benchmark binding the simple view
+     */
+    @Test
+    public void test_bindSimpleView() {
+        runBindBenchmark(SIMPLE_DISPLAY, R.id.standard_collection_page, "simple");
+    }
+
+    /**
+     * Benchmark binding the advanced view
+     */
+    @Test
+    public void test_bindAdvancedView() {
+        runBindBenchmark(ADVANCED_DISPLAY, R.id.advanced_collection_page, "advanced");
+    }
+
+    /**
+     * Binds NUM_BINDS positions through the collection page adapter and writes the report
+     * @param displayType display type of the collection
+     * @param recyclerViewId id of the RecyclerView used for the display type
+     * @param label label for the report
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void runBindBenchmark(int displayType, int recyclerViewId, String label) {
+        try(ActivityScenario<CoinPageCreator> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), CoinPageCreator.class)
+                        .putExtra(CoinPageCreator.UNIT_TEST_USE_ASYNC_TASKS, false))) {
+            scenario.onActivity(activity -> activity.mDbAdapter.updateTableDisplay(mCollectionName, displayType));
+        }
+
+        try (ActivityScenario<CollectionPage> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), CollectionPage.class)
+                        .putExtra(CollectionPage.UNIT_TEST_USE_ASYNC_TASKS, false)
+                        .putExtra(CollectionPage.COLLECTION_TYPE_INDEX, mCoinTypeIdx)
+                        .putExtra(CollectionPage.COLLECTION_NAME, mCollectionName))) {
+            scenario.onActivity(activity -> {
+                RecyclerView recyclerView = activity.findViewById(recyclerViewId);
+                RecyclerView.Adapter adapter = recyclerView.getAdapter();
+                assertTrue(adapter != null && adapter.getItemCount() > 0);
+                int itemCount = adapter.getItemCount();
+                RecyclerView.ViewHolder holder = adapter.createViewHolder(recyclerView, adapter.getItemViewType(0));
+
+                // Warm up so that one-time setup isn't counted
+                for (int i = 0; i < NUM_WARMUP_BINDS; i++) {
+                    adapter.bindViewHolder(holder, i % itemCount);
+                }
+
+                ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+                long startBytes = getAllocatedBytes(threadBean);
+                long startTime = System.nanoTime();
+                for (int i = 0; i < NUM_BINDS; i++) {
+                    adapter.bindViewHolder(holder, i % itemCount);
+                }
+                long elapsedNs = System.nanoTime() - startTime;
+                long allocatedBytes = getAllocatedBytes(threadBean) - startBytes;
+
+                try {
+                    JSONObject report = new JSONObject();
+                    report.put("displayType", label);
+                    report.put("binds", NUM_BINDS);
+                    report.put("coins", itemCount);
+                    report.put("nsPerBind", elapsedNs / NUM_BINDS);
+                    // -1 if the JVM can't measure allocations
+                    report.put("bytesPerBind", (startBytes < 0) ? -1 : allocatedBytes / NUM_BINDS);
+                    writeFile(new File(REPORT_DIR, "bind-" + label + ".json"), report.toString(2));
+                } catch (JSONException e) {
+                    fail(e.toString());
+                }
+            });
+        }
+    }
+
+    /**
+     * Gets the number of bytes allocated by the current thread, if supported by the JVM
+     * @param threadBean thread MX bean
+     * @return number of bytes allocated, or -1 if not supported
+     */
+    private static long getAllocatedBytes(ThreadMXBean threadBean) {
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Writes a whole file as UTF-8, creating the directory if needed
+     * @param file file to write
+     * @param contents file contents
+     */
+    private static void writeFile(File file, String contents) {
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) {
+                assertTrue(parent.mkdirs());
+            }
+            Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            fail(e.toString());
+        }
+    }
+}
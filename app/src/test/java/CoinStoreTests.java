@@ -0,0 +1,164 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Intent;
+import android.os.Build;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.coincollection.CoinSearchResult;
+import com.coincollection.CoinSlot;
+import com.coincollection.CoinStore;
+import com.coincollection.CollectionInfo;
+import com.coincollection.CollectionListInfo;
+import com.coincollection.CollectionPage;
+import com.coincollection.CollectionStats;
+import com.coincollection.CollectionStatsHelper;
+import com.coincollection.InMemoryCoinStore;
+import com.coincollection.MainActivity;
+import com.spencerpages.MainApplication;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+@RunWith(RobolectricTestRunner.class)
+// TODO - Must keep at 28 until Robolectric supports Java 9 (required to use 29+)
+@Config(sdk = Build.VERSION_CODES.P)
+public class CoinStoreTests extends BaseTestCase {
+
+    /**
+     * Test that the in-memory store gives the same results as the SQLite store
+     */
+    @Test
+    public void test_inMemoryStoreMatchesDatabase() {
+        try(ActivityScenario<MainActivity> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), MainActivity.class)
+                        .putExtra(MainActivity.UNIT_TEST_USE_ASYNC_TASKS, false))) {
+            scenario.onActivity(activity -> {
+                CoinStore dbStore = activity.mDbAdapter;
+                CoinStore memoryStore = new InMemoryCoinStore();
+                makeChanges(dbStore);
+                makeChanges(memoryStore);
+
+                // Collection list
+                assertEquals(dbStore.getCollectionNames(), memoryStore.getCollectionNames());
+                ArrayList<CollectionListInfo> dbCollections = new ArrayList<>();
+                ArrayList<CollectionListInfo> memoryCollections = new ArrayList<>();
+                dbStore.getAllTables(dbCollections);
+                memoryStore.getAllTables(memoryCollections);
+                assertEquals(dbCollections.size(), memoryCollections.size());
+                for (int i = 0; i < dbCollections.size(); i++) {
+                    compareCollectionListInfos(dbCollections.get(i), memoryCollections.get(i));
+                }
+
+                // Coins and display types
+                for (String name : dbStore.getCollectionNames()) {
+                    compareCoinSlotLists(dbStore.getCoinList(name, true), memoryStore.getCoinList(name, true), true);
+                    compareCoinSlotLists(dbStore.getCoinList(name, false, false), memoryStore.getCoinList(name, false, false), false);
+                    assertEquals(dbStore.fetchTableDisplay(name), memoryStore.fetchTableDisplay(name));
+                }
+
+                // Name checks
+                for (String name : new String[] {"Zebra Set", "zebra set", "New Name", "collection_info"}) {
+                    assertEquals(dbStore.checkCollectionName(name), memoryStore.checkCollectionName(name));
+                }
+                assertEquals(dbStore.getNextDisplayOrder(), memoryStore.getNextDisplayOrder());
+                assertEquals(dbStore.getNextCoinSortOrder("Zebra Set"), memoryStore.getNextCoinSortOrder("Zebra Set"));
+
+                // Statistics
+                CollectionStats dbStats = dbStore.getCollectionStats();
+                CollectionStats memoryStats = memoryStore.getCollectionStats();
+                assertEquals(dbStats.getTotal(), memoryStats.getTotal());
+                assertEquals(dbStats.getTotalCollected(), memoryStats.getTotalCollected());
+                assertEquals(dbStats.getTotalQuantity(), memoryStats.getTotalQuantity());
+                for (int category : new int[] {CollectionStatsHelper.STAT_MINT, CollectionStatsHelper.STAT_DECADE,
+                        CollectionStatsHelper.STAT_GRADE, CollectionStatsHelper.STAT_COIN_TYPE}) {
+                    ArrayList<CollectionStats.Entry> dbEntries = dbStats.getEntries(category);
+                    ArrayList<CollectionStats.Entry> memoryEntries = memoryStats.getEntries(category);
+                    assertEquals(dbEntries.size(), memoryEntries.size());
+                    for (int i = 0; i < dbEntries.size(); i++) {
+                        assertEquals(dbEntries.get(i).getKey(), memoryEntries.get(i).getKey());
+                        assertEquals(dbEntries.get(i).getCollected(), memoryEntries.get(i).getCollected());
+                        assertEquals(dbEntries.get(i).getTotal(), memoryEntries.get(i).getTotal());
+                        assertEquals(dbEntries.get(i).getQuantity(), memoryEntries.get(i).getQuantity());
+                    }
+                }
+
+                // Search
+                for (String searchText : new String[] {"1999", "1999 D", "tone", "walrus", "zeb 2010", "2001"}) {
+                    ArrayList<CoinSearchResult> dbResults = dbStore.searchCoins(searchText);
+                    ArrayList<CoinSearchResult> memoryResults = memoryStore.searchCoins(searchText);
+                    assertEquals(dbResults.size(), memoryResults.size());
+                    for (int i = 0; i < dbResults.size(); i++) {
+                        assertEquals(dbResults.get(i).getCollectionName(), memoryResults.get(i).getCollectionName());
+                        assertEquals(dbResults.get(i).getCoinDatabaseId(), memoryResults.get(i).getCoinDatabaseId());
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Makes the same set of changes to a store
+     * @param store store to change
+     */
+    private void makeChanges(CoinStore store) {
+        CollectionInfo coinType = MainApplication.getCollectionType(0);
+        ArrayList<CoinSlot> coinList = new ArrayList<>();
+        coinList.add(new CoinSlot(0L, "1999", "P", false, 0, 0, "Toned", 0, false));
+        coinList.add(new CoinSlot(0L, "1999", "D", true, 3, 1, "", 1, false));
+        coinList.add(new CoinSlot(0L, "2000", "P", false, 0, 0, "", 2, false));
+        store.createAndPopulateNewTable(getCollectionListInfo("Zebra Set", coinType, coinList), 0, coinList);
+
+        CollectionInfo otherType = MainApplication.getCollectionType(1);
+        ArrayList<CoinSlot> otherList = new ArrayList<>();
+        otherList.add(new CoinSlot(0L, "1955", "", false, 0, 0, "", 0, false));
+        otherList.add(new CoinSlot(0L, "Proof", "S", false, 0, 0, "", 1, false));
+        store.createAndPopulateNewTable(getCollectionListInfo("Walrus Set", otherType, otherList), 1, otherList);
+
+        // Coin changes
+        store.toggleInCollection("Zebra Set", coinList.get(0));
+        coinList.get(2).setInCollection(true);
+        coinList.get(2).setAdvancedGrades(5);
+        coinList.get(2).setAdvancedQuantities(2);
+        coinList.get(2).setAdvancedNotes("Nice");
+        store.updateAdvInfo("Zebra Set", coinList.get(2));
+        otherList.get(1).setIdentifier("1956");
+        store.updateCoinNameAndMint("Walrus Set", otherList.get(1));
+        store.updateCoinSortOrderForInsert("Zebra Set", 1);
+        CoinSlot newCoin = coinList.get(0).copy("2010", "S", true);
+        store.addCoinSlotToCollection(newCoin, "Zebra Set", true, 4);
+        store.removeCoinSlotFromCollection(otherList.get(0), "Walrus Set", 1);
+
+        // Collection changes
+        store.updateTableDisplay("Walrus Set", CollectionPage.ADVANCED_DISPLAY);
+        store.updateDisplayOrder("Zebra Set", 2);
+        store.createCollectionCopy(store.getCollectionListInfo("Walrus Set"), "Copy Set", 3);
+        store.updateCollectionName("Copy Set", "Renamed Set");
+        store.dropCollectionTable("Renamed Set");
+    }
+}
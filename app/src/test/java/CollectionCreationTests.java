@@ -22,6 +22,7 @@ import static junit.framework.TestCase.assertEquals;
 
 import com.coincollection.CoinPageCreator;
 import com.coincollection.CoinSlot;
+import com.coincollection.core.CreationParameters;
 import com.coincollection.helper.ParcelableHashMap;
 import com.spencerpages.collections.AmericanEagleSilverDollars;
 import com.spencerpages.collections.AmericanInnovationDollars;
@@ -1013,4 +1014,18 @@ public class CollectionCreationTests extends BaseTestCase {
             checkCreationParamsFromCoinList(coinList, coinClass);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that the collection types special-cased by the core creation parameter
+     * inference match the app's collection types
+     */
+    @Test
+    public void test_coreCollectionTypeNames() {
+        assertEquals(BuffaloNickels.COLLECTION_TYPE, CreationParameters.BUFFALO_NICKELS_TYPE);
+        assertEquals(IndianHeadCents.COLLECTION_TYPE, CreationParameters.INDIAN_HEAD_CENTS_TYPE);
+        assertEquals(MorganDollars.COLLECTION_TYPE, CreationParameters.MORGAN_DOLLARS_TYPE);
+        assertEquals(StateQuarters.COLLECTION_TYPE, CreationParameters.STATE_QUARTERS_TYPE);
+        assertEquals(WalkingLibertyHalfDollars.COLLECTION_TYPE, CreationParameters.WALKING_LIBERTY_HALF_DOLLARS_TYPE);
+        assertEquals(StateQuarters.DC_AND_TERR_COIN_IDENTIFIERS[0][0], CreationParameters.STATE_QUARTERS_FIRST_TERRITORY);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.os.Build;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.coincollection.CoinSlot;
+import com.coincollection.CollectionListInfo;
+import com.coincollection.CollectionListSnapshot;
+import com.spencerpages.MainApplication;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+@RunWith(RobolectricTestRunner.class)
+// TODO - Must keep at 28 until Robolectric supports Java 9 (required to use 29+)
+@Config(sdk = Build.VERSION_CODES.P)
+public class CollectionListSnapshotTests extends BaseTestCase {
+
+    /**
+     * Test that a written snapshot reads back as the same list in the same order
+     */
+    @Test
+    public void test_snapshotRoundTrip() {
+        File filesDir = ApplicationProvider.getApplicationContext().getFilesDir();
+        ArrayList<CollectionListInfo> collectionList = new ArrayList<>();
+        collectionList.add(getCollectionListInfo("Second", MainApplication.getCollectionType(1), new ArrayList<CoinSlot>()));
+        collectionList.add(getCollectionListInfo("First", MainApplication.getCollectionType(0), new ArrayList<CoinSlot>()));
+        collectionList.get(0).setMax(12);
+        collectionList.get(0).setCollected(5);
+        // Spacers at the end of the list aren't part of the snapshot
+        collectionList.add(null);
+
+        assertTrue(CollectionListSnapshot.write(filesDir, CollectionListSnapshot.serialize(collectionList, 2)));
+        ArrayList<CollectionListInfo> readList = CollectionListSnapshot.read(filesDir);
+        assertEquals(2, readList.size());
+        for (int i = 0; i < 2; i++) {
+            CollectionListInfo expected = collectionList.get(i);
+            CollectionListInfo actual = readList.get(i);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getMax(), actual.getMax());
+            assertEquals(expected.getCollected(), actual.getCollected());
+            assertEquals(expected.getDisplayType(), actual.getDisplayType());
+            assertEquals(expected.getStartYear(), actual.getStartYear());
+            assertEquals(expected.getEndYear(), actual.getEndYear());
+            assertEquals(expected.getMintMarkFlags(), actual.getMintMarkFlags());
+            assertEquals(expected.getCheckboxFlags(), actual.getCheckboxFlags());
+        }
+    }
+
+    /**
+     * Test that missing or damaged snapshots are ignored
+     */
+    @Test
+    public void test_invalidSnapshot() {
+        Context context = ApplicationProvider.getApplicationContext();
+        File filesDir = context.getFilesDir();
+        new File(filesDir, CollectionListSnapshot.SNAPSHOT_FILE_NAME).delete();
+        assertNull(CollectionListSnapshot.read(filesDir));
+
+        ArrayList<CollectionListInfo> collectionList = new ArrayList<>();
+        collectionList.add(getCollectionListInfo("Name", MainApplication.getCollectionType(0), new ArrayList<CoinSlot>()));
+        byte[] data = CollectionListSnapshot.serialize(collectionList, 1);
+        assertNull(CollectionListSnapshot.deserialize(Arrays.copyOf(data, data.length - 1)));
+        assertNull(CollectionListSnapshot.deserialize(new byte[0]));
+    }
+}
@@ -21,6 +21,8 @@
 import static com.spencerpages.SharedTest.COLLECTION_LIST_INFO_SCENARIOS;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 
 import android.content.Intent;
 import android.os.Build;
@@ -33,14 +35,17 @@ import com.coincollection.CoinSlot;
 import com.coincollection.CollectionListInfo;
 import com.coincollection.CollectionPage;
 import com.coincollection.helper.ParcelableHashMap;
+import com.spencerpages.R;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
+import org.robolectric.fakes.RoboMenuItem;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
 @RunWith(RobolectricTestRunner.class)
 // TODO - Must keep at 28 until Robolectric supports Java 9 (required to use 29+)
@@ -61,6 +66,11 @@ public class CollectionPageActivityTests extends BaseTestCase {
                     int index = info.getCollectionTypeIndex();
                     activity.setInternalStateFromCollectionIndex(index, parameters);
                     activity.createOrUpdateCoinListForAsyncThread();
+                    // Give the first coin some advanced info
+                    CoinSlot advCoinSlot = activity.mCoinList.get(0);
+                    advCoinSlot.setAdvancedGrades(3);
+                    advCoinSlot.setAdvancedQuantities(2);
+                    advCoinSlot.setAdvancedNotes("Notes");
                     // Create the collection in the database
                     activity.mDbAdapter.createAndPopulateNewTable(info, 0, activity.mCoinList);
                     mCollectionList.add(new FullCollection(info, activity.mCoinList, 0));
@@ -79,6 +89,7 @@ public class CollectionPageActivityTests extends BaseTestCase {
             int coinTypeIdx = collection.mCollectionListInfo.getCollectionTypeIndex();
             try (ActivityScenario<CollectionPage> scenario = ActivityScenario.launch(
                     new Intent(ApplicationProvider.getApplicationContext(), CollectionPage.class)
+                            .putExtra(CollectionPage.UNIT_TEST_USE_ASYNC_TASKS, false)
                             .putExtra(CollectionPage.COLLECTION_TYPE_INDEX, coinTypeIdx)
                             .putExtra(CollectionPage.COLLECTION_NAME, collectionName))) {
                 scenario.onActivity(activity -> {
@@ -86,12 +97,12 @@ public class CollectionPageActivityTests extends BaseTestCase {
                     if (activity.mCoinList.size() > 0) {
 
                         // Make copy of coins
-                        activity.copyCoinSlot(activity.mCoinList.get(0), 1);
-                        activity.copyCoinSlot(activity.mCoinList.get(0), 1);
-                        activity.copyCoinSlot(activity.mCoinList.get(0), 1);
+                        activity.copyCoinSlot(activity.mCoinList.get(0));
+                        activity.copyCoinSlot(activity.mCoinList.get(0));
+                        activity.copyCoinSlot(activity.mCoinList.get(0));
 
                         int lastIndex = activity.mCoinList.size() - 1;
-                        activity.copyCoinSlot(activity.mCoinList.get(lastIndex), lastIndex+1);
+                        activity.copyCoinSlot(activity.mCoinList.get(lastIndex));
 
                         // Update coin names
                         activity.updateCoinDetails(activity.mCoinList.get(0), "First Coin", "First");
@@ -108,7 +119,7 @@ public class CollectionPageActivityTests extends BaseTestCase {
                         activity.deleteCoinSlotAtPosition(secondToLastIndex);
 
                         // Add coins
-                        activity.copyCoinSlot(activity.mCoinList.get(0), 1);
+                        activity.copyCoinSlot(activity.mCoinList.get(0));
                         activity.updateCoinDetails(activity.mCoinList.get(0), "First Coin2", "First2");
                     }
 
@@ -121,4 +132,68 @@ public class CollectionPageActivityTests extends BaseTestCase {
             }
         }
     }
+
+    /**
+     * Test that the coin list is retained when the activity is re-created
+     */
+    @Test
+    public void test_coinListRetainedOnRecreate() {
+        FullCollection collection = mCollectionList.get(0);
+        String collectionName = collection.mCollectionListInfo.getName();
+        int coinTypeIdx = collection.mCollectionListInfo.getCollectionTypeIndex();
+        try (ActivityScenario<CollectionPage> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), CollectionPage.class)
+                        .putExtra(CollectionPage.UNIT_TEST_USE_ASYNC_TASKS, false)
+                        .putExtra(CollectionPage.COLLECTION_TYPE_INDEX, coinTypeIdx)
+                        .putExtra(CollectionPage.COLLECTION_NAME, collectionName))) {
+            AtomicReference<ArrayList<CoinSlot>> coinList = new AtomicReference<>();
+            scenario.onActivity(activity -> coinList.set(activity.mCoinList));
+            scenario.recreate();
+            scenario.onActivity(activity -> {
+                assertSame(coinList.get(), activity.mCoinList);
+                compareCoinSlotLists(collection.mCoinList, activity.mCoinList, false);
+            });
+        }
+    }
+
+    /**
+     * Test that switching between the simple and advanced views happens in place, with the
+     * advanced info loaded into the existing coin list
+     */
+    @Test
+    public void test_switchDisplayTypeInPlace() {
+        FullCollection collection = mCollectionList.get(0);
+        String collectionName = collection.mCollectionListInfo.getName();
+        int coinTypeIdx = collection.mCollectionListInfo.getCollectionTypeIndex();
+        Intent intent = new Intent(ApplicationProvider.getApplicationContext(), CollectionPage.class)
+                .putExtra(CollectionPage.UNIT_TEST_USE_ASYNC_TASKS, false)
+                .putExtra(CollectionPage.COLLECTION_TYPE_INDEX, coinTypeIdx)
+                .putExtra(CollectionPage.COLLECTION_NAME, collectionName);
+
+        // Start in the simple view
+        try (ActivityScenario<CollectionPage> scenario = ActivityScenario.launch(intent)) {
+            scenario.onActivity(activity ->
+                activity.mDbAdapter.updateTableDisplay(collectionName, CollectionPage.SIMPLE_DISPLAY));
+        }
+
+        try (ActivityScenario<CollectionPage> scenario = ActivityScenario.launch(intent)) {
+            scenario.onActivity(activity -> {
+                ArrayList<CoinSlot> coinList = activity.mCoinList;
+                assertEquals(0, (int) coinList.get(0).getAdvancedGrades());
+
+                // Switch to the advanced view
+                activity.onOptionsItemSelected(new RoboMenuItem(R.id.change_view));
+                assertFalse(activity.isFinishing());
+                assertSame(coinList, activity.mCoinList);
+                assertEquals(CollectionPage.ADVANCED_DISPLAY, activity.mDbAdapter.fetchTableDisplay(collectionName));
+                compareCoinSlotLists(collection.mCoinList, activity.mCoinList, true);
+
+                // Switch back to the simple view
+                activity.onOptionsItemSelected(new RoboMenuItem(R.id.change_view));
+                assertFalse(activity.isFinishing());
+                assertSame(coinList, activity.mCoinList);
+                assertEquals(CollectionPage.SIMPLE_DISPLAY, activity.mDbAdapter.fetchTableDisplay(collectionName));
+            });
+        }
+    }
 }
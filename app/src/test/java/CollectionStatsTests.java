@@ -0,0 +1,145 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import android.content.Intent;
+import android.os.Build;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.coincollection.CoinSlot;
+import com.coincollection.CollectionInfo;
+import com.coincollection.CollectionListInfo;
+import com.coincollection.CollectionStats;
+import com.coincollection.CollectionStatsHelper;
+import com.coincollection.MainActivity;
+import com.spencerpages.MainApplication;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+@RunWith(RobolectricTestRunner.class)
+// TODO - Must keep at 28 until Robolectric supports Java 9 (required to use 29+)
+@Config(sdk = Build.VERSION_CODES.P)
+public class CollectionStatsTests extends BaseTestCase {
+
+    /**
+     * Test that the statistics summary follows changes made through the database adapter
+     */
+    @Test
+    public void test_statsUpdates() {
+        try(ActivityScenario<MainActivity> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), MainActivity.class)
+                        .putExtra(MainActivity.UNIT_TEST_USE_ASYNC_TASKS, false))) {
+            scenario.onActivity(activity -> {
+                CollectionInfo coinType = MainApplication.getCollectionType(0);
+                ArrayList<CoinSlot> coinList = new ArrayList<>();
+                coinList.add(new CoinSlot(1L, "1955", "D", false, 0, 4, "", 0, false));
+                coinList.add(new CoinSlot(2L, "1956", "D", true, 0, 2, "", 1, false));
+                coinList.add(new CoinSlot(3L, "Kentucky", "", false, 0, 0, "", 2, false));
+                CollectionListInfo info = getCollectionListInfo("Stats Set", coinType, coinList);
+                activity.mDbAdapter.createAndPopulateNewTable(info, 0, coinList);
+
+                // New collection - the quantity only counts collected coins (index 2 is 3 coins)
+                CollectionStats stats = activity.mDbAdapter.getCollectionStats();
+                checkTotals(stats, 1, 3, 3);
+                checkEntry(stats, CollectionStatsHelper.STAT_MINT, "D", 1, 2);
+                checkEntry(stats, CollectionStatsHelper.STAT_MINT, "", 0, 1);
+                checkEntry(stats, CollectionStatsHelper.STAT_DECADE, "1950", 1, 2);
+                checkEntry(stats, CollectionStatsHelper.STAT_DECADE, "", 0, 1);
+                checkEntry(stats, CollectionStatsHelper.STAT_COIN_TYPE, coinType.getCoinType(), 1, 3);
+
+                // Toggle a coin
+                activity.mDbAdapter.toggleInCollection("Stats Set", coinList.get(0));
+                stats = activity.mDbAdapter.getCollectionStats();
+                checkTotals(stats, 2, 3, 8);
+                checkEntry(stats, CollectionStatsHelper.STAT_MINT, "D", 2, 2);
+
+                // Edit a coin
+                CoinSlot editCoin = coinList.get(2);
+                editCoin.setIdentifier("2001");
+                editCoin.setMint("P");
+                activity.mDbAdapter.updateCoinNameAndMint("Stats Set", editCoin);
+                stats = activity.mDbAdapter.getCollectionStats();
+                checkTotals(stats, 2, 3, 8);
+                checkEntry(stats, CollectionStatsHelper.STAT_MINT, "P", 0, 1);
+                checkEntry(stats, CollectionStatsHelper.STAT_DECADE, "2000", 0, 1);
+                assertEquals(2, stats.getEntries(CollectionStatsHelper.STAT_MINT).size());
+
+                // Add and remove coins
+                CoinSlot newCoin = new CoinSlot("2010", "S", 3);
+                activity.mDbAdapter.addCoinSlotToCollection(newCoin, "Stats Set", true, 4);
+                stats = activity.mDbAdapter.getCollectionStats();
+                checkTotals(stats, 2, 4, 8);
+                checkEntry(stats, CollectionStatsHelper.STAT_MINT, "S", 0, 1);
+                activity.mDbAdapter.removeCoinSlotFromCollection(coinList.get(0), "Stats Set", 3);
+                stats = activity.mDbAdapter.getCollectionStats();
+                checkTotals(stats, 1, 3, 3);
+                checkEntry(stats, CollectionStatsHelper.STAT_MINT, "D", 1, 1);
+
+                // Rename and delete the collection
+                activity.mDbAdapter.updateCollectionName("Stats Set", "New Stats Set");
+                checkTotals(activity.mDbAdapter.getCollectionStats(), 1, 3, 3);
+                activity.mDbAdapter.dropCollectionTable("New Stats Set");
+                checkTotals(activity.mDbAdapter.getCollectionStats(), 0, 0, 0);
+            });
+        }
+    }
+
+    /**
+     * Checks the overall totals
+     * @param stats statistics to check
+     * @param collected expected number collected
+     * @param total expected total number of coins
+     * @param quantity expected total quantity
+     */
+    private void checkTotals(CollectionStats stats, int collected, int total, int quantity) {
+        assertEquals(collected, stats.getTotalCollected());
+        assertEquals(total, stats.getTotal());
+        assertEquals(quantity, stats.getTotalQuantity());
+    }
+
+    /**
+     * Checks a single statistic
+     * @param stats statistics to check
+     * @param category statistic category
+     * @param key statistic key
+     * @param collected expected number collected
+     * @param total expected total number of coins
+     */
+    private void checkEntry(CollectionStats stats, int category, String key, int collected, int total) {
+        CollectionStats.Entry found = null;
+        for (CollectionStats.Entry entry : stats.getEntries(category)) {
+            if (entry.getKey().equals(key)) {
+                found = entry;
+            }
+        }
+        assertNotNull(found);
+        assertEquals(collected, found.getCollected());
+        assertEquals(total, found.getTotal());
+    }
+}
@@ -33,7 +33,6 @@ import org.junit.runner.RunWith;
 import org.robolectric.ParameterizedRobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
-import java.util.Arrays;
 import java.util.List;
 
 @RunWith(ParameterizedRobolectricTestRunner.class)
@@ -49,7 +48,7 @@ public class DatabaseAccessTests extends BaseTestCase {
 
     @ParameterizedRobolectricTestRunner.Parameters
     public static List<?> getCoinTypeObj() {
-        return Arrays.asList(MainApplication.COLLECTION_TYPES);
+        return MainApplication.getAllCollectionTypes();
     }
 
     @Test
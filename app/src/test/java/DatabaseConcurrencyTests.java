@@ -0,0 +1,255 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Intent;
+import android.database.SQLException;
+import android.os.Build;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.coincollection.CoinSlot;
+import com.coincollection.CoinStore;
+import com.coincollection.CollectionListInfo;
+import com.coincollection.CollectionStats;
+import com.coincollection.ExportImportHelper;
+import com.coincollection.MainActivity;
+import com.spencerpages.MainApplication;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+// TODO - Must keep at 28 until Robolectric supports Java 9 (required to use 29+)
+@Config(sdk = Build.VERSION_CODES.P)
+public class DatabaseConcurrencyTests extends BaseTestCase {
+
+    private final static String TOGGLE_COLLECTION = "Toggle Set";
+    private final static String[] REORDER_COLLECTIONS = {"Reorder A", "Reorder B", "Reorder C"};
+    private final static int NUM_COINS = 10;
+    private final static int NUM_THREADS = 4;
+    private final static int NUM_TOGGLES_PER_THREAD = 40;
+
+    /**
+     * Test that toggles from several threads at once are all applied, while the collections are
+     * being reordered and read from other threads
+     */
+    @Test
+    public void test_concurrentToggles() {
+        try(ActivityScenario<MainActivity> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), MainActivity.class)
+                        .putExtra(MainActivity.UNIT_TEST_USE_ASYNC_TASKS, false))) {
+            scenario.onActivity(activity -> {
+                final CoinStore dbAdapter = activity.mDbAdapter;
+                final ArrayList<CoinSlot> coinList = setupCollections(activity);
+
+                // Each thread toggles every coin the same (even) number of times, so no coin
+                // should end up collected unless a toggle was lost
+                ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS + 2);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int thread = 0; thread < NUM_THREADS; thread++) {
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < NUM_TOGGLES_PER_THREAD; i++) {
+                            dbAdapter.toggleInCollection(TOGGLE_COLLECTION, coinList.get(i % NUM_COINS));
+                        }
+                    }));
+                }
+                futures.add(executor.submit(() -> reorderCollections(dbAdapter, 20, false)));
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        dbAdapter.getAllTables(new ArrayList<>());
+                        dbAdapter.getCollectionStats();
+                    }
+                }));
+                waitForAll(executor, futures);
+
+                for (CoinSlot coinSlot : dbAdapter.getCoinList(TOGGLE_COLLECTION, false)) {
+                    assertFalse(coinSlot.isInCollection());
+                }
+                checkStatsConsistent(dbAdapter);
+                checkDisplayOrders(dbAdapter, 4);
+            });
+        }
+    }
+
+    /**
+     * Test that an import isn't interleaved with other changes or closes, while activities
+     * come and go and other threads keep making changes
+     */
+    @Test
+    public void test_importDuringChanges() {
+        try(ActivityScenario<MainActivity> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), MainActivity.class)
+                        .putExtra(MainActivity.UNIT_TEST_USE_ASYNC_TASKS, false))) {
+            scenario.onActivity(activity -> {
+                final CoinStore dbAdapter = activity.mDbAdapter;
+                final ArrayList<CoinSlot> coinList = setupCollections(activity);
+
+                // Export the starting state to import back in
+                ExportImportHelper helper = new ExportImportHelper(activity.mRes, dbAdapter);
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                helper.exportCollectionsToJson(outputStream, "concurrency.json");
+                final byte[] exportData = outputStream.toByteArray();
+
+                ExecutorService executor = Executors.newFixedThreadPool(4);
+                List<Future<?>> futures = new ArrayList<>();
+                futures.add(executor.submit(() -> assertEquals("",
+                        helper.importCollectionsFromJson(new ByteArrayInputStream(exportData)))));
+                futures.add(executor.submit(() -> {
+                    // Changes made while the collections are being replaced may fail because
+                    // the coin or collection doesn't exist at that moment, but nothing else
+                    for (int i = 0; i < NUM_TOGGLES_PER_THREAD; i++) {
+                        try {
+                            dbAdapter.toggleInCollection(TOGGLE_COLLECTION, coinList.get(i % NUM_COINS));
+                        } catch (SQLException ignored) {
+                        }
+                    }
+                }));
+                futures.add(executor.submit(() -> reorderCollections(dbAdapter, 20, true)));
+                futures.add(executor.submit(() -> {
+                    // Activities opening and closing the shared adapter
+                    for (int i = 0; i < 20; i++) {
+                        dbAdapter.open();
+                        dbAdapter.getAllTables(new ArrayList<>());
+                        dbAdapter.close();
+                    }
+                }));
+                waitForAll(executor, futures);
+
+                // The activity's reference keeps the database open, and the import completed
+                ArrayList<CollectionListInfo> collections = new ArrayList<>();
+                dbAdapter.getAllTables(collections);
+                assertEquals(4, collections.size());
+                assertEquals(NUM_COINS, dbAdapter.getCoinList(TOGGLE_COLLECTION, false).size());
+                checkStatsConsistent(dbAdapter);
+            });
+        }
+    }
+
+    /**
+     * Creates the collections used by the tests
+     * @param activity activity to use
+     * @return coins in the collection to toggle
+     */
+    private ArrayList<CoinSlot> setupCollections(MainActivity activity) {
+        ArrayList<CoinSlot> coinList = new ArrayList<>();
+        for (int i = 0; i < NUM_COINS; i++) {
+            coinList.add(new CoinSlot(String.valueOf(1950 + i), "", i));
+        }
+        CollectionListInfo info = getCollectionListInfo(TOGGLE_COLLECTION, MainApplication.getCollectionType(0), coinList);
+        activity.mDbAdapter.createAndPopulateNewTable(info, 0, coinList);
+        for (int i = 0; i < REORDER_COLLECTIONS.length; i++) {
+            ArrayList<CoinSlot> reorderCoins = new ArrayList<>();
+            reorderCoins.add(new CoinSlot("2000", "", 0));
+            activity.mDbAdapter.createAndPopulateNewTable(getCollectionListInfo(REORDER_COLLECTIONS[i],
+                    MainApplication.getCollectionType(0), reorderCoins), i + 1, reorderCoins);
+        }
+        return coinList;
+    }
+
+    /**
+     * Repeatedly shuffles the display order of the reorder collections
+     * @param dbAdapter database adapter
+     * @param numReorders number of times to reorder
+     * @param allowMissing if true, ignore failures from the collections being replaced
+     */
+    private void reorderCollections(CoinStore dbAdapter, int numReorders, boolean allowMissing) {
+        ArrayList<String> names = new ArrayList<>();
+        Collections.addAll(names, REORDER_COLLECTIONS);
+        for (int i = 0; i < numReorders; i++) {
+            Collections.shuffle(names, random);
+            for (int j = 0; j < names.size(); j++) {
+                try {
+                    dbAdapter.updateDisplayOrder(names.get(j), j + 1);
+                } catch (SQLException e) {
+                    if (!allowMissing) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for all the work to finish, failing the test if any of it threw
+     * @param executor executor running the work
+     * @param futures results of the work
+     */
+    private void waitForAll(ExecutorService executor, List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Checks that the incrementally updated statistics match a full recount
+     * @param dbAdapter database adapter
+     */
+    private void checkStatsConsistent(CoinStore dbAdapter) {
+        ArrayList<CollectionListInfo> collections = new ArrayList<>();
+        dbAdapter.getAllTables(collections);
+        int collected = 0;
+        int total = 0;
+        for (CollectionListInfo info : collections) {
+            for (CoinSlot coinSlot : dbAdapter.getCoinList(info.getName(), false)) {
+                collected += coinSlot.isInCollection() ? 1 : 0;
+                total++;
+            }
+        }
+        CollectionStats stats = dbAdapter.getCollectionStats();
+        assertEquals(collected, stats.getTotalCollected());
+        assertEquals(total, stats.getTotal());
+    }
+
+    /**
+     * Checks that the reordered collections are all still listed after the toggle collection
+     * @param dbAdapter database adapter
+     * @param numCollections expected number of collections
+     */
+    private void checkDisplayOrders(CoinStore dbAdapter, int numCollections) {
+        ArrayList<CollectionListInfo> collections = new ArrayList<>();
+        dbAdapter.getAllTables(collections);
+        assertEquals(numCollections, collections.size());
+        assertEquals(TOGGLE_COLLECTION, collections.get(0).getName());
+    }
+}
@@ -24,7 +24,8 @@ import static com.coincollection.ExportImportHelper.LEGACY_EXPORT_COLLECTION_LIS
 import static com.coincollection.ExportImportHelper.LEGACY_EXPORT_DB_VERSION_FILE;
 import static com.coincollection.ExportImportHelper.LEGACY_EXPORT_FOLDER_NAME;
 import static com.coincollection.MainActivity.NUMBER_OF_COLLECTION_LIST_SPACERS;
-import static com.spencerpages.MainApplication.COLLECTION_TYPES;
+import static com.spencerpages.MainApplication.getAllCollectionTypes;
+import static com.spencerpages.MainApplication.getNumberOfCollectionTypes;
 import static com.spencerpages.SharedTest.COLLECTION_LIST_INFO_SCENARIOS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -116,7 +117,7 @@ public class ExportImportTests extends BaseTestCase {
                 File collectionListFile = new File(activity.getLegacyExportFolderName(), LEGACY_EXPORT_COLLECTION_LIST_FILE_NAME + LEGACY_EXPORT_COLLECTION_LIST_FILE_EXT);
                 assertTrue(dbVersionFile.exists());
                 assertTrue(collectionListFile.exists());
-                for (CollectionInfo collectionInfo : COLLECTION_TYPES) {
+                for (CollectionInfo collectionInfo : getAllCollectionTypes()) {
                     assertNotNull(collectionInfo);
                     File collectionFile;
                     if(collectionInfo instanceof NativeAmericanDollars){
@@ -138,7 +139,7 @@ public class ExportImportTests extends BaseTestCase {
                 assertEquals("", helper.importCollectionsFromLegacyCSV(activity.getLegacyExportFolderName()));
                 ArrayList<String> afterCollectionNames = getCollectionNames(activity);
                 ArrayList<ArrayList<CoinSlot>> afterCoinLists = getCoinSlotListsFromCollectionNames(activity.mDbAdapter, afterCollectionNames, true);
-                assertEquals(afterCollectionNames.size(), COLLECTION_TYPES.length);
+                assertEquals(afterCollectionNames.size(), getNumberOfCollectionTypes());
                 assertEquals(beforeCollectionNames, afterCollectionNames);
                 compareListOfCoinSlotLists(beforeCoinLists, afterCoinLists, true);
             });
@@ -183,7 +184,7 @@ public class ExportImportTests extends BaseTestCase {
                 assertEquals("", helper.importCollectionsFromJson(inputStream));
                 ArrayList<String> afterCollectionNames = getCollectionNames(activity);
                 ArrayList<ArrayList<CoinSlot>> afterCoinLists = getCoinSlotListsFromCollectionNames(activity.mDbAdapter, afterCollectionNames, true);
-                assertEquals(afterCollectionNames.size(), COLLECTION_TYPES.length);
+                assertEquals(afterCollectionNames.size(), getNumberOfCollectionTypes());
                 assertEquals(beforeCollectionNames, afterCollectionNames);
                 compareListOfCoinSlotLists(beforeCoinLists, afterCoinLists, true);
                 closeStream(inputStream);
@@ -229,7 +230,7 @@ public class ExportImportTests extends BaseTestCase {
                 assertEquals("", helper.importCollectionsFromSingleCSV(inputStream));
                 ArrayList<String> afterCollectionNames = getCollectionNames(activity);
                 ArrayList<ArrayList<CoinSlot>> afterCoinLists = getCoinSlotListsFromCollectionNames(activity.mDbAdapter, afterCollectionNames, true);
-                assertEquals(afterCollectionNames.size(), COLLECTION_TYPES.length);
+                assertEquals(afterCollectionNames.size(), getNumberOfCollectionTypes());
                 assertEquals(beforeCollectionNames, afterCollectionNames);
                 compareListOfCoinSlotLists(beforeCoinLists, afterCoinLists, true);
                 closeStream(inputStream);
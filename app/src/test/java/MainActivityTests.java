@@ -22,15 +22,20 @@ import static com.spencerpages.SharedTest.COLLECTION_LIST_INFO_SCENARIOS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.robolectric.Shadows.shadowOf;
 
 import android.content.Intent;
 import android.os.Build;
+import android.os.Looper;
 
 import androidx.test.core.app.ActivityScenario;
 import androidx.test.core.app.ApplicationProvider;
 
+import com.coincollection.CoinSlot;
 import com.coincollection.CollectionInfo;
 import com.coincollection.CollectionListInfo;
+import com.coincollection.CollectionPage;
 import com.coincollection.MainActivity;
 import com.coincollection.ReorderAdapter;
 import com.coincollection.ReorderCollections;
@@ -43,6 +48,7 @@ import org.robolectric.annotation.Config;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 @RunWith(RobolectricTestRunner.class)
 // TODO - Must keep at 28 until Robolectric supports Java 9 (required to use 29+)
@@ -71,7 +77,7 @@ public class MainActivityTests extends BaseTestCase {
                 new Intent(ApplicationProvider.getApplicationContext(), MainActivity.class)
                         .putExtra(MainActivity.UNIT_TEST_USE_ASYNC_TASKS, false))) {
             scenario.onActivity(activity -> {
-                for (CollectionInfo coinType : MainApplication.COLLECTION_TYPES) {
+                for (CollectionInfo coinType : MainApplication.getAllCollectionTypes()) {
                     for (FullCollection collection : getRandomTestScenarios(coinType, 2)) {
                         String collectionName = collection.mCollectionListInfo.getName();
 
@@ -153,7 +159,7 @@ public class MainActivityTests extends BaseTestCase {
      */
     @Test
     public void test_verifyDoesCollectionTypeUseDates() {
-        for (CollectionInfo coinType : MainApplication.COLLECTION_TYPES) {
+        for (CollectionInfo coinType : MainApplication.getAllCollectionTypes()) {
             if (CollectionListInfo.doesCollectionTypeUseDates(coinType.getCoinType())) {
                 assertNotEquals(0, coinType.getStartYear());
                 assertNotEquals(0, coinType.getStopYear());
@@ -163,4 +169,113 @@ public class MainActivityTests extends BaseTestCase {
             }
         }
     }
+
+    /**
+     * Make sure the collection type registry maps names and indexes consistently
+     */
+    @Test
+    public void test_collectionTypeLookup() {
+        for (int i = 0; i < MainApplication.getNumberOfCollectionTypes(); i++) {
+            String typeName = MainApplication.getCollectionTypeName(i);
+            assertEquals(i, MainApplication.getIndexFromCollectionNameStr(typeName));
+            assertEquals(typeName, MainApplication.getCollectionType(i).getCoinType());
+            assertSame(MainApplication.getCollectionType(i), MainApplication.getCollectionType(i));
+        }
+        assertEquals(-1, MainApplication.getIndexFromCollectionNameStr("Not A Coin Type"));
+    }
+
+    /**
+     * Test that changes made through the database adapter are applied to the collection list
+     * when it regains focus, without re-reading collections that didn't change
+     */
+    @Test
+    public void test_collectionChangesApplied() {
+        try(ActivityScenario<MainActivity> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), MainActivity.class)
+                        .putExtra(MainActivity.UNIT_TEST_USE_ASYNC_TASKS, false))) {
+            scenario.onActivity(activity -> {
+                activity.updateCollectionListFromDatabase();
+                assertEquals(0, activity.mNumberOfCollections);
+
+                // Create two collections
+                CollectionInfo coinType = MainApplication.getCollectionType(0);
+                ArrayList<CoinSlot> coinList = new ArrayList<>();
+                coinList.add(new CoinSlot("2000", "P", 0));
+                coinList.add(new CoinSlot("2001", "P", 1));
+                activity.mDbAdapter.createAndPopulateNewTable(getCollectionListInfo("Changes A", coinType, coinList), 0, coinList);
+                activity.mDbAdapter.createAndPopulateNewTable(getCollectionListInfo("Changes B", coinType, null), 1, null);
+                activity.onWindowFocusChanged(true);
+                assertEquals(2, activity.mNumberOfCollections);
+                assertEquals("Changes A", activity.mCollectionListEntries.get(0).getName());
+                assertEquals("Changes B", activity.mCollectionListEntries.get(1).getName());
+
+                // Collected counts
+                CollectionListInfo unchangedEntry = activity.mCollectionListEntries.get(1);
+                activity.mDbAdapter.toggleInCollection("Changes A", coinList.get(0));
+                activity.onWindowFocusChanged(true);
+                assertEquals(1, activity.mCollectionListEntries.get(0).getCollected());
+                assertSame(unchangedEntry, activity.mCollectionListEntries.get(1));
+
+                // Reorder and rename
+                activity.mDbAdapter.updateDisplayOrder("Changes B", 0);
+                activity.mDbAdapter.updateDisplayOrder("Changes A", 1);
+                activity.mDbAdapter.updateCollectionName("Changes A", "Changes C");
+                activity.onWindowFocusChanged(true);
+                assertEquals(2, activity.mNumberOfCollections);
+                assertEquals("Changes B", activity.mCollectionListEntries.get(0).getName());
+                assertEquals("Changes C", activity.mCollectionListEntries.get(1).getName());
+                assertEquals(1, activity.mCollectionListEntries.get(1).getCollected());
+
+                // Delete
+                activity.mDbAdapter.dropCollectionTable("Changes B");
+                activity.onWindowFocusChanged(true);
+                assertEquals(1, activity.mNumberOfCollections);
+                assertEquals("Changes C", activity.mCollectionListEntries.get(0).getName());
+
+                // Nothing changed, so nothing is re-read
+                CollectionListInfo lastEntry = activity.mCollectionListEntries.get(0);
+                activity.onWindowFocusChanged(true);
+                assertSame(lastEntry, activity.mCollectionListEntries.get(0));
+                assertEquals(1 + MainActivity.NUMBER_OF_COLLECTION_LIST_SPACERS, activity.mCollectionListEntries.size());
+            });
+        }
+    }
+
+    /**
+     * Test that a change made on a collection page is applied to the list after going back,
+     * without the list needing to regain focus
+     */
+    @Test
+    public void test_collectionChangesAppliedWhileFocused() {
+        try(ActivityScenario<MainActivity> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), MainActivity.class)
+                        .putExtra(MainActivity.UNIT_TEST_USE_ASYNC_TASKS, false))) {
+            CollectionInfo coinType = MainApplication.getCollectionType(0);
+            scenario.onActivity(activity -> {
+                ArrayList<CoinSlot> coinList = new ArrayList<>();
+                coinList.add(new CoinSlot("2000", "P", 0));
+                coinList.add(new CoinSlot("2001", "P", 1));
+                activity.mDbAdapter.createAndPopulateNewTable(getCollectionListInfo("Focused", coinType, coinList), 0, coinList);
+                activity.onWindowFocusChanged(true);
+                assertEquals(1, activity.mNumberOfCollections);
+                assertEquals(0, activity.mCollectionListEntries.get(0).getCollected());
+            });
+
+            // Toggle a coin on the collection page, then go back
+            try (ActivityScenario<CollectionPage> pageScenario = ActivityScenario.launch(
+                    new Intent(ApplicationProvider.getApplicationContext(), CollectionPage.class)
+                            .putExtra(CollectionPage.UNIT_TEST_USE_ASYNC_TASKS, false)
+                            .putExtra(CollectionPage.COLLECTION_TYPE_INDEX, 0)
+                            .putExtra(CollectionPage.COLLECTION_NAME, "Focused"))) {
+                pageScenario.onActivity(activity -> activity.toggleCoinSlotInCollection(0));
+            }
+
+            // The list still has focus, so the change is applied without a focus change
+            shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.SECONDS);
+            scenario.onActivity(activity -> {
+                assertEquals(1, activity.mNumberOfCollections);
+                assertEquals(1, activity.mCollectionListEntries.get(0).getCollected());
+            });
+        }
+    }
 }
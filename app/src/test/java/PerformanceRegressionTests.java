@@ -0,0 +1,505 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+import static com.coincollection.CoinSlot.COL_ADV_GRADE_INDEX;
+import static com.coincollection.CoinSlot.COL_ADV_NOTES;
+import static com.coincollection.CoinSlot.COL_ADV_QUANTITY_INDEX;
+import static com.coincollection.CoinSlot.COL_COIN_ID;
+import static com.coincollection.CoinSlot.COL_COIN_IDENTIFIER;
+import static com.coincollection.CoinSlot.COL_COIN_MINT;
+import static com.coincollection.CoinSlot.COL_CUSTOM_COIN;
+import static com.coincollection.CoinSlot.COL_IN_COLLECTION;
+import static com.coincollection.CoinSlot.COL_SORT_ORDER;
+import static com.coincollection.CollectionListInfo.COL_NAME;
+import static com.coincollection.CollectionListInfo.TBL_COLLECTION_INFO;
+import static com.spencerpages.MainApplication.DATABASE_VERSION;
+import static com.spencerpages.MainApplication.getCollectionType;
+import static com.spencerpages.MainApplication.getNumberOfCollectionTypes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.content.Intent;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Build;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.coincollection.CoinSlot;
+import com.coincollection.CollectionInfo;
+import com.coincollection.CollectionListInfo;
+import com.coincollection.DatabaseHelper;
+import com.coincollection.ExportImportHelper;
+import com.coincollection.MainActivity;
+import com.coincollection.helper.ParcelableHashMap;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Times the database operations on a synthetic database, writes the timings to a JSON report
+ * and compares them against a stored baseline.
+ *
+ * The size of the database and the files used can be set with -P options to gradle:
+ *   perf.collections     number of collections to create (cycling through the collection types)
+ *   perf.notesLength     length of the notes added to every coin
+ *   perf.tolerance       how much slower than the baseline an operation may be (1.5 = 50%)
+ *   perf.report          where to write the report
+ *   perf.baseline        baseline to compare against
+ *   perf.updateBaseline  if true, writes the report as the new baseline instead of comparing
+ *
+ * Timings are measured under Robolectric, so the baseline is only meaningful on the machine
+ * that recorded it. Only baselines recorded with the same collection count and notes length
+ * are compared. If there is no such baseline, the report is still written but the test is
+ * reported as skipped.
+ */
+@RunWith(RobolectricTestRunner.class)
+// TODO - Must keep at 28 until Robolectric supports Java 9 (required to use 29+)
+@Config(sdk = Build.VERSION_CODES.P)
+public class PerformanceRegressionTests extends BaseTestCase {
+
+    private final static int NUM_COLLECTIONS = Integer.getInteger("perf.collections", 20);
+    private final static int NOTES_LENGTH = Integer.getInteger("perf.notesLength", 200);
+    private final static double TOLERANCE = Double.parseDouble(System.getProperty("perf.tolerance", "1.5"));
+    private final static String REPORT_PATH = System.getProperty("perf.report", "build/reports/perf/perf-report.json");
+    private final static String BASELINE_PATH = System.getProperty("perf.baseline", "src/test/data/perf-baseline.json");
+    private final static boolean UPDATE_BASELINE = Boolean.getBoolean("perf.updateBaseline");
+
+    // Operations quicker than this are too noisy to fail on
+    private final static long MIN_REGRESSION_MS = 50;
+
+    // Fast read operations are repeated, keeping the best time
+    private final static int NUM_READ_RUNS = 3;
+
+    private final static String REPORT_CONFIG = "config";
+    private final static String REPORT_RESULTS = "results";
+
+    @Rule
+    public final TemporaryFolder mTempFolder = new TemporaryFolder();
+
+    // Name of the database used for the upgrade timings, kept apart from the app's database
+    private final static String UPGRADE_DATABASE_NAME = "perf-upgrade.db";
+
+    private final LinkedHashMap<String, Long> mResults = new LinkedHashMap<>();
+    private int mNumCoins = 0;
+
+    /**
+     * Runs all of the timed operations, then writes and checks the report
+     */
+    @Test
+    public void test_performanceRegression() {
+        try(ActivityScenario<MainActivity> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), MainActivity.class)
+                        .putExtra(MainActivity.UNIT_TEST_USE_ASYNC_TASKS, false))) {
+            scenario.onActivity(activity -> {
+                assertTrue(setEnabledPermissions(activity));
+                ExportImportHelper helper = new ExportImportHelper(activity.mRes, activity.mDbAdapter);
+
+                // Creation
+                long startTime = System.nanoTime();
+                mNumCoins = createSyntheticCollections(activity);
+                recordResult("create", startTime);
+
+                // Reads
+                timeReads(activity);
+
+                // Export and import in each format
+                File jsonFile = newTempFile("perf-export.json");
+                File csvFile = newTempFile("perf-export.csv");
+                startTime = System.nanoTime();
+                OutputStream outputStream = openOutputStream(jsonFile);
+                helper.exportCollectionsToJson(outputStream, jsonFile.getName());
+                closeStream(outputStream);
+                recordResult("exportJson", startTime);
+
+                startTime = System.nanoTime();
+                outputStream = openOutputStream(csvFile);
+                helper.exportCollectionsToSingleCSV(outputStream, csvFile.getName());
+                closeStream(outputStream);
+                recordResult("exportCsv", startTime);
+
+                startTime = System.nanoTime();
+                helper.exportCollectionsToLegacyCSV(activity.getLegacyExportFolderName());
+                recordResult("exportLegacyCsv", startTime);
+
+                startTime = System.nanoTime();
+                InputStream inputStream = openInputStream(jsonFile);
+                assertEquals("", helper.importCollectionsFromJson(inputStream));
+                closeStream(inputStream);
+                recordResult("importJson", startTime);
+
+                startTime = System.nanoTime();
+                inputStream = openInputStream(csvFile);
+                assertEquals("", helper.importCollectionsFromSingleCSV(inputStream));
+                closeStream(inputStream);
+                recordResult("importCsv", startTime);
+
+                startTime = System.nanoTime();
+                assertEquals("", helper.importCollectionsFromLegacyCSV(activity.getLegacyExportFolderName()));
+                recordResult("importLegacyCsv", startTime);
+                assertEquals(NUM_COLLECTIONS, getCollectionNames(activity).size());
+            });
+        }
+
+        // Upgrades of databases in older formats
+        timeUpgrades();
+
+        JSONObject report = buildReport();
+        writeFile(new File(REPORT_PATH), toJsonString(report));
+        if (UPDATE_BASELINE) {
+            writeFile(new File(BASELINE_PATH), toJsonString(report));
+        } else {
+            compareWithBaseline(report);
+        }
+    }
+
+    /**
+     * Creates NUM_COLLECTIONS collections, cycling through the collection types, with notes,
+     * grades and quantities on every coin
+     * @param activity activity to use
+     * @return total number of coins created
+     */
+    private int createSyntheticCollections(MainActivity activity) {
+        StringBuilder notes = new StringBuilder();
+        while (notes.length() < NOTES_LENGTH) {
+            notes.append("Synthetic notes for the performance suite. ");
+        }
+        notes.setLength(NOTES_LENGTH);
+
+        int numCoins = 0;
+        for (int i = 0; i < NUM_COLLECTIONS; i++) {
+            CollectionInfo collectionInfo = getCollectionType(i % getNumberOfCollectionTypes());
+            ParcelableHashMap parameters = new ParcelableHashMap();
+            collectionInfo.getCreationParameters(parameters);
+            ArrayList<CoinSlot> coinList = new ArrayList<>();
+            collectionInfo.populateCollectionLists(parameters, coinList);
+            for (int j = 0; j < coinList.size(); j++) {
+                CoinSlot coinSlot = coinList.get(j);
+                coinSlot.setInCollection(random.nextBoolean());
+                coinSlot.setAdvancedGrades(random.nextInt(10));
+                coinSlot.setAdvancedQuantities(random.nextInt(5));
+                coinSlot.setAdvancedNotes(notes.toString());
+            }
+            CollectionListInfo collectionListInfo = getCollectionListInfo(
+                    "Perf Collection " + i, collectionInfo, coinList);
+            activity.mDbAdapter.createAndPopulateNewTable(collectionListInfo, i, coinList);
+            numCoins += coinList.size();
+        }
+        return numCoins;
+    }
+
+    /**
+     * Times reading the collection list and every coin list
+     * @param activity activity to use
+     */
+    private void timeReads(MainActivity activity) {
+        long bestGetAllTables = Long.MAX_VALUE;
+        long bestGetCoinList = Long.MAX_VALUE;
+        ArrayList<CollectionListInfo> collections = new ArrayList<>();
+        for (int run = 0; run < NUM_READ_RUNS; run++) {
+            long startTime = System.nanoTime();
+            activity.mDbAdapter.getAllTables(collections);
+            bestGetAllTables = Math.min(bestGetAllTables, System.nanoTime() - startTime);
+            assertEquals(NUM_COLLECTIONS, collections.size());
+
+            startTime = System.nanoTime();
+            for (CollectionListInfo info : collections) {
+                activity.mDbAdapter.getCoinList(info.getName(), true);
+            }
+            bestGetCoinList = Math.min(bestGetCoinList, System.nanoTime() - startTime);
+        }
+        mResults.put("getAllTables", bestGetAllTables / 1000000);
+        mResults.put("getCoinList", bestGetCoinList / 1000000);
+    }
+
+    /**
+     * Times upgrading real databases in older formats, opened through DatabaseHelper.onUpgrade
+     * like the app does:
+     * - From version 1 (the format of the CollectionUpgradeTests fixtures), which runs every
+     *   upgrade step
+     * - From version 21, which runs the mint code backfill and re-indexing, along with the
+     *   search index and statistics rebuilds done on every upgrade
+     */
+    private void timeUpgrades() {
+        Context context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(UPGRADE_DATABASE_NAME);
+        File dbFile = context.getDatabasePath(UPGRADE_DATABASE_NAME);
+        assertTrue(dbFile.getParentFile().exists() || dbFile.getParentFile().mkdirs());
+
+        // Version 1 database with the same collections as the synthetic database
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(dbFile, null);
+        createV1CollectionInfoTable(db);
+        for (int i = 0; i < NUM_COLLECTIONS; i++) {
+            CollectionInfo collectionInfo = getCollectionType(i % getNumberOfCollectionTypes());
+            ParcelableHashMap parameters = new ParcelableHashMap();
+            collectionInfo.getCreationParameters(parameters);
+            ArrayList<CoinSlot> coinList = new ArrayList<>();
+            collectionInfo.populateCollectionLists(parameters, coinList);
+            ArrayList<Object[]> v1CoinList = new ArrayList<>();
+            for (CoinSlot coinSlot : coinList) {
+                v1CoinList.add(new Object[]{coinSlot.getIdentifier(), coinSlot.getMint(), random.nextInt(2)});
+            }
+            createV1Collection(db, "Perf Collection " + i, collectionInfo.getCoinType(), v1CoinList);
+        }
+        db.setVersion(1);
+        db.close();
+
+        long startTime = System.nanoTime();
+        openThroughUpgrade(context);
+        recordResult("upgradeFromV1", startTime);
+
+        // Version 21 database, made from the upgraded one by taking out the mint code columns
+        db = SQLiteDatabase.openDatabase(dbFile.getPath(), null, SQLiteDatabase.OPEN_READWRITE);
+        convertToV21(db);
+        db.setVersion(21);
+        db.close();
+
+        startTime = System.nanoTime();
+        openThroughUpgrade(context);
+        recordResult("upgradeFromV21", startTime);
+
+        context.deleteDatabase(UPGRADE_DATABASE_NAME);
+    }
+
+    /**
+     * Opens the upgrade database, which runs DatabaseHelper.onUpgrade, and checks that it ends
+     * up at the current version
+     * @param context context
+     */
+    private static void openThroughUpgrade(Context context) {
+        UpgradeOpenHelper openHelper = new UpgradeOpenHelper(context);
+        assertEquals(DATABASE_VERSION, openHelper.getWritableDatabase().getVersion());
+        openHelper.close();
+    }
+
+    /**
+     * Rebuilds each collection table the way it was in version 21, without the mint code and
+     * variety columns or their index
+     * @param db database to convert
+     */
+    private static void convertToV21(SQLiteDatabase db) {
+        ArrayList<String> names = new ArrayList<>();
+        Cursor cursor = db.query(TBL_COLLECTION_INFO, new String[]{COL_NAME}, null, null, null, null, null);
+        while (cursor.moveToNext()) {
+            names.add(cursor.getString(0));
+        }
+        cursor.close();
+
+        String v21Columns = COL_COIN_ID + ", " + COL_COIN_IDENTIFIER + ", " + COL_COIN_MINT + ", "
+                + COL_IN_COLLECTION + ", " + COL_ADV_GRADE_INDEX + ", " + COL_ADV_QUANTITY_INDEX + ", "
+                + COL_ADV_NOTES + ", " + COL_SORT_ORDER + ", " + COL_CUSTOM_COIN;
+        for (String name : names) {
+            db.execSQL("CREATE TABLE [perf_v21] ("
+                    + " " + COL_COIN_ID + " integer primary key,"
+                    + " " + COL_COIN_IDENTIFIER + " text not null,"
+                    + " " + COL_COIN_MINT + " text,"
+                    + " " + COL_IN_COLLECTION + " integer,"
+                    + " " + COL_ADV_GRADE_INDEX + " integer default 0,"
+                    + " " + COL_ADV_QUANTITY_INDEX + " integer default 0,"
+                    + " " + COL_ADV_NOTES + " text default \"\","
+                    + " " + COL_SORT_ORDER + " integer not null,"
+                    + " " + COL_CUSTOM_COIN + " integer default 0);");
+            db.execSQL("INSERT INTO [perf_v21] SELECT " + v21Columns + " FROM [" + name + "]");
+            // Dropping the table also drops its indexes, so re-add the ones version 21 had
+            db.execSQL("DROP TABLE [" + name + "]");
+            db.execSQL("ALTER TABLE [perf_v21] RENAME TO [" + name + "]");
+            db.execSQL("CREATE INDEX [" + name + "#sortOrderIndex] ON [" + name + "] (" + COL_SORT_ORDER + ")");
+            db.execSQL("CREATE INDEX [" + name + "#inCollectionIndex] ON [" + name + "] (" + COL_IN_COLLECTION + ")");
+        }
+    }
+
+    /**
+     * Opens the upgrade database through DatabaseHelper.onUpgrade, the same path the app's
+     * database takes when the app is updated
+     */
+    private static class UpgradeOpenHelper extends SQLiteOpenHelper {
+
+        private final DatabaseHelper mDatabaseHelper;
+
+        UpgradeOpenHelper(Context context) {
+            super(context, UPGRADE_DATABASE_NAME, null, DATABASE_VERSION);
+            mDatabaseHelper = new DatabaseHelper(context);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            fail("The upgrade database should already exist");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            mDatabaseHelper.onUpgrade(db, oldVersion, newVersion);
+        }
+    }
+
+    /**
+     * Records the time taken by an operation
+     * @param name operation name
+     * @param startTime System.nanoTime() when the operation started
+     */
+    private void recordResult(String name, long startTime) {
+        mResults.put(name, (System.nanoTime() - startTime) / 1000000);
+    }
+
+    /**
+     * Builds the report from the recorded results
+     * @return report
+     */
+    private JSONObject buildReport() {
+        try {
+            JSONObject config = new JSONObject();
+            config.put("collections", NUM_COLLECTIONS);
+            config.put("notesLength", NOTES_LENGTH);
+            config.put("coins", mNumCoins);
+            config.put("databaseVersion", DATABASE_VERSION);
+            JSONObject results = new JSONObject();
+            for (Map.Entry<String, Long> result : mResults.entrySet()) {
+                results.put(result.getKey(), result.getValue());
+            }
+            JSONObject report = new JSONObject();
+            report.put(REPORT_CONFIG, config);
+            report.put(REPORT_RESULTS, results);
+            return report;
+        } catch (JSONException e) {
+            fail(e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Fails if any operation got slower than the baseline by more than the tolerance
+     * @param report report for this run
+     */
+    private void compareWithBaseline(JSONObject report) {
+        File baselineFile = new File(BASELINE_PATH);
+        assumeTrue("No baseline at " + BASELINE_PATH + ", run with -Pperf.updateBaseline=true to record one",
+                baselineFile.exists());
+        try {
+            JSONObject baseline = new JSONObject(readFile(baselineFile));
+            JSONObject baselineConfig = baseline.getJSONObject(REPORT_CONFIG);
+            JSONObject config = report.getJSONObject(REPORT_CONFIG);
+            assumeTrue("Baseline was recorded with a different size",
+                    baselineConfig.getInt("collections") == config.getInt("collections")
+                    && baselineConfig.getInt("notesLength") == config.getInt("notesLength"));
+            JSONObject baselineResults = baseline.getJSONObject(REPORT_RESULTS);
+            JSONObject results = report.getJSONObject(REPORT_RESULTS);
+            StringBuilder regressions = new StringBuilder();
+            Iterator<String> names = baselineResults.keys();
+            while (names.hasNext()) {
+                String name = names.next();
+                if (!results.has(name)) {
+                    continue;
+                }
+                long baselineMs = baselineResults.getLong(name);
+                long resultMs = results.getLong(name);
+                long allowedMs = Math.max((long) (baselineMs * TOLERANCE), baselineMs + MIN_REGRESSION_MS);
+                if (resultMs > allowedMs) {
+                    regressions.append(name).append(": ").append(resultMs).append(" ms (baseline ")
+                            .append(baselineMs).append(" ms)\n");
+                }
+            }
+            assertTrue("Performance regressions:\n" + regressions, regressions.length() == 0);
+        } catch (JSONException e) {
+            fail("Invalid baseline " + BASELINE_PATH + ": " + e);
+        }
+    }
+
+    /**
+     * Creates a file in the temporary folder
+     * @param filename file name
+     * @return file
+     */
+    private File newTempFile(String filename) {
+        try {
+            return mTempFolder.newFile(filename);
+        } catch (IOException e) {
+            fail(e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Formats a report for writing
+     * @param report report
+     * @return JSON text
+     */
+    private static String toJsonString(JSONObject report) {
+        try {
+            return report.toString(2);
+        } catch (JSONException e) {
+            fail(e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Reads a whole file as UTF-8
+     * @param file file to read
+     * @return file contents
+     */
+    private static String readFile(File file) {
+        try {
+            return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            fail(e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Writes a whole file as UTF-8, creating its folder if needed
+     * @param file file to write
+     * @param contents file contents
+     */
+    private static void writeFile(File file, String contents) {
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) {
+                assertTrue(parent.mkdirs());
+            }
+            Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            fail(e.toString());
+        }
+    }
+}
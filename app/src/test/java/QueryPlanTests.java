@@ -0,0 +1,166 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+import static com.coincollection.CoinSlot.COIN_SLOT_COIN_ID_WHERE_CLAUSE;
+import static com.coincollection.CoinSlot.COIN_SLOT_MINT_CODE_WHERE_CLAUSE;
+import static com.coincollection.CoinSlot.COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE;
+import static com.coincollection.CoinSlot.COL_IN_COLLECTION;
+import static com.spencerpages.SharedTest.COLLECTION_LIST_INFO_SCENARIOS;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Intent;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.coincollection.CoinPageCreator;
+import com.coincollection.CollectionListInfo;
+import com.coincollection.DatabaseAdapter;
+import com.coincollection.DatabaseHelper;
+import com.coincollection.helper.ParcelableHashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+/**
+ * Checks that the hot statements issued by DatabaseAdapter and DatabaseHelper are answered
+ * with an index, using EXPLAIN QUERY PLAN
+ */
+@RunWith(RobolectricTestRunner.class)
+// TODO - Must keep at 28 until Robolectric supports Java 9 (required to use 29+)
+@Config(sdk = Build.VERSION_CODES.P)
+public class QueryPlanTests extends BaseTestCase {
+
+    private final static String RENAMED_COLLECTION = "Renamed Collection";
+
+    private String mCollectionName;
+    private DatabaseHelper mDbHelper;
+    private SQLiteDatabase mDb;
+
+    @Before
+    public void databaseSetup() {
+        try(ActivityScenario<CoinPageCreator> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), CoinPageCreator.class)
+                        .putExtra(CoinPageCreator.UNIT_TEST_USE_ASYNC_TASKS, false))) {
+            scenario.onActivity(activity -> {
+                CollectionListInfo info = COLLECTION_LIST_INFO_SCENARIOS[0];
+                activity.mCoinList = new ArrayList<>();
+                ParcelableHashMap parameters = CoinPageCreator.getParametersFromCollectionListInfo(info);
+                activity.setInternalStateFromCollectionIndex(info.getCollectionTypeIndex(), parameters);
+                activity.createOrUpdateCoinListForAsyncThread();
+                activity.mDbAdapter.createAndPopulateNewTable(info, 0, activity.mCoinList);
+                mCollectionName = info.getName();
+            });
+        }
+        mDbHelper = new DatabaseHelper(ApplicationProvider.getApplicationContext());
+        mDb = mDbHelper.getReadableDatabase();
+    }
+
+    @After
+    public void databaseTeardown() {
+        mDbHelper.close();
+    }
+
+    /**
+     * Test the statements used when showing and changing a collection
+     */
+    @Test
+    public void test_collectionStatementsUseIndexes() {
+        checkCollectionStatements(mCollectionName);
+    }
+
+    /**
+     * Test that the statements still use indexes after a collection is renamed
+     */
+    @Test
+    public void test_renamedCollectionStatementsUseIndexes() {
+        DatabaseAdapter dbAdapter = new DatabaseAdapter(ApplicationProvider.getApplicationContext());
+        dbAdapter.open();
+        dbAdapter.updateCollectionName(mCollectionName, RENAMED_COLLECTION);
+        dbAdapter.close();
+        checkCollectionStatements(RENAMED_COLLECTION);
+    }
+
+    /**
+     * Test the statements used to look up collections by name
+     */
+    @Test
+    public void test_collectionInfoStatementsUseIndexes() {
+        // Display type lookup
+        assertUsesIndex(DatabaseAdapter.DISPLAY_TYPE_QUERY, mCollectionName);
+        // Name check
+        assertUsesIndex(DatabaseAdapter.COLLECTION_NAME_CHECK_QUERY, mCollectionName);
+    }
+
+    /**
+     * Checks the statements run against a collection table
+     * @param collectionName collection to check
+     */
+    private void checkCollectionStatements(String collectionName) {
+        // Coin list, with and without the advanced info
+        assertUsesIndex(DatabaseHelper.buildCoinListQuery(collectionName, false, true));
+        assertUsesIndex(DatabaseHelper.buildCoinListQuery(collectionName, true, true));
+        // Collected count
+        assertUsesIndex(DatabaseHelper.buildTotalCollectedQuery(collectionName));
+        // Toggle (read and update)
+        assertUsesIndex(DatabaseAdapter.buildIsInCollectionQuery(collectionName), "1");
+        assertUsesIndex("UPDATE [" + collectionName + "] SET " + COL_IN_COLLECTION + "=1 WHERE "
+                + COIN_SLOT_COIN_ID_WHERE_CLAUSE, "1");
+        // Mint lookups used by the collection upgrades
+        assertUsesIndex("DELETE FROM [" + collectionName + "] WHERE " + COIN_SLOT_MINT_CODE_WHERE_CLAUSE,
+                DatabaseHelper.getMintCodeWhereArgs("S"));
+        assertUsesIndex("DELETE FROM [" + collectionName + "] WHERE " + COIN_SLOT_NAME_MINT_CODE_WHERE_CLAUSE,
+                DatabaseHelper.getNameMintCodeWhereArgs("1955", "S"));
+    }
+
+    /**
+     * Checks that every step of a statement's query plan uses an index, and that no temporary
+     * b-tree is needed to sort the results
+     * @param sql statement to check
+     * @param bindArgs arguments for the statement
+     */
+    private void assertUsesIndex(String sql, String... bindArgs) {
+        ArrayList<String> details = new ArrayList<>();
+        try (Cursor cursor = mDb.rawQuery("EXPLAIN QUERY PLAN " + sql, bindArgs)) {
+            int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                details.add(cursor.getString(detailIndex));
+            }
+        }
+        assertFalse("No query plan for " + sql, details.isEmpty());
+        for (String detail : details) {
+            String message = sql + " -> " + detail;
+            assertTrue(message, detail.contains(" USING "));
+            assertFalse(message, detail.contains("TEMP B-TREE"));
+        }
+    }
+}
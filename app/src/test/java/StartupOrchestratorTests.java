@@ -0,0 +1,185 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.coincollection.helper.StartupOrchestrator;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for the startup task ordering and timing. StartupOrchestrator doesn't need the Android
+ * framework (Log calls return default values in unit tests), so these are plain JUnit tests.
+ */
+public class StartupOrchestratorTests {
+
+    private final List<String> mRunOrder = Collections.synchronizedList(new ArrayList<String>());
+
+    /**
+     * Makes work that records when it ran
+     * @param name name to record
+     * @param sleepMs how long the work takes
+     */
+    private Runnable work(final String name, final long sleepMs) {
+        return () -> {
+            sleep(sleepMs);
+            mRunOrder.add(name);
+        };
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Test that tasks in a diamond run after their dependencies, and that the critical path
+     * only counts the longest chain
+     */
+    @Test
+    public void test_diamondDependencies() {
+        StartupOrchestrator startup = new StartupOrchestrator();
+        startup.addTask("A", work("A", 0));
+        startup.addTask("B", work("B", 150), "A");
+        startup.addTask("C", work("C", 150), "A");
+        startup.addTask("D", work("D", 0), "B", "C");
+
+        // Nothing runs until start() is called
+        sleep(20);
+        assertTrue(mRunOrder.isEmpty());
+
+        startup.start();
+        startup.awaitTask("D");
+        assertEquals(4, mRunOrder.size());
+        assertEquals("A", mRunOrder.get(0));
+        assertTrue(mRunOrder.subList(1, 3).contains("B"));
+        assertTrue(mRunOrder.subList(1, 3).contains("C"));
+        assertEquals("D", mRunOrder.get(3));
+
+        // B and C run at the same time, so only one of them is on the critical path
+        long criticalPathMs = startup.getCriticalPathMs();
+        assertTrue(criticalPathMs >= 150);
+        assertTrue(criticalPathMs < 300);
+        assertFalse(startup.getTimingReport().contains("not finished"));
+    }
+
+    /**
+     * Test adding tasks after start() was called
+     */
+    @Test
+    public void test_taskAddedLate() {
+        StartupOrchestrator startup = new StartupOrchestrator();
+        startup.addTask("A", work("A", 0));
+        startup.addTask("slow", work("slow", 100));
+        startup.start();
+        startup.awaitTask("A");
+
+        // Runs right away, since its dependency already finished
+        startup.addTask("afterA", work("afterA", 0), "A");
+        startup.awaitTask("afterA");
+        assertTrue(mRunOrder.contains("afterA"));
+
+        // Waits for the dependency that's still running
+        startup.addTask("afterSlow", work("afterSlow", 0), "slow");
+        startup.awaitTask("afterSlow");
+        assertTrue(mRunOrder.indexOf("slow") < mRunOrder.indexOf("afterSlow"));
+
+        // Unknown and duplicate tasks are rejected
+        try {
+            startup.addTask("afterMissing", work("afterMissing", 0), "missing");
+            fail("Expected unknown dependency to be rejected");
+        } catch (IllegalArgumentException ignored) {
+        }
+        try {
+            startup.addTask("A", work("A", 0));
+            fail("Expected duplicate task to be rejected");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    /**
+     * Test that runTask() waits for its dependencies, runs on the calling thread and can be
+     * depended on by background tasks
+     */
+    @Test
+    public void test_runTaskJoins() {
+        StartupOrchestrator startup = new StartupOrchestrator();
+        startup.addTask("B", work("B", 100));
+        startup.addTask("C", work("C", 50));
+        startup.start();
+
+        final Thread callingThread = Thread.currentThread();
+        String result = startup.runTask("join", () -> {
+            assertEquals(callingThread, Thread.currentThread());
+            assertTrue(mRunOrder.contains("B"));
+            assertTrue(mRunOrder.contains("C"));
+            mRunOrder.add("join");
+            return "joined";
+        }, "B", "C");
+        assertEquals("joined", result);
+
+        startup.addTask("afterJoin", work("afterJoin", 0), "join");
+        startup.awaitTask("afterJoin");
+        assertEquals(mRunOrder.indexOf("join") + 1, mRunOrder.indexOf("afterJoin"));
+
+        // Running it again runs the work again, but doesn't re-register the task
+        assertEquals("again", startup.runTask("join", () -> "again"));
+        assertTrue(startup.getCriticalPathMs() >= 100);
+    }
+
+    /**
+     * Test that a failing task still counts as finished, so nothing waits on it forever
+     */
+    @Test
+    public void test_failingTask() {
+        StartupOrchestrator startup = new StartupOrchestrator();
+        startup.addTask("bad", () -> {
+            throw new IllegalStateException("Startup failure");
+        });
+        startup.addTask("afterBad", work("afterBad", 0), "bad");
+        startup.start();
+        startup.awaitTask("afterBad");
+        assertTrue(mRunOrder.contains("afterBad"));
+
+        // Failures in runTask() go to the caller, and the task is still marked finished
+        try {
+            startup.runTask("badJoin", () -> {
+                throw new Exception("Join failure");
+            });
+            fail("Expected the runTask failure to be thrown");
+        } catch (RuntimeException e) {
+            assertEquals("Join failure", e.getCause().getMessage());
+        }
+        startup.addTask("afterBadJoin", work("afterBadJoin", 0), "badJoin");
+        startup.awaitTask("afterBadJoin");
+        assertTrue(mRunOrder.contains("afterBadJoin"));
+        assertFalse(startup.getTimingReport().contains("not finished"));
+    }
+}
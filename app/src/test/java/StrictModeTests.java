@@ -0,0 +1,346 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+import static com.spencerpages.SharedTest.COLLECTION_LIST_INFO_SCENARIOS;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Looper;
+import android.os.StrictMode;
+import android.os.strictmode.DiskReadViolation;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.coincollection.BaseActivity;
+import com.coincollection.CoinPageCreator;
+import com.coincollection.CoinSlot;
+import com.coincollection.CollectionListInfo;
+import com.coincollection.CollectionPage;
+import com.coincollection.DatabaseAdapter;
+import com.coincollection.MainActivity;
+import com.coincollection.helper.ParcelableHashMap;
+import com.spencerpages.MainApplication;
+import com.spencerpages.R;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.fakes.RoboMenuItem;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs the activities in their async mode, where debug builds crash on any disk access from
+ * the UI thread, and checks that the common flows complete. test_uiThreadDiskReadCrashes makes
+ * sure that a disk access on the UI thread does crash under Robolectric, so the other tests
+ * would catch one.
+ */
+@RunWith(RobolectricTestRunner.class)
+// TODO - Must keep at 28 until Robolectric supports Java 9 (required to use 29+)
+@Config(sdk = Build.VERSION_CODES.P)
+public class StrictModeTests extends BaseTestCase {
+
+    private final static long TIMEOUT_MS = 10000;
+
+    private CollectionListInfo mCollectionListInfo;
+
+    @Before
+    public void databaseSetup() {
+        // Set up the collection in the synchronous mode, which uses the lenient policy
+        try(ActivityScenario<CoinPageCreator> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), CoinPageCreator.class)
+                        .putExtra(CoinPageCreator.UNIT_TEST_USE_ASYNC_TASKS, false))) {
+            scenario.onActivity(activity -> {
+                mCollectionListInfo = COLLECTION_LIST_INFO_SCENARIOS[0];
+                activity.mCoinList = new ArrayList<>();
+                ParcelableHashMap parameters = CoinPageCreator.getParametersFromCollectionListInfo(mCollectionListInfo);
+                activity.setInternalStateFromCollectionIndex(mCollectionListInfo.getCollectionTypeIndex(), parameters);
+                activity.createOrUpdateCoinListForAsyncThread();
+                activity.mDbAdapter.createAndPopulateNewTable(mCollectionListInfo, 0, activity.mCoinList);
+            });
+        }
+    }
+
+    @After
+    public void restoreThreadPolicy() {
+        StrictMode.setThreadPolicy(StrictMode.ThreadPolicy.LAX);
+    }
+
+    /**
+     * Test loading a collection and changing its coins without touching the disk on the UI thread
+     */
+    @Test
+    public void test_collectionPageFlows() {
+        final String collectionName = mCollectionListInfo.getName();
+        final AtomicReference<ArrayList<CoinSlot>> coinList = new AtomicReference<>();
+        try (ActivityScenario<CollectionPage> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), CollectionPage.class)
+                        .putExtra(CollectionPage.COLLECTION_TYPE_INDEX, mCollectionListInfo.getCollectionTypeIndex())
+                        .putExtra(CollectionPage.COLLECTION_NAME, collectionName))) {
+            scenario.onActivity(activity -> {
+                // The coin list is loaded in the background
+                waitUntil(() -> activity.mCoinList != null);
+                assertTrue(activity.mCoinList.size() > 1);
+
+                activity.toggleCoinSlotInCollection(0);
+                finishBackgroundWork(activity);
+                activity.updateCoinDetails(activity.mCoinList.get(0), "Strict Coin", "Strict");
+                finishBackgroundWork(activity);
+                activity.copyCoinSlot(activity.mCoinList.get(0));
+                finishBackgroundWork(activity);
+                activity.deleteCoinSlotAtPosition(1);
+                finishBackgroundWork(activity);
+
+                // Switching views loads the advanced info in the background
+                activity.onOptionsItemSelected(new RoboMenuItem(R.id.change_view));
+                finishBackgroundWork(activity);
+                activity.onOptionsItemSelected(new RoboMenuItem(R.id.change_view));
+                finishBackgroundWork(activity);
+
+                // Locking saves any unsaved changes in the background
+                activity.onOptionsItemSelected(new RoboMenuItem(R.id.lock_unlock_collection));
+                finishBackgroundWork(activity);
+                coinList.set(activity.mCoinList);
+            });
+        }
+
+        // Check that the changes made it to the database
+        StrictMode.setThreadPolicy(StrictMode.ThreadPolicy.LAX);
+        DatabaseAdapter dbAdapter = new DatabaseAdapter(ApplicationProvider.getApplicationContext());
+        dbAdapter.open();
+        ArrayList<CoinSlot> checkCoinList = dbAdapter.getCoinList(collectionName, true);
+        dbAdapter.close();
+        assertNotNull(coinList.get());
+        compareCoinSlotLists(coinList.get(), checkCoinList, true);
+        assertEquals("Strict Coin", checkCoinList.get(0).getIdentifier());
+    }
+
+    /**
+     * Test that coins copied one right after the other each show up with their own database id,
+     * which the list uses as a stable id
+     */
+    @Test
+    public void test_quickCopiesHaveUniqueIds() {
+        try (ActivityScenario<CollectionPage> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), CollectionPage.class)
+                        .putExtra(CollectionPage.COLLECTION_TYPE_INDEX, mCollectionListInfo.getCollectionTypeIndex())
+                        .putExtra(CollectionPage.COLLECTION_NAME, mCollectionListInfo.getName()))) {
+            scenario.onActivity(activity -> {
+                waitUntil(() -> activity.mCoinList != null);
+                finishBackgroundWork(activity);
+                int numCoins = activity.mCoinList.size();
+
+                // Don't wait for the first copy before making the second
+                activity.copyCoinSlot(activity.mCoinList.get(0));
+                activity.copyCoinSlot(activity.mCoinList.get(0));
+                finishBackgroundWork(activity);
+
+                RecyclerView.Adapter<?> adapter = ((RecyclerView) activity.findViewById(R.id.standard_collection_page)).getAdapter();
+                assertNotNull(adapter);
+                assertEquals(numCoins + 2, adapter.getItemCount());
+                HashSet<Long> itemIds = new HashSet<>();
+                for (int i = 0; i < adapter.getItemCount(); i++) {
+                    long itemId = adapter.getItemId(i);
+                    assertNotEquals(0, itemId);
+                    assertTrue(itemIds.add(itemId));
+                }
+                checkCoinSortOrdersUnique(activity.mCoinList);
+            });
+        }
+    }
+
+    /**
+     * Test that a rename and a copy still in progress when the page is re-created are picked up
+     * by the new page, and that it keeps working with the renamed collection
+     */
+    @Test
+    public void test_renameAndCopyKeptAcrossRecreate() {
+        final String oldCollectionName = mCollectionListInfo.getName();
+        final String newCollectionName = "Renamed Strict Set";
+        final AtomicReference<ArrayList<CoinSlot>> coinList = new AtomicReference<>();
+        try (ActivityScenario<CollectionPage> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), CollectionPage.class)
+                        .putExtra(CollectionPage.COLLECTION_TYPE_INDEX, mCollectionListInfo.getCollectionTypeIndex())
+                        .putExtra(CollectionPage.COLLECTION_NAME, oldCollectionName))) {
+            final AtomicInteger numCoins = new AtomicInteger();
+            scenario.onActivity(activity -> {
+                waitUntil(() -> activity.mCoinList != null);
+                finishBackgroundWork(activity);
+                numCoins.set(activity.mCoinList.size());
+
+                // Re-create the page without waiting for the results
+                activity.updateCollectionName(newCollectionName);
+                activity.copyCoinSlot(activity.mCoinList.get(0));
+            });
+            scenario.recreate();
+            scenario.onActivity(activity -> {
+                finishBackgroundWork(activity);
+                assertEquals(newCollectionName, activity.getTitle().toString());
+                assertEquals(numCoins.get() + 1, activity.mCoinList.size());
+                checkCoinSortOrdersUnique(activity.mCoinList);
+                RecyclerView.Adapter<?> adapter = ((RecyclerView) activity.findViewById(R.id.standard_collection_page)).getAdapter();
+                assertNotNull(adapter);
+                assertEquals(numCoins.get() + 1, adapter.getItemCount());
+                HashSet<Long> itemIds = new HashSet<>();
+                for (int i = 0; i < adapter.getItemCount(); i++) {
+                    long itemId = adapter.getItemId(i);
+                    assertNotEquals(0, itemId);
+                    assertTrue(itemIds.add(itemId));
+                }
+
+                // Changes go to the renamed collection
+                activity.toggleCoinSlotInCollection(0);
+                finishBackgroundWork(activity);
+                coinList.set(activity.mCoinList);
+            });
+        }
+
+        StrictMode.setThreadPolicy(StrictMode.ThreadPolicy.LAX);
+        DatabaseAdapter dbAdapter = new DatabaseAdapter(ApplicationProvider.getApplicationContext());
+        dbAdapter.open();
+        ArrayList<CoinSlot> checkCoinList = dbAdapter.getCoinList(newCollectionName, true);
+        dbAdapter.close();
+        compareCoinSlotLists(coinList.get(), checkCoinList, true);
+
+        // The lock setting moved over with the collection
+        SharedPreferences prefs = ApplicationProvider.getApplicationContext()
+                .getSharedPreferences(MainApplication.PREFS, Context.MODE_PRIVATE);
+        assertTrue(prefs.contains(newCollectionName + CollectionPage.IS_LOCKED));
+        assertFalse(prefs.contains(oldCollectionName + CollectionPage.IS_LOCKED));
+    }
+
+    /**
+     * Test that reading the database on the UI thread crashes with the policy set by the
+     * activities. This is the check that the other tests can fail at all.
+     */
+    @Test
+    public void test_uiThreadDiskReadCrashes() {
+        final String collectionName = mCollectionListInfo.getName();
+        try (ActivityScenario<CollectionPage> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), CollectionPage.class)
+                        .putExtra(CollectionPage.COLLECTION_TYPE_INDEX, mCollectionListInfo.getCollectionTypeIndex())
+                        .putExtra(CollectionPage.COLLECTION_NAME, collectionName))) {
+            scenario.onActivity(activity -> {
+                waitUntil(() -> activity.mCoinList != null);
+                finishBackgroundWork(activity);
+
+                // The violation is reported from the UI thread's queue once the read finishes
+                RuntimeException crash = null;
+                try {
+                    activity.mDbAdapter.getCoinList(collectionName, true);
+                    shadowOf(Looper.getMainLooper()).idle();
+                } catch (RuntimeException e) {
+                    crash = e;
+                } finally {
+                    clearPendingViolations();
+                }
+                assertNotNull("Reading the database on the UI thread didn't crash", crash);
+                assertTrue(crash.getCause() instanceof DiskReadViolation);
+            });
+        }
+    }
+
+    /**
+     * Test loading and copying collections on the main page without touching the disk on the UI thread
+     */
+    @Test
+    public void test_mainActivityFlows() {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            scenario.onActivity(activity -> {
+                // The database is opened and the list is read in the background
+                waitUntil(() -> activity.mNumberOfCollections == 1);
+
+                activity.copyCollection(mCollectionListInfo.getName());
+                waitUntil(() -> activity.mNumberOfCollections == 2);
+                finishBackgroundWork(activity);
+
+                StrictMode.setThreadPolicy(StrictMode.ThreadPolicy.LAX);
+                assertEquals(2, getCollectionNames(activity).size());
+            });
+        }
+    }
+
+    /**
+     * Forgets the violations StrictMode was reporting when it crashed. On a device the process
+     * is gone by then, but here the thread lives on, and StrictMode doesn't report any more
+     * violations on it until the list is empty.
+     */
+    @SuppressWarnings("unchecked")
+    private static void clearPendingViolations() {
+        try {
+            Field field = StrictMode.class.getDeclaredField("violationsBeingTimed");
+            field.setAccessible(true);
+            ArrayList<Object> violations = ((ThreadLocal<ArrayList<Object>>) field.get(null)).get();
+            violations.clear();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError("Couldn't clear the pending StrictMode violations", e);
+        }
+    }
+
+    /**
+     * Waits for a condition, running the work posted to the UI thread while waiting
+     * @param condition condition to wait for
+     */
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out waiting for background work", System.currentTimeMillis() < deadline);
+            shadowOf(Looper.getMainLooper()).idle();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits for the activity's background work and the results it posts back to the UI thread
+     * @param activity activity running the work
+     */
+    private static void finishBackgroundWork(BaseActivity activity) {
+        // Results may queue follow-up work, such as loading the advanced info
+        for (int i = 0; i < 3; i++) {
+            assertTrue(activity.waitForBackgroundWork(TIMEOUT_MS));
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+    }
+}
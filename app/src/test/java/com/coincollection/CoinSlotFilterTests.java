@@ -0,0 +1,312 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.coincollection;
+
+import static com.coincollection.CoinSlotFilter.ANY_YEAR;
+import static com.coincollection.CoinSlotFilter.SHOW_ALL;
+import static com.coincollection.CoinSlotFilter.SHOW_COLLECTED;
+import static com.coincollection.CoinSlotFilter.SHOW_MISSING;
+import static com.coincollection.CoinSlotFilter.SORT_COLLECTED;
+import static com.coincollection.CoinSlotFilter.SORT_COLLECTION_ORDER;
+import static com.coincollection.CoinSlotFilter.SORT_GRADE;
+import static com.coincollection.CoinSlotFilter.SORT_QUANTITY;
+import static com.coincollection.CoinSlotFilter.SORT_YEAR;
+import static com.spencerpages.SharedTest.COLLECTION_LIST_INFO_SCENARIOS;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Intent;
+import android.os.Build;
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.coincollection.helper.ParcelableHashMap;
+import com.spencerpages.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+/**
+ * Tests for filtering and sorting the coins shown on the collection page. These live in the
+ * com.coincollection package since the filter and the adapter are package-private.
+ */
+@RunWith(RobolectricTestRunner.class)
+// TODO - Must keep at 28 until Robolectric supports Java 9 (required to use 29+)
+@Config(sdk = Build.VERSION_CODES.P)
+public class CoinSlotFilterTests {
+
+    private final static CollectionListInfo PAGE_COLLECTION = COLLECTION_LIST_INFO_SCENARIOS[0];
+
+    private ArrayList<CoinSlot> mCoinList;
+
+    @Before
+    public void setupCoinList() {
+        // Year, mint, collected state, grade, quantity and notes all differ between coins
+        mCoinList = new ArrayList<>();
+        mCoinList.add(new CoinSlot(0, "1909", "", true, 3, 1, "Nice toning", 0, false));
+        mCoinList.add(new CoinSlot(1, "1909 VDB", "S", false, 1, 2, "", 1, false));
+        mCoinList.add(new CoinSlot(2, "1910", " D ", true, 0, 0, "Needs upgrade", 2, false));
+        mCoinList.add(new CoinSlot(3, "Shield", "P", false, 3, 0, "TONING spots", 3, false));
+        mCoinList.add(new CoinSlot(4, "1911", "s", false, 1, 0, "", 4, false));
+    }
+
+    /**
+     * Applies a filter to mCoinList
+     */
+    private int[] applyFilter(int collectedState, String mint, int startYear, int endYear, String notes, int sortType) {
+        CoinSlotFilter filter = new CoinSlotFilter(collectedState, mint, startYear, endYear, notes, sortType);
+        return filter.apply(new CoinSlotFilter.Snapshot(mCoinList));
+    }
+
+    /**
+     * Test that a filter that matches everything shows the whole list in order
+     */
+    @Test
+    public void test_noFilter() {
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4},
+                applyFilter(SHOW_ALL, null, ANY_YEAR, ANY_YEAR, "", SORT_COLLECTION_ORDER));
+        assertArrayEquals(new int[]{},
+                applyFilter(SHOW_ALL, null, ANY_YEAR, ANY_YEAR, "not in any notes", SORT_COLLECTION_ORDER));
+    }
+
+    /**
+     * Test filtering on whether the coin is collected
+     */
+    @Test
+    public void test_collectedState() {
+        assertArrayEquals(new int[]{0, 2},
+                applyFilter(SHOW_COLLECTED, null, ANY_YEAR, ANY_YEAR, "", SORT_COLLECTION_ORDER));
+        assertArrayEquals(new int[]{1, 3, 4},
+                applyFilter(SHOW_MISSING, null, ANY_YEAR, ANY_YEAR, "", SORT_COLLECTION_ORDER));
+    }
+
+    /**
+     * Test that the mint matches regardless of case and surrounding spaces
+     */
+    @Test
+    public void test_mint() {
+        assertArrayEquals(new int[]{1, 4},
+                applyFilter(SHOW_ALL, "S", ANY_YEAR, ANY_YEAR, "", SORT_COLLECTION_ORDER));
+        assertArrayEquals(new int[]{1, 4},
+                applyFilter(SHOW_ALL, " s", ANY_YEAR, ANY_YEAR, "", SORT_COLLECTION_ORDER));
+        assertArrayEquals(new int[]{2},
+                applyFilter(SHOW_ALL, "d", ANY_YEAR, ANY_YEAR, "", SORT_COLLECTION_ORDER));
+        assertArrayEquals(new int[]{0},
+                applyFilter(SHOW_ALL, "", ANY_YEAR, ANY_YEAR, "", SORT_COLLECTION_ORDER));
+        assertEquals(4, CoinSlotFilter.getMints(mCoinList).size());
+    }
+
+    /**
+     * Test the year range, which excludes coins without a year once either end is set
+     */
+    @Test
+    public void test_yearRange() {
+        assertArrayEquals(new int[]{0, 1, 2},
+                applyFilter(SHOW_ALL, null, 1909, 1910, "", SORT_COLLECTION_ORDER));
+        assertArrayEquals(new int[]{2, 4},
+                applyFilter(SHOW_ALL, null, 1910, ANY_YEAR, "", SORT_COLLECTION_ORDER));
+        assertArrayEquals(new int[]{0, 1},
+                applyFilter(SHOW_ALL, null, ANY_YEAR, 1909, "", SORT_COLLECTION_ORDER));
+        assertArrayEquals(new int[]{},
+                applyFilter(SHOW_ALL, null, 1912, 2020, "", SORT_COLLECTION_ORDER));
+        assertEquals(CoinSlot.NO_YEAR, mCoinList.get(3).getFilterYear());
+    }
+
+    /**
+     * Test that the notes match on a case-insensitive substring
+     */
+    @Test
+    public void test_notes() {
+        assertArrayEquals(new int[]{0, 3},
+                applyFilter(SHOW_ALL, null, ANY_YEAR, ANY_YEAR, "toning", SORT_COLLECTION_ORDER));
+        assertArrayEquals(new int[]{2},
+                applyFilter(SHOW_ALL, null, ANY_YEAR, ANY_YEAR, "UPG", SORT_COLLECTION_ORDER));
+        assertArrayEquals(new int[]{3},
+                applyFilter(SHOW_MISSING, null, ANY_YEAR, ANY_YEAR, "toning", SORT_COLLECTION_ORDER));
+
+        // The key has to be recomputed when the notes change
+        mCoinList.get(4).setAdvancedNotes("Toning on reverse");
+        assertArrayEquals(new int[]{0, 3, 4},
+                applyFilter(SHOW_ALL, null, ANY_YEAR, ANY_YEAR, "toning", SORT_COLLECTION_ORDER));
+    }
+
+    /**
+     * Test each sort, where ties keep the collection order
+     */
+    @Test
+    public void test_sorts() {
+        // Coins without a year sort first
+        assertArrayEquals(new int[]{3, 0, 1, 2, 4},
+                applyFilter(SHOW_ALL, null, ANY_YEAR, ANY_YEAR, "", SORT_YEAR));
+        assertArrayEquals(new int[]{2, 1, 4, 0, 3},
+                applyFilter(SHOW_ALL, null, ANY_YEAR, ANY_YEAR, "", SORT_GRADE));
+        assertArrayEquals(new int[]{2, 3, 4, 0, 1},
+                applyFilter(SHOW_ALL, null, ANY_YEAR, ANY_YEAR, "", SORT_QUANTITY));
+        // Missing coins sort first
+        assertArrayEquals(new int[]{1, 3, 4, 0, 2},
+                applyFilter(SHOW_ALL, null, ANY_YEAR, ANY_YEAR, "", SORT_COLLECTED));
+
+        // Sorting only applies to the coins that match
+        assertArrayEquals(new int[]{1, 4, 3},
+                applyFilter(SHOW_MISSING, null, ANY_YEAR, ANY_YEAR, "", SORT_GRADE));
+    }
+
+    /**
+     * Test that the sorts are stable for lists that take several merge passes
+     */
+    @Test
+    public void test_sortsStable() {
+        mCoinList.clear();
+        for (int i = 0; i < 37; i++) {
+            mCoinList.add(new CoinSlot(i, String.valueOf(2000 + (i * 7) % 5), "", i % 3 == 0,
+                    (i * 5) % 4, (i * 3) % 7, "", i, false));
+        }
+        CoinSlotFilter.Snapshot snapshot = new CoinSlotFilter.Snapshot(mCoinList);
+        int[][] keysBySort = {snapshot.mYears, snapshot.mGrades, snapshot.mQuantities, snapshot.mCollectedKeys};
+        int[] sortTypes = {SORT_YEAR, SORT_GRADE, SORT_QUANTITY, SORT_COLLECTED};
+        for (int i = 0; i < sortTypes.length; i++) {
+            int[] result = applyFilter(SHOW_ALL, null, ANY_YEAR, ANY_YEAR, "", sortTypes[i]);
+            int[] keys = keysBySort[i];
+            assertEquals(mCoinList.size(), result.length);
+            for (int j = 1; j < result.length; j++) {
+                int prev = result[j - 1];
+                int curr = result[j];
+                assertTrue(keys[prev] <= keys[curr]);
+                if (keys[prev] == keys[curr]) {
+                    assertTrue(prev < curr);
+                }
+            }
+        }
+    }
+
+    /**
+     * Launches a collection page for a collection created in the database
+     * @return the scenario, which must be closed
+     */
+    private ActivityScenario<CollectionPage> launchCollectionPage() {
+        try(ActivityScenario<CoinPageCreator> scenario = ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), CoinPageCreator.class)
+                        .putExtra(CoinPageCreator.UNIT_TEST_USE_ASYNC_TASKS, false))) {
+            scenario.onActivity(activity -> {
+                activity.mCoinList = new ArrayList<>();
+                ParcelableHashMap parameters = CoinPageCreator.getParametersFromCollectionListInfo(PAGE_COLLECTION);
+                activity.setInternalStateFromCollectionIndex(PAGE_COLLECTION.getCollectionTypeIndex(), parameters);
+                activity.createOrUpdateCoinListForAsyncThread();
+                activity.mDbAdapter.createAndPopulateNewTable(PAGE_COLLECTION, 0, activity.mCoinList);
+            });
+        }
+        return ActivityScenario.launch(
+                new Intent(ApplicationProvider.getApplicationContext(), CollectionPage.class)
+                        .putExtra(CollectionPage.UNIT_TEST_USE_ASYNC_TASKS, false)
+                        .putExtra(CollectionPage.COLLECTION_TYPE_INDEX, PAGE_COLLECTION.getCollectionTypeIndex())
+                        .putExtra(CollectionPage.COLLECTION_NAME, PAGE_COLLECTION.getName()));
+    }
+
+    /**
+     * Gets the adapter showing the coins on a collection page
+     */
+    private static CoinSlotAdapter getAdapter(CollectionPage activity) {
+        RecyclerView recyclerView = activity.findViewById(R.id.standard_collection_page);
+        return (CoinSlotAdapter) recyclerView.getAdapter();
+    }
+
+    /**
+     * Test that copying and deleting coins keeps the filtered indices pointing at the same coins
+     */
+    @Test
+    public void test_filteredIndicesAfterInsertAndRemove() {
+        try (ActivityScenario<CollectionPage> scenario = launchCollectionPage()) {
+            scenario.onActivity(activity -> {
+                CoinSlotAdapter adapter = getAdapter(activity);
+                long[] shownIds = {
+                        activity.mCoinList.get(4).getDatabaseId(),
+                        activity.mCoinList.get(1).getDatabaseId(),
+                        activity.mCoinList.get(7).getDatabaseId()};
+                adapter.setShownIndices(new int[]{4, 1, 7});
+
+                // A copy is shown right after the coin it was copied from
+                activity.copyCoinSlot(activity.mCoinList.get(1));
+                assertArrayEquals(new int[]{5, 1, 2, 8}, adapter.getShownIndices());
+                assertEquals(4, adapter.getItemCount());
+                assertEquals(2, adapter.getPosition(2));
+
+                // A copy of a coin that isn't shown goes at the end
+                activity.copyCoinSlot(activity.mCoinList.get(9));
+                assertArrayEquals(new int[]{5, 1, 2, 8, 10}, adapter.getShownIndices());
+
+                // Deleting a shown coin removes it
+                activity.deleteCoinSlotAtPosition(2);
+                assertArrayEquals(new int[]{4, 1, 7, 9}, adapter.getShownIndices());
+                assertEquals(-1, adapter.getPosition(2));
+
+                // Deleting a coin that isn't shown just shifts the indices after it
+                activity.deleteCoinSlotAtPosition(0);
+                assertArrayEquals(new int[]{3, 0, 6, 8}, adapter.getShownIndices());
+
+                // The original coins are still shown at the same positions
+                for (int i = 0; i < shownIds.length; i++) {
+                    assertEquals(shownIds[i], adapter.getItemId(i));
+                }
+            });
+        }
+    }
+
+    /**
+     * Test that clicking a coin in the filtered view changes the coin in the full list
+     */
+    @Test
+    public void test_filteredEditUpdatesCoinList() {
+        try (ActivityScenario<CollectionPage> scenario = launchCollectionPage()) {
+            scenario.onActivity(activity -> {
+                CoinSlotAdapter adapter = getAdapter(activity);
+                RecyclerView recyclerView = activity.findViewById(R.id.standard_collection_page);
+                adapter.setShownIndices(new int[]{4, 7, 1});
+                recyclerView.measure(
+                        View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+                recyclerView.layout(0, 0, 1080, 1920);
+
+                CoinSlot shownCoinSlot = activity.mCoinList.get(7);
+                boolean wasInCollection = shownCoinSlot.isInCollection();
+                RecyclerView.ViewHolder holder = recyclerView.findViewHolderForAdapterPosition(1);
+                holder.itemView.performClick();
+
+                // The coin at position 1 is the original coin in the list, not a copy
+                assertNotEquals(wasInCollection, shownCoinSlot.isInCollection());
+                assertEquals(wasInCollection, activity.mCoinList.get(1).isInCollection());
+                assertEquals(shownCoinSlot.getDatabaseId(), adapter.getItemId(1));
+                ArrayList<CoinSlot> checkCoinList = activity.mDbAdapter.getCoinList(PAGE_COLLECTION.getName(), true);
+                assertEquals(shownCoinSlot.isInCollection(), checkCoinList.get(7).isInCollection());
+            });
+        }
+    }
+}
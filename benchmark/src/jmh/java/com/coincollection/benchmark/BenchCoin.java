@@ -0,0 +1,117 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection.benchmark;
+
+import com.coincollection.core.CoinRecord;
+
+import java.util.ArrayList;
+
+/**
+ * Stand-in for the app's CoinSlot, which can't be used off of Android
+ */
+class BenchCoin implements CoinRecord<BenchCoin> {
+
+    private final String mIdentifier;
+    private String mMint;
+    private boolean mInCollection;
+    private final int mSortOrder;
+    private final boolean mCustomCoin;
+
+    BenchCoin(String identifier, String mint, boolean inCollection, int sortOrder, boolean customCoin) {
+        mIdentifier = identifier;
+        mMint = mint;
+        mInCollection = inCollection;
+        mSortOrder = sortOrder;
+        mCustomCoin = customCoin;
+    }
+
+    @Override
+    public String getIdentifier() {
+        return mIdentifier;
+    }
+
+    @Override
+    public String getMint() {
+        return mMint;
+    }
+
+    @Override
+    public void setMint(String mint) {
+        mMint = mint;
+    }
+
+    @Override
+    public boolean isInCollection() {
+        return mInCollection;
+    }
+
+    @Override
+    public void setInCollection(boolean inCollection) {
+        mInCollection = inCollection;
+    }
+
+    @Override
+    public int getSortOrder() {
+        return mSortOrder;
+    }
+
+    @Override
+    public boolean isCustomCoin() {
+        return mCustomCoin;
+    }
+
+    @Override
+    public BenchCoin copy(String newIdentifier, String newMint, boolean isCustomCoin) {
+        return new BenchCoin(newIdentifier, newMint, mInCollection, mSortOrder + 1, isCustomCoin);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BenchCoin coin = (BenchCoin) o;
+        return mIdentifier.equals(coin.mIdentifier) && mMint.equals(coin.mMint);
+    }
+
+    @Override
+    public int hashCode() {
+        return mIdentifier.hashCode() * 31 + mMint.hashCode();
+    }
+
+    /**
+     * Makes a coin list shaped like a dated collection (one coin per year and mint)
+     * @param numYears number of years, starting at 1900
+     * @param mints mint marks to add for each year
+     * @param collectedEvery every n-th coin is marked as collected
+     * @return coin list
+     */
+    static ArrayList<BenchCoin> makeCoinList(int numYears, String[] mints, int collectedEvery) {
+        ArrayList<BenchCoin> coinList = new ArrayList<>(numYears * mints.length);
+        for (int year = 1900; year < 1900 + numYears; year++) {
+            for (String mint : mints) {
+                int index = coinList.size();
+                coinList.add(new BenchCoin(String.valueOf(year), mint, index % collectedEvery == 0, index, false));
+            }
+        }
+        return coinList;
+    }
+}
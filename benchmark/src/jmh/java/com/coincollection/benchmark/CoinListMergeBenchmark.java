@@ -0,0 +1,83 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection.benchmark;
+
+import com.coincollection.core.CoinListMerger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures merging a collection's progress into a regenerated coin list, which happens when
+ * the user edits a collection's creation parameters
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CoinListMergeBenchmark {
+
+    private final static String[] MINTS = {"", "D", "S"};
+    private final static String[] NO_MINTS = {""};
+
+    @Param({"25", "125"})
+    public int numYears;
+
+    private ArrayList<BenchCoin> mExistingWithMints;
+    private ArrayList<BenchCoin> mExistingNoMints;
+    private ArrayList<BenchCoin> mNewWithMints;
+    private ArrayList<BenchCoin> mNewNoMints;
+
+    @Setup
+    public void setup() {
+        mExistingWithMints = BenchCoin.makeCoinList(numYears, MINTS, 3);
+        mExistingNoMints = BenchCoin.makeCoinList(numYears, NO_MINTS, 3);
+        // Regenerate with a few more years, as happens when the end year is raised
+        mNewWithMints = BenchCoin.makeCoinList(numYears + 5, MINTS, Integer.MAX_VALUE);
+        mNewNoMints = BenchCoin.makeCoinList(numYears + 5, NO_MINTS, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public ArrayList<BenchCoin> sameMintMarks() {
+        return CoinListMerger.merge(mNewWithMints, mExistingWithMints, true, true);
+    }
+
+    @Benchmark
+    public ArrayList<BenchCoin> addMintMarks() {
+        return CoinListMerger.merge(mNewWithMints, mExistingNoMints, false, true);
+    }
+
+    @Benchmark
+    public ArrayList<BenchCoin> removeMintMarks() {
+        // NOTE: This updates the mint of the existing coins, which doesn't change how much
+        // work later invocations do since matching is by identifier in this case
+        return CoinListMerger.merge(mNewNoMints, mExistingWithMints, true, false);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection.benchmark;
+
+import com.coincollection.core.CreationParameters;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures working out the creation parameters of a collection from its coins, which is
+ * done for every collection when upgrading from older databases or importing old exports
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CreationParametersBenchmark {
+
+    private final static String[] MINTS = {"", "CC", "O", "S"};
+
+    @Param({"25", "125"})
+    public int numYears;
+
+    private ArrayList<BenchCoin> mCoinList;
+
+    @Setup
+    public void setup() {
+        mCoinList = BenchCoin.makeCoinList(numYears, MINTS, 2);
+    }
+
+    @Benchmark
+    public CreationParameters datedCollection() {
+        return CreationParameters.fromCoinData(CreationParameters.MORGAN_DOLLARS_TYPE, 1878, 1921, true, mCoinList);
+    }
+
+    @Benchmark
+    public CreationParameters walkingLibertySpecialCase() {
+        return CreationParameters.fromCoinData(
+                CreationParameters.WALKING_LIBERTY_HALF_DOLLARS_TYPE, 1916, 1947, true, mCoinList);
+    }
+}
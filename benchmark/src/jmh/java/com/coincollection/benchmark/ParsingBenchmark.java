@@ -0,0 +1,109 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection.benchmark;
+
+import com.coincollection.core.CoinCreationParams;
+import com.coincollection.core.CsvFields;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading imported CSV coin lines and the collection creation options
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParsingBenchmark {
+
+    private final static int NUM_LINES = 500;
+
+    private String[][] mCsvLines;
+    private String[][] mLegacyCsvLines;
+    private HashMap<String, Object> mParameters;
+
+    @Setup
+    public void setup() {
+        mCsvLines = new String[NUM_LINES][];
+        mLegacyCsvLines = new String[NUM_LINES][];
+        for (int i = 0; i < NUM_LINES; i++) {
+            String identifier = String.valueOf(1900 + i / 3);
+            String notes = (i % 10 == 0) ? "Found in change" : "";
+            mCsvLines[i] = new String[] {identifier, "D", String.valueOf(i % 2), "3", "1", notes,
+                    String.valueOf(i), "0"};
+            mLegacyCsvLines[i] = new String[] {identifier, "D", String.valueOf(i % 2)};
+        }
+
+        mParameters = new HashMap<>();
+        mParameters.put(CoinCreationParams.OPT_START_YEAR, 1909);
+        mParameters.put(CoinCreationParams.OPT_STOP_YEAR, 2022);
+        mParameters.put(CoinCreationParams.OPT_SHOW_MINT_MARKS, Boolean.TRUE);
+        mParameters.put(CoinCreationParams.OPT_SHOW_MINT_MARK_1, Boolean.TRUE);
+        mParameters.put(CoinCreationParams.OPT_SHOW_MINT_MARK_2, Boolean.FALSE);
+        mParameters.put(CoinCreationParams.OPT_CHECKBOX_1, Boolean.TRUE);
+    }
+
+    /**
+     * Reads the fields of a coin line the same way CoinSlot(String[], int) does
+     * @param line CSV line
+     * @param index line index
+     * @param blackhole consumes the values
+     */
+    private static void readCoinLine(String[] line, int index, Blackhole blackhole) {
+        blackhole.consume(CsvFields.getString(line, 0, ""));
+        blackhole.consume(CsvFields.getString(line, 1, ""));
+        blackhole.consume(CsvFields.getFlag(line, 2));
+        blackhole.consume(CsvFields.getInt(line, 3, 0));
+        blackhole.consume(CsvFields.getInt(line, 4, 0));
+        blackhole.consume(CsvFields.getString(line, 5, ""));
+        blackhole.consume(CsvFields.getInt(line, 6, index));
+        blackhole.consume(CsvFields.getFlag(line, 7));
+    }
+
+    @Benchmark
+    public void csvCoinLines(Blackhole blackhole) {
+        for (int i = 0; i < NUM_LINES; i++) {
+            readCoinLine(mCsvLines[i], i, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void legacyCsvCoinLines(Blackhole blackhole) {
+        for (int i = 0; i < NUM_LINES; i++) {
+            readCoinLine(mLegacyCsvLines[i], i, blackhole);
+        }
+    }
+
+    @Benchmark
+    public CoinCreationParams creationParams() {
+        return new CoinCreationParams(mParameters);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection.core;
+
+import java.util.HashMap;
+
+/**
+ * Typed copy of the collection creation options from a CoinPageCreator parameters HashMap
+ *
+ * Collection types read their options from this instead of casting values out of the HashMap,
+ * so generating a coin list doesn't do any map lookups or unboxing per coin. Options that
+ * aren't in the HashMap read as false / 0.
+ *
+ * The coin lists themselves are still generated by each collection type's code (there is no
+ * pre-built coin catalog), and CoinPageCreator still passes the options around as a HashMap.
+ */
+public class CoinCreationParams {
+
+    // Keys of the options in the parameters HashMap. CoinPageCreator documents how each is used
+    public final static String OPT_SHOW_MINT_MARKS = "ShowMintMarks";
+    public final static String OPT_START_YEAR = "StartYear";
+    public final static String OPT_STOP_YEAR = "StopYear";
+    public final static String OPT_SHOW_MINT_MARK_1 = "ShowMintMark1";
+    public final static String OPT_SHOW_MINT_MARK_2 = "ShowMintMark2";
+    public final static String OPT_SHOW_MINT_MARK_3 = "ShowMintMark3";
+    public final static String OPT_SHOW_MINT_MARK_4 = "ShowMintMark4";
+    public final static String OPT_SHOW_MINT_MARK_5 = "ShowMintMark5";
+    public final static String OPT_CHECKBOX_1 = "ShowCheckbox1";
+    public final static String OPT_CHECKBOX_2 = "ShowCheckbox2";
+    public final static String OPT_CHECKBOX_3 = "ShowCheckbox3";
+    public final static String OPT_CHECKBOX_4 = "ShowCheckbox4";
+    public final static String OPT_CHECKBOX_5 = "ShowCheckbox5";
+
+    // Number of OPT_SHOW_MINT_MARK_# and OPT_CHECKBOX_# options
+    public final static int NUM_MINT_MARK_OPTIONS = 5;
+    public final static int NUM_CHECKBOX_OPTIONS = 5;
+
+    private final static String[] MINT_MARK_OPTIONS = {
+            OPT_SHOW_MINT_MARK_1,
+            OPT_SHOW_MINT_MARK_2,
+            OPT_SHOW_MINT_MARK_3,
+            OPT_SHOW_MINT_MARK_4,
+            OPT_SHOW_MINT_MARK_5,
+    };
+
+    private final static String[] CHECKBOX_OPTIONS = {
+            OPT_CHECKBOX_1,
+            OPT_CHECKBOX_2,
+            OPT_CHECKBOX_3,
+            OPT_CHECKBOX_4,
+            OPT_CHECKBOX_5,
+    };
+
+    private final int mStartYear;
+    private final int mStopYear;
+    private final boolean mShowMintMarks;
+    private final boolean[] mShowMintMark = new boolean[NUM_MINT_MARK_OPTIONS];
+    private final boolean[] mCheckbox = new boolean[NUM_CHECKBOX_OPTIONS];
+
+    /**
+     * Reads the options out of a parameters HashMap
+     * @param parameters parameters from getCreationParameters, updated with the user's choices
+     */
+    public CoinCreationParams(HashMap<String, Object> parameters) {
+        mStartYear = getInt(parameters, OPT_START_YEAR);
+        mStopYear = getInt(parameters, OPT_STOP_YEAR);
+        mShowMintMarks = getBoolean(parameters, OPT_SHOW_MINT_MARKS);
+        for (int i = 0; i < NUM_MINT_MARK_OPTIONS; i++) {
+            mShowMintMark[i] = getBoolean(parameters, MINT_MARK_OPTIONS[i]);
+        }
+        for (int i = 0; i < NUM_CHECKBOX_OPTIONS; i++) {
+            mCheckbox[i] = getBoolean(parameters, CHECKBOX_OPTIONS[i]);
+        }
+    }
+
+    public int getStartYear() {
+        return mStartYear;
+    }
+
+    public int getStopYear() {
+        return mStopYear;
+    }
+
+    public boolean getShowMintMarks() {
+        return mShowMintMarks;
+    }
+
+    /**
+     * Gets one of the OPT_SHOW_MINT_MARK_# options
+     * @param number option number, from 1 to NUM_MINT_MARK_OPTIONS
+     * @return option value
+     */
+    public boolean getShowMintMark(int number) {
+        return mShowMintMark[number - 1];
+    }
+
+    /**
+     * Gets one of the OPT_CHECKBOX_# options
+     * @param number option number, from 1 to NUM_CHECKBOX_OPTIONS
+     * @return option value
+     */
+    public boolean getCheckbox(int number) {
+        return mCheckbox[number - 1];
+    }
+
+    private static int getInt(HashMap<String, Object> parameters, String key) {
+        Object value = parameters.get(key);
+        return (value instanceof Integer) ? (Integer) value : 0;
+    }
+
+    private static boolean getBoolean(HashMap<String, Object> parameters, String key) {
+        Object value = parameters.get(key);
+        return (value instanceof Boolean) && (Boolean) value;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection.core;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The facts about a collection's coins that CreationParameters needs to work out how the
+ * collection was created
+ *
+ * This can be built from a list of coins, or from a handful of database queries (distinct mints,
+ * a few existence checks and the first and last coins) without loading every coin.
+ */
+public class CoinDataSummary {
+
+    private final Set<String> mMints = new HashSet<>();
+    private boolean mHasPMintSpecialCase = false;
+    private boolean mHasBurnished = false;
+    private boolean mHasFirstTerritory = false;
+    private boolean mHasHideMintMarkCoin = false;
+    private String mFirstIdentifier = null;
+    private String mLastIdentifier = null;
+
+    /**
+     * Builds the summary from a coin list
+     * @param coinType collection type name
+     * @param coinList list of coins in the collection, in sort order
+     * @return summary
+     */
+    public static CoinDataSummary fromCoinList(String coinType, List<? extends CoinRecord<?>> coinList) {
+        CoinDataSummary summary = new CoinDataSummary();
+        for (int i = 0; i < coinList.size(); i++) {
+            String mintMark = coinList.get(i).getMint();
+            String coinId = coinList.get(i).getIdentifier();
+            summary.addMint(mintMark);
+            if (CreationParameters.isPMintSpecialCase(coinType, coinId, mintMark)) {
+                summary.mHasPMintSpecialCase = true;
+            }
+            if (coinId.contains(CreationParameters.BURNISHED_IDENTIFIER_TEXT)) {
+                summary.mHasBurnished = true;
+            }
+            if (coinType.equals(CreationParameters.STATE_QUARTERS_TYPE)
+                    && coinId.equals(CreationParameters.STATE_QUARTERS_FIRST_TERRITORY)) {
+                summary.mHasFirstTerritory = true;
+            }
+            if (CreationParameters.isHideMintMarkSpecialCase(coinType, coinId, mintMark)) {
+                summary.mHasHideMintMarkCoin = true;
+            }
+        }
+        if (coinList.size() > 0) {
+            summary.setFirstAndLastIdentifiers(coinList.get(0).getIdentifier(),
+                    coinList.get(coinList.size() - 1).getIdentifier());
+        }
+        return summary;
+    }
+
+    /**
+     * Records a mint mark used by one or more coins
+     * @param mint mint mark
+     */
+    public void addMint(String mint) {
+        mMints.add(mint);
+    }
+
+    public Set<String> getMints() {
+        return mMints;
+    }
+
+    public boolean hasPMintSpecialCase() {
+        return mHasPMintSpecialCase;
+    }
+
+    public void setHasPMintSpecialCase(boolean hasPMintSpecialCase) {
+        mHasPMintSpecialCase = hasPMintSpecialCase;
+    }
+
+    public boolean hasBurnished() {
+        return mHasBurnished;
+    }
+
+    public void setHasBurnished(boolean hasBurnished) {
+        mHasBurnished = hasBurnished;
+    }
+
+    public boolean hasFirstTerritory() {
+        return mHasFirstTerritory;
+    }
+
+    public void setHasFirstTerritory(boolean hasFirstTerritory) {
+        mHasFirstTerritory = hasFirstTerritory;
+    }
+
+    public boolean hasHideMintMarkCoin() {
+        return mHasHideMintMarkCoin;
+    }
+
+    public void setHasHideMintMarkCoin(boolean hasHideMintMarkCoin) {
+        mHasHideMintMarkCoin = hasHideMintMarkCoin;
+    }
+
+    /**
+     * Sets the identifiers of the first and last coins
+     * @param firstIdentifier identifier of the first coin
+     * @param lastIdentifier identifier of the last coin
+     */
+    public void setFirstAndLastIdentifiers(String firstIdentifier, String lastIdentifier) {
+        mFirstIdentifier = firstIdentifier;
+        mLastIdentifier = lastIdentifier;
+    }
+
+    /**
+     * @return identifier of the first coin, or null if there are no coins
+     */
+    public String getFirstIdentifier() {
+        return mFirstIdentifier;
+    }
+
+    /**
+     * @return identifier of the last coin, or null if there are no coins
+     */
+    public String getLastIdentifier() {
+        return mLastIdentifier;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merges the progress from an existing collection into a newly generated coin list, which
+ * is used when the user edits the creation parameters of a collection
+ */
+public class CoinListMerger {
+
+    /**
+     * Merges an existing coin list into a new coin list
+     * @param newCoinList coins generated from the new creation parameters
+     * @param existingCoinList coins currently in the collection (not modified)
+     * @param hadMintMarks true if the existing collection shows mint marks
+     * @param hasMintMarks true if the new creation parameters show mint marks
+     * @param <T> coin class
+     * @return merged coin list
+     */
+    public static <T extends CoinRecord<T>> ArrayList<T> merge(List<T> newCoinList, List<T> existingCoinList,
+                                                              boolean hadMintMarks, boolean hasMintMarks) {
+        ArrayList<T> existingCoins = new ArrayList<>(existingCoinList);
+        ArrayList<T> mergedCoinList = new ArrayList<>(newCoinList.size() + existingCoins.size());
+
+        // Add any custom coins at the beginning of the list
+        while ((existingCoins.size() != 0) && existingCoins.get(0).isCustomCoin()) {
+            mergedCoinList.add(existingCoins.remove(0));
+        }
+
+        for (int i = 0; i < newCoinList.size(); i++) {
+            T newCoin = newCoinList.get(i);
+            boolean foundExistingCoinMatch = false;
+            for (int j = 0; j < existingCoins.size(); j++) {
+                T existingCoin = existingCoins.get(j);
+
+                // Skip custom coins added by the user, as those may spuriously match
+                if (existingCoin.isCustomCoin()) {
+                    continue;
+                }
+
+                if (!hadMintMarks && hasMintMarks) {
+                    // If going from no mint marks to having mint marks, copy the coin progress
+                    // for the existing identifier into each of the coin mints selected.
+                    if (newCoin.getIdentifier().equals(existingCoin.getIdentifier())) {
+                        foundExistingCoinMatch = true;
+                        newCoin = existingCoin.copy(newCoin.getIdentifier(), newCoin.getMint(), false);
+                        break;
+                    }
+                } else if (hadMintMarks && !hasMintMarks) {
+                    // If going from mint marks to no mint marks, copy at least 1 of the existing
+                    // coin's advanced info and merge the inCollection attribute
+                    if (newCoin.getIdentifier().equals(existingCoin.getIdentifier())) {
+                        existingCoin.setInCollection(existingCoin.isInCollection() || newCoin.isInCollection());
+                        existingCoin.setMint(newCoin.getMint());
+                        foundExistingCoinMatch = true;
+                        newCoin = existingCoin;
+                        // No break here to allow merging across all mints
+                    }
+                } else {
+                    // In all other cases, copy any coins that match identifier and mint
+                    if (newCoin.equals(existingCoin)) {
+                        foundExistingCoinMatch = true;
+                        newCoin = existingCoin;
+                        existingCoins.remove(j);
+                        break;
+                    }
+                }
+            }
+
+            if (foundExistingCoinMatch) {
+                // When a match is found, insert any custom coins with a lower display order ahead
+                // of the match and remove from the list
+                for (int j = 0; j < existingCoins.size(); j++) {
+                    T existingCoin = existingCoins.get(j);
+                    if (existingCoin.isCustomCoin() && existingCoin.getSortOrder() < newCoin.getSortOrder()) {
+                        mergedCoinList.add(existingCoins.remove(j--));
+                    }
+                }
+            }
+            mergedCoinList.add(newCoin);
+        }
+
+        // Add any remaining custom coins to the end of the list
+        for (int j = 0; j < existingCoins.size(); j++) {
+            T existingCoin = existingCoins.get(j);
+            if (existingCoin.isCustomCoin()) {
+                mergedCoinList.add(existingCoin);
+            }
+        }
+        return mergedCoinList;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection.core;
+
+/**
+ * The parts of a coin in a collection that the core logic works with
+ *
+ * The app's CoinSlot implements this, which lets the merge and inference code be used
+ * (and measured) without any Android classes.
+ * @param <T> the implementing class
+ */
+public interface CoinRecord<T extends CoinRecord<T>> {
+
+    String getIdentifier();
+
+    String getMint();
+
+    void setMint(String mint);
+
+    boolean isInCollection();
+
+    void setInCollection(boolean inCollection);
+
+    int getSortOrder();
+
+    boolean isCustomCoin();
+
+    /**
+     * Creates a copy of the coin with a different name and mint mark
+     * @param newIdentifier new coin identifier
+     * @param newMint new mint mark
+     * @param isCustomCoin true if the copy should be marked as a custom coin
+     * @return the new coin
+     */
+    T copy(String newIdentifier, String newMint, boolean isCustomCoin);
+}
@@ -0,0 +1,55 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection.core;
+
+import java.util.HashMap;
+
+/**
+ * Flags stored in the collection_info table describing how a collection was created
+ */
+public class CollectionFlags {
+
+    // Flags for selected mint marks
+    public final static int ALL_MINT_MASK = 0x3F;
+    public final static int SHOW_MINT_MARKS = 0x1;
+    public final static int MINT_P = 0x2;
+    public final static int MINT_D = 0x4;
+    public final static int MINT_S = 0x8;
+    public final static int MINT_O = 0x10;
+    public final static int MINT_CC = 0x20;
+
+    // Flags for show checkboxes options
+    public final static int ALL_CHECKBOXES_MASK = 0x7;
+    public final static int CUSTOM_DATES = 0x1;
+    public final static int BURNISHED = 0x2;
+    public final static int TERRITORIES = 0x4;
+
+    public final static HashMap<String, Integer> MINT_STRING_TO_FLAGS = new HashMap<>();
+
+    static {
+        MINT_STRING_TO_FLAGS.put("P", MINT_P);
+        MINT_STRING_TO_FLAGS.put("D", MINT_D);
+        MINT_STRING_TO_FLAGS.put("S", MINT_S);
+        MINT_STRING_TO_FLAGS.put("O", MINT_O);
+        MINT_STRING_TO_FLAGS.put("CC", MINT_CC);
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection.core;
+
+import java.util.List;
+
+/**
+ * Creation properties of a collection (the date range and mint mark / checkbox flags)
+ *
+ * Collections created before these were stored in the database (and imports from those
+ * versions) don't have them, so fromCoinData works them out from the coins themselves.
+ */
+public class CreationParameters {
+
+    // Collection types with special cases below. These must match the COLLECTION_TYPE of
+    // the corresponding collection classes in the app.
+    public final static String BUFFALO_NICKELS_TYPE = "Buffalo Nickels";
+    public final static String INDIAN_HEAD_CENTS_TYPE = "Indian Head Cents";
+    public final static String MORGAN_DOLLARS_TYPE = "Morgan Dollars";
+    public final static String STATE_QUARTERS_TYPE = "State Quarters";
+    public final static String WALKING_LIBERTY_HALF_DOLLARS_TYPE = "Walking Liberty Half Dollars";
+
+    // First of the State Quarters DC and territory coins
+    public final static String STATE_QUARTERS_FIRST_TERRITORY = "District of Columbia";
+
+    // Burnished coins have this in their identifier
+    public final static String BURNISHED_IDENTIFIER_TEXT = "Burnished";
+
+    // Coins that are only added when the user selected "P" mint marks, as {coin type, identifier,
+    // mint}. A null mint matches any mint.
+    private final static String[][] P_MINT_SPECIAL_CASES = {
+            {BUFFALO_NICKELS_TYPE, "1913", " Type 1"},
+            {INDIAN_HEAD_CENTS_TYPE, "1864", " Copper"},
+            {MORGAN_DOLLARS_TYPE, "1878 8 Feathers", null},
+    };
+
+    // Walking Liberty Half Dollars without a mint mark in these years are only added when the
+    // user didn't check 'show mint marks'
+    public final static int HIDE_MINT_MARKS_FIRST_YEAR = 1923;
+    public final static int HIDE_MINT_MARKS_LAST_YEAR = 1933;
+
+    private final int mStartYear;
+    private final int mEndYear;
+    private final int mMintMarkFlags;
+    private final int mCheckboxFlags;
+
+    /**
+     * Constructor
+     * @param startYear starting year
+     * @param endYear ending year
+     * @param mintMarkFlags CollectionFlags mint mark flags
+     * @param checkboxFlags CollectionFlags checkbox flags
+     */
+    public CreationParameters(int startYear, int endYear, int mintMarkFlags, int checkboxFlags) {
+        mStartYear = startYear;
+        mEndYear = endYear;
+        mMintMarkFlags = mintMarkFlags;
+        mCheckboxFlags = checkboxFlags;
+    }
+
+    public int getStartYear() {
+        return mStartYear;
+    }
+
+    public int getEndYear() {
+        return mEndYear;
+    }
+
+    public int getMintMarkFlags() {
+        return mMintMarkFlags;
+    }
+
+    public int getCheckboxFlags() {
+        return mCheckboxFlags;
+    }
+
+    /**
+     * Works out the creation parameters of an existing collection from its coins
+     * @param coinType collection type name
+     * @param defaultStartYear start year of the collection type
+     * @param defaultEndYear end year of the collection type
+     * @param usesDates true if the collection type supports a custom date range
+     * @param coinList list of coins in the collection, in sort order
+     * @return creation parameters
+     */
+    public static CreationParameters fromCoinData(String coinType, int defaultStartYear, int defaultEndYear,
+                                                  boolean usesDates, List<? extends CoinRecord<?>> coinList) {
+        return fromSummary(coinType, defaultStartYear, defaultEndYear, usesDates,
+                CoinDataSummary.fromCoinList(coinType, coinList));
+    }
+
+    /**
+     * Works out the creation parameters of an existing collection from a summary of its coins
+     * @param coinType collection type name
+     * @param defaultStartYear start year of the collection type
+     * @param defaultEndYear end year of the collection type
+     * @param usesDates true if the collection type supports a custom date range
+     * @param summary summary of the coins in the collection
+     * @return creation parameters
+     */
+    public static CreationParameters fromSummary(String coinType, int defaultStartYear, int defaultEndYear,
+                                                 boolean usesDates, CoinDataSummary summary) {
+        int startYear = defaultStartYear;
+        int endYear = defaultEndYear;
+        boolean showBurnished = summary.hasBurnished();
+        boolean showTerritories = summary.hasFirstTerritory();
+        boolean hasBlankMint = false;
+        boolean showP = summary.hasPMintSpecialCase();
+        boolean showD = false;
+        boolean showS = false;
+        boolean showO = false;
+        boolean showCC = false;
+        boolean hideMintMarksCheckValid = (coinType.equals(WALKING_LIBERTY_HALF_DOLLARS_TYPE));
+        boolean hideMintMarks = summary.hasHideMintMarkCoin();
+
+        for (String mintMark : summary.getMints()) {
+            if (mintMark.equals("")) {
+                hasBlankMint = true;
+            }
+            int mintCode = MintCodes.getMintCode(mintMark);
+            showP = showP || (mintCode & CollectionFlags.MINT_P) != 0;
+            showD = showD || (mintCode & CollectionFlags.MINT_D) != 0;
+            showS = showS || (mintCode & CollectionFlags.MINT_S) != 0;
+            showO = showO || (mintCode & CollectionFlags.MINT_O) != 0;
+            showCC = showCC || (mintCode & CollectionFlags.MINT_CC) != 0;
+        }
+        // Show mint marks if any mint is explicitly displayed
+        boolean showMintMarks = showP || showD || showS || showO || showCC;
+
+        // In certain cases we need to differentiate between "P" and no mints by seeing if a
+        // coin only in the hide mint mark list exists in the collection
+        if (hideMintMarksCheckValid && !hideMintMarks) {
+            showMintMarks = true;
+        }
+
+        // Include P mint mark if the collection has blanks or does not show mint marks
+        showP = showP || hasBlankMint || !showMintMarks;
+
+        // Get the start and end date
+        boolean useCustomDateRange = false;
+        if (usesDates) {
+            if (summary.getFirstIdentifier() != null) {
+                try {
+                    // Start Year
+                    int newStartYear = parseDateString(summary.getFirstIdentifier());
+                    useCustomDateRange = (newStartYear != startYear);
+                    startYear = newStartYear;
+                    // End Year
+                    int newEndYear = parseDateString(summary.getLastIdentifier());
+                    useCustomDateRange |= (newEndYear != endYear);
+                    endYear = newEndYear;
+                } catch (NumberFormatException ignored) {
+                    // If a parsing error occurs for some reason, just use the start/end dates
+                }
+            }
+        }
+
+        // Combine flags for mint marks
+        int mintMarkFlags = showMintMarks ? CollectionFlags.SHOW_MINT_MARKS : 0;
+        mintMarkFlags |= showP ? CollectionFlags.MINT_P : 0;
+        mintMarkFlags |= showD ? CollectionFlags.MINT_D : 0;
+        mintMarkFlags |= showS ? CollectionFlags.MINT_S : 0;
+        mintMarkFlags |= showO ? CollectionFlags.MINT_O : 0;
+        mintMarkFlags |= showCC ? CollectionFlags.MINT_CC : 0;
+
+        // Combine flags for checkboxes
+        int checkboxFlags = useCustomDateRange ? CollectionFlags.CUSTOM_DATES : 0;
+        checkboxFlags |= showBurnished ? CollectionFlags.BURNISHED : 0;
+        checkboxFlags |= showTerritories ? CollectionFlags.TERRITORIES : 0;
+
+        return new CreationParameters(startYear, endYear, mintMarkFlags, checkboxFlags);
+    }
+
+    /**
+     * Parse date string to extract the start/stop year
+     * @param dateStr the data string
+     * @return parsed start/end date
+     * @throws NumberFormatException if the string does not contain a parsable integer.
+     */
+    private static int parseDateString(String dateStr) throws NumberFormatException {
+        if (dateStr.equals("1776-1976")) {
+            return 1976;
+        } else {
+            return Integer.parseInt(dateStr.substring(0, 4));
+        }
+    }
+
+    /**
+     * Detect special cases indicating that the user selected "P" mint marks
+     * @param coinType collection type name
+     * @param coinId coin date or name
+     * @param mintMark coin mint mark
+     * @return true if the coin is a special case P mint mark coin, false otherwise
+     */
+    static boolean isPMintSpecialCase(String coinType, String coinId, String mintMark) {
+        String[] specialCase = getPMintSpecialCase(coinType);
+        return (specialCase != null) && coinId.equals(specialCase[0])
+                && (specialCase[1] == null || specialCase[1].equals(mintMark));
+    }
+
+    /**
+     * Get the coin that indicates the user selected "P" mint marks, for collection types that
+     * have one
+     * @param coinType collection type name
+     * @return {identifier, mint} where a null mint matches any mint, or null if there's none
+     */
+    public static String[] getPMintSpecialCase(String coinType) {
+        for (String[] specialCase : P_MINT_SPECIAL_CASES) {
+            if (specialCase[0].equals(coinType)) {
+                return new String[] {specialCase[1], specialCase[2]};
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Detect special cases indicating that the user did not check 'show mint marks'
+     * @param coinType collection type name
+     * @param coinId coin date or name
+     * @param mintMark coin mint mark
+     * @return true if the coin is a special case of no mint marks, false otherwise
+     */
+    static boolean isHideMintMarkSpecialCase(String coinType, String coinId, String mintMark) {
+        if (coinType.equals(WALKING_LIBERTY_HALF_DOLLARS_TYPE) && mintMark.equals("")) {
+            int dateInt = Integer.parseInt(coinId.substring(0, 4));
+            return (dateInt >= HIDE_MINT_MARKS_FIRST_YEAR && dateInt <= HIDE_MINT_MARKS_LAST_YEAR);
+        }
+        return false;
+    }
+}
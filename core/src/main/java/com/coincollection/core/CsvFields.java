@@ -0,0 +1,75 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection.core;
+
+/**
+ * Helpers for reading the fields of an imported CSV line
+ *
+ * Older exports have fewer columns than newer ones, so fields that are missing (or empty)
+ * read as the supplied default.
+ */
+public class CsvFields {
+
+    /**
+     * Returns true if a field is present in a CSV line
+     * @param in CSV line
+     * @param index field position
+     * @return true if the field at the index is present and not empty
+     */
+    public static boolean isPresent(String[] in, int index) {
+        return in.length > index && in[index].length() != 0;
+    }
+
+    /**
+     * Gets a string field
+     * @param in CSV line
+     * @param index field position
+     * @param defaultValue value to use if the field isn't present
+     * @return field value
+     */
+    public static String getString(String[] in, int index, String defaultValue) {
+        return isPresent(in, index) ? in[index] : defaultValue;
+    }
+
+    /**
+     * Gets an integer field
+     * @param in CSV line
+     * @param index field position
+     * @param defaultValue value to use if the field isn't present
+     * @return field value
+     * @throws NumberFormatException if the field isn't an integer
+     */
+    public static int getInt(String[] in, int index, int defaultValue) throws NumberFormatException {
+        return isPresent(in, index) ? Integer.parseInt(in[index]) : defaultValue;
+    }
+
+    /**
+     * Gets a boolean field stored as an integer (0 or 1)
+     * @param in CSV line
+     * @param index field position
+     * @return true if the field is present and not 0
+     * @throws NumberFormatException if the field isn't an integer
+     */
+    public static boolean getFlag(String[] in, int index) throws NumberFormatException {
+        return isPresent(in, index) && (Integer.parseInt(in[index]) != 0);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.coincollection.core;
+
+import static com.coincollection.core.CollectionFlags.MINT_CC;
+import static com.coincollection.core.CollectionFlags.MINT_D;
+import static com.coincollection.core.CollectionFlags.MINT_O;
+import static com.coincollection.core.CollectionFlags.MINT_P;
+import static com.coincollection.core.CollectionFlags.MINT_S;
+
+/**
+ * Splits a coin's mint string into a mint code and a variety
+ *
+ * The mint code is a bitmask of the CollectionFlags mint flags and the variety is whatever is
+ * left over (Ex: " D Type 1" has mint code MINT_D and variety "Type 1"). These are stored
+ * alongside the mint string so that mint lookups can be done with integer comparisons.
+ */
+public class MintCodes {
+
+    /** Mint code of coins without a mint mark */
+    public final static int NO_MINT = 0;
+
+    // Mint mark strings and their mint codes
+    private final static String[] MINT_NAMES = {"P", "D", "S", "O", "CC"};
+    private final static int[] MINT_FLAGS = {MINT_P, MINT_D, MINT_S, MINT_O, MINT_CC};
+
+    /**
+     * Gets the mint code for a mint string
+     * @param mint coin mint (Ex: "D" or " S Type 1")
+     * @return mint code bitmask
+     */
+    public static int getMintCode(String mint) {
+        int mintCode = NO_MINT;
+        if (mint == null) {
+            return mintCode;
+        }
+        for (int i = 0; i < MINT_NAMES.length; i++) {
+            String name = MINT_NAMES[i];
+            if (mint.equals(name) || mint.equals(" " + name) || mint.contains(" " + name + " ")) {
+                mintCode |= MINT_FLAGS[i];
+            }
+        }
+        return mintCode;
+    }
+
+    /**
+     * Gets the variety part of a mint string, with the mint marks removed
+     * @param mint coin mint (Ex: " D Type 1")
+     * @return variety (Ex: "Type 1") or "" if none
+     */
+    public static String getVariety(String mint) {
+        if (mint == null) {
+            return "";
+        }
+        int mintCode = getMintCode(mint);
+        StringBuilder variety = new StringBuilder();
+        for (String word : mint.trim().split(" +")) {
+            if (word.length() == 0 || (mintCode & getMintCodeForName(word)) != 0) {
+                continue;
+            }
+            if (variety.length() != 0) {
+                variety.append(' ');
+            }
+            variety.append(word);
+        }
+        return variety.toString();
+    }
+
+    /**
+     * Gets the mint mark name for a mint code
+     * @param mintCode mint code
+     * @return mint mark (Ex: "D") or "" if the code isn't a single mint mark
+     */
+    public static String getMintName(int mintCode) {
+        for (int i = 0; i < MINT_FLAGS.length; i++) {
+            if (MINT_FLAGS[i] == mintCode) {
+                return MINT_NAMES[i];
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Gets the SQL expression that maps a mint code column to its mint mark name
+     * @param column mint code column name
+     * @return SQL CASE expression
+     */
+    public static String getMintNameSqlExpression(String column) {
+        StringBuilder expression = new StringBuilder("CASE " + column);
+        for (int i = 0; i < MINT_FLAGS.length; i++) {
+            expression.append(" WHEN ").append(MINT_FLAGS[i]).append(" THEN '").append(MINT_NAMES[i]).append("'");
+        }
+        return expression.append(" ELSE '' END").toString();
+    }
+
+    /**
+     * Gets the mint code for a single mint mark
+     * @param name mint mark (Ex: "D")
+     * @return mint code or NO_MINT if not a mint mark
+     */
+    private static int getMintCodeForName(String name) {
+        for (int i = 0; i < MINT_NAMES.length; i++) {
+            if (MINT_NAMES[i].equals(name)) {
+                return MINT_FLAGS[i];
+            }
+        }
+        return NO_MINT;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Coin Collection, an Android app that helps users track the coins that they've collected
+ * Copyright (C) 2010-2016 Andrew Williams
+ *
+ * This file is part of Coin Collection.
+ *
+ * Coin Collection is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Coin Collection is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Coin Collection.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.coincollection.core.CoinListMerger;
+import com.coincollection.core.CoinRecord;
+import com.coincollection.core.CollectionFlags;
+import com.coincollection.core.CreationParameters;
+import com.coincollection.core.CsvFields;
+import com.coincollection.core.MintCodes;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CoreLogicTests {
+
+    /**
+     * Minimal coin used to exercise the core logic without the app's CoinSlot
+     */
+    static class TestCoin implements CoinRecord<TestCoin> {
+        String mIdentifier;
+        String mMint;
+        boolean mInCollection;
+        int mSortOrder;
+        boolean mCustomCoin;
+
+        TestCoin(String identifier, String mint, boolean inCollection, int sortOrder, boolean customCoin) {
+            mIdentifier = identifier;
+            mMint = mint;
+            mInCollection = inCollection;
+            mSortOrder = sortOrder;
+            mCustomCoin = customCoin;
+        }
+
+        public String getIdentifier() { return mIdentifier; }
+        public String getMint() { return mMint; }
+        public void setMint(String mint) { mMint = mint; }
+        public boolean isInCollection() { return mInCollection; }
+        public void setInCollection(boolean inCollection) { mInCollection = inCollection; }
+        public int getSortOrder() { return mSortOrder; }
+        public boolean isCustomCoin() { return mCustomCoin; }
+
+        public TestCoin copy(String newIdentifier, String newMint, boolean isCustomCoin) {
+            return new TestCoin(newIdentifier, newMint, mInCollection, mSortOrder + 1, isCustomCoin);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TestCoin coin = (TestCoin) o;
+            return mIdentifier.equals(coin.mIdentifier) && mMint.equals(coin.mMint);
+        }
+    }
+
+    private static List<TestCoin> coins(String... identifierMints) {
+        ArrayList<TestCoin> coinList = new ArrayList<>();
+        for (int i = 0; i < identifierMints.length; i += 2) {
+            coinList.add(new TestCoin(identifierMints[i], identifierMints[i + 1], false, i / 2, false));
+        }
+        return coinList;
+    }
+
+    /**
+     * Test that progress and custom coins are kept when a collection is regenerated
+     */
+    @Test
+    public void test_mergeKeepsProgressAndCustomCoins() {
+        List<TestCoin> existing = coins("2000", "P", "2000", "D", "2001", "P");
+        existing.get(1).setInCollection(true);
+        existing.add(2, new TestCoin("2000 Error", "", true, 1, true));
+        List<TestCoin> newCoins = coins("2000", "P", "2000", "D", "2001", "P", "2002", "P");
+
+        List<TestCoin> merged = CoinListMerger.merge(newCoins, existing, true, true);
+        assertEquals(5, merged.size());
+        // The custom coin stays after the coins that were ahead of it
+        assertTrue(merged.get(1).isInCollection());
+        assertEquals("2000 Error", merged.get(2).getIdentifier());
+        assertEquals("2002", merged.get(4).getIdentifier());
+        // The existing list isn't modified
+        assertEquals(4, existing.size());
+    }
+
+    /**
+     * Test merging when mint marks are turned on and off
+     */
+    @Test
+    public void test_mergeMintMarkChanges() {
+        List<TestCoin> existing = coins("2000", "");
+        existing.get(0).setInCollection(true);
+        List<TestCoin> merged = CoinListMerger.merge(coins("2000", "P", "2000", "D"), existing, false, true);
+        assertEquals(2, merged.size());
+        assertTrue(merged.get(0).isInCollection());
+        assertTrue(merged.get(1).isInCollection());
+
+        existing = coins("2000", "P", "2000", "D");
+        existing.get(1).setInCollection(true);
+        merged = CoinListMerger.merge(coins("2000", ""), existing, true, false);
+        assertEquals(1, merged.size());
+        assertEquals("", merged.get(0).getMint());
+        assertTrue(merged.get(0).isInCollection());
+    }
+
+    /**
+     * Test inferring the creation parameters from a collection's coins
+     */
+    @Test
+    public void test_creationParametersFromCoinData() {
+        CreationParameters params = CreationParameters.fromCoinData("Pennies", 1909, 2022, true,
+                coins("1950", "", "1950", "D", "1960", "S"));
+        assertEquals(1950, params.getStartYear());
+        assertEquals(1960, params.getEndYear());
+        assertEquals(CollectionFlags.SHOW_MINT_MARKS | CollectionFlags.MINT_P | CollectionFlags.MINT_D
+                | CollectionFlags.MINT_S, params.getMintMarkFlags());
+        assertEquals(CollectionFlags.CUSTOM_DATES, params.getCheckboxFlags());
+
+        params = CreationParameters.fromCoinData(CreationParameters.STATE_QUARTERS_TYPE, 1999, 2008, false,
+                coins("Delaware", "", CreationParameters.STATE_QUARTERS_FIRST_TERRITORY, ""));
+        assertEquals(1999, params.getStartYear());
+        assertEquals(CollectionFlags.MINT_P, params.getMintMarkFlags());
+        assertEquals(CollectionFlags.TERRITORIES, params.getCheckboxFlags());
+    }
+
+    /**
+     * Test reading fields from CSV lines of different lengths
+     */
+    @Test
+    public void test_csvFields() {
+        String[] line = {"2000", "", "1"};
+        assertEquals("2000", CsvFields.getString(line, 0, "x"));
+        assertEquals("x", CsvFields.getString(line, 1, "x"));
+        assertTrue(CsvFields.getFlag(line, 2));
+        assertFalse(CsvFields.getFlag(line, 3));
+        assertEquals(7, CsvFields.getInt(line, 5, 7));
+    }
+
+    /**
+     * Test splitting mint strings into mint codes and varieties
+     */
+    @Test
+    public void test_mintCodes() {
+        assertEquals(MintCodes.NO_MINT, MintCodes.getMintCode(""));
+        assertEquals(CollectionFlags.MINT_P, MintCodes.getMintCode(" P"));
+        assertEquals(CollectionFlags.MINT_CC, MintCodes.getMintCode("CC"));
+        assertEquals(CollectionFlags.MINT_D, MintCodes.getMintCode(" D Type 1"));
+        assertEquals("Type 1", MintCodes.getVariety(" D Type 1"));
+        assertEquals(MintCodes.NO_MINT, MintCodes.getMintCode(" Copper"));
+        assertEquals("Copper", MintCodes.getVariety(" Copper"));
+        assertEquals("", MintCodes.getVariety("S"));
+        assertEquals("D", MintCodes.getMintName(CollectionFlags.MINT_D));
+        assertEquals("", MintCodes.getMintName(MintCodes.NO_MINT));
+    }
+}
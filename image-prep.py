@@ -10,6 +10,10 @@
 # - Replace /tmp/cc_images_pre with the path to the files you want to process
 # - Images will end up in /tmp/cc_images
 # - Tested with gimp version 2.8.16 and python 2.7.12
+# - Alternatively, images can be placed in app/src/coinImages and the app's
+#   generateCoinThumbnails Gradle task will create WebP images for each
+#   screen density (see app/coin-images.gradle). This only works for images
+#   without transparency until minSdkVersion is raised to 18
 
 import os
 from gimpfu import *